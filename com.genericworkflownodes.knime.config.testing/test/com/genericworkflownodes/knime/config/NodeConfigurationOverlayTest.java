@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
+import com.genericworkflownodes.knime.parameter.IFileParameter;
+import com.genericworkflownodes.knime.parameter.Parameter;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+
+/**
+ * Test for {@link NodeConfigurationOverlay}.
+ */
+public class NodeConfigurationOverlayTest {
+
+    private static final String THREADS = "FileFilter.1.threads";
+
+    private INodeConfiguration m_template;
+
+    @Before
+    public void setUp() throws Exception {
+        m_template = new CTDConfigurationReader().read(TestDataSource.class
+                .getResourceAsStream("FileFilter.ctd"));
+    }
+
+    @Test
+    public void testCopyOnWrite() throws Exception {
+        NodeConfigurationOverlay a = new NodeConfigurationOverlay(m_template);
+        NodeConfigurationOverlay b = new NodeConfigurationOverlay(m_template);
+        assertEquals(0, a.getNumberOfOverrides());
+        assertSame(m_template.getParameter(THREADS), a.peekParameter(THREADS));
+        assertEquals(m_template.getParameterKeys(), a.getParameterKeys());
+        assertEquals(m_template.getName(), a.getName());
+        assertSame(m_template.getCLI(), a.getCLI());
+
+        Parameter<?> p = a.getParameter(THREADS);
+        assertNotSame(m_template.getParameter(THREADS), p);
+        assertSame(p, a.getParameter(THREADS));
+        p.fillFromString("4");
+
+        assertTrue(a.isOverridden(THREADS));
+        assertEquals(1, a.getNumberOfOverrides());
+        assertEquals("4", a.peekParameter(THREADS).getStringRep());
+        assertEquals("1", b.peekParameter(THREADS).getStringRep());
+        assertEquals("1", m_template.getParameter(THREADS).getStringRep());
+
+        a.resetParameter(THREADS);
+        assertEquals("1", a.peekParameter(THREADS).getStringRep());
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        NodeConfigurationOverlay overlay = new NodeConfigurationOverlay(
+                m_template);
+        overlay.getParameters();
+        assertEquals(m_template.getParameterKeys().size(),
+                overlay.getNumberOfOverrides());
+        overlay.getParameter(THREADS).fillFromString("4");
+
+        overlay.compact();
+        assertEquals(1, overlay.getNumberOfOverrides());
+        assertEquals("4", overlay.peekParameter(THREADS).getStringRep());
+    }
+
+    @Test
+    public void testPortsArePerNode() throws Exception {
+        NodeConfigurationOverlay a = new NodeConfigurationOverlay(m_template);
+        NodeConfigurationOverlay b = NodeConfigurationOverlay.of(m_template);
+        assertSame(a, NodeConfigurationOverlay.of(a));
+        assertEquals(m_template.getNumberOfOutputPorts(),
+                a.getNumberOfOutputPorts());
+
+        a.getOutputPorts().get(0).setUserBasename("custom");
+        assertEquals("custom", a.getOutputPortByName(
+                m_template.getOutputPorts().get(0).getName())
+                .getUserBasename());
+        assertFalse("custom".equals(b.getOutputPorts().get(0)
+                .getUserBasename()));
+        assertFalse("custom".equals(m_template.getOutputPorts().get(0)
+                .getUserBasename()));
+    }
+
+    @Test
+    public void testFileParametersUseOwnPorts() throws Exception {
+        NodeConfigurationOverlay overlay = new NodeConfigurationOverlay(
+                m_template);
+        String out = m_template.getOutputPorts().get(0).getName();
+        assertSame(overlay.getOutputPortByName(out),
+                ((IFileParameter) overlay.getParameter(out)).getPort());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+
+/**
+ * Test for {@link ParameterIndex}.
+ */
+public class ParameterIndexTest {
+
+    private static final List<String> KEYS = Arrays.asList("T.1.in",
+            "T.1.algo.a", "T.1.algo.sub.b", "T.1.algo.c", "T.1.out", "flat");
+
+    @Test
+    public void testSections() {
+        ParameterIndex index = ParameterIndex.create(KEYS);
+        assertEquals(KEYS, index.getKeys());
+        assertTrue(index.containsKey("T.1.algo.sub.b"));
+        assertFalse(index.containsKey("T.1.algo"));
+        assertEquals(3, index.indexOf("T.1.algo.c"));
+
+        ParameterIndex.Section algo = index.getSection("T.1.algo");
+        assertEquals("algo", algo.getName());
+        assertEquals(3, algo.getDepth());
+        assertEquals(Arrays.asList("T.1.algo.a", "T.1.algo.c"), algo.getKeys());
+        assertEquals(Arrays.asList("T.1.algo.a", "T.1.algo.sub.b",
+                "T.1.algo.c"), algo.getSubtreeKeys());
+        assertSame(algo, index.getSectionOf("T.1.algo.c"));
+        assertSame(algo, index.getSection("T.1.algo.sub").getParent());
+        assertSame(index.getSection("T"), algo.getAncestor(1));
+        assertNull(index.getSection("T.2"));
+
+        assertSame(index.getRoot(), index.getSectionOf("flat"));
+        assertEquals(KEYS, index.getRoot().getSubtreeKeys());
+        assertEquals(1, index.getRoot().getChildren().size());
+    }
+
+    @Test
+    public void testCommonDepths() {
+        ParameterIndex index = ParameterIndex.create(KEYS);
+        int[] expected = { 0, 2, 3, 3, 2, 0 };
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(KEYS.get(i), expected[i], index.getCommonDepth(i));
+        }
+    }
+
+    @Test
+    public void testNodeConfiguration() throws Exception {
+        INodeConfiguration config = new CTDConfigurationReader()
+                .read(TestDataSource.class.getResourceAsStream("FileFilter.ctd"));
+        ParameterIndex index = config.getParameterIndex();
+        assertSame(index, config.getParameterIndex());
+        assertEquals(config.getParameterKeys(), index.getKeys());
+        assertTrue(index.containsKey("FileFilter.1.threads"));
+        assertEquals("FileFilter.1",
+                index.getSectionOf("FileFilter.1.threads").getPath());
+        assertSame(index,
+                new NodeConfigurationOverlay(config).getParameterIndex());
+    }
+}
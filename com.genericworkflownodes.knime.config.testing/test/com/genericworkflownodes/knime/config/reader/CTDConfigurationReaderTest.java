@@ -22,11 +22,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.lang.SerializationUtils;
 import org.junit.Test;
 
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfiguration;
 import com.genericworkflownodes.knime.parameter.FileListParameter;
 import com.genericworkflownodes.knime.parameter.FileParameter;
 import com.genericworkflownodes.knime.parameter.IntegerListParameter;
@@ -204,4 +214,79 @@ public class CTDConfigurationReaderTest {
         assertNull(config.getParameter("sam2matrix.mapping-file-ext"));
         assertNull(config.getParameter("sam2matrix.reads-file-ext"));
     }
+
+    @Test
+    public void testReadAll() throws Exception {
+        String[] names = { "FeatureLinkerUnlabeled.ctd", "FileFilter.ctd",
+                "TMTAnalyzer.ctd" };
+        List<Path> paths = new ArrayList<Path>();
+        for (int i = 0; i < 8; ++i) {
+            for (String name : names) {
+                paths.add(Paths.get(TestDataSource.class.getResource(name)
+                        .toURI()));
+            }
+        }
+        CTDConfigurationReader reader = new CTDConfigurationReader();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<INodeConfiguration> configs;
+        try {
+            configs = reader.readAll(paths, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        // duplicate paths yield one configuration each, in input order
+        assertEquals(paths.size(), configs.size());
+        for (int i = 0; i < paths.size(); ++i) {
+            assertEquals(reader.read(paths.get(i)).getName(), configs.get(i)
+                    .getName());
+        }
+        assertEquals("File Handling", configs.get(1).getCategory());
+        assertEquals("File Handling", configs.get(4).getCategory());
+    }
+
+    @Test
+    public void testReadAllDefaultPool() throws Exception {
+        List<Path> paths = new ArrayList<Path>();
+        paths.add(Paths.get(TestDataSource.class.getResource("FileFilter.ctd")
+                .toURI()));
+        paths.add(Paths.get(TestDataSource.class.getResource(
+                "TMTAnalyzer.ctd").toURI()));
+
+        List<INodeConfiguration> configs = new CTDConfigurationReader()
+                .readAll(paths);
+        assertEquals(2, configs.size());
+        assertEquals("FileFilter", configs.get(0).getName());
+        assertEquals("TMTAnalyzer", configs.get(1).getName());
+    }
+
+    @Test(expected = InvalidCTDFileException.class)
+    public void testReadAllInvalid() throws Exception {
+        List<Path> paths = new ArrayList<Path>();
+        paths.add(Paths.get(TestDataSource.class.getResource("FileFilter.ctd")
+                .toURI()));
+        paths.add(Paths.get("does-not-exist.ctd"));
+        new CTDConfigurationReader().readAll(paths);
+    }
+
+    @Test
+    public void testSharedTexts() throws Exception {
+        Path ctd = Paths.get(TestDataSource.class.getResource("FileFilter.ctd")
+                .toURI());
+        CTDConfigurationReader reader = new CTDConfigurationReader();
+        INodeConfiguration a = reader.read(ctd);
+        INodeConfiguration b = reader.read(ctd);
+
+        assertSame(a.getManual(), b.getManual());
+        assertSame(a.getParameter("FileFilter.1.threads").getDescription(), b
+                .getParameter("FileFilter.1.threads").getDescription());
+        assertNotNull(a.getSectionDescription("FileFilter.1"));
+
+        INodeConfiguration copy = (INodeConfiguration) SerializationUtils
+                .clone((NodeConfiguration) a);
+        assertSame(a.getManual(), copy.getManual());
+        assertEquals(a.getDescription(), copy.getDescription());
+        assertEquals(a.getSectionDescription("FileFilter.1"),
+                copy.getSectionDescription("FileFilter.1"));
+    }
 }
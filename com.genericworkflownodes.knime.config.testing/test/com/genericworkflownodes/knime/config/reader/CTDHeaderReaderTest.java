@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+
+/**
+ * Test for {@link CTDHeaderReader}.
+ */
+public class CTDHeaderReaderTest {
+
+    @Test
+    public void testMatchesFullParse() throws Exception {
+        for (String name : new String[] { "FeatureLinkerUnlabeled.ctd",
+                "FileFilter.ctd", "TMTAnalyzer.ctd" }) {
+            INodeConfiguration config = new CTDConfigurationReader()
+                    .read(TestDataSource.class.getResourceAsStream(name));
+            CTDHeader header = new CTDHeaderReader().read(TestDataSource.class
+                    .getResourceAsStream(name));
+
+            assertEquals(config.getName(), header.getName());
+            assertEquals(config.getVersion(), header.getVersion());
+            assertEquals(config.getCategory(), header.getCategory());
+            assertEquals(config.getDocUrl(), header.getDocUrl());
+            assertEquals(config.getDescription(), header.getDescription());
+        }
+    }
+
+    @Test
+    public void testHeaderOnly() throws Exception {
+        // the document is malformed after the header, which is never read
+        String ctd = "<?xml version=\"1.0\"?>\n"
+                + "<tool name=\"t\" version=\"1.0\" category=\"A/B\">"
+                + "<description><![CDATA[desc]]></description>"
+                + "<executableName>tool.sh</executableName>"
+                + "<PARAMETERS><NODE></PARAM";
+        CTDHeader header = new CTDHeaderReader().read(new ByteArrayInputStream(
+                ctd.getBytes("UTF-8")));
+        assertEquals("t", header.getName());
+        assertEquals("1.0", header.getVersion());
+        assertEquals("A/B", header.getCategory());
+        assertEquals("", header.getDocUrl());
+        assertEquals("desc", header.getDescription());
+        assertEquals("tool.sh", header.getExecutableName());
+    }
+
+    @Test(expected = InvalidCTDFileException.class)
+    public void testMissingName() throws Exception {
+        new CTDHeaderReader().read(new ByteArrayInputStream(
+                "<tool version=\"1.0\"/>".getBytes("UTF-8")));
+    }
+}
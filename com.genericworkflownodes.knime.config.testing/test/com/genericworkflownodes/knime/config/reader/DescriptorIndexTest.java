@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.port.Port;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+import com.genericworkflownodes.util.FileFingerprintIndex;
+
+/**
+ * Test for {@link DescriptorIndex}.
+ */
+public class DescriptorIndexTest {
+
+    private static final String[] CTDS = { "FeatureLinkerUnlabeled.ctd",
+            "FileFilter.ctd", "TMTAnalyzer.ctd" };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void assertPortsEqual(List<Port> expected, List<Port> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).isOptional(), actual.get(i)
+                    .isOptional());
+            assertEquals(expected.get(i).isMultiFile(), actual.get(i)
+                    .isMultiFile());
+            assertEquals(expected.get(i).getMimeTypes(), actual.get(i)
+                    .getMimeTypes());
+        }
+    }
+
+    @Test
+    public void testGenerateAndRead() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        for (String name : CTDS) {
+            InputStream in = TestDataSource.class.getResourceAsStream(name);
+            try {
+                Files.copy(in, dir.resolve(name));
+            } finally {
+                in.close();
+            }
+        }
+
+        DescriptorIndex.generate(dir);
+        InputStream in = Files.newInputStream(dir
+                .resolve(DescriptorIndex.FILE_NAME));
+        DescriptorIndex index;
+        try {
+            index = DescriptorIndex.read(in);
+        } finally {
+            in.close();
+        }
+
+        assertEquals(CTDS.length, index.getEntries().size());
+        for (String name : CTDS) {
+            INodeConfiguration config = new CTDConfigurationReader().read(dir
+                    .resolve(name));
+            DescriptorIndex.Entry entry = index.getEntry(name);
+            assertNotNull(entry);
+            assertEquals(config.getName(), entry.getName());
+            assertEquals(config.getCategory(), entry.getCategory());
+            assertEquals(FileFingerprintIndex.hash(dir.resolve(name)),
+                    entry.getHash());
+            assertPortsEqual(config.getInputPorts(), entry.getInputPorts());
+            assertPortsEqual(config.getOutputPorts(), entry.getOutputPorts());
+        }
+        assertEquals("Map Alignment",
+                index.getEntry("FeatureLinkerUnlabeled.ctd").getCategory());
+        assertNull(index.getEntry("missing.ctd"));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.parameter.FileParameter;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+
+/**
+ * Test for {@link NodeConfigurationCache}.
+ */
+public class NodeConfigurationCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Counts the CTDs actually parsed.
+     */
+    private static class CountingReader extends CTDConfigurationReader {
+        private int m_reads;
+
+        @Override
+        public INodeConfiguration read(Path ctd)
+                throws InvalidCTDFileException {
+            ++m_reads;
+            return super.read(ctd);
+        }
+    }
+
+    private Path copyCTD(String name) throws Exception {
+        Path ctd = folder.getRoot().toPath().resolve(name);
+        InputStream in = TestDataSource.class.getResourceAsStream(name);
+        try {
+            Files.copy(in, ctd, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            in.close();
+        }
+        return ctd;
+    }
+
+    @Test
+    public void testPersistentCache() throws Exception {
+        Path ctd = copyCTD("FileFilter.ctd");
+        Path cacheFile = folder.getRoot().toPath().resolve("cache/ctd.cache");
+        CountingReader reader = new CountingReader();
+
+        NodeConfigurationCache cache = new NodeConfigurationCache(cacheFile,
+                "1.0.0", 10);
+        INodeConfiguration parsed = cache.read(ctd, reader);
+        assertEquals(1, reader.m_reads);
+        assertEquals(1, cache.size());
+        assertTrue(cache.isModified());
+        cache.save();
+        assertFalse(cache.isModified());
+
+        cache = new NodeConfigurationCache(cacheFile, "1.0.0", 10);
+        assertEquals(1, cache.size());
+        INodeConfiguration cached = cache.read(ctd, reader);
+        assertEquals(1, reader.m_reads);
+        assertEquals(parsed.getName(), cached.getName());
+        assertEquals(parsed.getCategory(), cached.getCategory());
+        assertEquals(parsed.getParameterKeys(), cached.getParameterKeys());
+        assertEquals("temp",
+                ((FileParameter) cached.getParameter("FileFilter.1.in"))
+                        .getValue());
+        assertEquals(parsed.getCLI().getCLIElement().size(), cached.getCLI()
+                .getCLIElement().size());
+
+        // another version discards the cache
+        cache = new NodeConfigurationCache(cacheFile, "1.1.0", 10);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testChangedCTD() throws Exception {
+        Path ctd = copyCTD("FileFilter.ctd");
+        CountingReader reader = new CountingReader();
+        NodeConfigurationCache cache = new NodeConfigurationCache(folder
+                .getRoot().toPath().resolve("ctd.cache"), "1.0.0", 10);
+
+        cache.read(ctd, reader);
+        cache.read(ctd, reader);
+        assertEquals(1, reader.m_reads);
+
+        Files.copy(TestDataSource.class
+                .getResourceAsStream("FeatureLinkerUnlabeled.ctd"), ctd,
+                StandardCopyOption.REPLACE_EXISTING);
+        INodeConfiguration config = cache.read(ctd, reader);
+        assertEquals(2, reader.m_reads);
+        assertEquals("Map Alignment", config.getCategory());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCorruptCache() throws Exception {
+        Path cacheFile = folder.getRoot().toPath().resolve("ctd.cache");
+        Files.write(cacheFile, new byte[] { 0x47, 0x4b, 0x4e, 0x43, 0, 0, 0 });
+        NodeConfigurationCache cache = new NodeConfigurationCache(cacheFile,
+                "1.0.0", 10);
+        assertEquals(0, cache.size());
+    }
+}
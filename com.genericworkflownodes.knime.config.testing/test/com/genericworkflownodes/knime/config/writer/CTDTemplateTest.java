@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
+import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
+import com.genericworkflownodes.knime.test.data.TestDataSource;
+
+/**
+ * Test for {@link CTDTemplate}.
+ */
+public class CTDTemplateTest {
+
+    private static INodeConfiguration read(String name) throws Exception {
+        return new CTDConfigurationReader().read(TestDataSource.class
+                .getResourceAsStream(name));
+    }
+
+    private static String write(CTDTemplate template, INodeConfiguration config)
+            throws IOException {
+        return write(template, config, null);
+    }
+
+    private static String write(CTDTemplate template,
+            INodeConfiguration config, CTDTemplate.Renderings renderings)
+            throws IOException {
+        File tmp = File.createTempFile("testing_", ".ini");
+        tmp.deleteOnExit();
+        template.write(config, renderings, tmp);
+        return new String(Files.readAllBytes(tmp.toPath()), "UTF-8");
+    }
+
+    private static String write(INodeConfiguration config,
+            boolean ignoreUnusedParameters) throws IOException {
+        File tmp = File.createTempFile("testing_", ".ini");
+        tmp.deleteOnExit();
+        CTDConfigurationWriter writer = new CTDConfigurationWriter(tmp);
+        writer.setIgnoreUnusedParameters(ignoreUnusedParameters);
+        writer.write(config);
+        return new String(Files.readAllBytes(tmp.toPath()), "UTF-8");
+    }
+
+    @Test
+    public void testSameOutputAsWriter() throws Exception {
+        for (String name : new String[] { "FileFilter.ctd",
+                "FeatureLinkerUnlabeled.ctd", "TMTAnalyzer.ctd" }) {
+            INodeConfiguration config = read(name);
+            for (boolean ignore : new boolean[] { true, false }) {
+                CTDTemplate template = CTDTemplate.compile(config, ignore);
+                assertEquals(ignore, template.isIgnoreUnusedParameters());
+                assertEquals(name, write(config, ignore),
+                        write(template, config));
+            }
+        }
+    }
+
+    @Test
+    public void testChangedValues() throws Exception {
+        INodeConfiguration shared = read("TMTAnalyzer.ctd");
+        CTDTemplate template = CTDTemplate.compile(shared, true);
+        NodeConfigurationOverlay config = new NodeConfigurationOverlay(shared);
+        assertTrue(template.matches(config));
+        assertFalse(template.matches(read("TMTAnalyzer.ctd")));
+        CTDTemplate.Renderings renderings = template.newRenderings();
+        assertEquals(write(config, true), write(template, config, renderings));
+
+        config.getParameter("TMTAnalyzer.1.in").fillFromString("a&b.mzML");
+        config.getParameter("TMTAnalyzer.1.out_stats").fillFromString(
+                "stats.tsv");
+        config.getOutputPortByName("TMTAnalyzer.1.out_stats").setActive(false);
+        String ini = write(template, config, renderings);
+        assertEquals(write(config, true), ini);
+        assertEquals(write(template, config), ini);
+        assertTrue(ini.contains("value=\"a&amp;b.mzML\""));
+        assertFalse(ini.contains("stats.tsv"));
+
+        config.getParameter("TMTAnalyzer.1.threads").fillFromString("8");
+        config.getOutputPortByName("TMTAnalyzer.1.out_stats").setActive(true);
+        ini = write(template, config, renderings);
+        assertEquals(write(config, true), ini);
+        assertEquals(write(template, config), ini);
+        assertTrue(ini.contains("<ITEM name=\"threads\" value=\"8\""));
+        assertTrue(ini.contains("value=\"stats.tsv\""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignRenderings() throws Exception {
+        INodeConfiguration shared = read("TMTAnalyzer.ctd");
+        CTDTemplate template = CTDTemplate.compile(shared, true);
+        CTDTemplate other = CTDTemplate.compile(shared, false);
+        write(template, shared, other.newRenderings());
+    }
+}
@@ -18,10 +18,12 @@
  */
 package com.genericworkflownodes.knime.parameter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 import org.junit.Test;
 
@@ -124,4 +126,39 @@ public class DoubleListParameterTest {
         assertEquals("[2.0, 3.0, 4.0]", dlp.toString());
     }
 
+    @Test
+    public void testPrimitiveValues() throws InvalidParameterValueException {
+        DoubleListParameter dlp = new DoubleListParameter("dlp", null);
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i * 0.25 - 1000;
+        }
+        dlp.setValue(values);
+        assertArrayEquals(values, dlp.toDoubleArray(), 0.0);
+
+        DoubleListParameter copy = new DoubleListParameter("copy", null);
+        copy.fillFromString(dlp.getStringRep());
+        assertArrayEquals(values, copy.toDoubleArray(), 0.0);
+
+        copy.getValue().add(7.5);
+        assertEquals(values.length + 1, copy.toDoubleArray().length);
+        assertEquals(new Double(7.5), copy.getValue().get(values.length));
+    }
+
+    @Test
+    public void testFormatLikeStringFormat()
+            throws InvalidParameterValueException {
+        double[] values = { 0.1 + 0.2, -0.0, -12.5, 1e-7, 0.0000005,
+                123456.789012, 1e12, 3.14159265358979, Double.NaN };
+        DoubleListParameter dlp = new DoubleListParameter("dlp", null);
+        dlp.setValue(values);
+        List<String> strings = dlp.getStrings();
+        for (int i = 0; i < values.length; ++i) {
+            assertEquals(String.format(Locale.ENGLISH, "%f", values[i]),
+                    strings.get(i));
+        }
+        dlp.fillFromString("1e3@@@__@@@-.5@@@__@@@0.30000000000000004@@@__@@@");
+        assertArrayEquals(new double[] { 1000, -0.5, 0.1 + 0.2 },
+                dlp.toDoubleArray(), 0.0);
+    }
 }
@@ -18,6 +18,7 @@
  */
 package com.genericworkflownodes.knime.parameter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
@@ -123,4 +124,31 @@ public class IntegerListParameterTest {
         assertEquals("[2, 3, 4]", dlp.toString());
     }
 
+    @Test
+    public void testPrimitiveValues() throws InvalidParameterValueException {
+        IntegerListParameter ilp = new IntegerListParameter("ilp", null);
+        int[] values = new int[100000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i * 7919 - 50000;
+        }
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+        ilp.setValue(values);
+        assertArrayEquals(values, ilp.toIntArray());
+
+        IntegerListParameter copy = new IntegerListParameter("copy", null);
+        copy.fillFromString(ilp.getStringRep());
+        assertArrayEquals(values, copy.toIntArray());
+
+        copy.getValue().remove(0);
+        assertEquals(values.length - 1, copy.toIntArray().length);
+        assertEquals(new Integer(Integer.MAX_VALUE), copy.getValue().get(0));
+    }
+
+    @Test(expected = InvalidParameterValueException.class)
+    public void testFillFromOverflowingString()
+            throws InvalidParameterValueException {
+        IntegerListParameter ilp = new IntegerListParameter("ilp", ints);
+        ilp.fillFromString("1@@@__@@@2147483648@@@__@@@");
+    }
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link ContentAddressedStore}.
+ */
+public class ContentAddressedStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ContentAddressedStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new ContentAddressedStore(folder.getRoot().toPath()
+                .resolve("store"));
+    }
+
+    private Path createFile(String name, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, content.getBytes("UTF-8"));
+        return file;
+    }
+
+    @Test
+    public void testDigest() throws IOException {
+        Path file = createFile("abc.txt", "abc");
+        assertEquals(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ContentAddressedStore.digest(file));
+    }
+
+    @Test
+    public void testDeduplicate() throws IOException {
+        if (!store.isSupported()) {
+            return;
+        }
+        Path first = createFile("first.txt", "same content\n");
+        Path second = createFile("second.txt", "same content\n");
+        Path other = createFile("other.txt", "other content\n");
+
+        assertFalse(store.deduplicate(first));
+        assertTrue(store.deduplicate(second));
+        assertFalse(store.deduplicate(other));
+        // already deduplicated
+        assertFalse(store.deduplicate(second));
+
+        assertTrue(Files.isSameFile(first, second));
+        assertFalse(Files.isSameFile(first, other));
+        assertArrayEquals("same content\n".getBytes("UTF-8"),
+                Files.readAllBytes(second));
+
+        Path blob = store.getBlob(ContentAddressedStore.digest(first));
+        assertTrue(Files.isSameFile(blob, first));
+        assertEquals(2, store.getReferenceCount(blob));
+    }
+
+    @Test
+    public void testCollectGarbage() throws IOException {
+        if (!store.isSupported()) {
+            return;
+        }
+        Path first = createFile("first.txt", "same content\n");
+        Path second = createFile("second.txt", "same content\n");
+        store.deduplicate(first);
+        store.deduplicate(second);
+        Path blob = store.getBlob(ContentAddressedStore.digest(first));
+
+        Files.delete(first);
+        assertEquals(0, store.collectGarbage());
+        assertEquals(1, store.getReferenceCount(blob));
+
+        Files.delete(second);
+        assertEquals(1, store.collectGarbage());
+        assertFalse(Files.exists(blob));
+    }
+
+    @Test
+    public void testRelease() throws IOException {
+        if (!store.isSupported()) {
+            return;
+        }
+        Path first = createFile("first.txt", "same content\n");
+        Path second = createFile("second.txt", "same content\n");
+        String digest = ContentAddressedStore.digest(first);
+        assertFalse(store.deduplicate(first, digest));
+        assertTrue(store.deduplicate(second, digest));
+        Path blob = store.getBlob(digest);
+
+        Files.delete(first);
+        assertFalse(store.release(blob));
+        assertTrue(Files.exists(blob));
+
+        Files.delete(second);
+        assertTrue(store.release(blob));
+        assertFalse(Files.exists(blob));
+        // already removed
+        assertFalse(store.release(blob));
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link DelimitedLineReader}.
+ */
+public class DelimitedLineReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createFile(String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("input.tsv");
+        Files.write(file, content.getBytes("UTF-8"));
+        return file;
+    }
+
+    @Test
+    public void testFields() throws IOException {
+        Path file = createFile("a\t1\t2.5\r\n\t-42\t\n\"x\"\"y\"\t+7");
+        DelimitedLineReader reader = new DelimitedLineReader(file, 0,
+                Files.size(file), (byte) '\t');
+        try {
+            assertTrue(reader.next());
+            assertEquals(3, reader.getFieldCount());
+            assertEquals("a", reader.getString(0));
+            assertEquals(1L, reader.getLong(1));
+            assertEquals(2.5, reader.getDouble(2), 0.0);
+
+            assertTrue(reader.next());
+            assertEquals(3, reader.getFieldCount());
+            assertTrue(reader.isEmpty(0));
+            assertEquals(-42L, reader.getLong(1));
+            assertTrue(reader.isEmpty(2));
+            assertTrue(reader.isEmpty(5));
+
+            assertTrue(reader.next());
+            assertEquals("x\"y", reader.getString(0));
+            assertEquals(7L, reader.getLong(1));
+
+            assertFalse(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidLong() throws IOException {
+        Path file = createFile("12a\n");
+        DelimitedLineReader reader = new DelimitedLineReader(file, 0,
+                Files.size(file), (byte) ',');
+        try {
+            reader.next();
+            reader.getLong(0);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testRanges() throws IOException {
+        StringBuilder sb = new StringBuilder("header\n");
+        for (int i = 0; i < 100000; ++i) {
+            sb.append(i).append(',').append("value").append(i).append('\n');
+        }
+        Path file = createFile(sb.toString());
+
+        long[] ranges = DelimitedLineReader.getRanges(file, 4, true);
+        List<Long> values = new ArrayList<Long>();
+        for (int part = 0; part < 4; ++part) {
+            DelimitedLineReader reader = new DelimitedLineReader(file,
+                    ranges[part], ranges[part + 1], (byte) ',');
+            try {
+                while (reader.next()) {
+                    values.add(reader.getLong(0));
+                    assertEquals("value" + reader.getLong(0),
+                            reader.getString(1));
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        assertEquals(100000, values.size());
+        for (int i = 0; i < values.size(); ++i) {
+            assertEquals(i, values.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testLongLines() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; ++i) {
+            sb.append('x');
+        }
+        String line = sb.toString();
+        Path file = createFile(line + "\n" + line);
+        DelimitedLineReader reader = new DelimitedLineReader(file, 0,
+                Files.size(file), (byte) '\t');
+        try {
+            assertTrue(reader.next());
+            assertEquals(line, reader.getString(0));
+            assertTrue(reader.next());
+            assertEquals(line, reader.getString(0));
+            assertFalse(reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link FileFingerprintIndex}.
+ */
+public class FileFingerprintIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createFile(String name, byte[] content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, content);
+        // make sure the fingerprint may be cached
+        Files.setLastModifiedTime(file,
+                FileTime.fromMillis(System.currentTimeMillis() - 60000));
+        return file;
+    }
+
+    private static long xxh64(String s) throws IOException {
+        return FileFingerprintIndex.xxh64(ByteBuffer.wrap(s.getBytes("UTF-8")), 0);
+    }
+
+    @Test
+    public void testXXH64() throws IOException {
+        assertEquals(0xEF46DB3751D8E999L, xxh64(""));
+        assertEquals(0x44BC2CF5AD770999L, xxh64("abc"));
+        assertEquals(0xFBCEA83C8A378BF1L,
+                xxh64("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void testChunkedHash() throws IOException {
+        byte[] content = new byte[200 * 1024];
+        new Random(42).nextBytes(content);
+        Path file = createFile("large.bin", content);
+        Path same = createFile("same.bin", content);
+
+        long hash = FileFingerprintIndex.hash(file, 16 * 1024);
+        assertEquals(hash, FileFingerprintIndex.hash(same, 16 * 1024));
+
+        content[content.length - 1] ^= 1;
+        Path other = createFile("other.bin", content);
+        assertFalse(hash == FileFingerprintIndex.hash(other, 16 * 1024));
+    }
+
+    @Test
+    public void testFingerprint() throws IOException {
+        FileFingerprintIndex index = new FileFingerprintIndex(null, 10);
+        Path file = createFile("a.txt", "content".getBytes("UTF-8"));
+        Path copy = createFile("b.txt", "content".getBytes("UTF-8"));
+
+        long fp = index.fingerprint(file);
+        assertEquals(fp, index.fingerprint(copy));
+        assertEquals(fp, index.fingerprint(file));
+        assertEquals(2, index.size());
+
+        Files.write(file, "changed".getBytes("UTF-8"));
+        assertFalse(fp == index.fingerprint(file));
+    }
+
+    @Test
+    public void testBounded() throws IOException {
+        FileFingerprintIndex index = new FileFingerprintIndex(null, 2);
+        for (int i = 0; i < 5; ++i) {
+            index.fingerprint(createFile(i + ".txt", ("" + i).getBytes("UTF-8")));
+        }
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        Path indexFile = folder.getRoot().toPath().resolve("index")
+                .resolve("fingerprints.idx");
+        Path file = createFile("a.txt", "content".getBytes("UTF-8"));
+
+        FileFingerprintIndex index = new FileFingerprintIndex(indexFile, 10);
+        long fp = index.fingerprint(file);
+        index.save();
+        assertTrue(Files.exists(indexFile));
+
+        FileFingerprintIndex reloaded = new FileFingerprintIndex(indexFile, 10);
+        assertEquals(1, reloaded.size());
+        assertEquals(fp, reloaded.fingerprint(file));
+
+        // corrupt indices are discarded
+        Files.write(indexFile, new byte[] { 1, 2, 3 });
+        assertEquals(0, new FileFingerprintIndex(indexFile, 10).size());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link FilePreview}.
+ */
+public class FilePreviewTest {
+
+    private static final String NL = System.getProperty("line.separator");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(byte[] content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    public void testLines() throws IOException {
+        File file = createFile("a\r\nb\nc\nd".getBytes("UTF-8"));
+
+        FilePreview preview = FilePreview.read(file, 1024);
+        assertFalse(preview.isBinary());
+        assertEquals("a" + NL + "b" + NL, preview.getText(2));
+        assertTrue(preview.isTruncated(2));
+        assertEquals("a" + NL + "b" + NL + "c" + NL + "d" + NL,
+                preview.getText(10));
+        assertFalse(preview.isTruncated(4));
+    }
+
+    @Test
+    public void testByteCap() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 10000; ++i) {
+            line.append('x');
+        }
+        File file = createFile(line.toString().getBytes("UTF-8"));
+
+        FilePreview preview = FilePreview.read(file, 100);
+        assertEquals(line.substring(0, 100) + NL, preview.getText(50));
+        assertTrue(preview.isTruncated(50));
+        assertTrue(preview.getSummary(file, 50).contains(
+                "File size: 10000 bytes"));
+    }
+
+    @Test
+    public void testBinary() throws IOException {
+        File file = createFile(new byte[] { 'P', 'K', 3, 4, 0, 0, 'x' });
+        FilePreview preview = FilePreview.read(file, 1024);
+        assertTrue(preview.isBinary());
+        assertTrue(preview.getSummary(file, 50).contains("binary"));
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        byte[] content = new byte[200000];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) (i % 80 == 79 ? '\n' : 'a' + i % 26);
+        }
+        File source = createFile(content);
+        File target = new File(folder.getRoot(), "copy.txt");
+
+        FilePreview preview = FilePreview.copy(source, target, 1000);
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(FilePreview.read(source, 1000).getText(5),
+                preview.getText(5));
+        assertTrue(preview.getSummary(target, 50).contains(
+                "File size: 200000 bytes"));
+    }
+}
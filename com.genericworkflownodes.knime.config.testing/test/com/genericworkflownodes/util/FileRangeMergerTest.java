@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.genericworkflownodes.util.FileRangeMerger.MergeFormat;
+
+/**
+ * Test for {@link FileRangeMerger} and {@link MergeFormats}.
+ */
+public class FileRangeMergerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String merge(MergeFormat format, String... contents)
+            throws IOException {
+        Path[] inputs = new Path[contents.length];
+        for (int i = 0; i < contents.length; ++i) {
+            inputs[i] = folder.getRoot().toPath().resolve("part" + i);
+            Files.write(inputs[i], contents[i].getBytes("UTF-8"));
+        }
+        Path output = folder.getRoot().toPath().resolve("merged");
+        long size = FileRangeMerger.merge(inputs, output, format, 2);
+        assertEquals(Files.size(output), size);
+        return new String(Files.readAllBytes(output), "UTF-8");
+    }
+
+    @Test
+    public void testConcatenate() throws IOException {
+        assertEquals("a\nb\n\nc", merge(FileRangeMerger.CONCATENATE, "a\n",
+                "b\n", "", "\nc"));
+    }
+
+    @Test
+    public void testKeepFirstHeader() throws IOException {
+        assertEquals("#h1\n1\n2\n", merge(MergeFormats.keepFirstHeader((byte) '#'),
+                "#h1\n1\n", "#h2\n2\n"));
+    }
+
+    @Test
+    public void testSam() throws IOException {
+        assertEquals("@HD\tVN:1.6\n@SQ\tSN:chr1\n@SQ\tSN:chr2\nr1\nr2\n",
+                merge(MergeFormats.SAM, "@HD\tVN:1.6\n@SQ\tSN:chr1\nr1\n",
+                        "@HD\tVN:1.6\n@SQ\tSN:chr2\nr2\n"));
+    }
+
+    @Test
+    public void testVcf() throws IOException {
+        String columns = "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\n";
+        assertEquals("##fileformat=VCFv4.2\n##contig=<ID=1>\n##contig=<ID=2>\n"
+                + columns + "1\t1\n2\t1\n", merge(MergeFormats.VCF,
+                "##fileformat=VCFv4.2\n##contig=<ID=1>\n" + columns + "1\t1\n",
+                "##fileformat=VCFv4.2\n##contig=<ID=2>\n" + columns + "2\t1\n"));
+    }
+
+    @Test
+    public void testXml() throws IOException {
+        assertEquals("<?xml version=\"1.0\"?>\n<!-- <x> -->\n<root a=\"1\">"
+                + "<e>1</e><e>2</e></root>\n", merge(MergeFormats.XML,
+                "<?xml version=\"1.0\"?>\n<!-- <x> -->\n<root a=\"1\"><e>1</e></root>\n",
+                "<root><e>2</e></root>"));
+    }
+
+    @Test
+    public void testMzMLRoundTrip() throws IOException {
+        StringBuilder sb = new StringBuilder(
+                "<mzML>\n<run>\n<spectrumList count=\"20\">\n");
+        for (int i = 0; i < 20; ++i) {
+            sb.append("<spectrum index=\"").append(i).append("\"/>\n");
+        }
+        sb.append(RecordFormats.MZML_FOOTER);
+        String content = sb.toString();
+
+        Path input = folder.getRoot().toPath().resolve("input.mzML");
+        Files.write(input, content.getBytes("UTF-8"));
+        Path[] parts = new Path[3];
+        for (int i = 0; i < parts.length; ++i) {
+            parts[i] = folder.getRoot().toPath().resolve("split" + i);
+        }
+        FileRangeSplitter.split(input, parts, RecordFormats.MZML, 2);
+        Path output = folder.getRoot().toPath().resolve("merged.mzML");
+        FileRangeMerger.merge(parts, output, MergeFormats.MZML, 2);
+
+        assertEquals(content, new String(Files.readAllBytes(output), "UTF-8"));
+    }
+}
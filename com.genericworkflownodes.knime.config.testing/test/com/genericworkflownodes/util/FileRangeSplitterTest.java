@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link FileRangeSplitter}.
+ */
+public class FileRangeSplitterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createFile(byte[] content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve("input.txt");
+        Files.write(file, content);
+        return file;
+    }
+
+    private Path[] split(Path input, int parts) throws IOException {
+        Path[] outputs = new Path[parts];
+        for (int i = 0; i < parts; ++i) {
+            outputs[i] = folder.getRoot().toPath().resolve("part" + i);
+        }
+        FileRangeSplitter.split(input, outputs, FileRangeSplitter.LINES, 2);
+        return outputs;
+    }
+
+    private static byte[] concat(Path[] parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Path p : parts) {
+            out.write(Files.readAllBytes(p));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSplitLines() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            sb.append("line ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        byte[] content = sb.toString().getBytes("UTF-8");
+        Path[] parts = split(createFile(content), 3);
+
+        assertArrayEquals(content, concat(parts));
+        for (Path p : parts) {
+            byte[] part = Files.readAllBytes(p);
+            assertTrue(part.length > 0);
+            assertEquals('\n', part[part.length - 1]);
+        }
+    }
+
+    @Test
+    public void testFewerLinesThanParts() throws IOException {
+        byte[] content = "a\nb".getBytes("UTF-8");
+        Path[] parts = split(createFile(content), 4);
+
+        assertArrayEquals(content, concat(parts));
+        assertEquals("a\n", new String(Files.readAllBytes(parts[0]), "UTF-8"));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path[] parts = split(createFile(new byte[0]), 2);
+        assertEquals(0, Files.size(parts[0]));
+        assertEquals(0, Files.size(parts[1]));
+    }
+
+    @Test
+    public void testBoundaries() throws IOException {
+        byte[] content = "0123\n5678\nabcd\nefgh\n".getBytes("UTF-8");
+        FileChannel channel = FileChannel.open(createFile(content),
+                StandardOpenOption.READ);
+        try {
+            long[] boundaries = FileRangeSplitter.computeBoundaries(channel,
+                    2, FileRangeSplitter.LINES, new long[] { 0, content.length });
+            assertArrayEquals(new long[] { 0, 10, 20 }, boundaries);
+        } finally {
+            channel.close();
+        }
+    }
+}
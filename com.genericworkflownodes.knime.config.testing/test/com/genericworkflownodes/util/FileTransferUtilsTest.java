@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link FileTransferUtils}.
+ */
+public class FileTransferUtilsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path createSource() throws IOException {
+        Path source = folder.getRoot().toPath().resolve("source.txt");
+        Files.write(source, "line 1\nline 2\n".getBytes("UTF-8"));
+        return source;
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+
+        assertEquals(Files.size(source), FileTransferUtils.copy(source, target));
+        assertArrayEquals(Files.readAllBytes(source),
+                Files.readAllBytes(target));
+        assertFalse(Files.isSameFile(source, target));
+    }
+
+    @Test
+    public void testTransferCopy() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+
+        assertEquals(TransferStrategy.COPY, FileTransferUtils.transfer(
+                source, target, TransferStrategy.COPY));
+        assertArrayEquals(Files.readAllBytes(source),
+                Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testTransferFallsBack() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+
+        // the strategy used depends on the file system, but the content has
+        // to be available in any case
+        TransferStrategy used = FileTransferUtils.transfer(source, target,
+                TransferStrategy.HARDLINK);
+        assertArrayEquals(Files.readAllBytes(source),
+                Files.readAllBytes(target));
+        if (used == TransferStrategy.HARDLINK) {
+            assertTrue(Files.isSameFile(source, target));
+        }
+    }
+
+    @Test(expected = FileAlreadyExistsException.class)
+    public void testTransferExistingTarget() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+        Files.createFile(target);
+
+        FileTransferUtils.transfer(source, target, TransferStrategy.COPY);
+    }
+
+    @Test
+    public void testCopyAtomically() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+        Files.write(target, "old content".getBytes("UTF-8"));
+
+        FileTransferUtils.copyAtomically(source, target);
+        assertArrayEquals(Files.readAllBytes(source),
+                Files.readAllBytes(target));
+        assertEquals(Files.getLastModifiedTime(source),
+                Files.getLastModifiedTime(target));
+        // no temporary files are left behind
+        assertEquals(2, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testIsUpToDate() throws IOException {
+        Path source = createSource();
+        Path target = folder.getRoot().toPath().resolve("target.txt");
+        assertFalse(FileTransferUtils.isUpToDate(source, target, false));
+
+        FileTransferUtils.copyAtomically(source, target);
+        assertTrue(FileTransferUtils.isUpToDate(source, target, false));
+        assertTrue(FileTransferUtils.isUpToDate(source, target, true));
+
+        // same size and time but different content
+        FileTime time = Files.getLastModifiedTime(target);
+        Files.write(target, "line 1\nline 3\n".getBytes("UTF-8"));
+        Files.setLastModifiedTime(target, time);
+        assertTrue(FileTransferUtils.isUpToDate(source, target, false));
+        assertFalse(FileTransferUtils.isUpToDate(source, target, true));
+    }
+
+    @Test
+    public void testStrategyFromName() {
+        for (TransferStrategy strategy : TransferStrategy.values()) {
+            assertEquals(strategy,
+                    TransferStrategy.fromName(strategy.getName()));
+        }
+        assertEquals(TransferStrategy.COPY,
+                TransferStrategy.fromName("unknown"));
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.genericworkflownodes.util.FileRangeSplitter.RecordFormat;
+
+/**
+ * Test for {@link RecordFormats}.
+ */
+public class RecordFormatsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String[] split(String content, RecordFormat format, int parts)
+            throws IOException {
+        Path input = folder.getRoot().toPath().resolve("input");
+        Files.write(input, content.getBytes("UTF-8"));
+        Path[] outputs = new Path[parts];
+        for (int i = 0; i < parts; ++i) {
+            outputs[i] = folder.getRoot().toPath().resolve("part" + i);
+        }
+        FileRangeSplitter.split(input, outputs, format, 2);
+
+        String[] result = new String[parts];
+        for (int i = 0; i < parts; ++i) {
+            result[i] = new String(Files.readAllBytes(outputs[i]), "UTF-8");
+        }
+        return result;
+    }
+
+    private static String concat(String[] parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String p : parts) {
+            sb.append(p);
+        }
+        return sb.toString();
+    }
+
+    private static int count(String s, String pattern) {
+        int count = 0;
+        for (int i = s.indexOf(pattern); i >= 0; i = s.indexOf(pattern, i + 1)) {
+            ++count;
+        }
+        return count;
+    }
+
+    @Test
+    public void testFasta() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append(">seq").append(i).append('\n');
+            sb.append("ACGTACGTACGT\nACGT\n");
+        }
+        String content = sb.toString();
+        String[] parts = split(content, RecordFormats.FASTA, 3);
+
+        assertEquals(content, concat(parts));
+        for (String p : parts) {
+            assertTrue(p.startsWith(">"));
+        }
+    }
+
+    @Test
+    public void testFastq() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            // quality lines starting with '@' must not be taken as record start
+            sb.append("@read").append(i).append("\nACGT\n+\n@@II\n");
+        }
+        String content = sb.toString();
+        String[] parts = split(content, RecordFormats.FASTQ, 3);
+
+        assertEquals(content, concat(parts));
+        for (String p : parts) {
+            assertTrue(p.startsWith("@read"));
+            assertEquals(0, p.split("\n").length % 4);
+        }
+    }
+
+    @Test
+    public void testSam() throws IOException {
+        String header = "@HD\tVN:1.6\n@SQ\tSN:chr1\tLN:1000\n";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append("r").append(i).append("\t0\tchr1\t").append(i + 1)
+                    .append("\t60\t4M\t*\t0\t0\tACGT\tIIII\n");
+        }
+        String[] parts = split(header + sb, RecordFormats.SAM, 3);
+
+        StringBuilder records = new StringBuilder();
+        for (String p : parts) {
+            assertTrue(p.startsWith(header));
+            records.append(p.substring(header.length()));
+        }
+        assertEquals(sb.toString(), records.toString());
+    }
+
+    @Test
+    public void testMzML() throws IOException {
+        String head = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+                + "<indexedmzML xmlns=\"http://psi.hupo.org/ms/mzml\">\n"
+                + "<mzML>\n<run id=\"r\">\n"
+                + "<spectrumList count=\"10\" defaultDataProcessingRef=\"dp\">\n";
+        StringBuilder spectra = new StringBuilder();
+        for (int i = 0; i < 10; ++i) {
+            spectra.append("<spectrum index=\"").append(i)
+                    .append("\" id=\"s").append(i).append("\">\n</spectrum>\n");
+        }
+        String content = head + spectra
+                + "</spectrumList>\n<chromatogramList count=\"0\"/>\n</run>\n"
+                + "</mzML>\n<indexList count=\"0\"/>\n</indexedmzML>\n";
+        String[] parts = split(content, RecordFormats.MZML, 3);
+
+        int total = 0;
+        for (String p : parts) {
+            assertTrue(!p.contains("indexedmzML"));
+            assertTrue(p.endsWith("</spectrumList>\n</run>\n</mzML>\n"));
+            int n = count(p, "<spectrum ");
+            assertTrue(p.contains("<spectrumList count=\"" + n + "\""));
+            total += n;
+        }
+        assertEquals(10, total);
+    }
+
+    @Test
+    public void testMzMLCountsMatchSpectra() throws IOException {
+        String content = "<mzML><run><spectrumList count=\"2\">"
+                + "<spectrum id=\"a\"/><spectrum id=\"b\"/></spectrumList>"
+                + "</run></mzML>";
+        String[] parts = split(content, RecordFormats.MZML, 2);
+
+        assertArrayEquals(new String[] {
+                "<mzML><run><spectrumList count=\"1\"><spectrum id=\"a\"/>"
+                        + "</spectrumList>\n</run>\n</mzML>\n",
+                "<mzML><run><spectrumList count=\"1\"><spectrum id=\"b\"/>"
+                        + "</spectrumList>\n</run>\n</mzML>\n" }, parts);
+    }
+}
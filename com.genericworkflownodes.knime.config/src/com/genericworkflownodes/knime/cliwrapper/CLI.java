@@ -28,6 +28,7 @@
 
 package com.genericworkflownodes.knime.cliwrapper;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,7 +54,9 @@ import java.util.List;
  * 
  * 
  */
-public class CLI {
+public class CLI implements Serializable {
+
+    private static final long serialVersionUID = -1830358988414775294L;
 
     /**
      * The list of CLIElements contained in this tag.
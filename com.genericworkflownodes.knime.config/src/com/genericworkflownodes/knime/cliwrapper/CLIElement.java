@@ -26,6 +26,7 @@
 
 package com.genericworkflownodes.knime.cliwrapper;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -54,7 +55,9 @@ import java.util.List;
  * 
  * 
  */
-public class CLIElement {
+public class CLIElement implements Serializable {
+
+    private static final long serialVersionUID = -5119832018290859111L;
 
     /**
      * The mappings for this element.
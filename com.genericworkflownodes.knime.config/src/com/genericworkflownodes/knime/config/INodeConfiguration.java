@@ -197,6 +197,14 @@ public interface INodeConfiguration {
      */
     List<Parameter<?>> getParameters();
 
+    /**
+     * The prefix tree over the parameter keys, giving access to the sections
+     * of the parameters.
+     * 
+     * @return The index over {@link #getParameterKeys()}.
+     */
+    ParameterIndex getParameterIndex();
+
     /**
      * Returns the description of the given section or null if the section is
      * not known.
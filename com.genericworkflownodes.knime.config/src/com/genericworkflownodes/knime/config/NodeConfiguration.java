@@ -18,18 +18,25 @@
  */
 package com.genericworkflownodes.knime.config;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.genericworkflownodes.knime.cliwrapper.CLI;
 import com.genericworkflownodes.knime.config.citation.Citation;
 import com.genericworkflownodes.knime.parameter.Parameter;
 import com.genericworkflownodes.knime.port.Port;
 import com.genericworkflownodes.knime.relocator.Relocator;
+import com.genericworkflownodes.util.StringUtils;
 
 /**
  * Default implementation of {@link INodeConfiguration}
@@ -42,26 +49,85 @@ import com.genericworkflownodes.knime.relocator.Relocator;
  */
 public class NodeConfiguration implements INodeConfiguration, Serializable {
 
-    private static final long serialVersionUID = -5250528380628071121L;
+    private static final long serialVersionUID = -1942760521870467613L;
+
+    private static final Logger LOG = Logger.getLogger(NodeConfiguration.class
+            .getCanonicalName());
+
+    /**
+     * Source the text fields of a configuration can be reloaded from after
+     * they were reclaimed, e.g., the descriptor file it was read from.
+     */
+    public interface TextSource extends Serializable {
+
+        /**
+         * Reads the configuration again.
+         * 
+         * @return A configuration with the same text fields.
+         * @throws Exception
+         *             If the source cannot be read.
+         */
+        INodeConfiguration load() throws Exception;
+    }
+
+    /**
+     * The large text fields, which are only needed for dialogs, descriptions
+     * and written descriptors.
+     */
+    private static final class Texts implements Serializable {
+
+        private static final long serialVersionUID = 3180470108467713950L;
+
+        private String shortdescription = "";
+        private String longdescription = "";
+        private String xml = "";
+
+        // The section descriptions for the sections of the parameters.
+        private Map<String, String> sectionDescriptions = new HashMap<String, String>();
+
+        private void intern() {
+            shortdescription = StringUtils.intern(shortdescription);
+            longdescription = StringUtils.intern(longdescription);
+            xml = StringUtils.intern(xml);
+            for (Map.Entry<String, String> e : sectionDescriptions.entrySet()) {
+                e.setValue(StringUtils.intern(e.getValue()));
+            }
+        }
+    }
 
     // The parameters.
     private Map<String, Parameter<?>> params;
 
-    // The section descriptions for the sections of the parameters.
-    private Map<String, String> sectionDescriptions;
-
     private Map<String, Port> inputPorts;
     private Map<String, Port> outputPorts;
 
     private String name;
     private String version;
     private String docurl = "";
-    private String shortdescription = "";
-    private String longdescription = "";
-    private String xml = "";
     private String category = "";
     private List<Citation> citations;
 
+    /**
+     * The text fields while they are pinned, i.e., as long as no
+     * {@link TextSource} is known.
+     */
+    private transient Texts texts;
+
+    /**
+     * The reclaimable text fields if a {@link TextSource} is known.
+     */
+    private transient SoftReference<Texts> softTexts;
+
+    /**
+     * The source to reload reclaimed text fields from.
+     */
+    private TextSource textSource;
+
+    /**
+     * The index over the parameter keys, built on first use.
+     */
+    private transient volatile ParameterIndex paramIndex;
+
     /**
      * Name of the executable.
      */
@@ -92,7 +158,7 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
         inputPorts = new LinkedHashMap<String, Port>();
         outputPorts = new LinkedHashMap<String, Port>();
 
-        sectionDescriptions = new HashMap<String, String>();
+        texts = new Texts();
 
         executableName = null;
         executablePath = "";
@@ -147,12 +213,12 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
 
     @Override
     public String getDescription() {
-        return shortdescription;
+        return texts().shortdescription;
     }
 
     @Override
     public String getManual() {
-        return longdescription;
+        return texts().longdescription;
     }
 
     @Override
@@ -172,7 +238,7 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
 
     @Override
     public String getXML() {
-        return xml;
+        return texts().xml;
     }
 
     @Override
@@ -194,15 +260,22 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
 
     @Override
     public List<String> getParameterKeys() {
-        List<String> ret = new ArrayList<String>();
-        for (String key : params.keySet()) {
-            ret.add(key);
+        return getParameterIndex().getKeys();
+    }
+
+    @Override
+    public ParameterIndex getParameterIndex() {
+        ParameterIndex index = paramIndex;
+        if (index == null) {
+            index = ParameterIndex.create(params.keySet());
+            paramIndex = index;
         }
-        return ret;
+        return index;
     }
 
     public void addParameter(String key, Parameter<?> param) {
         params.put(key, param);
+        paramIndex = null;
     }
 
     @Override
@@ -262,15 +335,96 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
     }
 
     public void setDescription(String newShortdescription) {
-        shortdescription = newShortdescription;
+        pinTexts().shortdescription = StringUtils.intern(newShortdescription);
     }
 
     public void setManual(String newLongdescription) {
-        longdescription = newLongdescription;
+        pinTexts().longdescription = StringUtils.intern(newLongdescription);
     }
 
     public void setXml(String newXml) {
-        xml = newXml;
+        pinTexts().xml = StringUtils.intern(newXml);
+    }
+
+    /**
+     * Sets the source the text fields (description, manual, XML and section
+     * descriptions) can be reloaded from. From then on, the text fields may be
+     * reclaimed by the garbage collector when memory gets low.
+     * 
+     * @param source
+     *            The source of the text fields.
+     */
+    public synchronized void setTextSource(TextSource source) {
+        textSource = source;
+        if (source != null && texts != null) {
+            softTexts = new SoftReference<Texts>(texts);
+            texts = null;
+        }
+    }
+
+    /**
+     * Returns the text fields, reloading them from the {@link TextSource} if
+     * they were reclaimed.
+     */
+    private synchronized Texts texts() {
+        Texts t = texts;
+        if (t == null && softTexts != null) {
+            t = softTexts.get();
+        }
+        if (t == null) {
+            t = loadTexts();
+            softTexts = new SoftReference<Texts>(t);
+        }
+        return t;
+    }
+
+    /**
+     * Returns the text fields for modification. They are kept in memory until
+     * a {@link TextSource} is set again, since the source would not contain
+     * the modification.
+     */
+    private synchronized Texts pinTexts() {
+        texts = texts();
+        return texts;
+    }
+
+    private Texts loadTexts() {
+        Texts t = new Texts();
+        if (textSource == null) {
+            return t;
+        }
+        try {
+            INodeConfiguration source = textSource.load();
+            if (source instanceof NodeConfiguration) {
+                Texts loaded = ((NodeConfiguration) source).texts();
+                t.sectionDescriptions.putAll(loaded.sectionDescriptions);
+                t.xml = loaded.xml;
+            }
+            t.shortdescription = source.getDescription();
+            t.longdescription = source.getManual();
+            t.intern();
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Could not reload the descriptions of "
+                    + name, e);
+        }
+        return t;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(texts());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        Texts t = (Texts) in.readObject();
+        t.intern();
+        if (textSource != null) {
+            softTexts = new SoftReference<Texts>(t);
+        } else {
+            texts = t;
+        }
     }
 
     public void setCategory(String newCategory) {
@@ -347,10 +501,7 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
 
     @Override
     public String getSectionDescription(String section) {
-        if (sectionDescriptions.containsKey(section)) {
-            return sectionDescriptions.get(section);
-        } else
-            return null;
+        return texts().sectionDescriptions.get(section);
     }
 
     /**
@@ -363,7 +514,8 @@ public class NodeConfiguration implements INodeConfiguration, Serializable {
      *            The description of the section.
      */
     public void setSectionDescription(String section, String description) {
-        sectionDescriptions.put(section, description);
+        pinTexts().sectionDescriptions.put(section,
+                StringUtils.intern(description));
     }
 
     @Override
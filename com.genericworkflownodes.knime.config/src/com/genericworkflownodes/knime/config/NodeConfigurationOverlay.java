@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.SerializationUtils;
+
+import com.genericworkflownodes.knime.cliwrapper.CLI;
+import com.genericworkflownodes.knime.config.citation.Citation;
+import com.genericworkflownodes.knime.parameter.IFileParameter;
+import com.genericworkflownodes.knime.parameter.Parameter;
+import com.genericworkflownodes.knime.port.Port;
+import com.genericworkflownodes.knime.relocator.Relocator;
+
+/**
+ * Per-node view on a shared, never modified template configuration.
+ * <p>
+ * All metadata (name, descriptions, {@link CLI}, relocators, citations,
+ * parameter keys) is read from the template. Parameter values are
+ * copy-on-write: {@link #getParameter(String)} hands out a private copy of
+ * the template parameter on first access, since {@link Parameter}s are
+ * mutable, while {@link #peekParameter(String)} gives read-only access without
+ * copying. Creating an overlay and keeping it alive therefore costs time and
+ * memory proportional to the parameters that were actually changed, plus the
+ * few ports, which carry per-node state (activeness, basenames) and are
+ * always copied.
+ * <p>
+ * The copies are guarded by the overlay, as the dialog, the executor and
+ * {@link #compact()} may access them from different threads.
+ */
+public class NodeConfigurationOverlay implements INodeConfiguration,
+        Serializable {
+
+    private static final long serialVersionUID = 4630722310867146071L;
+
+    /**
+     * The shared template.
+     */
+    private final INodeConfiguration m_template;
+
+    /**
+     * The parameters of this overlay that were handed out for modification.
+     */
+    private final Map<String, Parameter<?>> m_overrides;
+
+    private final List<Port> m_inputPorts;
+    private final List<Port> m_outputPorts;
+
+    /**
+     * Creates a new overlay over the given template. The template must not be
+     * modified as long as overlays on it exist.
+     * 
+     * @param template
+     *            The shared template configuration.
+     */
+    public NodeConfigurationOverlay(INodeConfiguration template) {
+        if (template == null) {
+            throw new IllegalArgumentException("template must not be null");
+        }
+        m_template = template;
+        m_overrides = new HashMap<String, Parameter<?>>();
+        m_inputPorts = copyPorts(template.getInputPorts());
+        m_outputPorts = copyPorts(template.getOutputPorts());
+    }
+
+    /**
+     * Returns the given configuration if it already is an overlay, or creates
+     * a new overlay using it as template otherwise.
+     * 
+     * @param config
+     *            The configuration.
+     * @return An overlay on the given configuration.
+     */
+    public static NodeConfigurationOverlay of(INodeConfiguration config) {
+        if (config instanceof NodeConfigurationOverlay) {
+            return (NodeConfigurationOverlay) config;
+        }
+        return new NodeConfigurationOverlay(config);
+    }
+
+    private static List<Port> copyPorts(List<Port> ports) {
+        List<Port> copies = new ArrayList<Port>(ports.size());
+        for (Port p : ports) {
+            copies.add((Port) SerializationUtils.clone(p));
+        }
+        return copies;
+    }
+
+    /**
+     * @return The shared template of this overlay.
+     */
+    public INodeConfiguration getTemplate() {
+        return m_template;
+    }
+
+    /**
+     * Returns the current value of the parameter without copying it. The
+     * returned object may be shared with other nodes and must not be modified.
+     * 
+     * @param key
+     *            The key of the parameter.
+     * @return The parameter or null if no such parameter exists.
+     */
+    public synchronized Parameter<?> peekParameter(String key) {
+        Parameter<?> p = m_overrides.get(key);
+        return p != null ? p : m_template.getParameter(key);
+    }
+
+    /**
+     * Returns the parameter of the given configuration for read-only access,
+     * without copying it if the configuration is an overlay.
+     * 
+     * @param config
+     *            The configuration.
+     * @param key
+     *            The key of the parameter.
+     * @return The parameter or null if no such parameter exists.
+     */
+    public static Parameter<?> peek(INodeConfiguration config, String key) {
+        if (config instanceof NodeConfigurationOverlay) {
+            return ((NodeConfigurationOverlay) config).peekParameter(key);
+        }
+        return config.getParameter(key);
+    }
+
+    /**
+     * Checks whether this overlay holds its own copy of the given parameter.
+     * 
+     * @param key
+     *            The key of the parameter.
+     * @return True if the parameter was copied from the template.
+     */
+    public synchronized boolean isOverridden(String key) {
+        return m_overrides.containsKey(key);
+    }
+
+    /**
+     * @return The number of parameters this overlay holds copies of.
+     */
+    public synchronized int getNumberOfOverrides() {
+        return m_overrides.size();
+    }
+
+    /**
+     * Drops the copy of the given parameter, so that it again shows the
+     * template value.
+     * 
+     * @param key
+     *            The key of the parameter.
+     */
+    public synchronized void resetParameter(String key) {
+        m_overrides.remove(key);
+    }
+
+    /**
+     * Drops all copies whose value and defaulted state do not differ from the
+     * template anymore, e.g., because they were only read through
+     * {@link #getParameter(String)}.
+     */
+    public synchronized void compact() {
+        Iterator<Map.Entry<String, Parameter<?>>> it = m_overrides.entrySet()
+                .iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Parameter<?>> e = it.next();
+            if (sameValue(e.getValue(), m_template.getParameter(e.getKey()))) {
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean sameValue(Parameter<?> a, Parameter<?> b) {
+        if (a.isDefaulted() != b.isDefaulted()) {
+            return false;
+        }
+        String ra = a.getStringRep();
+        String rb = b.getStringRep();
+        return ra == null ? rb == null : ra.equals(rb);
+    }
+
+    /**
+     * Returns this node's own, modifiable copy of the parameter, copying it
+     * from the template on first access.
+     */
+    @Override
+    public synchronized Parameter<?> getParameter(String key) {
+        Parameter<?> p = m_overrides.get(key);
+        if (p == null) {
+            Parameter<?> shared = m_template.getParameter(key);
+            if (shared == null) {
+                return null;
+            }
+            p = (Parameter<?>) SerializationUtils.clone(shared);
+            if (p instanceof IFileParameter) {
+                bindPort((IFileParameter) p);
+            }
+            m_overrides.put(key, p);
+        }
+        return p;
+    }
+
+    /**
+     * Lets the copy of a file parameter refer to this overlay's copy of its
+     * port instead of a detached clone.
+     */
+    private void bindPort(IFileParameter p) {
+        if (p.getPort() == null) {
+            return;
+        }
+        String name = p.getPort().getName();
+        Port own = findPort(m_inputPorts, name);
+        if (own == null) {
+            own = findPort(m_outputPorts, name);
+        }
+        if (own != null) {
+            p.setPort(own);
+        }
+    }
+
+    @Override
+    public List<String> getParameterKeys() {
+        return m_template.getParameterKeys();
+    }
+
+    @Override
+    public ParameterIndex getParameterIndex() {
+        return m_template.getParameterIndex();
+    }
+
+    /**
+     * Returns the modifiable copies of all parameters. Read-only callers
+     * should iterate {@link #getParameterKeys()} and use
+     * {@link #peekParameter(String)} instead.
+     */
+    @Override
+    public List<Parameter<?>> getParameters() {
+        List<String> keys = getParameterKeys();
+        List<Parameter<?>> ret = new ArrayList<Parameter<?>>(keys.size());
+        for (String key : keys) {
+            ret.add(getParameter(key));
+        }
+        return ret;
+    }
+
+    @Override
+    public int getNumberOfOutputPorts() {
+        return m_outputPorts.size();
+    }
+
+    @Override
+    public int getNumberOfInputPorts() {
+        return m_inputPorts.size();
+    }
+
+    @Override
+    public List<Port> getInputPorts() {
+        return Collections.unmodifiableList(m_inputPorts);
+    }
+
+    @Override
+    public List<Port> getOutputPorts() {
+        return Collections.unmodifiableList(m_outputPorts);
+    }
+
+    @Override
+    public Port getInputPortByName(String portName) {
+        return findPort(m_inputPorts, portName);
+    }
+
+    @Override
+    public Port getOutputPortByName(String portName) {
+        return findPort(m_outputPorts, portName);
+    }
+
+    private static Port findPort(List<Port> ports, String portName) {
+        for (Port p : ports) {
+            if (p.getName().equals(portName)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return m_template.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return m_template.getDescription();
+    }
+
+    @Override
+    public String getManual() {
+        return m_template.getManual();
+    }
+
+    @Override
+    public String getDocUrl() {
+        return m_template.getDocUrl();
+    }
+
+    @Override
+    public String getExecutableName() {
+        return m_template.getExecutableName();
+    }
+
+    @Override
+    public String getExecutablePath() {
+        return m_template.getExecutablePath();
+    }
+
+    @Override
+    public String getVersion() {
+        return m_template.getVersion();
+    }
+
+    @Deprecated
+    @Override
+    public String getXML() {
+        return m_template.getXML();
+    }
+
+    @Override
+    public String getCategory() {
+        return m_template.getCategory();
+    }
+
+    @Override
+    public List<Citation> getCitations() {
+        return m_template.getCitations();
+    }
+
+    @Override
+    public CLI getCLI() {
+        return m_template.getCLI();
+    }
+
+    @Override
+    public List<Relocator> getRelocators() {
+        return m_template.getRelocators();
+    }
+
+    @Override
+    public String getSectionDescription(String section) {
+        return m_template.getSectionDescription(section);
+    }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable prefix tree over the dot separated parameter keys of an
+ * {@link INodeConfiguration}, e.g., {@code FileFilter.1.algorithm.rt} lies in
+ * the section {@code FileFilter.1.algorithm}.
+ * <p>
+ * Besides O(depth) section lookup and subtree iteration in key order, the
+ * index caches for every key where it leaves the section of the preceding
+ * key, so that writers can open and close sections without comparing key
+ * prefixes.
+ */
+public final class ParameterIndex {
+
+    /**
+     * The separator of the key segments.
+     */
+    public static final char SEPARATOR = '.';
+
+    /**
+     * A section, i.e., an inner node of the prefix tree.
+     */
+    public static final class Section {
+
+        private final Section m_parent;
+        private final String m_name;
+        private final String m_path;
+        private final int m_depth;
+        private final Map<String, Section> m_children = new LinkedHashMap<String, Section>();
+        private final List<String> m_keys = new ArrayList<String>();
+        private final List<String> m_subtreeKeys = new ArrayList<String>();
+
+        private Section(Section parent, String name, String path) {
+            m_parent = parent;
+            m_name = name;
+            m_path = path;
+            m_depth = parent == null ? 0 : parent.m_depth + 1;
+        }
+
+        /**
+         * @return The last segment of the path, the empty string for the root.
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return The dot separated path, as used for
+         *         {@link INodeConfiguration#getSectionDescription(String)}.
+         */
+        public String getPath() {
+            return m_path;
+        }
+
+        /**
+         * @return The parent section, or null for the root.
+         */
+        public Section getParent() {
+            return m_parent;
+        }
+
+        /**
+         * @return The number of segments of the path, 0 for the root.
+         */
+        public int getDepth() {
+            return m_depth;
+        }
+
+        /**
+         * Returns the ancestor on the given depth.
+         * 
+         * @param depth
+         *            The depth, at most the depth of this section.
+         * @return The ancestor, or this section for its own depth.
+         */
+        public Section getAncestor(int depth) {
+            if (depth < 0 || depth > m_depth) {
+                throw new IllegalArgumentException("Invalid depth " + depth
+                        + " for section " + m_path);
+            }
+            Section s = this;
+            while (s.m_depth > depth) {
+                s = s.m_parent;
+            }
+            return s;
+        }
+
+        /**
+         * Returns the direct subsection with the given name.
+         * 
+         * @param name
+         *            The name of the subsection.
+         * @return The subsection or null if it does not exist.
+         */
+        public Section getChild(String name) {
+            return m_children.get(name);
+        }
+
+        /**
+         * @return The direct subsections in the order of their first key.
+         */
+        public Collection<Section> getChildren() {
+            return Collections.unmodifiableCollection(m_children.values());
+        }
+
+        /**
+         * @return The keys of the parameters directly in this section, in key
+         *         order.
+         */
+        public List<String> getKeys() {
+            return Collections.unmodifiableList(m_keys);
+        }
+
+        /**
+         * @return The keys of all parameters in this section and its
+         *         subsections, in key order.
+         */
+        public List<String> getSubtreeKeys() {
+            return Collections.unmodifiableList(m_subtreeKeys);
+        }
+
+        @Override
+        public String toString() {
+            return m_path;
+        }
+    }
+
+    private final Section m_root;
+    private final List<String> m_keys;
+    private final Map<String, Integer> m_keyIndex;
+    private final Section[] m_sections;
+    private final int[] m_commonDepths;
+
+    private ParameterIndex(List<String> keys) {
+        m_root = new Section(null, "", "");
+        m_keys = Collections.unmodifiableList(keys);
+        m_keyIndex = new HashMap<String, Integer>(keys.size() * 2);
+        m_sections = new Section[keys.size()];
+        m_commonDepths = new int[keys.size()];
+
+        Section previous = m_root;
+        for (int i = 0; i < keys.size(); ++i) {
+            String key = keys.get(i);
+            m_keyIndex.put(key, i);
+
+            Section section = m_root;
+            int start = 0;
+            int end = key.indexOf(SEPARATOR);
+            while (end >= 0) {
+                String name = key.substring(start, end);
+                Section child = section.m_children.get(name);
+                if (child == null) {
+                    child = new Section(section, name, key.substring(0, end));
+                    section.m_children.put(name, child);
+                }
+                section = child;
+                start = end + 1;
+                end = key.indexOf(SEPARATOR, start);
+            }
+            section.m_keys.add(key);
+            for (Section s = section; s != null; s = s.m_parent) {
+                s.m_subtreeKeys.add(key);
+            }
+            m_sections[i] = section;
+            m_commonDepths[i] = commonDepth(previous, section);
+            previous = section;
+        }
+    }
+
+    private static int commonDepth(Section a, Section b) {
+        while (a.m_depth > b.m_depth) {
+            a = a.m_parent;
+        }
+        while (b.m_depth > a.m_depth) {
+            b = b.m_parent;
+        }
+        while (a != b) {
+            a = a.m_parent;
+            b = b.m_parent;
+        }
+        return a.m_depth;
+    }
+
+    /**
+     * Creates the index over the given keys.
+     * 
+     * @param keys
+     *            The parameter keys in their order.
+     * @return The index.
+     */
+    public static ParameterIndex create(Collection<String> keys) {
+        return new ParameterIndex(new ArrayList<String>(keys));
+    }
+
+    /**
+     * @return The root section, containing all parameters.
+     */
+    public Section getRoot() {
+        return m_root;
+    }
+
+    /**
+     * @return All keys in their order.
+     */
+    public List<String> getKeys() {
+        return m_keys;
+    }
+
+    /**
+     * Checks whether the given key is indexed.
+     * 
+     * @param key
+     *            The parameter key.
+     * @return True if the key is a parameter key.
+     */
+    public boolean containsKey(String key) {
+        return m_keyIndex.containsKey(key);
+    }
+
+    /**
+     * Returns the position of the given key.
+     * 
+     * @param key
+     *            The parameter key.
+     * @return The position or -1 if the key is not indexed.
+     */
+    public int indexOf(String key) {
+        Integer i = m_keyIndex.get(key);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Returns the section with the given path, in O(depth).
+     * 
+     * @param path
+     *            The dot separated path, the empty string for the root.
+     * @return The section or null if no parameter lies in it.
+     */
+    public Section getSection(String path) {
+        Section section = m_root;
+        if (path.isEmpty()) {
+            return section;
+        }
+        int start = 0;
+        while (section != null) {
+            int end = path.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                return section.m_children.get(path.substring(start));
+            }
+            section = section.m_children.get(path.substring(start, end));
+            start = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the section the parameter at the given position lies in.
+     * 
+     * @param keyIndex
+     *            The position of the key.
+     * @return The section.
+     */
+    public Section getSection(int keyIndex) {
+        return m_sections[keyIndex];
+    }
+
+    /**
+     * Returns the section the given parameter lies in.
+     * 
+     * @param key
+     *            The parameter key.
+     * @return The section or null if the key is not indexed.
+     */
+    public Section getSectionOf(String key) {
+        int i = indexOf(key);
+        return i < 0 ? null : m_sections[i];
+    }
+
+    /**
+     * Returns the depth of the deepest section shared by the parameter at the
+     * given position and its predecessor. Writers close the sections of the
+     * predecessor below this depth and open the ones of the parameter.
+     * 
+     * @param keyIndex
+     *            The position of the key.
+     * @return The common depth, 0 for the first key.
+     */
+    public int getCommonDepth(int keyIndex) {
+        return m_commonDepths[keyIndex];
+    }
+}
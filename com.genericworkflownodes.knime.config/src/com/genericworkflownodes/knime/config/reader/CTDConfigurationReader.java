@@ -18,19 +18,36 @@
  */
 package com.genericworkflownodes.knime.config.reader;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+import org.xml.sax.SAXException;
+
 import com.genericworkflownodes.knime.cliwrapper.CLIElement;
 import com.genericworkflownodes.knime.cliwrapper.CLIMapping;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
 import com.genericworkflownodes.knime.config.INodeConfigurationReader;
+import com.genericworkflownodes.knime.config.NodeConfiguration;
 import com.genericworkflownodes.knime.config.reader.handler.CTDHandler;
 import com.genericworkflownodes.knime.parameter.BoolParameter;
 import com.genericworkflownodes.knime.parameter.FileListParameter;
@@ -49,53 +66,237 @@ import com.genericworkflownodes.knime.schemas.SchemaProvider;
 public class CTDConfigurationReader implements INodeConfigurationReader {
 
     /**
-     * The parsed configuration.
+     * Number of CTDs parsed by one task of {@link #readAll(Collection)}.
      */
-    private INodeConfiguration m_config;
+    private static final int BATCH_SIZE = 4;
 
-    @Override
-    public INodeConfiguration read(InputStream in)
-            throws InvalidCTDFileException {
-        try {
-            // create schema and parser for validation and parsing
+    /**
+     * The compiled CTD schema, shared by all readers as {@link Schema}
+     * instances are immutable and thread-safe.
+     */
+    private static Schema s_ctdSchema;
+
+    /**
+     * Validating parsers, one per thread since {@link SAXParser} instances
+     * must not be used concurrently.
+     */
+    private static final ThreadLocal<SAXParser> PARSERS = new ThreadLocal<SAXParser>();
+
+    /**
+     * Reloads the text fields of a configuration from its CTD file.
+     */
+    private static final class CTDTextSource implements
+            NodeConfiguration.TextSource {
+
+        private static final long serialVersionUID = -6815006373574407045L;
+
+        private final String m_ctd;
+
+        private CTDTextSource(final String ctd) {
+            m_ctd = ctd;
+        }
+
+        @Override
+        public INodeConfiguration load() throws Exception {
+            return new CTDConfigurationReader().read(Paths.get(m_ctd));
+        }
+    }
+
+    /**
+     * Lets the descriptions of the given configuration be read again from
+     * the given CTD file when they are needed. Configurations served from a
+     * {@link NodeConfigurationCache} are bound again, since the file may have
+     * moved since the configuration was cached, e.g., by a plugin update.
+     * 
+     * @param config
+     *            The configuration read from the CTD file.
+     * @param ctd
+     *            The CTD file.
+     */
+    static void bindTextSource(final INodeConfiguration config, final Path ctd) {
+        if (config instanceof NodeConfiguration) {
+            ((NodeConfiguration) config).setTextSource(new CTDTextSource(ctd
+                    .toAbsolutePath().toString()));
+        }
+    }
+
+    /**
+     * Returns the compiled CTD schema, compiling it on first use.
+     * 
+     * @return The CTD schema.
+     * @throws SAXException
+     *             If the schema cannot be compiled.
+     */
+    private static synchronized Schema getSchema() throws SAXException {
+        if (s_ctdSchema == null) {
             SchemaFactory schemaFactory = SchemaFactory
                     .newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            Schema ctdSchema = schemaFactory.newSchema(SchemaProvider.class
+            s_ctdSchema = schemaFactory.newSchema(SchemaProvider.class
                     .getResource("CTD.xsd"));
+        }
+        return s_ctdSchema;
+    }
+
+    /**
+     * Returns the validating parser of the current thread.
+     */
+    private static SAXParser getParser() throws SAXException,
+            ParserConfigurationException {
+        SAXParser sp = PARSERS.get();
+        if (sp == null) {
             SAXParserFactory spfac = SAXParserFactory.newInstance();
             spfac.setValidating(false);
-            spfac.setSchema(ctdSchema);
-
-            SAXParser sp = spfac.newSAXParser();
+            spfac.setSchema(getSchema());
+            sp = spfac.newSAXParser();
+            PARSERS.set(sp);
+        }
+        return sp;
+    }
 
-            CTDHandler handler = new CTDHandler(sp.getXMLReader());
-            sp.parse(in, handler);
-            m_config = handler.getNodeConfiguration();
+    /**
+     * {@inheritDoc}
+     * 
+     * The reader is stateless, a single instance can be used by many threads.
+     */
+    @Override
+    public INodeConfiguration read(InputStream in)
+            throws InvalidCTDFileException {
+        INodeConfiguration config;
+        try {
+            SAXParser sp = getParser();
+            try {
+                // handlers hold the state of a single parse only
+                CTDHandler handler = new CTDHandler(sp.getXMLReader());
+                sp.parse(in, handler);
+                config = handler.getNodeConfiguration();
+            } finally {
+                sp.reset();
+            }
         } catch (Exception e) {
             throw new InvalidCTDFileException("Failed to parse CTD file.", e);
         }
 
         // validate mappings of CLI config
-        for (CLIElement cliElement : m_config.getCLI().getCLIElement()) {
-            validateCLIElement(cliElement);
+        for (CLIElement cliElement : config.getCLI().getCLIElement()) {
+            validateCLIElement(config, cliElement);
         }
 
         // validate mappings in OutputConverter
-        for (Relocator relocator : m_config.getRelocators()) {
-            validateRelocator(relocator);
+        for (Relocator relocator : config.getRelocators()) {
+            validateRelocator(config, relocator);
         }
 
         // validate ports
-        for (Port port : m_config.getInputPorts()) {
-            validatePort(port);
+        for (Port port : config.getInputPorts()) {
+            validatePort(config, port);
         }
 
-        for (Port port : m_config.getOutputPorts()) {
-            validatePort(port);
+        for (Port port : config.getOutputPorts()) {
+            validatePort(config, port);
         }
 
         // return parsed and validated config
-        return m_config;
+        return config;
+    }
+
+    /**
+     * Reads the CTD file at the given path.
+     * 
+     * @param ctd
+     *            The CTD file.
+     * @return The parsed and validated configuration.
+     * @throws InvalidCTDFileException
+     *             If the file cannot be read or is invalid.
+     */
+    public INodeConfiguration read(final Path ctd)
+            throws InvalidCTDFileException {
+        try {
+            InputStream in = new BufferedInputStream(Files.newInputStream(ctd));
+            INodeConfiguration config;
+            try {
+                config = read(in);
+            } finally {
+                in.close();
+            }
+            bindTextSource(config, ctd);
+            return config;
+        } catch (IOException e) {
+            throw new InvalidCTDFileException("Failed to read CTD file "
+                    + ctd, e);
+        }
+    }
+
+    /**
+     * Reads the given CTD files in parallel, using one thread per available
+     * processor.
+     * 
+     * @param ctds
+     *            The CTD files.
+     * @return The parsed configurations in the order of the given collection.
+     * @throws InvalidCTDFileException
+     *             If one of the files cannot be read or is invalid.
+     */
+    public List<INodeConfiguration> readAll(final Collection<Path> ctds)
+            throws InvalidCTDFileException {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime()
+                .availableProcessors(), (ctds.size() + BATCH_SIZE - 1)
+                / BATCH_SIZE));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            return readAll(ctds, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the given CTD files in parallel on the given pool.
+     * 
+     * @param ctds
+     *            The CTD files.
+     * @param pool
+     *            The pool parsing the files.
+     * @return The parsed configurations in the order of the given collection.
+     * @throws InvalidCTDFileException
+     *             If one of the files cannot be read or is invalid.
+     */
+    public List<INodeConfiguration> readAll(final Collection<Path> ctds,
+            final ExecutorService pool) throws InvalidCTDFileException {
+        final Path[] paths = ctds.toArray(new Path[ctds.size()]);
+        final INodeConfiguration[] configs = new INodeConfiguration[paths.length];
+
+        List<Future<?>> tasks = new ArrayList<Future<?>>();
+        for (int i = 0; i < paths.length; i += BATCH_SIZE) {
+            final int from = i;
+            final int to = Math.min(paths.length, i + BATCH_SIZE);
+            tasks.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws InvalidCTDFileException {
+                    for (int j = from; j < to; ++j) {
+                        configs[j] = read(paths[j]);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InvalidCTDFileException) {
+                    throw (InvalidCTDFileException) e.getCause();
+                }
+                throw new InvalidCTDFileException("Failed to parse CTD files.",
+                        e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InvalidCTDFileException(
+                        "Interrupted while parsing CTD files.", e);
+            }
+        }
+
+        return Arrays.asList(configs);
     }
 
     /**
@@ -108,14 +309,17 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
      * <li>The port has at least one MIMEType.</li>
      * </ul>
      * 
+     * @param config
+     *            The configuration to validate.
      * @param port
      *            The port to validate.
      * @throws InvalidCTDFileException
      *             If the given port is invalid.
      */
-    private void validatePort(final Port port) throws InvalidCTDFileException {
+    private void validatePort(final INodeConfiguration config,
+            final Port port) throws InvalidCTDFileException {
         // check if the referenced parameter exists
-        Parameter<?> p = m_config.getParameter(port.getName());
+        Parameter<?> p = config.getParameter(port.getName());
         if (p == null) {
             throw new InvalidCTDFileException(String.format(
                     "The given port %s has no corresponding parameter.",
@@ -145,18 +349,21 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
      * Checks if the given cli-element is semantically correct. If not an
      * exception is thrown.
      * 
+     * @param config
+     *            The configuration to validate.
      * @param cliElement
      *            The {@link CLIElement} to check.
      * @throws InvalidCTDFileException
      *             Is thrown if the parameter contains invalid information.
      */
-    private void validateCLIElement(final CLIElement cliElement)
+    private void validateCLIElement(
+            final INodeConfiguration config, final CLIElement cliElement)
             throws InvalidCTDFileException {
         if (cliElement.getMapping().size() > 0) {
 
             for (CLIMapping mapping : cliElement.getMapping()) {
                 // check if a parameter with the given name was registered
-                checkIfMappedParameterExists(mapping);
+                checkIfMappedParameterExists(config, mapping);
             }
 
             // if we have more then one mapped parameter they cannot be boolean
@@ -164,8 +371,8 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
             if (cliElement.getMapping().size() > 1) {
                 for (CLIMapping mapping : cliElement.getMapping()) {
                     // find mapped parameter
-                    if (m_config.getParameter(mapping.getReferenceName()) != null
-                            && m_config
+                    if (config.getParameter(mapping.getReferenceName()) != null
+                            && config
                                     .getParameter(mapping.getReferenceName()) instanceof BoolParameter) {
                         // check that it is not boolean
                         throw new InvalidCTDFileException(
@@ -179,16 +386,20 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
     /**
      * Checks if the parameter given in the mapping element exists.
      * 
+     * @param config
+     *            The configuration to validate.
      * @param cliMapping
      *            The {@link CLIMapping} to check.
      * @throws InvalidCTDFileException
      *             Is thrown if their exists no parameter corresponding to the
      *             given mapping.
      */
-    private void checkIfMappedParameterExists(final CLIMapping cliMapping)
+    private void checkIfMappedParameterExists(
+            final INodeConfiguration config, final CLIMapping cliMapping)
             throws InvalidCTDFileException {
-        if (m_config.getParameter(cliMapping.getReferenceName()) == null
-                && !portWithRefNameExists(cliMapping.getReferenceName())) {
+        if (config.getParameter(cliMapping.getReferenceName()) == null
+                && !portWithRefNameExists(config,
+                        cliMapping.getReferenceName())) {
             throw new InvalidCTDFileException("Unknown Parameter "
                     + cliMapping.getReferenceName());
         }
@@ -197,18 +408,21 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
     /**
      * Checks whether a port with the specified name was registered.
      * 
+     * @param config
+     *            The configuration to validate.
      * @param mappingRefName
      *            The name of the mapped port/parameter.
      * @return True if a port with this name exists, false otherwise.
      */
-    private boolean portWithRefNameExists(final String mappingRefName) {
+    private boolean portWithRefNameExists(
+            final INodeConfiguration config, final String mappingRefName) {
         boolean hasPortWithMappingName = false;
 
         // check inPorts
         hasPortWithMappingName |= findInPortList(mappingRefName,
-                m_config.getInputPorts());
+                config.getInputPorts());
         hasPortWithMappingName |= findInPortList(mappingRefName,
-                m_config.getOutputPorts());
+                config.getOutputPorts());
 
         return hasPortWithMappingName;
     }
@@ -236,16 +450,19 @@ public class CTDConfigurationReader implements INodeConfigurationReader {
      * Checks if the relocator is valid (e.g., if the referenced parameter
      * exists and if it is an output parameter).
      * 
+     * @param config
+     *            The configuration to validate.
      * @param relocator
      *            The relocator to validate.
      * @throws InvalidCTDFileException
      *             Is thrown if the port points to a non existing output port.
      */
-    private void validateRelocator(final Relocator relocator)
+    private void validateRelocator(final INodeConfiguration config,
+            final Relocator relocator)
             throws InvalidCTDFileException {
         // check if converter ref exists
         if (!findInPortList(relocator.getReferencedParamter(),
-                m_config.getOutputPorts())) {
+                config.getOutputPorts())) {
             throw new InvalidCTDFileException(
                     "Invalid Output Converter: No output port with name "
                             + relocator.getReferencedParamter() + " exists.");
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+/**
+ * The header of a CTD, i.e., the attributes of the tool and the elements
+ * preceding its command line and parameters, as read by
+ * {@link CTDHeaderReader}.
+ */
+public final class CTDHeader {
+
+    private final String m_name;
+
+    private final String m_version;
+
+    private final String m_category;
+
+    private final String m_docUrl;
+
+    private final String m_description;
+
+    private final String m_executableName;
+
+    CTDHeader(final String name, final String version, final String category,
+            final String docUrl, final String description,
+            final String executableName) {
+        m_name = name;
+        m_version = version;
+        m_category = category;
+        m_docUrl = docUrl;
+        m_description = description;
+        m_executableName = executableName;
+    }
+
+    /**
+     * @return The name of the tool.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * @return The version of the tool.
+     */
+    public String getVersion() {
+        return m_version;
+    }
+
+    /**
+     * @return The category of the tool, empty if none is given.
+     */
+    public String getCategory() {
+        return m_category;
+    }
+
+    /**
+     * @return The documentation URL of the tool, empty if none is given.
+     */
+    public String getDocUrl() {
+        return m_docUrl;
+    }
+
+    /**
+     * @return The short description of the tool, empty if none is given.
+     */
+    public String getDescription() {
+        return m_description;
+    }
+
+    /**
+     * @return The name of the executable, <code>null</code> if none is given.
+     */
+    public String getExecutableName() {
+        return m_executableName;
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the {@link CTDHeader} of a CTD without validating or parsing the
+ * whole document. The document is streamed and reading stops at the first
+ * command line, parameter, relocator or citation declaration, so the cost
+ * does not depend on the number of parameters. Intended for node
+ * registration, where only the name and category of many tools are needed.
+ * 
+ * The reader is stateless, a single instance can be used by many threads.
+ */
+public class CTDHeaderReader {
+
+    private static final String TAG_TOOL = "tool";
+    private static final String TAG_DESCRIPTION = "description";
+    private static final String TAG_EXECUTABLE_NAME = "executableName";
+    private static final String TAG_CLI = "cli";
+    private static final String TAG_PARAMETERS = "PARAMETERS";
+    private static final String TAG_RELOCATORS = "relocators";
+    private static final String TAG_CITATIONS = "citations";
+    private static final String ATTR_NAME = "name";
+    private static final String ATTR_VERSION = "version";
+    private static final String ATTR_CATEGORY = "category";
+    private static final String ATTR_DOCURL = "docurl";
+
+    /**
+     * Stream reader factories, one per thread since not all implementations
+     * of {@link XMLInputFactory} are thread-safe.
+     */
+    private static final ThreadLocal<XMLInputFactory> FACTORIES = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(
+                    XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            return factory;
+        }
+    };
+
+    /**
+     * Reads the header of the CTD at the given path.
+     * 
+     * @param ctd
+     *            The CTD file.
+     * @return The header of the CTD.
+     * @throws InvalidCTDFileException
+     *             If the file cannot be read or has no valid tool header.
+     */
+    public CTDHeader read(final Path ctd) throws InvalidCTDFileException {
+        try {
+            InputStream in = new BufferedInputStream(Files.newInputStream(ctd));
+            try {
+                return read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new InvalidCTDFileException("Failed to read CTD file "
+                    + ctd, e);
+        }
+    }
+
+    /**
+     * Reads the header of the CTD from the given stream. The stream is not
+     * consumed beyond the header and is not closed.
+     * 
+     * @param in
+     *            The CTD document.
+     * @return The header of the CTD.
+     * @throws InvalidCTDFileException
+     *             If the document has no valid tool header.
+     */
+    public CTDHeader read(final InputStream in) throws InvalidCTDFileException {
+        try {
+            XMLStreamReader reader = FACTORIES.get().createXMLStreamReader(in);
+            try {
+                return readHeader(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new InvalidCTDFileException("Failed to parse CTD header.", e);
+        }
+    }
+
+    private CTDHeader readHeader(final XMLStreamReader reader)
+            throws XMLStreamException, InvalidCTDFileException {
+        reader.nextTag();
+        if (!TAG_TOOL.equals(reader.getLocalName())) {
+            throw new InvalidCTDFileException(
+                    "The root element of a CTD must be 'tool'.");
+        }
+        String name = reader.getAttributeValue(null, ATTR_NAME);
+        String version = reader.getAttributeValue(null, ATTR_VERSION);
+        if (name == null || version == null) {
+            throw new InvalidCTDFileException(
+                    "Required attributes 'name' and 'version' for tag 'tool' missing.");
+        }
+        String category = reader.getAttributeValue(null, ATTR_CATEGORY);
+        String docUrl = reader.getAttributeValue(null, ATTR_DOCURL);
+
+        String description = "";
+        String executableName = null;
+        int depth = 1;
+        while (reader.hasNext() && depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String tag = reader.getLocalName();
+                if (depth == 1
+                        && (TAG_CLI.equals(tag) || TAG_PARAMETERS.equals(tag)
+                                || TAG_RELOCATORS.equals(tag) || TAG_CITATIONS
+                                    .equals(tag))) {
+                    // end of the header
+                    break;
+                }
+                if (depth == 1 && TAG_DESCRIPTION.equals(tag)) {
+                    description = reader.getElementText();
+                } else if (depth == 1 && TAG_EXECUTABLE_NAME.equals(tag)) {
+                    executableName = reader.getElementText();
+                } else {
+                    ++depth;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                --depth;
+            }
+        }
+
+        return new CTDHeader(name, version, category != null ? category : "",
+                docUrl != null ? docUrl : "", description, executableName);
+    }
+}
@@ -0,0 +1,428 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.port.Port;
+import com.genericworkflownodes.util.FileFingerprintIndex;
+
+/**
+ * Manifest of the CTDs in a descriptors directory, written at build time as
+ * {@link #FILE_NAME} next to the CTDs. It lists for every tool its CTD path
+ * relative to the directory, name, category, executable name, ports with
+ * their MIME types and the fingerprint of the CTD, so that node sets can be
+ * registered without enumerating or parsing the CTDs.
+ * 
+ * The manifest is a UTF-8 text file with a header line and one tab-separated
+ * line per tool.
+ */
+public final class DescriptorIndex {
+
+    /**
+     * Name of the manifest in the descriptors directory.
+     */
+    public static final String FILE_NAME = "descriptors.idx";
+
+    /**
+     * Location of the manifest relative to the root of a plugin, where the
+     * plugin's BinaryManager reads it from.
+     */
+    public static final String PLUGIN_PATH = "payload/descriptors/"
+            + FILE_NAME;
+
+    private static final String HEADER = "#gkn-descriptors\t1";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int FIELDS = 7;
+
+    private static final char FLAG_OPTIONAL = 'o';
+
+    private static final char FLAG_MULTI_FILE = 'm';
+
+    /**
+     * A tool listed in the manifest.
+     */
+    public static final class Entry {
+        private final String m_tool;
+        private final String m_name;
+        private final String m_category;
+        private final String m_executableName;
+        private final long m_hash;
+        private final List<Port> m_inputPorts;
+        private final List<Port> m_outputPorts;
+
+        Entry(final String tool, final String name, final String category,
+                final String executableName, final long hash,
+                final List<Port> inputPorts, final List<Port> outputPorts) {
+            m_tool = tool;
+            m_name = name;
+            m_category = category;
+            m_executableName = executableName;
+            m_hash = hash;
+            m_inputPorts = Collections.unmodifiableList(inputPorts);
+            m_outputPorts = Collections.unmodifiableList(outputPorts);
+        }
+
+        /**
+         * @return The path of the CTD relative to the descriptors directory.
+         */
+        public String getTool() {
+            return m_tool;
+        }
+
+        /**
+         * @return The name of the tool.
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return The category of the tool.
+         */
+        public String getCategory() {
+            return m_category;
+        }
+
+        /**
+         * @return The name of the executable, empty if none is given.
+         */
+        public String getExecutableName() {
+            return m_executableName;
+        }
+
+        /**
+         * @return The fingerprint of the CTD content, see
+         *         {@link FileFingerprintIndex#hash(Path)}.
+         */
+        public long getHash() {
+            return m_hash;
+        }
+
+        /**
+         * @return The input ports with name, flags and MIME types.
+         */
+        public List<Port> getInputPorts() {
+            return m_inputPorts;
+        }
+
+        /**
+         * @return The output ports with name, flags and MIME types.
+         */
+        public List<Port> getOutputPorts() {
+            return m_outputPorts;
+        }
+    }
+
+    private final Map<String, Entry> m_entries;
+
+    private DescriptorIndex(final Map<String, Entry> entries) {
+        m_entries = entries;
+    }
+
+    /**
+     * @return The listed tools in manifest order.
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<Entry>(m_entries.values());
+    }
+
+    /**
+     * Returns the entry of the given tool.
+     * 
+     * @param tool
+     *            The path of the CTD relative to the descriptors directory.
+     * @return The entry, <code>null</code> if the tool is not listed.
+     */
+    public Entry getEntry(final String tool) {
+        return m_entries.get(tool);
+    }
+
+    /**
+     * Creates the manifest of all CTDs in the given directory, parsing them
+     * in parallel.
+     * 
+     * @param descriptorsDir
+     *            The descriptors directory.
+     * @return The manifest.
+     * @throws IOException
+     *             If the directory cannot be listed or a CTD is invalid.
+     */
+    public static DescriptorIndex create(final Path descriptorsDir)
+            throws IOException {
+        List<Path> ctds = new ArrayList<Path>();
+        DirectoryStream<Path> stream = Files.newDirectoryStream(
+                descriptorsDir, "*.ctd");
+        try {
+            for (Path ctd : stream) {
+                ctds.add(ctd);
+            }
+        } finally {
+            stream.close();
+        }
+        Collections.sort(ctds);
+
+        List<INodeConfiguration> configs;
+        try {
+            configs = new CTDConfigurationReader().readAll(ctds);
+        } catch (InvalidCTDFileException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        for (int i = 0; i < ctds.size(); ++i) {
+            INodeConfiguration config = configs.get(i);
+            String tool = descriptorsDir.relativize(ctds.get(i)).toString();
+            String executableName = config.getExecutableName();
+            entries.put(tool, new Entry(tool, config.getName(), config
+                    .getCategory(), executableName != null ? executableName
+                    : "", FileFingerprintIndex.hash(ctds.get(i)),
+                    new ArrayList<Port>(config.getInputPorts()),
+                    new ArrayList<Port>(config.getOutputPorts())));
+        }
+        return new DescriptorIndex(entries);
+    }
+
+    /**
+     * Creates the manifest of the given descriptors directory and writes it
+     * to {@link #FILE_NAME} in the directory.
+     * 
+     * @param descriptorsDir
+     *            The descriptors directory.
+     * @throws IOException
+     *             If a CTD is invalid or the manifest cannot be written.
+     */
+    public static void generate(final Path descriptorsDir) throws IOException {
+        OutputStream out = Files.newOutputStream(descriptorsDir
+                .resolve(FILE_NAME));
+        try {
+            create(descriptorsDir).write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the manifest of each given descriptors directory, for use in the
+     * packaging of plug-ins with dynamic nodes.
+     * 
+     * @param args
+     *            The descriptors directories.
+     * @throws IOException
+     *             If a manifest cannot be created.
+     */
+    public static void main(final String[] args) throws IOException {
+        for (String dir : args) {
+            generate(Paths.get(dir));
+        }
+    }
+
+    /**
+     * Writes the manifest to the given stream, which is not closed.
+     * 
+     * @param out
+     *            The stream to write to.
+     * @throws IOException
+     *             If the manifest cannot be written.
+     */
+    public void write(final OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF8));
+        writer.write(HEADER);
+        writer.write('\n');
+        StringBuilder line = new StringBuilder();
+        for (Entry e : m_entries.values()) {
+            line.setLength(0);
+            appendEscaped(line, e.m_tool).append('\t');
+            appendEscaped(line, e.m_name).append('\t');
+            appendEscaped(line, e.m_category).append('\t');
+            appendEscaped(line, e.m_executableName).append('\t');
+            line.append(String.format("%016x", e.m_hash)).append('\t');
+            appendPorts(line, e.m_inputPorts).append('\t');
+            appendPorts(line, e.m_outputPorts).append('\n');
+            writer.write(line.toString());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Reads a manifest from the given stream, which is not closed.
+     * 
+     * @param in
+     *            The stream to read from.
+     * @return The manifest.
+     * @throws IOException
+     *             If the stream cannot be read or is not a valid manifest.
+     */
+    public static DescriptorIndex read(final InputStream in)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in,
+                UTF8));
+        if (!HEADER.equals(reader.readLine())) {
+            throw new IOException("Unsupported descriptor manifest.");
+        }
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != FIELDS) {
+                throw new IOException("Invalid descriptor manifest line: "
+                        + line);
+            }
+            String tool = unescape(fields[0]);
+            long hash;
+            try {
+                // unsigned hex, Long.parseUnsignedLong is not available on
+                // Java 7
+                BigInteger value = new BigInteger(fields[4], 16);
+                if (value.signum() < 0 || value.bitLength() > 64) {
+                    throw new NumberFormatException(fields[4]);
+                }
+                hash = value.longValue();
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid CTD hash: " + fields[4], e);
+            }
+            entries.put(tool, new Entry(tool, unescape(fields[1]),
+                    unescape(fields[2]), unescape(fields[3]), hash,
+                    parsePorts(fields[5]), parsePorts(fields[6])));
+        }
+        return new DescriptorIndex(entries);
+    }
+
+    /**
+     * Ports are written as <code>name:flags:mime,mime</code> separated by
+     * spaces.
+     */
+    private static StringBuilder appendPorts(final StringBuilder sb,
+            final List<Port> ports) {
+        for (int i = 0; i < ports.size(); ++i) {
+            Port port = ports.get(i);
+            if (i > 0) {
+                sb.append(' ');
+            }
+            appendEscaped(sb, port.getName()).append(':');
+            if (port.isOptional()) {
+                sb.append(FLAG_OPTIONAL);
+            }
+            if (port.isMultiFile()) {
+                sb.append(FLAG_MULTI_FILE);
+            }
+            sb.append(':');
+            List<String> mimeTypes = port.getMimeTypes();
+            for (int j = 0; j < mimeTypes.size(); ++j) {
+                if (j > 0) {
+                    sb.append(',');
+                }
+                appendEscaped(sb, mimeTypes.get(j));
+            }
+        }
+        return sb;
+    }
+
+    private static List<Port> parsePorts(final String field)
+            throws IOException {
+        List<Port> ports = new ArrayList<Port>();
+        if (field.isEmpty()) {
+            return ports;
+        }
+        for (String p : field.split(" ")) {
+            String[] parts = p.split(":", -1);
+            if (parts.length != 3) {
+                throw new IOException("Invalid port in descriptor manifest: "
+                        + p);
+            }
+            Port port = new Port();
+            port.setName(unescape(parts[0]));
+            port.setOptional(parts[1].indexOf(FLAG_OPTIONAL) >= 0);
+            port.setMultiFile(parts[1].indexOf(FLAG_MULTI_FILE) >= 0);
+            if (!parts[2].isEmpty()) {
+                for (String mimeType : parts[2].split(",")) {
+                    port.addMimeType(unescape(mimeType));
+                }
+            }
+            ports.add(port);
+        }
+        return ports;
+    }
+
+    /**
+     * Escapes the characters used as separators as <code>%XX</code>.
+     */
+    private static StringBuilder appendEscaped(final StringBuilder sb,
+            final String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '\t' || c == '\n' || c == '\r' || c == ' '
+                    || c == ':' || c == ',') {
+                sb.append('%').append(String.format("%02X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    private static String unescape(final String value) throws IOException {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= value.length()) {
+                    throw new IOException("Invalid escape in " + value);
+                }
+                try {
+                    sb.append((char) Integer.parseInt(
+                            value.substring(i + 1, i + 3), 16));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid escape in " + value, e);
+                }
+                i += 2;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
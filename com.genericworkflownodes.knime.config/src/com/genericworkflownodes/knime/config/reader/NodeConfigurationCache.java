@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.util.FileFingerprintIndex;
+
+/**
+ * Persistent cache of parsed CTDs. The parsed {@link INodeConfiguration}s are
+ * stored in serialized and compressed form, keyed by the fingerprint and size
+ * of the CTD content, so that unchanged CTDs need not be validated and parsed
+ * again on the next start. The whole cache is discarded if it was written by
+ * another version.
+ */
+public final class NodeConfigurationCache {
+
+    private static final Logger LOG = Logger
+            .getLogger(NodeConfigurationCache.class.getCanonicalName());
+
+    private static final int MAGIC = 0x474b4e43;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * A cached configuration.
+     */
+    private static final class Entry {
+        private final long m_size;
+        private final byte[] m_data;
+
+        Entry(final long size, final byte[] data) {
+            m_size = size;
+            m_data = data;
+        }
+    }
+
+    private final Path m_cacheFile;
+
+    private final String m_version;
+
+    private final Map<Long, Entry> m_entries;
+
+    private boolean m_modified = false;
+
+    private boolean m_saveScheduled = false;
+
+    /**
+     * C'tor. Loads the persisted cache if it exists and was written by the
+     * given version, a missing, outdated or corrupt cache results in an empty
+     * one.
+     * 
+     * @param cacheFile
+     *            The file the cache is persisted to.
+     * @param version
+     *            The version of the code that parses the CTDs.
+     * @param maxEntries
+     *            The maximal number of configurations to remember.
+     */
+    public NodeConfigurationCache(final Path cacheFile, final String version,
+            final int maxEntries) {
+        m_cacheFile = cacheFile;
+        m_version = version;
+        m_entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            // qualified, inside the map Entry would name LinkedHashMap.Entry
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Long, NodeConfigurationCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                load();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Discarding corrupt CTD cache "
+                        + cacheFile, e);
+                m_entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the configuration of the given CTD from the cache, or parses
+     * it with the given reader and adds it to the cache.
+     * 
+     * @param ctd
+     *            The CTD file.
+     * @param reader
+     *            The reader used on a cache miss.
+     * @return The configuration of the CTD.
+     * @throws InvalidCTDFileException
+     *             If the CTD cannot be read or is invalid.
+     */
+    public INodeConfiguration read(final Path ctd,
+            final CTDConfigurationReader reader)
+            throws InvalidCTDFileException {
+        long size;
+        long key;
+        try {
+            size = Files.size(ctd);
+            key = FileFingerprintIndex.hash(ctd);
+        } catch (IOException e) {
+            throw new InvalidCTDFileException("Failed to read CTD file " + ctd,
+                    e);
+        }
+
+        Entry entry;
+        synchronized (this) {
+            entry = m_entries.get(key);
+        }
+        if (entry != null && entry.m_size == size) {
+            try {
+                INodeConfiguration config = deserialize(entry.m_data);
+                // the cached location of the CTD may be outdated
+                CTDConfigurationReader.bindTextSource(config, ctd);
+                return config;
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Discarding cached configuration of "
+                        + ctd, e);
+            }
+        }
+
+        INodeConfiguration config = reader.read(ctd);
+        try {
+            byte[] data = serialize(config);
+            synchronized (this) {
+                m_entries.put(key, new Entry(size, data));
+                m_modified = true;
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not cache the configuration of "
+                    + ctd, e);
+        }
+        return config;
+    }
+
+    /**
+     * @return The number of cached configurations.
+     */
+    public synchronized int size() {
+        return m_entries.size();
+    }
+
+    /**
+     * @return <code>true</code> if the cache was changed since it was loaded
+     *         or last saved.
+     */
+    public synchronized boolean isModified() {
+        return m_modified;
+    }
+
+    /**
+     * Saves the cache on a background thread after the given delay, so that
+     * the configurations parsed meanwhile are saved together. Does nothing if
+     * a save is already scheduled.
+     * 
+     * @param delay
+     *            The delay in ms.
+     */
+    public synchronized void saveInBackground(final long delay) {
+        if (m_saveScheduled) {
+            return;
+        }
+        m_saveScheduled = true;
+        Thread saver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(delay);
+                    save();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not save the CTD cache "
+                            + m_cacheFile, e);
+                } finally {
+                    synchronized (NodeConfigurationCache.this) {
+                        m_saveScheduled = false;
+                    }
+                }
+            }
+        }, "GKN CTD cache writer");
+        saver.setDaemon(true);
+        saver.start();
+    }
+
+    /**
+     * Writes the cache to its file if it was changed since it was loaded or
+     * last saved.
+     * 
+     * @throws IOException
+     *             If the cache could not be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!m_modified) {
+            return;
+        }
+        Path dir = m_cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, m_cacheFile.getFileName()
+                .toString(), ".part");
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(m_version);
+                out.writeInt(m_entries.size());
+                // least recently used first, so that loading restores the order
+                for (Map.Entry<Long, Entry> e : m_entries.entrySet()) {
+                    out.writeLong(e.getKey());
+                    out.writeLong(e.getValue().m_size);
+                    out.writeInt(e.getValue().m_data.length);
+                    out.write(e.getValue().m_data);
+                }
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmp, m_cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, m_cacheFile,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        m_modified = false;
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(m_cacheFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !m_version.equals(in.readUTF())) {
+                // written by another version, start from scratch
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; ++i) {
+                long key = in.readLong();
+                long size = in.readLong();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                m_entries.put(key, new Entry(size, data));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] serialize(final INodeConfiguration config)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(
+                new DeflaterOutputStream(bytes));
+        try {
+            out.writeObject(config);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static INodeConfiguration deserialize(final byte[] data)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(data)));
+        try {
+            return (INodeConfiguration) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+}
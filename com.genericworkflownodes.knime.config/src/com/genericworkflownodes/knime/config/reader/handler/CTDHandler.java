@@ -29,6 +29,10 @@ import com.genericworkflownodes.knime.config.NodeConfiguration;
 /**
  * The main {@link ContentHandler} for the CTD.
  * 
+ * Instances hold the state of a single parse and must not be shared, the
+ * static state of the class is immutable. Hence concurrent parses with
+ * separate instances are safe.
+ * 
  * @author aiche
  */
 public class CTDHandler extends DefaultHandler {
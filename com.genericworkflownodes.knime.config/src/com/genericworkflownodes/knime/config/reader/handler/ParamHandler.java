@@ -59,6 +59,10 @@ import com.genericworkflownodes.util.ranges.IntegerRangeExtractor;
 /**
  * SAXHandler for the parameters tag in the CTD document.
  * 
+ * Instances hold the state of a single parse and must not be shared, the
+ * static state of the class is immutable. Hence concurrent parses with
+ * separate instances are safe.
+ * 
  * @author aiche
  */
 public class ParamHandler extends DefaultHandler {
@@ -23,7 +23,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -32,7 +31,8 @@ import org.apache.commons.lang.StringEscapeUtils;
 import com.genericworkflownodes.knime.cliwrapper.CLIElement;
 import com.genericworkflownodes.knime.cliwrapper.CLIMapping;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
-import com.genericworkflownodes.knime.config.reader.handler.ParamHandler;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
+import com.genericworkflownodes.knime.config.ParameterIndex;
 import com.genericworkflownodes.knime.parameter.BoolParameter;
 import com.genericworkflownodes.knime.parameter.DoubleListParameter;
 import com.genericworkflownodes.knime.parameter.DoubleParameter;
@@ -48,18 +48,16 @@ import com.genericworkflownodes.knime.parameter.StringListParameter;
 import com.genericworkflownodes.knime.parameter.StringParameter;
 import com.genericworkflownodes.knime.port.Port;
 import com.genericworkflownodes.knime.relocator.Relocator;
-import com.genericworkflownodes.util.StringUtils;
 
 /**
  * @author aiche
  */
 public class CTDConfigurationWriter {
 
-    private static final String REMOVE_TRAILING_DOT_RE = "\\.$";
-    private static final String REMOVE_TRAILING_0_RE = "0*$";
     private BufferedWriter outputWriter;
+    // collects the output instead of outputWriter while compiling a template
+    private CTDTemplate.Builder templateBuilder;
     private int currentIndent;
-    private List<String> currentNodeState;
     private INodeConfiguration currentConfig;
     // whether unused parameters are ignored (see setter method for javadoc)
     private boolean ignoreUnusedParameters;
@@ -89,10 +87,16 @@ public class CTDConfigurationWriter {
     public CTDConfigurationWriter(BufferedWriter out) {
         outputWriter = out;
         currentIndent = 0;
-        currentNodeState = null;
         ignoreUnusedParameters = true;
     }
 
+    /**
+     * C'tor for compiling templates only.
+     */
+    CTDConfigurationWriter() {
+        this((BufferedWriter) null);
+    }
+
     /**
      * Adds the opening tags to the document.
      * 
@@ -120,6 +124,10 @@ public class CTDConfigurationWriter {
     }
 
     private void streamPut(String text) throws IOException {
+        if (templateBuilder != null) {
+            templateBuilder.append(indentation() + text + '\n');
+            return;
+        }
         for (int i = 0; i < currentIndent; ++i) {
             outputWriter.write('\t');
         }
@@ -128,6 +136,14 @@ public class CTDConfigurationWriter {
         outputWriter.write('\n');
     }
 
+    private String indentation() {
+        StringBuilder sb = new StringBuilder(currentIndent);
+        for (int i = 0; i < currentIndent; ++i) {
+            sb.append('\t');
+        }
+        return sb.toString();
+    }
+
     /**
      * 
      * @param config
@@ -204,32 +220,24 @@ public class CTDConfigurationWriter {
         ++currentIndent;
     }
 
-    private List<String> getPrefix(String paramKey) {
-        String[] keys = paramKey.split("\\.");
-        assert keys.length > 1;
-        List<String> prefixes = new ArrayList<String>();
-        for (int i = 0; i < (keys.length - 1); ++i) {
-            prefixes.add(keys[i]);
-        }
-
-        return prefixes;
-    }
-
     private void writeParamXML() throws IOException {
 
-        currentNodeState = new ArrayList<String>();
-
         streamPut("<PARAMETERS version=\"1.7.0\" "
                 + "xsi:noNamespaceSchemaLocation=\"https://raw.githubusercontent.com/WorkflowConversion/CTDSchema/master/Param_1_7_0.xsd\" "
                 + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">");
         indent();
 
-        for (String key : currentConfig.getParameterKeys()) {
-            List<String> prefix = getPrefix(key);
-            updateNodes(prefix);
+        ParameterIndex index = currentConfig.getParameterIndex();
+        List<String> keys = index.getKeys();
+        int depth = 0;
+        for (int i = 0; i < keys.size(); ++i) {
+            String key = keys.get(i);
+            depth = updateNodes(index.getSection(i), index.getCommonDepth(i),
+                    depth);
 
             // output the actual parameter
-            Parameter<?> p = currentConfig.getParameter(key);
+            Parameter<?> p = NodeConfigurationOverlay
+                    .peek(currentConfig, key);
             // handle depending on list or not
             if (p instanceof ListParameter) {
                 writeItemList(key, p);
@@ -238,37 +246,21 @@ public class CTDConfigurationWriter {
             }
         }
 
-        closeRemainingNodes();
+        closeNodes(depth, 0);
 
         outdent();
         streamPut("</PARAMETERS>");
     }
 
     private void writeItem(String key, Parameter<?> p) throws IOException {
-    	if (p instanceof FileParameter) {
-    		// Omit complete parameter when its value is null (e.g. not connected)
-    		if (ignoreUnusedParameters && p.isNull()) {
-    			return;
-    		}
-    		// If it is an optional outport, check activation
-    		if (ignoreUnusedParameters && p.isOptional() && currentConfig.getOutputPortByName(key) != null) {
-    			if (!((FileParameter) p).getPort().isActive()) {
-    				//skip addition of inactive Ports. They should not have any meaningful filenames/values anyway.
-    				return;
-    			}
-    		}
-    	}
+        int checks = unusedChecks(key, p);
+        if (templateBuilder == null
+                && CTDTemplate.isUnused(currentConfig, key, p, checks)) {
+            return;
+        }
         // construct parameter entry
+        String head = "<ITEM name=\"" + p.getKey() + "\" value=\"";
         StringBuffer item = new StringBuffer();
-        item.append("<ITEM name=\"");
-        item.append(p.getKey());
-        item.append('\"');
-
-        // value
-        item.append(" value=\"");
-        if (p.getValue() != null && p.getValue().toString() != null) {
-            item.append(xmlEscapeText(p.getValue().toString()));
-        }
         item.append('\"');
 
         // type
@@ -293,23 +285,24 @@ public class CTDConfigurationWriter {
         }
 
         item.append(" />");
-        streamPut(item.toString());
+        if (templateBuilder != null) {
+            templateBuilder.addItem(key, checks, indentation() + head,
+                    item.append('\n').toString());
+        } else {
+            String value = "";
+            if (p.getValue() != null && p.getValue().toString() != null) {
+                value = xmlEscapeText(p.getValue().toString());
+            }
+            streamPut(head + value + item);
+        }
     }
 
-	private void writeItemList(String key, Parameter<?> p) throws IOException {
-    	if (p instanceof FileListParameter) {
-    		// Omit complete parameter when its value is null (e.g. not connected)
-    		if (ignoreUnusedParameters && p.isNull()) {
-    			return;
-    		}
-    		// If it is an optional outport, check activation
-    		if (ignoreUnusedParameters && p.isOptional() && currentConfig.getOutputPortByName(key) != null) {
-    			if (!((FileListParameter) p).getPort().isActive()) {
-    				//skip addition of inactive Ports. They should not have any meaningful filenames/values anyway.
-    				return;
-    			}
-    		}
-    	}
+    private void writeItemList(String key, Parameter<?> p) throws IOException {
+        int checks = unusedChecks(key, p);
+        if (templateBuilder == null
+                && CTDTemplate.isUnused(currentConfig, key, p, checks)) {
+            return;
+        }
         StringBuffer item = new StringBuffer();
         item.append("<ITEMLIST name=\"");
         item.append(p.getKey());
@@ -333,6 +326,13 @@ public class CTDConfigurationWriter {
         addParameterAttributes(p, item);
 
         item.append('>');
+        if (templateBuilder != null) {
+            String indentation = indentation();
+            templateBuilder.addItemList(key, checks, indentation + item
+                    + '\n', indentation + '\t', indentation
+                    + "</ITEMLIST>\n");
+            return;
+        }
         streamPut(item.toString());
 
         indent();
@@ -344,6 +344,21 @@ public class CTDConfigurationWriter {
         streamPut("</ITEMLIST>");
     }
 
+    /**
+     * Determines which of the {@link CTDTemplate} unused checks apply to the
+     * given parameter.
+     */
+    private int unusedChecks(String key, Parameter<?> p) {
+        if (!ignoreUnusedParameters || !(p instanceof IFileParameter)) {
+            return 0;
+        }
+        int checks = CTDTemplate.SKIP_IF_NULL;
+        if (p.isOptional() && currentConfig.getOutputPortByName(key) != null) {
+            checks |= CTDTemplate.SKIP_IF_INACTIVE;
+        }
+        return checks;
+    }
+
     private void addItemType(String key, Parameter<?> p, StringBuffer item) {
         item.append(" type=\"");
         if (p instanceof FileParameter) {
@@ -472,19 +487,13 @@ public class CTDConfigurationWriter {
         boolean ubSet = Double.POSITIVE_INFINITY != dlp.getUpperBound()
                 .doubleValue();
         if (lbSet) {
-            restriction.append(String
-                    .format(Locale.ENGLISH, "%f", dlp.getLowerBound())
-                    .replaceAll(REMOVE_TRAILING_0_RE, "")
-                    .replaceAll(REMOVE_TRAILING_DOT_RE, ""));
+            restriction.append(formatBound(dlp.getLowerBound()));
         }
         if (ubSet || lbSet) {
             restriction.append(':');
         }
         if (ubSet) {
-            restriction.append(String
-                    .format(Locale.ENGLISH, "%f", dlp.getUpperBound())
-                    .replaceAll(REMOVE_TRAILING_0_RE, "")
-                    .replaceAll(REMOVE_TRAILING_DOT_RE, ""));
+            restriction.append(formatBound(dlp.getUpperBound()));
         }
     }
 
@@ -529,66 +538,61 @@ public class CTDConfigurationWriter {
         boolean ubSet = Double.POSITIVE_INFINITY != dp.getUpperBound()
                 .doubleValue();
         if (lbSet) {
-            restriction.append(String
-                    .format(Locale.ENGLISH, "%f", dp.getLowerBound())
-                    .replaceAll(REMOVE_TRAILING_0_RE, "")
-                    .replaceAll(REMOVE_TRAILING_DOT_RE, ""));
+            restriction.append(formatBound(dp.getLowerBound()));
         }
         if (ubSet || lbSet) {
             restriction.append(':');
         }
         if (ubSet) {
-            restriction.append(String
-                    .format(Locale.ENGLISH, "%f", dp.getUpperBound())
-                    .replaceAll(REMOVE_TRAILING_0_RE, "")
-                    .replaceAll(REMOVE_TRAILING_DOT_RE, ""));
+            restriction.append(formatBound(dp.getUpperBound()));
         }
     }
 
-    private void closeRemainingNodes() throws IOException {
-        // close remaining prefixes
-        for (int i = 0; i < currentNodeState.size(); ++i) {
-            outdent();
-            streamPut("</NODE>");
+    /**
+     * Formats a double bound with six decimals, stripping trailing zeros and a
+     * trailing dot.
+     */
+    private static String formatBound(Number bound) {
+        String s = String.format(Locale.ENGLISH, "%f", bound);
+        int end = s.length();
+        while (end > 0 && s.charAt(end - 1) == '0') {
+            --end;
         }
-        // clean up
-        currentNodeState = null;
-    }
-
-    private void updateNodes(List<String> prefix) throws IOException {
-        // find matching prefix
-        int commonPrefix = 0;
-        int smallerListSize = Math.min(prefix.size(), currentNodeState.size());
-        for (; commonPrefix < smallerListSize; ++commonPrefix) {
-            if (!prefix.get(commonPrefix).equals(
-                    currentNodeState.get(commonPrefix))) {
-                break;
-            }
+        if (end > 0 && s.charAt(end - 1) == '.') {
+            --end;
         }
+        return s.substring(0, end);
+    }
 
-        for (int i = commonPrefix; i < currentNodeState.size(); ++i) {
+    private void closeNodes(int depth, int commonDepth) throws IOException {
+        for (int i = commonDepth; i < depth; ++i) {
             outdent();
             streamPut("</NODE>");
         }
-        for (int i = commonPrefix; i < prefix.size(); ++i) {
-            String description = currentConfig
-                    .getSectionDescription(concatenate(prefix, i));
+    }
+
+    /**
+     * Closes the open NODEs below the common depth and opens the ones of the
+     * given section.
+     * 
+     * @return The new depth.
+     */
+    private int updateNodes(ParameterIndex.Section section, int commonDepth,
+            int depth) throws IOException {
+        closeNodes(depth, commonDepth);
+        for (int d = commonDepth + 1; d <= section.getDepth(); ++d) {
+            ParameterIndex.Section node = section.getAncestor(d);
+            String description = currentConfig.getSectionDescription(node
+                    .getPath());
             if (description == null) {
                 description = "";
             }
 
             streamPut(String.format("<NODE name=\"%s\" description=\"%s\">",
-                    prefix.get(i), xmlEscapeText(description)));
+                    node.getName(), xmlEscapeText(description)));
             indent();
         }
-        currentNodeState = prefix;
-    }
-
-    private String concatenate(List<String> prefix, int end) {
-        return StringUtils.join(
-                prefix.subList(0,
-                        ((end + 1) < prefix.size() ? end + 1 : prefix.size())),
-                String.valueOf(ParamHandler.PATH_SEPARATOR));
+        return section.getDepth();
     }
 
     /**
@@ -616,6 +620,33 @@ public class CTDConfigurationWriter {
         outputWriter.close();
     }
     
+    /**
+     * Compiles the given {@link INodeConfiguration} into a {@link CTDTemplate}
+     * that reproduces the output of {@link #write(INodeConfiguration)} for
+     * any parameter values.
+     * 
+     * @param config
+     *            The config to compile.
+     * @return The compiled template.
+     * @throws IOException
+     *             Not thrown, the template is built in memory.
+     */
+    CTDTemplate compile(INodeConfiguration config) throws IOException {
+        currentIndent = 0;
+        currentConfig = config;
+        templateBuilder = new CTDTemplate.Builder(config.getParameterIndex(),
+                ignoreUnusedParameters);
+        try {
+            openCTDDocument();
+            writeHeader();
+            writeParamXML();
+            closeCTDDocument();
+            return templateBuilder.build();
+        } finally {
+            templateBuilder = null;
+        }
+    }
+
     /**
      * Certain parameters are not needed when writing configurations. 
      * A parameter will be ignored if any of the following conditions apply:
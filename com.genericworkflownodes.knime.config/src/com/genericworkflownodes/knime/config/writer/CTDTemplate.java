@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.config.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
+import com.genericworkflownodes.knime.config.ParameterIndex;
+import com.genericworkflownodes.knime.parameter.ListParameter;
+import com.genericworkflownodes.knime.parameter.Parameter;
+import com.genericworkflownodes.knime.port.Port;
+
+/**
+ * A {@link INodeConfiguration} precompiled into the static parts of its CTD,
+ * i.e., header, NODE structure and ITEM attributes, and one value slot per
+ * parameter.
+ * <p>
+ * Writing a configuration only renders the values of the slots and hands the
+ * whole document to the file channel at once. With the {@link Renderings} of
+ * a configuration, only the values that changed since its last write are
+ * rendered again. The output is the same as the one of a
+ * {@link CTDConfigurationWriter} with the same settings. A template is
+ * immutable and can be used concurrently for every configuration that
+ * {@link #matches(INodeConfiguration)} it, e.g., all
+ * {@link NodeConfigurationOverlay}s on the same template configuration, as
+ * long as only parameter values and port activeness differ.
+ */
+public final class CTDTemplate {
+
+    /**
+     * Skip the parameter if its value is null.
+     */
+    static final int SKIP_IF_NULL = 1;
+
+    /**
+     * Skip the parameter if its output port is inactive.
+     */
+    static final int SKIP_IF_INACTIVE = 2;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte[] LISTITEM_HEAD = encode("<LISTITEM value=\"");
+    private static final byte[] LISTITEM_TAIL = encode("\"/>\n");
+
+    private final ParameterIndex index;
+    private final boolean ignoreUnusedParameters;
+    // statics[i] precedes slots[i], the last one closes the document
+    private final byte[][] statics;
+    private final Slot[] slots;
+    // the initial size of the buffer of a write
+    private final int outputSize;
+
+    private CTDTemplate(Builder builder) {
+        index = builder.index;
+        ignoreUnusedParameters = builder.ignoreUnusedParameters;
+        builder.statics.add(builder.current.toByteArray());
+        statics = builder.statics.toArray(new byte[builder.statics.size()][]);
+        slots = builder.slots.toArray(new Slot[builder.slots.size()]);
+        int size = 0;
+        for (byte[] s : statics) {
+            size += s.length;
+        }
+        outputSize = size + size / 2;
+    }
+
+    /**
+     * Compiles the given configuration.
+     * 
+     * @param config
+     *            The configuration.
+     * @param ignoreUnusedParameters
+     *            See
+     *            {@link CTDConfigurationWriter#setIgnoreUnusedParameters(boolean)}
+     *            .
+     * @return The template.
+     */
+    public static CTDTemplate compile(INodeConfiguration config,
+            boolean ignoreUnusedParameters) {
+        CTDConfigurationWriter writer = new CTDConfigurationWriter();
+        writer.setIgnoreUnusedParameters(ignoreUnusedParameters);
+        try {
+            return writer.compile(config);
+        } catch (IOException e) {
+            // the template is built in memory
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks whether the given configuration has the parameters this template
+     * was compiled for.
+     * 
+     * @param config
+     *            The configuration.
+     * @return True if the template can write the configuration.
+     */
+    public boolean matches(INodeConfiguration config) {
+        return config.getParameterIndex() == index;
+    }
+
+    /**
+     * @return Whether unused parameters are omitted.
+     */
+    public boolean isIgnoreUnusedParameters() {
+        return ignoreUnusedParameters;
+    }
+
+    /**
+     * Creates an empty cache for the rendered values of one configuration.
+     * 
+     * @return The renderings, to be passed to every write of the same
+     *         configuration.
+     */
+    public Renderings newRenderings() {
+        return new Renderings(this);
+    }
+
+    /**
+     * Writes the given configuration to the target file, rendering all
+     * values.
+     * 
+     * @param config
+     *            The configuration, must match this template.
+     * @param target
+     *            The file to write.
+     * @throws IOException
+     *             If io operations fail.
+     */
+    public void write(INodeConfiguration config, File target)
+            throws IOException {
+        write(config, null, target);
+    }
+
+    /**
+     * Writes the given configuration to the target file, rendering only the
+     * values that changed since the last write with the given renderings.
+     * 
+     * @param config
+     *            The configuration, must match this template.
+     * @param renderings
+     *            The renderings of the configuration, created by
+     *            {@link #newRenderings()} of this template, or null.
+     * @param target
+     *            The file to write.
+     * @throws IOException
+     *             If io operations fail.
+     */
+    public void write(INodeConfiguration config, Renderings renderings,
+            File target) throws IOException {
+        if (!matches(config)) {
+            throw new IllegalArgumentException(
+                    "The configuration does not match the template.");
+        }
+        if (renderings != null && renderings.template != this) {
+            throw new IllegalArgumentException(
+                    "The renderings belong to another template.");
+        }
+        Output output = new Output(outputSize);
+        if (renderings == null) {
+            render(config, null, output);
+        } else {
+            synchronized (renderings) {
+                render(config, renderings, output);
+            }
+        }
+
+        FileOutputStream out = new FileOutputStream(target);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer buffer = output.toByteBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void render(INodeConfiguration config, Renderings renderings,
+            Output output) {
+        for (int i = 0; i < slots.length; ++i) {
+            output.write(statics[i]);
+            slots[i].write(config, renderings, i, output);
+        }
+        output.write(statics[slots.length]);
+    }
+
+    /**
+     * Applies the given checks to the parameter.
+     * 
+     * @return True if the parameter should be omitted.
+     */
+    static boolean isUnused(INodeConfiguration config, String key,
+            Parameter<?> p, int checks) {
+        // omit complete parameter when its value is null (e.g. not connected)
+        if ((checks & SKIP_IF_NULL) != 0 && p.isNull()) {
+            return true;
+        }
+        // inactive optional outports should not have any meaningful
+        // filenames/values anyway, the ports of the configuration (and not
+        // those of shared parameters) carry the activeness
+        if ((checks & SKIP_IF_INACTIVE) != 0) {
+            Port port = config.getOutputPortByName(key);
+            return port != null && !port.isActive();
+        }
+        return false;
+    }
+
+    private static byte[] encode(String s) {
+        return s.getBytes(UTF8);
+    }
+
+    private static byte[] encodeEscaped(String s) {
+        return encode(String.valueOf(StringEscapeUtils.escapeXml(s)));
+    }
+
+    /**
+     * The values of the last write of one configuration and their renderings,
+     * one per slot of the template.
+     */
+    public static final class Renderings {
+        private final CTDTemplate template;
+        private final Object[] values;
+        private final byte[][] bytes;
+
+        private Renderings(CTDTemplate template) {
+            this.template = template;
+            values = new Object[template.slots.length];
+            bytes = new byte[template.slots.length][];
+        }
+
+        /**
+         * @return The template the renderings belong to.
+         */
+        public CTDTemplate getTemplate() {
+            return template;
+        }
+    }
+
+    /**
+     * The value slot of a single ITEM or ITEMLIST.
+     */
+    private static final class Slot {
+        private final String key;
+        private final int checks;
+        private final boolean list;
+        private final byte[] head;
+        private final byte[] itemIndent;
+        private final byte[] tail;
+
+        private Slot(String key, int checks, boolean list, String head,
+                String itemIndent, String tail) {
+            this.key = key;
+            this.checks = checks;
+            this.list = list;
+            this.head = encode(head);
+            this.itemIndent = itemIndent == null ? null : encode(itemIndent);
+            this.tail = encode(tail);
+        }
+
+        private void write(INodeConfiguration config, Renderings renderings,
+                int slot, Output out) {
+            Parameter<?> p = NodeConfigurationOverlay.peek(config, key);
+            if (p == null) {
+                throw new IllegalArgumentException("Missing parameter " + key);
+            }
+            if (checks != 0 && isUnused(config, key, p, checks)) {
+                return;
+            }
+            Object value = list ? ((ListParameter) p).getStrings()
+                    : stringValue(p);
+            byte[] bytes;
+            if (renderings == null) {
+                bytes = render(value);
+            } else {
+                bytes = renderings.bytes[slot];
+                if (bytes == null || !equal(value, renderings.values[slot])) {
+                    bytes = render(value);
+                    renderings.bytes[slot] = bytes;
+                    renderings.values[slot] = list ? new ArrayList<Object>(
+                            (List<?>) value) : value;
+                }
+            }
+            out.write(head);
+            out.write(bytes);
+            out.write(tail);
+        }
+
+        private byte[] render(Object value) {
+            return list ? renderList((List<?>) value)
+                    : encodeEscaped((String) value);
+        }
+
+        private static String stringValue(Parameter<?> p) {
+            Object value = p.getValue();
+            String s = value == null ? null : value.toString();
+            return s == null ? "" : s;
+        }
+
+        private byte[] renderList(List<?> values) {
+            Output body = new Output(values.size() * 32);
+            for (Object v : values) {
+                body.write(itemIndent);
+                body.write(LISTITEM_HEAD);
+                body.write(encodeEscaped((String) v));
+                body.write(LISTITEM_TAIL);
+            }
+            return body.toByteArray();
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * Unsynchronized byte buffer.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output(int size) {
+            super(Math.max(size, 32));
+        }
+
+        @Override
+        public void write(byte[] b) {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int required = count + len;
+            if (required > buf.length) {
+                byte[] grown = new byte[Math.max(required, buf.length * 2)];
+                System.arraycopy(buf, 0, grown, 0, count);
+                buf = grown;
+            }
+            System.arraycopy(b, off, buf, count, len);
+            count = required;
+        }
+
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    /**
+     * Collects the parts of a template, used by the
+     * {@link CTDConfigurationWriter}.
+     */
+    static final class Builder {
+        private final ParameterIndex index;
+        private final boolean ignoreUnusedParameters;
+        private final List<byte[]> statics = new ArrayList<byte[]>();
+        private final List<Slot> slots = new ArrayList<Slot>();
+        private final Output current = new Output(4096);
+
+        Builder(ParameterIndex index, boolean ignoreUnusedParameters) {
+            this.index = index;
+            this.ignoreUnusedParameters = ignoreUnusedParameters;
+        }
+
+        /**
+         * Appends static text.
+         */
+        void append(String text) {
+            current.write(encode(text));
+        }
+
+        /**
+         * Adds the slot of an ITEM, whose value is written between head and
+         * tail.
+         */
+        void addItem(String key, int checks, String head, String tail) {
+            addSlot(new Slot(key, checks, false, head, null, tail));
+        }
+
+        /**
+         * Adds the slot of an ITEMLIST, whose LISTITEMs are written with the
+         * given indentation between head and tail.
+         */
+        void addItemList(String key, int checks, String head,
+                String itemIndent, String tail) {
+            addSlot(new Slot(key, checks, true, head, itemIndent, tail));
+        }
+
+        private void addSlot(Slot slot) {
+            statics.add(current.toByteArray());
+            current.reset();
+            slots.add(slot);
+        }
+
+        CTDTemplate build() {
+            return new CTDTemplate(this);
+        }
+    }
+}
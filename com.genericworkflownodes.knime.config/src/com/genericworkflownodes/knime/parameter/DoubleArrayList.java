@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.parameter;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+/**
+ * List of doubles backed by a primitive array, used as the value of
+ * {@link DoubleListParameter}s. The {@link java.util.List} methods box on
+ * access; the primitive methods and, for plain decimal numbers, the parsing
+ * and formatting methods do not allocate per element.
+ */
+final class DoubleArrayList extends AbstractList<Double> implements
+        RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 6094745853934329018L;
+
+    /**
+     * Exactly representable powers of ten.
+     */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+            1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+            1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Scale of the six fraction digits written by the "%f" format.
+     */
+    private static final long FRACTION_SCALE = 1000000L;
+
+    private double[] m_data;
+
+    private int m_size;
+
+    /**
+     * Creates an empty list.
+     */
+    DoubleArrayList() {
+        m_data = new double[8];
+    }
+
+    /**
+     * Creates a list holding a copy of the given values.
+     * 
+     * @param values
+     *            The values.
+     */
+    DoubleArrayList(final double[] values) {
+        m_data = Arrays.copyOf(values, Math.max(8, values.length));
+        m_size = values.length;
+    }
+
+    /**
+     * Copies the given collection into a new list, or returns the list itself
+     * if it already is a {@link DoubleArrayList}.
+     * 
+     * @param values
+     *            The values, may be null.
+     * @return The list, or null if values is null.
+     */
+    static DoubleArrayList of(final Collection<? extends Double> values) {
+        if (values == null || values instanceof DoubleArrayList) {
+            return (DoubleArrayList) values;
+        }
+        DoubleArrayList list = new DoubleArrayList();
+        for (Double v : values) {
+            list.addDouble(v);
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    @Override
+    public Double get(final int index) {
+        return getDouble(index);
+    }
+
+    /**
+     * Returns the value at the given index without boxing it.
+     * 
+     * @param index
+     *            The index.
+     * @return The value.
+     */
+    double getDouble(final int index) {
+        IntArrayList.checkIndex(index, m_size);
+        return m_data[index];
+    }
+
+    @Override
+    public Double set(final int index, final Double value) {
+        IntArrayList.checkIndex(index, m_size);
+        double old = m_data[index];
+        m_data[index] = value;
+        return old;
+    }
+
+    @Override
+    public void add(final int index, final Double value) {
+        IntArrayList.checkIndex(index, m_size + 1);
+        ensureCapacity(m_size + 1);
+        System.arraycopy(m_data, index, m_data, index + 1, m_size - index);
+        m_data[index] = value;
+        ++m_size;
+        ++modCount;
+    }
+
+    /**
+     * Appends the value without boxing it.
+     * 
+     * @param value
+     *            The value.
+     */
+    void addDouble(final double value) {
+        ensureCapacity(m_size + 1);
+        m_data[m_size++] = value;
+        ++modCount;
+    }
+
+    @Override
+    public Double remove(final int index) {
+        IntArrayList.checkIndex(index, m_size);
+        double old = m_data[index];
+        System.arraycopy(m_data, index + 1, m_data, index, m_size - index - 1);
+        --m_size;
+        ++modCount;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        m_size = 0;
+        ++modCount;
+    }
+
+    /**
+     * @return A copy of the values.
+     */
+    double[] toDoubleArray() {
+        return Arrays.copyOf(m_data, m_size);
+    }
+
+    /**
+     * Appends the values parsed from the given separated list. A trailing
+     * separator is allowed, as produced by
+     * {@link #format(StringBuilder, String)}.
+     * 
+     * @param s
+     *            The separated values.
+     * @param separator
+     *            The separator.
+     * @throws NumberFormatException
+     *             If a value is not a double.
+     */
+    void parse(final String s, final String separator) {
+        int start = 0;
+        int len = s.length();
+        while (start < len) {
+            int end = s.indexOf(separator, start);
+            if (end < 0) {
+                end = len;
+            }
+            if (end == start && IntArrayList.onlySeparators(s, start, separator)) {
+                // trailing empty values are ignored like by String#split
+                break;
+            }
+            addDouble(parseDouble(s, start, end));
+            start = end + separator.length();
+        }
+    }
+
+    /**
+     * Parses the double in s[start, end) like
+     * {@link Double#parseDouble(String)}. Plain decimal numbers with at most
+     * 15 significant digits are converted directly, which is exact since
+     * both the digits and the power of ten are representable and a single
+     * rounding division or multiplication follows; all other numbers are
+     * delegated to {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(final String s, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            ++i;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean point = false;
+        for (; i < end; ++i) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                ++digits;
+                if (mantissa != 0 || c != '0') {
+                    if (++significant > 15) {
+                        return Double.parseDouble(s.substring(start, end));
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (point) {
+                    --exponent;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end && digits > 0 && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            int j = i + 1;
+            boolean negativeExp = false;
+            if (j < end && (s.charAt(j) == '-' || s.charAt(j) == '+')) {
+                negativeExp = s.charAt(j) == '-';
+                ++j;
+            }
+            int exp = 0;
+            int expDigits = 0;
+            for (; j < end && exp < 1000; ++j, ++expDigits) {
+                char c = s.charAt(j);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                exp = exp * 10 + (c - '0');
+            }
+            if (expDigits > 0) {
+                exponent += negativeExp ? -exp : exp;
+                i = j;
+            }
+        }
+        if (i != end || digits == 0 || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(s.substring(start, end));
+        }
+        double value = mantissa;
+        if (exponent < 0) {
+            value /= POWERS_OF_TEN[-exponent];
+        } else {
+            value *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Appends the values to the given builder like the "%f" format in the
+     * English locale, each followed by the separator.
+     * 
+     * @param sb
+     *            The builder.
+     * @param separator
+     *            The separator.
+     */
+    void format(final StringBuilder sb, final String separator) {
+        for (int i = 0; i < m_size; ++i) {
+            formatDouble(sb, m_data[i]);
+            sb.append(separator);
+        }
+    }
+
+    /**
+     * Appends the value like {@code String.format(Locale.ENGLISH, "%f", d)}.
+     * Values below 1e9 that are the closest double to a number with at most
+     * six fraction digits are written directly. Since their ulp is far below
+     * 1e-6, this number is what the format rounds to.
+     */
+    static void formatDouble(final StringBuilder sb, final double d) {
+        double abs = Math.abs(d);
+        if (abs < 1e9) {
+            long scaled = Math.round(abs * FRACTION_SCALE);
+            if ((double) scaled / FRACTION_SCALE == abs) {
+                if (d < 0 || 1 / d < 0) {
+                    sb.append('-');
+                }
+                sb.append(scaled / FRACTION_SCALE).append('.');
+                long fraction = scaled % FRACTION_SCALE;
+                for (long p = FRACTION_SCALE / 10; p > fraction && p > 1; p /= 10) {
+                    sb.append('0');
+                }
+                sb.append(fraction);
+                return;
+            }
+        }
+        sb.append(String.format(Locale.ENGLISH, "%f", d));
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > m_data.length) {
+            m_data = Arrays.copyOf(m_data,
+                    Math.max(capacity, m_data.length + (m_data.length >> 1)));
+        }
+    }
+}
@@ -21,10 +21,12 @@ package com.genericworkflownodes.knime.parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * The DoubleListParameter class is used to store lists of double values.
+ * <p>
+ * The values are stored in a primitive double array; {@link #getValue()}
+ * returns a {@link List} view on it.
  * 
  * @author roettig
  * 
@@ -45,7 +47,52 @@ public class DoubleListParameter extends NumberListParameter<Double> {
      *            The value of the parameter.
      */
     public DoubleListParameter(final String key, final List<Double> value) {
-        super(key, value, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        super(key, DoubleArrayList.of(value), Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the primitive-backed value, converting values set by older
+     * versions or through {@link #setValue(List)} on first access.
+     */
+    private DoubleArrayList doubles() {
+        List<Double> value = getValue();
+        if (value == null || value instanceof DoubleArrayList) {
+            return (DoubleArrayList) value;
+        }
+        boolean defaulted = isDefaulted();
+        DoubleArrayList doubles = DoubleArrayList.of(value);
+        super.setValue(doubles);
+        setDefaulted(defaulted);
+        return doubles;
+    }
+
+    /**
+     * Sets the value. The given list is copied into primitive storage.
+     */
+    @Override
+    public void setValue(final List<Double> value) {
+        super.setValue(DoubleArrayList.of(value));
+    }
+
+    /**
+     * Sets the values.
+     * 
+     * @param values
+     *            The new values.
+     */
+    public void setValue(final double[] values) {
+        super.setValue(new DoubleArrayList(values));
+    }
+
+    /**
+     * Returns a copy of the values as primitive array.
+     * 
+     * @return The values, or null if the parameter is not set.
+     */
+    public double[] toDoubleArray() {
+        DoubleArrayList doubles = doubles();
+        return doubles == null ? null : doubles.toDoubleArray();
     }
 
     @Override
@@ -60,22 +107,17 @@ public class DoubleListParameter extends NumberListParameter<Double> {
     @Override
     public void fillFromString(final String s)
             throws InvalidParameterValueException {
-        try {
-            if (s == null || s.equals("")) {
-                setValue(new ArrayList<Double>());
-                return;
+        DoubleArrayList doubles = new DoubleArrayList();
+        if (s != null) {
+            try {
+                doubles.parse(s, SEPARATOR_TOKEN);
+            } catch (NumberFormatException e) {
+                throw new InvalidParameterValueException(
+                        "The given string cannot be transformed into a double list.",
+                        e);
             }
-            setValue(new ArrayList<Double>());
-            String[] toks = s.split(SEPARATOR_TOKEN);
-
-            for (int i = 0; i < toks.length; i++) {
-                getValue().add(Double.parseDouble(toks[i]));
-            }
-        } catch (NumberFormatException e) {
-            throw new InvalidParameterValueException(
-                    "The given string cannot be transformed into a double list.",
-                    e);
         }
+        super.setValue(doubles);
     }
 
     @Override
@@ -83,45 +125,50 @@ public class DoubleListParameter extends NumberListParameter<Double> {
         if (isNull()) {
             return true;
         }
-
-        boolean ok = true;
-
-        for (Double v : val) {
-            if (v < getLowerBound() || v > getUpperBound()) {
-                ok = false;
+        double lb = getLowerBound();
+        double ub = getUpperBound();
+        DoubleArrayList doubles = DoubleArrayList.of(val);
+        for (int i = 0; i < doubles.size(); ++i) {
+            double v = doubles.getDouble(i);
+            if (v < lb || v > ub) {
+                return false;
             }
         }
-        return ok;
+        return true;
     }
 
     @Override
     public String getStringRep() {
-        if (getValue() == null) {
+        DoubleArrayList doubles = doubles();
+        if (doubles == null) {
             return "";
         }
-        StringBuffer sb = new StringBuffer();
-        for (Double d : getValue()) {
-            sb.append(String.format(Locale.ENGLISH, "%f", d));
-            sb.append(SEPARATOR_TOKEN);
-        }
+        StringBuilder sb = new StringBuilder(doubles.size() * 16);
+        doubles.format(sb, SEPARATOR_TOKEN);
         return sb.toString();
     }
 
     @Override
     public List<String> getStrings() {
-        List<String> ret = new ArrayList<String>();
-        for (Double d : getValue()) {
-            ret.add(String.format(Locale.ENGLISH, "%f", d));
+        DoubleArrayList doubles = doubles();
+        List<String> ret = new ArrayList<String>(doubles.size());
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < doubles.size(); ++i) {
+            sb.setLength(0);
+            DoubleArrayList.formatDouble(sb, doubles.getDouble(i));
+            ret.add(sb.toString());
         }
         return ret;
     }
 
     @Override
     public void fillFromStrings(final String[] values) {
-        setValue(new ArrayList<Double>());
+        DoubleArrayList doubles = new DoubleArrayList();
         for (int i = 0; i < values.length; i++) {
-            getValue().add(Double.parseDouble(values[i]));
+            doubles.addDouble(DoubleArrayList.parseDouble(values[i], 0,
+                    values[i].length()));
         }
+        super.setValue(doubles);
     }
 
     @Override
@@ -129,11 +176,6 @@ public class DoubleListParameter extends NumberListParameter<Double> {
         if (getValue() == null) {
             return "[]";
         }
-        String[] ret = new String[getValue().size()];
-        int idx = 0;
-        for (Double i : getValue()) {
-            ret[idx++] = i.toString();
-        }
-        return Arrays.toString(ret);
+        return Arrays.toString(doubles().toDoubleArray());
     }
 }
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.parameter;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * List of ints backed by a primitive array, used as the value of
+ * {@link IntegerListParameter}s. The {@link java.util.List} methods box on
+ * access; the primitive methods and the parsing and formatting methods do not
+ * allocate per element.
+ */
+final class IntArrayList extends AbstractList<Integer> implements
+        RandomAccess, Serializable {
+
+    private static final long serialVersionUID = -3307716416734120376L;
+
+    private int[] m_data;
+
+    private int m_size;
+
+    /**
+     * Creates an empty list.
+     */
+    IntArrayList() {
+        m_data = new int[8];
+    }
+
+    /**
+     * Creates a list holding a copy of the given values.
+     * 
+     * @param values
+     *            The values.
+     */
+    IntArrayList(final int[] values) {
+        m_data = Arrays.copyOf(values, Math.max(8, values.length));
+        m_size = values.length;
+    }
+
+    /**
+     * Copies the given collection into a new list, or returns the list itself
+     * if it already is an {@link IntArrayList}.
+     * 
+     * @param values
+     *            The values, may be null.
+     * @return The list, or null if values is null.
+     */
+    static IntArrayList of(final Collection<? extends Integer> values) {
+        if (values == null || values instanceof IntArrayList) {
+            return (IntArrayList) values;
+        }
+        IntArrayList list = new IntArrayList();
+        for (Integer v : values) {
+            list.addInt(v);
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    @Override
+    public Integer get(final int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Returns the value at the given index without boxing it.
+     * 
+     * @param index
+     *            The index.
+     * @return The value.
+     */
+    int getInt(final int index) {
+        checkIndex(index, m_size);
+        return m_data[index];
+    }
+
+    @Override
+    public Integer set(final int index, final Integer value) {
+        checkIndex(index, m_size);
+        int old = m_data[index];
+        m_data[index] = value;
+        return old;
+    }
+
+    @Override
+    public void add(final int index, final Integer value) {
+        checkIndex(index, m_size + 1);
+        ensureCapacity(m_size + 1);
+        System.arraycopy(m_data, index, m_data, index + 1, m_size - index);
+        m_data[index] = value;
+        ++m_size;
+        ++modCount;
+    }
+
+    /**
+     * Appends the value without boxing it.
+     * 
+     * @param value
+     *            The value.
+     */
+    void addInt(final int value) {
+        ensureCapacity(m_size + 1);
+        m_data[m_size++] = value;
+        ++modCount;
+    }
+
+    @Override
+    public Integer remove(final int index) {
+        checkIndex(index, m_size);
+        int old = m_data[index];
+        System.arraycopy(m_data, index + 1, m_data, index, m_size - index - 1);
+        --m_size;
+        ++modCount;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        m_size = 0;
+        ++modCount;
+    }
+
+    /**
+     * @return A copy of the values.
+     */
+    int[] toIntArray() {
+        return Arrays.copyOf(m_data, m_size);
+    }
+
+    /**
+     * Appends the values parsed from the given separated list. A trailing
+     * separator is allowed, as produced by
+     * {@link #format(StringBuilder, String)}.
+     * 
+     * @param s
+     *            The separated values.
+     * @param separator
+     *            The separator.
+     * @throws NumberFormatException
+     *             If a value is not an int.
+     */
+    void parse(final String s, final String separator) {
+        int start = 0;
+        int len = s.length();
+        while (start < len) {
+            int end = s.indexOf(separator, start);
+            if (end < 0) {
+                end = len;
+            }
+            if (end == start && onlySeparators(s, start, separator)) {
+                // trailing empty values are ignored like by String#split
+                break;
+            }
+            addInt(parseInt(s, start, end));
+            start = end + separator.length();
+        }
+    }
+
+    /**
+     * Checks whether s consists only of separators from the given index on.
+     */
+    static boolean onlySeparators(final String s, final int from,
+            final String separator) {
+        for (int i = from; i < s.length(); i += separator.length()) {
+            if (!s.startsWith(separator, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the decimal int in s[start, end) like
+     * {@link Integer#parseInt(String)}.
+     */
+    static int parseInt(final CharSequence s, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            ++i;
+        }
+        if (i == end) {
+            throw invalid(s, start, end);
+        }
+        // accumulate negatively to cover Integer.MIN_VALUE
+        long result = 0;
+        for (; i < end; ++i) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                throw invalid(s, start, end);
+            }
+            result = result * 10 - digit;
+            if (result < Integer.MIN_VALUE) {
+                throw invalid(s, start, end);
+            }
+        }
+        if (!negative) {
+            if (result == Integer.MIN_VALUE) {
+                throw invalid(s, start, end);
+            }
+            result = -result;
+        }
+        return (int) result;
+    }
+
+    private static NumberFormatException invalid(final CharSequence s,
+            final int start, final int end) {
+        return new NumberFormatException("For input string: \""
+                + s.subSequence(start, end) + "\"");
+    }
+
+    /**
+     * Appends the values to the given builder, each followed by the
+     * separator.
+     * 
+     * @param sb
+     *            The builder.
+     * @param separator
+     *            The separator.
+     */
+    void format(final StringBuilder sb, final String separator) {
+        for (int i = 0; i < m_size; ++i) {
+            sb.append(m_data[i]).append(separator);
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > m_data.length) {
+            m_data = Arrays.copyOf(m_data,
+                    Math.max(capacity, m_data.length + (m_data.length >> 1)));
+        }
+    }
+
+    static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+                    + size);
+        }
+    }
+}
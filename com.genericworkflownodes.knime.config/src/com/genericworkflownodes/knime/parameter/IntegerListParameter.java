@@ -19,11 +19,13 @@
 package com.genericworkflownodes.knime.parameter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * The IntegerListParameter class is used to store lists of int values.
+ * <p>
+ * The values are stored in a primitive int array; {@link #getValue()} returns
+ * a {@link List} view on it.
  * 
  * @author roettig
  * 
@@ -44,7 +46,52 @@ public class IntegerListParameter extends NumberListParameter<Integer> {
      *            The value of the parameter.
      */
     public IntegerListParameter(final String key, final List<Integer> value) {
-        super(key, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        super(key, IntArrayList.of(value), Integer.MIN_VALUE,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the primitive-backed value, converting values set by older
+     * versions or through {@link #setValue(List)} on first access.
+     */
+    private IntArrayList ints() {
+        List<Integer> value = getValue();
+        if (value == null || value instanceof IntArrayList) {
+            return (IntArrayList) value;
+        }
+        boolean defaulted = isDefaulted();
+        IntArrayList ints = IntArrayList.of(value);
+        super.setValue(ints);
+        setDefaulted(defaulted);
+        return ints;
+    }
+
+    /**
+     * Sets the value. The given list is copied into primitive storage.
+     */
+    @Override
+    public void setValue(final List<Integer> value) {
+        super.setValue(IntArrayList.of(value));
+    }
+
+    /**
+     * Sets the values.
+     * 
+     * @param values
+     *            The new values.
+     */
+    public void setValue(final int[] values) {
+        super.setValue(new IntArrayList(values));
+    }
+
+    /**
+     * Returns a copy of the values as primitive array.
+     * 
+     * @return The values, or null if the parameter is not set.
+     */
+    public int[] toIntArray() {
+        IntArrayList ints = ints();
+        return ints == null ? null : ints.toIntArray();
     }
 
     @Override
@@ -59,22 +106,17 @@ public class IntegerListParameter extends NumberListParameter<Integer> {
     @Override
     public void fillFromString(final String s)
             throws InvalidParameterValueException {
-        try {
-            if (s == null || s.equals("")) {
-                setValue(new ArrayList<Integer>());
-                return;
-            }
-            setValue(new ArrayList<Integer>());
-            String[] toks = s.split(SEPARATOR_TOKEN);
-
-            for (int i = 0; i < toks.length; i++) {
-                getValue().add(Integer.parseInt(toks[i]));
+        IntArrayList ints = new IntArrayList();
+        if (s != null) {
+            try {
+                ints.parse(s, SEPARATOR_TOKEN);
+            } catch (NumberFormatException e) {
+                throw new InvalidParameterValueException(
+                        "The given string cannot be transformed into a integer list.",
+                        e);
             }
-        } catch (NumberFormatException e) {
-            throw new InvalidParameterValueException(
-                    "The given string cannot be transformed into a integer list.",
-                    e);
         }
+        super.setValue(ints);
     }
 
     @Override
@@ -82,56 +124,61 @@ public class IntegerListParameter extends NumberListParameter<Integer> {
         if (isNull()) {
             return true;
         }
-        boolean ok = true;
-
-        for (Integer v : val) {
-            if (v < getLowerBound() || v > getUpperBound()) {
-                ok = false;
+        int lb = getLowerBound();
+        int ub = getUpperBound();
+        IntArrayList ints = IntArrayList.of(val);
+        for (int i = 0; i < ints.size(); ++i) {
+            int v = ints.getInt(i);
+            if (v < lb || v > ub) {
+                return false;
             }
         }
-        return ok;
+        return true;
     }
 
     @Override
     public String getStringRep() {
-        if (getValue() == null) {
+        IntArrayList ints = ints();
+        if (ints == null) {
             return "";
         }
-        StringBuffer sb = new StringBuffer();
-        for (Integer d : getValue()) {
-            sb.append(String.format("%d", d));
-            sb.append(SEPARATOR_TOKEN);
-        }
+        StringBuilder sb = new StringBuilder(ints.size() * 8);
+        ints.format(sb, SEPARATOR_TOKEN);
         return sb.toString();
     }
 
     @Override
     public List<String> getStrings() {
-        List<String> ret = new ArrayList<String>();
-        for (Integer i : getValue()) {
-            ret.add(i.toString());
+        IntArrayList ints = ints();
+        List<String> ret = new ArrayList<String>(ints.size());
+        for (int i = 0; i < ints.size(); ++i) {
+            ret.add(Integer.toString(ints.getInt(i)));
         }
         return ret;
     }
 
     @Override
     public String toString() {
-        if (getValue() == null) {
+        IntArrayList ints = ints();
+        if (ints == null) {
             return "";
         }
-        String[] ret = new String[getValue().size()];
-        int idx = 0;
-        for (Integer i : getValue()) {
-            ret[idx++] = i.toString();
+        StringBuilder sb = new StringBuilder(ints.size() * 8).append('[');
+        for (int i = 0; i < ints.size(); ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(ints.getInt(i));
         }
-        return Arrays.toString(ret);
+        return sb.append(']').toString();
     }
 
     @Override
     public void fillFromStrings(final String[] values) {
-        setValue(new ArrayList<Integer>());
+        IntArrayList ints = new IntArrayList();
         for (int i = 0; i < values.length; i++) {
-            getValue().add(Integer.parseInt(values[i]));
+            ints.addInt(IntArrayList.parseInt(values[i], 0, values[i].length()));
         }
+        super.setValue(ints);
     }
 }
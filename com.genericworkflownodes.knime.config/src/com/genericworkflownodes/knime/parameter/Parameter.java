@@ -18,8 +18,12 @@
  */
 package com.genericworkflownodes.knime.parameter;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
+import com.genericworkflownodes.util.StringUtils;
+
 /**
  * The generic Parameter base class is used to store all possible CTD parameters
  * (double, int, string, int list, ...).
@@ -144,7 +148,7 @@ public abstract class Parameter<T> implements Serializable {
      *            the description text of the parameter.
      */
     public final void setDescription(final String description) {
-        m_description = description;
+        m_description = StringUtils.intern(description);
     }
 
     /**
@@ -280,6 +284,16 @@ public abstract class Parameter<T> implements Serializable {
      */
     public abstract boolean validate(T val);
 
+    /**
+     * Shares the description with equal descriptions of other deserialized
+     * parameters, e.g., those read from the CTD cache.
+     */
+    private void readObject(final ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        m_description = StringUtils.intern(m_description);
+    }
+
     /**
      * Separator token.
      */
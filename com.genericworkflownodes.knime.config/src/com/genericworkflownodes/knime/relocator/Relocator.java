@@ -19,6 +19,7 @@
 package com.genericworkflownodes.knime.relocator;
 
 import java.io.File;
+import java.io.Serializable;
 import java.net.URI;
 
 import com.genericworkflownodes.knime.config.INodeConfiguration;
@@ -38,7 +39,9 @@ import com.genericworkflownodes.knime.config.INodeConfiguration;
  * 
  * @author aiche
  */
-public class Relocator {
+public class Relocator implements Serializable {
+
+    private static final long serialVersionUID = -1034814667540451333L;
 
     private static String TEMP = "%TEMP%";
     private static String PWD = "%PWD%";
@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A content-addressed store for files that are located on the same file
+ * system as the store. Identical files are replaced by hard links to a single
+ * canonical blob, named by the SHA-256 digest of its content.
+ * 
+ * The reference count of a blob is the link count maintained by the file
+ * system, i.e., a blob is referenced by all files linked to it. A blob can be
+ * removed as soon as its last file is deleted by {@link #release(Path)}, blobs
+ * that were missed are removed by {@link #collectGarbage()}. As the
+ * deduplicated files share a single inode, modifying one of them in place
+ * modifies all others, so they must not be modified afterwards.
+ */
+public final class ContentAddressedStore {
+
+    private static final Logger LOG = Logger
+            .getLogger(ContentAddressedStore.class.getCanonicalName());
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+    private static final String TEMP_SUFFIX = ".cas";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The directory containing the blobs.
+     */
+    private final Path m_root;
+
+    /**
+     * Guards the creation and removal of blobs.
+     */
+    private final Object m_lock = new Object();
+
+    /**
+     * C'tor.
+     * 
+     * @param root
+     *            The directory containing the blobs, created if it does not
+     *            exist.
+     * @throws IOException
+     *             If the directory could not be created.
+     */
+    public ContentAddressedStore(final Path root) throws IOException {
+        m_root = root.toAbsolutePath();
+        Files.createDirectories(m_root);
+    }
+
+    /**
+     * @return The directory containing the blobs.
+     */
+    public Path getRoot() {
+        return m_root;
+    }
+
+    /**
+     * Checks if the file system of the store supports hard links and exposes
+     * their link counts.
+     * 
+     * @return <code>true</code> if files can be deduplicated.
+     */
+    public boolean isSupported() {
+        try {
+            return Files.getFileStore(m_root).supportsFileAttributeView("unix");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the given file by a hard link to the blob with the same
+     * content. If no such blob exists yet, the file itself becomes the blob.
+     * 
+     * @param file
+     *            The file to deduplicate.
+     * @return <code>true</code> if the file was replaced by a link to an
+     *         existing blob, <code>false</code> if it was unique, empty or
+     *         could not be linked.
+     * @throws IOException
+     *             If the file could not be read or replaced.
+     */
+    public boolean deduplicate(final Path file) throws IOException {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)
+                || Files.size(file) == 0) {
+            return false;
+        }
+        return deduplicate(file, digest(file));
+    }
+
+    /**
+     * Replaces the given file by a hard link to the blob with the given
+     * digest, see {@link #deduplicate(Path)}.
+     * 
+     * @param file
+     *            The file to deduplicate.
+     * @param digest
+     *            The {@link #digest(Path)} of the file.
+     * @return <code>true</code> if the file was replaced by a link to an
+     *         existing blob, <code>false</code> if it was unique, empty or
+     *         could not be linked.
+     * @throws IOException
+     *             If the file could not be read or replaced.
+     */
+    public boolean deduplicate(final Path file, final String digest)
+            throws IOException {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)
+                || Files.size(file) == 0) {
+            return false;
+        }
+        Path blob = getBlob(digest);
+
+        synchronized (m_lock) {
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                // the file becomes the canonical blob for its content
+                FileTransferUtils.tryHardLink(file, blob);
+                return false;
+            }
+            if (Files.isSameFile(blob, file)
+                    || Files.size(blob) != Files.size(file)) {
+                return false;
+            }
+            Path tmp = file.resolveSibling("." + file.getFileName()
+                    + TEMP_SUFFIX);
+            Files.deleteIfExists(tmp);
+            if (!FileTransferUtils.tryHardLink(blob, tmp)) {
+                return false;
+            }
+            try {
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of files (outside of the store) sharing the content
+     * of the given blob.
+     * 
+     * @param blob
+     *            A blob of this store.
+     * @return The number of references.
+     * @throws IOException
+     *             If the link count could not be determined.
+     */
+    public int getReferenceCount(final Path blob) throws IOException {
+        return ((Number) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE,
+                LinkOption.NOFOLLOW_LINKS)).intValue() - 1;
+    }
+
+    /**
+     * Removes the given blob if it is no longer referenced by any file.
+     * 
+     * @param blob
+     *            A blob of this store.
+     * @return <code>true</code> if the blob was removed.
+     * @throws IOException
+     *             If the link count could not be determined or the blob could
+     *             not be removed.
+     */
+    public boolean release(final Path blob) throws IOException {
+        synchronized (m_lock) {
+            if (!Files.exists(blob, LinkOption.NOFOLLOW_LINKS)
+                    || getReferenceCount(blob) > 0) {
+                return false;
+            }
+            Files.delete(blob);
+            return true;
+        }
+    }
+
+    /**
+     * Removes all blobs that are no longer referenced by any file. The store
+     * is only locked while a single blob is checked and removed, so that
+     * concurrent deduplications are not blocked for the whole traversal.
+     * 
+     * @return The number of removed blobs.
+     * @throws IOException
+     *             If the store could not be traversed.
+     */
+    public int collectGarbage() throws IOException {
+        final AtomicInteger removed = new AtomicInteger();
+        Files.walkFileTree(m_root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file,
+                    final BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                synchronized (m_lock) {
+                    try {
+                        if (getReferenceCount(file) <= 0) {
+                            Files.delete(file);
+                            removed.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        LOG.log(Level.FINE, "Could not remove blob " + file, e);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return removed.get();
+    }
+
+    /**
+     * Returns the location of the blob with the given digest. The blobs are
+     * distributed over sub directories named by the first two characters of
+     * the digest.
+     * 
+     * @param digest
+     *            The hex encoded digest.
+     * @return The path of the blob (which might not exist).
+     */
+    public Path getBlob(final String digest) {
+        return m_root.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 digest of the file content.
+     * 
+     * @param file
+     *            The file to read.
+     * @return The digest.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static String digest(final Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        InputStream in = Files.newInputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        byte[] hash = md.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; ++i) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a byte range of a delimiter separated text file (e.g.,
+ * TSV or CSV) and splits them into fields. The bytes are read through a
+ * reusable buffer and the fields are kept as offsets into that buffer, so
+ * apart from the values requested as strings nothing is allocated per line.
+ * 
+ * Fields may be enclosed in double quotes, with quotes inside a field being
+ * doubled. Quoted fields must not contain line breaks, as the ranges are
+ * aligned to line starts.
+ */
+public final class DelimitedLineReader implements Closeable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel m_channel;
+    private final long m_end;
+    private final byte m_delimiter;
+
+    /**
+     * The position in the file of the first byte of the buffer.
+     */
+    private long m_bufferPosition;
+    private byte[] m_buffer;
+    private int m_bufferLimit;
+
+    /**
+     * The position in the buffer of the start of the next line.
+     */
+    private int m_next;
+
+    private int m_fieldCount;
+    private int[] m_fieldStarts = new int[16];
+    private int[] m_fieldEnds = new int[16];
+    private boolean[] m_fieldQuoted = new boolean[16];
+
+    /**
+     * Creates a reader of the lines starting in the given range of the file.
+     * 
+     * @param file
+     *            The file to read.
+     * @param start
+     *            The start of the range, a line start.
+     * @param end
+     *            The end of the range, a line start or the end of the file.
+     * @param delimiter
+     *            The field delimiter.
+     * @throws IOException
+     *             If the file could not be opened.
+     */
+    public DelimitedLineReader(final Path file, final long start,
+            final long end, final byte delimiter) throws IOException {
+        m_channel = FileChannel.open(file, StandardOpenOption.READ);
+        m_end = end;
+        m_delimiter = delimiter;
+        m_bufferPosition = start;
+        m_buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Advances to the next line and splits it into fields.
+     * 
+     * @return <code>false</code> if there are no more lines in the range.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public boolean next() throws IOException {
+        int newline;
+        while ((newline = indexOf((byte) '\n', m_next)) < 0
+                && m_bufferPosition + m_bufferLimit < m_end) {
+            m_next = fill(m_next);
+        }
+        if (m_next >= m_bufferLimit) {
+            return false;
+        }
+        int lineEnd = newline < 0 ? m_bufferLimit : newline;
+        if (lineEnd > m_next && m_buffer[lineEnd - 1] == '\r') {
+            --lineEnd;
+        }
+        split(m_next, lineEnd);
+        m_next = newline < 0 ? m_bufferLimit : newline + 1;
+        return true;
+    }
+
+    /**
+     * @return The number of fields of the current line.
+     */
+    public int getFieldCount() {
+        return m_fieldCount;
+    }
+
+    /**
+     * @param field
+     *            The index of the field.
+     * @return <code>true</code> if the field is missing or empty.
+     */
+    public boolean isEmpty(final int field) {
+        return field >= m_fieldCount || m_fieldStarts[field] == m_fieldEnds[field];
+    }
+
+    /**
+     * @param field
+     *            The index of the field.
+     * @return The content of the field, an empty string if it is missing.
+     */
+    public String getString(final int field) {
+        if (field >= m_fieldCount) {
+            return "";
+        }
+        String value = new String(m_buffer, m_fieldStarts[field],
+                m_fieldEnds[field] - m_fieldStarts[field], UTF8);
+        return m_fieldQuoted[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * Parses the field as an integral number without creating a string.
+     * 
+     * @param field
+     *            The index of the field.
+     * @return The value of the field.
+     * @throws NumberFormatException
+     *             If the field is not an integral number.
+     */
+    public long getLong(final int field) {
+        if (isEmpty(field)) {
+            throw new NumberFormatException("Empty field " + field);
+        }
+        int i = m_fieldStarts[field];
+        int end = m_fieldEnds[field];
+        boolean negative = m_buffer[i] == '-';
+        if (negative || m_buffer[i] == '+') {
+            ++i;
+        }
+        if (i == end) {
+            throw new NumberFormatException(getString(field));
+        }
+        long value = 0;
+        for (; i < end; ++i) {
+            int digit = m_buffer[i] - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException(getString(field));
+            }
+            value = value * 10 - digit;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses the field as a floating point number.
+     * 
+     * @param field
+     *            The index of the field.
+     * @return The value of the field.
+     * @throws NumberFormatException
+     *             If the field is not a number.
+     */
+    public double getDouble(final int field) {
+        if (isEmpty(field)) {
+            throw new NumberFormatException("Empty field " + field);
+        }
+        return Double.parseDouble(getString(field));
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_channel.close();
+    }
+
+    /**
+     * Computes the ranges of the lines of the given file for parallel
+     * reading.
+     * 
+     * @param file
+     *            The file to read.
+     * @param parts
+     *            The number of ranges.
+     * @param skipFirstLine
+     *            Whether the first line is a header line not to be read.
+     * @return The parts + 1 boundaries of the ranges, aligned to line starts.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long[] getRanges(final Path file, final int parts,
+            final boolean skipFirstLine) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long start = skipFirstLine ? FileRangeSplitter.nextLineStart(
+                    channel, 1, size) : 0;
+            return FileRangeSplitter.computeBoundaries(channel, parts,
+                    FileRangeSplitter.LINES, new long[] { Math.min(start, size),
+                            size });
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int indexOf(final byte b, final int from) {
+        for (int i = from; i < m_bufferLimit; ++i) {
+            if (m_buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the given line start to the front of the buffer, growing it if
+     * needed, and fills the rest from the file.
+     * 
+     * @return The new position of the line start.
+     */
+    private int fill(final int lineStart) throws IOException {
+        int remaining = m_bufferLimit - lineStart;
+        if (remaining == m_buffer.length) {
+            m_buffer = Arrays.copyOf(m_buffer, m_buffer.length * 2);
+        } else if (lineStart > 0) {
+            System.arraycopy(m_buffer, lineStart, m_buffer, 0, remaining);
+        }
+        m_bufferPosition += lineStart;
+        m_bufferLimit = remaining;
+        long position = m_bufferPosition + m_bufferLimit;
+        int length = (int) Math.min(m_buffer.length - m_bufferLimit, m_end
+                - position);
+        ByteBuffer target = ByteBuffer.wrap(m_buffer,
+                m_bufferLimit, length);
+        while (target.hasRemaining()) {
+            if (m_channel.read(target, position + target.position()
+                    - m_bufferLimit) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        m_bufferLimit += length;
+        return 0;
+    }
+
+    private void split(final int start, final int end) {
+        m_fieldCount = 0;
+        int i = start;
+        while (true) {
+            ensureFieldCapacity();
+            boolean quoted = i < end && m_buffer[i] == '"';
+            int fieldEnd;
+            int next;
+            if (quoted) {
+                int j = i + 1;
+                while (j < end) {
+                    if (m_buffer[j] == '"') {
+                        if (j + 1 < end && m_buffer[j + 1] == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    ++j;
+                }
+                m_fieldStarts[m_fieldCount] = i + 1;
+                fieldEnd = Math.min(j, end);
+                next = fieldEnd + 1;
+                while (next < end && m_buffer[next] != m_delimiter) {
+                    ++next;
+                }
+            } else {
+                m_fieldStarts[m_fieldCount] = i;
+                fieldEnd = i;
+                while (fieldEnd < end && m_buffer[fieldEnd] != m_delimiter) {
+                    ++fieldEnd;
+                }
+                next = fieldEnd;
+            }
+            m_fieldEnds[m_fieldCount] = fieldEnd;
+            m_fieldQuoted[m_fieldCount] = quoted;
+            ++m_fieldCount;
+            if (next >= end) {
+                return;
+            }
+            i = next + 1;
+        }
+    }
+
+    private void ensureFieldCapacity() {
+        if (m_fieldCount == m_fieldStarts.length) {
+            m_fieldStarts = Arrays.copyOf(m_fieldStarts, m_fieldCount * 2);
+            m_fieldEnds = Arrays.copyOf(m_fieldEnds, m_fieldCount * 2);
+            m_fieldQuoted = Arrays.copyOf(m_fieldQuoted, m_fieldCount * 2);
+        }
+    }
+}
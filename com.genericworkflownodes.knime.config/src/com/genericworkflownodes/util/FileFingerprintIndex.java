@@ -0,0 +1,408 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Computes fast, non-cryptographic 64 bit fingerprints (XXH64) of files and
+ * remembers them keyed by the identity of the file (device and inode where
+ * available), its size and its modification time. Fingerprinting an unchanged
+ * file therefore only costs a <code>stat</code> call.
+ * 
+ * Files larger than 64 KB are memory-mapped, files larger than
+ * {@link #CHUNK_SIZE} are additionally hashed in chunks in parallel; the
+ * fingerprint is then the hash of the chunk hashes and the file size. The index is bounded (least recently used entries are
+ * evicted) and can be persisted with {@link #save()}.
+ */
+public final class FileFingerprintIndex {
+
+    private static final Logger LOG = Logger
+            .getLogger(FileFingerprintIndex.class.getCanonicalName());
+
+    /**
+     * Size of the chunks that are hashed in parallel.
+     */
+    public static final int CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Files up to this size are read into the heap instead of being mapped.
+     */
+    private static final int MAP_THRESHOLD = 64 * 1024;
+
+    /**
+     * Files modified less than this many ms ago are not cached, since a
+     * modification within the same time stamp granularity would go unnoticed.
+     */
+    private static final long RACY_WINDOW = 2000;
+
+    private static final int MAGIC = 0x474b4e46;
+
+    private static final int VERSION = 1;
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * A cached fingerprint.
+     */
+    private static final class Entry {
+        private final long m_size;
+        private final long m_modified;
+        private final long m_fingerprint;
+
+        Entry(final long size, final long modified, final long fingerprint) {
+            m_size = size;
+            m_modified = modified;
+            m_fingerprint = fingerprint;
+        }
+    }
+
+    private final Path m_indexFile;
+
+    private final Map<String, Entry> m_entries;
+
+    private boolean m_modified = false;
+
+    /**
+     * C'tor. Loads the persisted index if it exists, a missing or corrupt
+     * index results in an empty one.
+     * 
+     * @param indexFile
+     *            The file the index is persisted to, <code>null</code> for an
+     *            in-memory index.
+     * @param maxEntries
+     *            The maximal number of fingerprints to remember.
+     */
+    public FileFingerprintIndex(final Path indexFile, final int maxEntries) {
+        m_indexFile = indexFile;
+        m_entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<String, FileFingerprintIndex.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (indexFile != null && Files.isRegularFile(indexFile)) {
+            try {
+                load();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Discarding corrupt fingerprint index "
+                        + indexFile, e);
+                m_entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the given file, computing it only if the
+     * file changed since it was last fingerprinted.
+     * 
+     * @param file
+     *            The file to fingerprint.
+     * @return The 64 bit fingerprint of the file content.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public long fingerprint(final Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file,
+                BasicFileAttributes.class);
+        Object fileKey = attrs.fileKey();
+        String key = fileKey != null ? fileKey.toString() : file
+                .toAbsolutePath().toString();
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+
+        synchronized (this) {
+            Entry e = m_entries.get(key);
+            if (e != null && e.m_size == size && e.m_modified == modified) {
+                return e.m_fingerprint;
+            }
+        }
+
+        long fingerprint = hash(file, CHUNK_SIZE);
+        if (System.currentTimeMillis()
+                - TimeUnit.NANOSECONDS.toMillis(modified) > RACY_WINDOW) {
+            synchronized (this) {
+                m_entries.put(key, new Entry(size, modified, fingerprint));
+                m_modified = true;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return The number of cached fingerprints.
+     */
+    public synchronized int size() {
+        return m_entries.size();
+    }
+
+    /**
+     * Removes all cached fingerprints.
+     */
+    public synchronized void clear() {
+        m_entries.clear();
+        m_modified = true;
+    }
+
+    /**
+     * Writes the index to its file if it was changed since it was loaded or
+     * last saved.
+     * 
+     * @throws IOException
+     *             If the index could not be written.
+     */
+    public synchronized void save() throws IOException {
+        if (m_indexFile == null || !m_modified) {
+            return;
+        }
+        Path dir = m_indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, m_indexFile.getFileName()
+                .toString(), ".part");
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(CHUNK_SIZE);
+                out.writeInt(m_entries.size());
+                // least recently used first, so that loading restores the order
+                for (Map.Entry<String, Entry> e : m_entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeLong(e.getValue().m_size);
+                    out.writeLong(e.getValue().m_modified);
+                    out.writeLong(e.getValue().m_fingerprint);
+                }
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmp, m_indexFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, m_indexFile,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        m_modified = false;
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(m_indexFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readInt() != CHUNK_SIZE) {
+                // written by an incompatible version, start from scratch
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; ++i) {
+                String key = in.readUTF();
+                m_entries.put(key, new Entry(in.readLong(), in.readLong(),
+                        in.readLong()));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the given file without consulting any
+     * index.
+     * 
+     * @param file
+     *            The file to hash.
+     * @return The 64 bit fingerprint of the file content.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long hash(final Path file) throws IOException {
+        return hash(file, CHUNK_SIZE);
+    }
+
+    static long hash(final Path file, final int chunkSize) throws IOException {
+        final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if (size <= MAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    // read fully
+                }
+                buffer.flip();
+                return xxh64(buffer, 0);
+            }
+            if (size <= chunkSize) {
+                return xxh64(
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0);
+            }
+
+            int nChunks = (int) ((size + chunkSize - 1) / chunkSize);
+            ByteBuffer hashes = ByteBuffer.allocate(8 * (nChunks + 1)).order(
+                    ByteOrder.LITTLE_ENDIAN);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(
+                    nChunks, Runtime.getRuntime().availableProcessors()));
+            try {
+                List<Future<Long>> futures = new ArrayList<Future<Long>>(
+                        nChunks);
+                for (int i = 0; i < nChunks; ++i) {
+                    final long position = (long) i * chunkSize;
+                    final long length = Math.min(chunkSize, size - position);
+                    futures.add(pool.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() throws IOException {
+                            return xxh64(channel.map(
+                                    FileChannel.MapMode.READ_ONLY, position,
+                                    length), 0);
+                        }
+                    }));
+                }
+                for (Future<Long> f : futures) {
+                    hashes.putLong(f.get());
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            hashes.putLong(size);
+            hashes.flip();
+            return xxh64(hashes, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not hash " + file, e.getCause());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Computes the XXH64 hash of the remaining bytes of the buffer without
+     * changing its position.
+     * 
+     * @param buffer
+     *            The data to hash.
+     * @param seed
+     *            The seed of the hash.
+     * @return The hash value.
+     */
+    static long xxh64(final ByteBuffer buffer, final long seed) {
+        ByteBuffer b = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        final int len = b.remaining();
+        int p = 0;
+        long h;
+
+        if (len >= 32) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            final int limit = len - 32;
+            do {
+                v1 = round(v1, b.getLong(p));
+                v2 = round(v2, b.getLong(p + 8));
+                v3 = round(v3, b.getLong(p + 16));
+                v4 = round(v4, b.getLong(p + 24));
+                p += 32;
+            } while (p <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME5;
+        }
+
+        h += len;
+        while (p + 8 <= len) {
+            h ^= round(0, b.getLong(p));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+            p += 8;
+        }
+        if (p + 4 <= len) {
+            h ^= (b.getInt(p) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            p += 4;
+        }
+        while (p < len) {
+            h ^= (b.get(p) & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            ++p;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, final long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, final long val) {
+        acc ^= round(0, val);
+        return acc * PRIME1 + PRIME4;
+    }
+}
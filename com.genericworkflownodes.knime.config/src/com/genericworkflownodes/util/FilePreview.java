@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Bounded preview of a file's head. At most a fixed number of bytes is read,
+ * either through a memory-mapped window of the file or captured while the
+ * file is copied, so the preview of multi-GB or single-line files costs no
+ * more than the preview of small ones.
+ */
+public final class FilePreview {
+
+    /**
+     * The default maximal number of bytes of a preview.
+     */
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+
+    /**
+     * Number of leading bytes inspected to detect binary content.
+     */
+    private static final int BINARY_PROBE_SIZE = 4096;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final byte[] m_head;
+
+    private int m_length;
+
+    private long m_size;
+
+    /**
+     * Creates an empty preview which captures at most maxBytes bytes.
+     * 
+     * @param maxBytes
+     *            The maximal number of bytes of the preview.
+     */
+    public FilePreview(final int maxBytes) {
+        m_head = new byte[maxBytes];
+    }
+
+    /**
+     * Reads the head of the given file through a memory-mapped window of at
+     * most maxBytes bytes.
+     * 
+     * @param file
+     *            The file to preview.
+     * @param maxBytes
+     *            The maximal number of bytes to read.
+     * @return The preview of the file.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public static FilePreview read(final File file, final int maxBytes)
+            throws IOException {
+        FilePreview preview = new FilePreview(maxBytes);
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ);
+        try {
+            preview.m_size = channel.size();
+            preview.m_length = (int) Math.min(preview.m_size, maxBytes);
+            if (preview.m_length > 0) {
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, preview.m_length)
+                        .get(preview.m_head, 0, preview.m_length);
+            }
+        } finally {
+            channel.close();
+        }
+        return preview;
+    }
+
+    /**
+     * Copies the source file to the target file in a single pass, capturing
+     * the preview of the copied content on the way.
+     * 
+     * @param source
+     *            The file to copy.
+     * @param target
+     *            The file to write, replaced if it exists.
+     * @param maxBytes
+     *            The maximal number of bytes of the preview.
+     * @return The preview of the copied file.
+     * @throws IOException
+     *             If the files cannot be read or written.
+     */
+    public static FilePreview copy(final File source, final File target,
+            final int maxBytes) throws IOException {
+        FilePreview preview = new FilePreview(maxBytes);
+        InputStream in = new FileInputStream(source);
+        try {
+            OutputStream out = new FileOutputStream(target);
+            try {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int len;
+                while ((len = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, len);
+                    preview.update(buffer, 0, len);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        target.setLastModified(source.lastModified());
+        return preview;
+    }
+
+    /**
+     * Passes the next bytes of the previewed content to the preview. Bytes
+     * beyond the capacity are only counted.
+     * 
+     * @param bytes
+     *            The buffer holding the bytes.
+     * @param offset
+     *            The offset of the bytes in the buffer.
+     * @param length
+     *            The number of bytes.
+     */
+    public void update(final byte[] bytes, final int offset, final int length) {
+        int n = Math.min(length, m_head.length - m_length);
+        if (n > 0) {
+            System.arraycopy(bytes, offset, m_head, m_length, n);
+            m_length += n;
+        }
+        m_size += length;
+    }
+
+    /**
+     * Returns whether the previewed content looks binary, i.e., its head
+     * contains NUL bytes or mostly control characters.
+     * 
+     * @return <code>true</code> if the content is considered binary.
+     */
+    public boolean isBinary() {
+        int probe = Math.min(m_length, BINARY_PROBE_SIZE);
+        int control = 0;
+        for (int i = 0; i < probe; ++i) {
+            int b = m_head[i] & 0xff;
+            if (b == 0) {
+                return true;
+            }
+            if (b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f') {
+                ++control;
+            }
+        }
+        return control * 10 > probe;
+    }
+
+    /**
+     * Returns the first lines of the previewed content, decoded as UTF-8.
+     * 
+     * @param maxLines
+     *            The maximal number of lines.
+     * @return The lines, each terminated by the line separator.
+     */
+    public String getText(final int maxLines) {
+        int end = 0;
+        int lines = 0;
+        while (end < m_length && lines < maxLines) {
+            if (m_head[end++] == '\n') {
+                ++lines;
+            }
+        }
+
+        CharsetDecoder decoder = UTF8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(end);
+        decoder.decode(ByteBuffer.wrap(m_head, 0, end), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+
+        StringBuilder sb = new StringBuilder(end + 64);
+        int start = 0;
+        for (int i = 0; i < chars.limit(); ++i) {
+            if (chars.get(i) == '\n') {
+                int lineEnd = i > start && chars.get(i - 1) == '\r' ? i - 1
+                        : i;
+                sb.append(chars, start, lineEnd).append(NEWLINE);
+                start = i + 1;
+            }
+        }
+        if (start < chars.limit()) {
+            sb.append(chars, start, chars.limit()).append(NEWLINE);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns whether the preview does not cover the whole content, given the
+     * maximal number of lines.
+     * 
+     * @param maxLines
+     *            The maximal number of lines.
+     * @return <code>true</code> if the content is longer than the preview.
+     */
+    public boolean isTruncated(final int maxLines) {
+        if (m_size > m_length) {
+            return true;
+        }
+        int lines = 0;
+        for (int i = 0; i < m_length; ++i) {
+            if (m_head[i] == '\n' && ++lines == maxLines && i + 1 < m_length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the summary shown by the viewer nodes: path, size and time of
+     * the file followed by the first lines of its content.
+     * 
+     * @param file
+     *            The previewed file.
+     * @param maxLines
+     *            The maximal number of content lines.
+     * @return The summary.
+     */
+    public String getSummary(final File file, final int maxLines) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("File path: ").append(file.getAbsolutePath()).append(NEWLINE);
+        sb.append("File size: ").append(m_size).append(" bytes")
+                .append(NEWLINE);
+
+        Format formatter = new SimpleDateFormat("yyyy.MM.dd HH.mm.ss");
+        sb.append("File time: ")
+                .append(formatter.format(new Date(file.lastModified())))
+                .append(NEWLINE);
+
+        if (isBinary()) {
+            sb.append("File content: binary, no preview available")
+                    .append(NEWLINE);
+            return sb.toString();
+        }
+
+        sb.append(String.format("File content (first %d lines):", maxLines))
+                .append(NEWLINE);
+        sb.append(getText(maxLines));
+        if (isTruncated(maxLines)) {
+            sb.append("######### OUTPUT TRUNCATED #########").append(NEWLINE);
+        }
+        return sb.toString();
+    }
+}
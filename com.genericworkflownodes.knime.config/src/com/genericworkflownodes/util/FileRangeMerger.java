@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Merges files into one by concatenating the regions of the files holding the
+ * records, the counterpart of the {@link FileRangeSplitter}. The regions are
+ * copied in parallel using {@link FileChannel#transferFrom}, hence the records
+ * are neither decoded nor copied through the heap.
+ * 
+ * A {@link MergeFormat} determines the region of every input holding the
+ * records and the header and footer of the merged file.
+ */
+public final class FileRangeMerger {
+
+    /**
+     * Describes how the files of a format are merged.
+     */
+    public interface MergeFormat {
+
+        /**
+         * Determines the region of an input holding the records.
+         * 
+         * @param channel
+         *            The channel of the input.
+         * @return The start (inclusive) and end (exclusive) of the region.
+         * @throws IOException
+         *             If the input could not be read.
+         */
+        long[] getRecordRegion(FileChannel channel) throws IOException;
+
+        /**
+         * Returns the content written in front of the records.
+         * 
+         * @param inputs
+         *            The files to merge.
+         * @param regions
+         *            The regions holding the records of the inputs.
+         * @return The header or <code>null</code> if there is none.
+         * @throws IOException
+         *             If an input could not be read.
+         */
+        ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                throws IOException;
+
+        /**
+         * Returns the content written behind the records.
+         * 
+         * @param inputs
+         *            The files to merge.
+         * @param regions
+         *            The regions holding the records of the inputs.
+         * @return The footer or <code>null</code> if there is none.
+         * @throws IOException
+         *             If an input could not be read.
+         */
+        ByteBuffer getFooter(Path[] inputs, long[][] regions)
+                throws IOException;
+    }
+
+    /**
+     * Concatenates the inputs as they are.
+     */
+    public static final MergeFormat CONCATENATE = new MergeFormat() {
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            return new long[] { 0, channel.size() };
+        }
+
+        @Override
+        public ByteBuffer getHeader(Path[] inputs, long[][] regions) {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getFooter(Path[] inputs, long[][] regions) {
+            return null;
+        }
+    };
+
+    /**
+     * Private c'tor to avoid instantiation of util class.
+     */
+    private FileRangeMerger() {
+    }
+
+    /**
+     * Merges the inputs in the given order into the output, copying the
+     * records of the inputs in parallel.
+     * 
+     * @param inputs
+     *            The files to merge.
+     * @param output
+     *            The file to write, an existing file is overwritten.
+     * @param format
+     *            The format of the inputs.
+     * @param threads
+     *            The maximal number of inputs copied in parallel.
+     * @return The size of the merged file.
+     * @throws IOException
+     *             If an input could not be read or the output could not be
+     *             written.
+     */
+    public static long merge(final Path[] inputs, final Path output,
+            final MergeFormat format, final int threads) throws IOException {
+        long[][] regions = new long[inputs.length][];
+        for (int i = 0; i < inputs.length; ++i) {
+            FileChannel channel = FileChannel.open(inputs[i],
+                    StandardOpenOption.READ);
+            try {
+                regions[i] = format.getRecordRegion(channel);
+            } finally {
+                channel.close();
+            }
+        }
+        ByteBuffer header = inputs.length == 0 ? null : format.getHeader(
+                inputs, regions);
+        ByteBuffer footer = inputs.length == 0 ? null : format.getFooter(
+                inputs, regions);
+
+        final long[] offsets = new long[inputs.length + 1];
+        offsets[0] = header == null ? 0 : header.remaining();
+        for (int i = 0; i < inputs.length; ++i) {
+            offsets[i + 1] = offsets[i] + regions[i][1] - regions[i][0];
+        }
+        long size = offsets[inputs.length]
+                + (footer == null ? 0 : footer.remaining());
+
+        final FileChannel out = FileChannel.open(output,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeFully(out, header, 0);
+            writeFully(out, footer, offsets[inputs.length]);
+            // transferFrom does not write beyond the end of the file, so the
+            // file is extended to its final size before the records are
+            // copied
+            if (out.size() < size) {
+                writeFully(out, ByteBuffer.allocate(1), size - 1);
+            }
+            copyRecords(inputs, regions, offsets, out, threads);
+            return out.size();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void copyRecords(final Path[] inputs,
+            final long[][] regions, final long[] offsets,
+            final FileChannel out, final int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1,
+                Math.min(threads, inputs.length)));
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < inputs.length; ++i) {
+                final Path input = inputs[i];
+                final long[] region = regions[i];
+                final long offset = offsets[i];
+                futures.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        copyRegion(input, region, out, offset);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not merge files", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void copyRegion(final Path input, final long[] region,
+            final FileChannel out, final long offset) throws IOException {
+        FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+        try {
+            long length = region[1] - region[0];
+            in.position(region[0]);
+            long copied = 0;
+            while (copied < length) {
+                long transferred = out.transferFrom(in, offset + copied,
+                        length - copied);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file " + input);
+                }
+                copied += transferred;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeFully(final FileChannel out,
+            final ByteBuffer buffer, final long position) throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += out.write(buffer, position + written);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a file into contiguous byte ranges of roughly equal size whose
+ * boundaries are aligned to the records of the file (e.g., lines). The ranges
+ * are written in parallel using {@link FileChannel#transferTo}, hence the
+ * records are neither decoded nor copied through the heap and the parts are
+ * byte-identical to the corresponding ranges of the input.
+ * 
+ * A {@link RecordFormat} may restrict the splitting to the region of the file
+ * holding the records and add a header and footer to every part, so that each
+ * part is a valid standalone file.
+ */
+public final class FileRangeSplitter {
+
+    /**
+     * Size of the windows that are mapped while searching for a boundary.
+     */
+    static final int SCAN_WINDOW = 64 * 1024;
+
+    /**
+     * Locates record boundaries in a file.
+     */
+    public interface BoundaryFinder {
+
+        /**
+         * Finds the first record start at or after the given position.
+         * 
+         * @param channel
+         *            The channel of the file.
+         * @param position
+         *            The position to start searching at, always behind the
+         *            start of the first record.
+         * @param limit
+         *            The end of the region holding the records.
+         * @return The position of the next record start, or limit if there is
+         *         none.
+         * @throws IOException
+         *             If the file could not be read.
+         */
+        long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException;
+    }
+
+    /**
+     * Describes the layout of a file format.
+     */
+    public interface RecordFormat extends BoundaryFinder {
+
+        /**
+         * Determines the region of the file holding the records.
+         * 
+         * @param channel
+         *            The channel of the file.
+         * @return The start (inclusive) and end (exclusive) of the region.
+         * @throws IOException
+         *             If the file could not be read.
+         */
+        long[] getRecordRegion(FileChannel channel) throws IOException;
+
+        /**
+         * Returns the content written in front of the records of a part.
+         * 
+         * @param channel
+         *            The channel of the file.
+         * @param region
+         *            The region holding the records.
+         * @param start
+         *            The start of the records of the part.
+         * @param end
+         *            The end of the records of the part.
+         * @return The header or <code>null</code> if there is none.
+         * @throws IOException
+         *             If the file could not be read.
+         */
+        ByteBuffer getHeader(FileChannel channel, long[] region, long start,
+                long end) throws IOException;
+
+        /**
+         * Returns the content written behind the records of a part.
+         * 
+         * @param channel
+         *            The channel of the file.
+         * @param region
+         *            The region holding the records.
+         * @param start
+         *            The start of the records of the part.
+         * @param end
+         *            The end of the records of the part.
+         * @return The footer or <code>null</code> if there is none.
+         * @throws IOException
+         *             If the file could not be read.
+         */
+        ByteBuffer getFooter(FileChannel channel, long[] region, long start,
+                long end) throws IOException;
+    }
+
+    /**
+     * A {@link RecordFormat} consisting of records only, without header or
+     * footer.
+     */
+    public abstract static class PlainFormat implements RecordFormat {
+
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            return new long[] { 0, channel.size() };
+        }
+
+        @Override
+        public ByteBuffer getHeader(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getFooter(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return null;
+        }
+    }
+
+    /**
+     * Aligns boundaries to line starts, i.e., to the byte following a
+     * <code>'\n'</code>. Works for <code>\r\n</code> line endings as well.
+     */
+    public static final RecordFormat LINES = new PlainFormat() {
+        @Override
+        public long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException {
+            return nextLineStart(channel, position, limit);
+        }
+    };
+
+    /**
+     * Private c'tor to avoid instantiation of util class.
+     */
+    private FileRangeSplitter() {
+    }
+
+    /**
+     * Splits the input into as many parts as output files are given and
+     * writes the parts in parallel.
+     * 
+     * @param input
+     *            The file to split.
+     * @param outputs
+     *            The files to write the parts to, existing files are
+     *            overwritten.
+     * @param format
+     *            The format of the input.
+     * @param threads
+     *            The maximal number of parts written in parallel.
+     * @throws IOException
+     *             If the input could not be read or an output could not be
+     *             written.
+     */
+    public static void split(final Path input, final Path[] outputs,
+            final RecordFormat format, final int threads) throws IOException {
+        final long[] region;
+        final long[] boundaries;
+        FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+        try {
+            region = format.getRecordRegion(channel);
+            boundaries = computeBoundaries(channel, outputs.length, format,
+                    region);
+        } finally {
+            channel.close();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1,
+                Math.min(threads, outputs.length)));
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>();
+            for (int i = 0; i < outputs.length; ++i) {
+                final Path output = outputs[i];
+                final long start = boundaries[i];
+                final long end = boundaries[i + 1];
+                futures.add(pool.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return writePart(input, format, region, start, end,
+                                output);
+                    }
+                }));
+            }
+            for (Future<Long> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while splitting " + input, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not split " + input, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the number of parts needed so that the records of each part
+     * take roughly the given number of bytes.
+     * 
+     * @param input
+     *            The file to split.
+     * @param format
+     *            The format of the input.
+     * @param targetBytes
+     *            The desired size of the records of a part.
+     * @return The number of parts, at least 1.
+     * @throws IOException
+     *             If the input could not be read.
+     */
+    public static int getNumberOfParts(final Path input,
+            final RecordFormat format, final long targetBytes)
+            throws IOException {
+        FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+        try {
+            long[] region = format.getRecordRegion(channel);
+            long parts = (region[1] - region[0] + targetBytes - 1)
+                    / Math.max(1, targetBytes);
+            return (int) Math.max(1, Math.min(Integer.MAX_VALUE, parts));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Computes the boundaries of the given number of parts. Part i covers the
+     * byte range [boundaries[i], boundaries[i + 1]). Parts may be empty if the
+     * region contains fewer records than parts.
+     * 
+     * @param channel
+     *            The channel of the file to split.
+     * @param parts
+     *            The number of parts.
+     * @param finder
+     *            Locates the record boundaries.
+     * @param region
+     *            The start and end of the region holding the records.
+     * @return The parts + 1 boundaries, starting with the start and ending
+     *         with the end of the region.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long[] computeBoundaries(final FileChannel channel,
+            final int parts, final BoundaryFinder finder, final long[] region)
+            throws IOException {
+        long start = region[0];
+        long size = region[1] - start;
+        long[] boundaries = new long[parts + 1];
+        boundaries[0] = start;
+        boundaries[parts] = region[1];
+        for (int i = 1; i < parts; ++i) {
+            long target = Math.max(start + (size * i + parts - 1) / parts,
+                    boundaries[i - 1]);
+            if (target == start) {
+                boundaries[i] = start;
+            } else if (target >= region[1]) {
+                boundaries[i] = region[1];
+            } else {
+                boundaries[i] = finder.findBoundary(channel, target, region[1]);
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Returns the first line start at or after position.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param position
+     *            The position to start at, must be greater than 0.
+     * @param limit
+     *            The position to stop searching at.
+     * @return The line start or limit if there is none.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long nextLineStart(final FileChannel channel,
+            final long position, final long limit) throws IOException {
+        // if the previous byte terminates a line, we are at a line start
+        long newline = indexOf(channel, (byte) '\n', position - 1, limit);
+        return newline < 0 ? limit : newline + 1;
+    }
+
+    /**
+     * Finds the first occurrence of the given byte at or after position by
+     * scanning memory-mapped windows of the file.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param b
+     *            The byte to search.
+     * @param position
+     *            The position to start at.
+     * @param limit
+     *            The position to stop searching at.
+     * @return The position of the byte or -1 if it does not occur.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long indexOf(final FileChannel channel, final byte b,
+            final long position, final long limit) throws IOException {
+        long windowStart = position;
+        while (windowStart < limit) {
+            int length = (int) Math.min(SCAN_WINDOW, limit - windowStart);
+            MappedByteBuffer window = channel.map(
+                    FileChannel.MapMode.READ_ONLY, windowStart, length);
+            for (int i = 0; i < length; ++i) {
+                if (window.get(i) == b) {
+                    return windowStart + i;
+                }
+            }
+            windowStart += length;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of the given byte sequence starting at or
+     * after position by scanning memory-mapped windows of the file.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param pattern
+     *            The bytes to search.
+     * @param position
+     *            The position to start at.
+     * @param limit
+     *            The position to stop searching at.
+     * @return The start of the sequence or -1 if it does not occur.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long indexOf(final FileChannel channel,
+            final byte[] pattern, final long position, final long limit)
+            throws IOException {
+        long windowStart = position;
+        while (limit - windowStart >= pattern.length) {
+            int length = (int) Math.min(SCAN_WINDOW, limit - windowStart);
+            MappedByteBuffer window = channel.map(
+                    FileChannel.MapMode.READ_ONLY, windowStart, length);
+            for (int i = 0; i + pattern.length <= length; ++i) {
+                int j = 0;
+                while (j < pattern.length && window.get(i + j) == pattern[j]) {
+                    ++j;
+                }
+                if (j == pattern.length) {
+                    return windowStart + i;
+                }
+            }
+            // the windows overlap so that no match is missed
+            windowStart += Math.max(1, length - pattern.length + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the given range of the file into a heap buffer. Only meant for
+     * small ranges like headers.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param start
+     *            The start of the range.
+     * @param end
+     *            The end of the range.
+     * @return The content of the range, ready to be read.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static ByteBuffer read(final FileChannel channel, final long start,
+            final long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long writePart(final Path input, final RecordFormat format,
+            final long[] region, final long start, final long end,
+            final Path output) throws IOException {
+        FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+        try {
+            FileChannel out = FileChannel.open(output,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                writeFully(out, format.getHeader(in, region, start, end));
+                long position = start;
+                while (position < end) {
+                    long transferred = in.transferTo(position, end - position,
+                            out);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of file "
+                                + input);
+                    }
+                    position += transferred;
+                }
+                writeFully(out, format.getFooter(in, region, start, end));
+                return out.size();
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeFully(final FileChannel out,
+            final ByteBuffer buffer) throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
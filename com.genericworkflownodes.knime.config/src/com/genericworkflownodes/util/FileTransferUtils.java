@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utility methods to transfer files into a new location (e.g., a file store)
+ * with as little I/O as possible. Depending on the requested
+ * {@link TransferStrategy} a hard link, a copy-on-write clone or an in-kernel
+ * copy is created.
+ */
+public final class FileTransferUtils {
+
+    private static final Logger LOG = Logger.getLogger(FileTransferUtils.class
+            .getCanonicalName());
+
+    /**
+     * Files smaller than this are copied directly, spawning an external
+     * process to clone them would be more expensive than the copy itself.
+     */
+    private static final long REFLINK_MIN_SIZE = 1024 * 1024;
+
+    /**
+     * Remembers the file systems on which cloning failed, so that we do not
+     * try it again for every file.
+     */
+    private static final Map<FileStore, Boolean> REFLINK_UNSUPPORTED = new ConcurrentHashMap<FileStore, Boolean>();
+
+    /**
+     * Maximal difference of modification times (in ms) for which two files are
+     * still considered to be modified at the same time. Some file systems
+     * (e.g., FAT or SMB shares) only store times with a 2 second resolution.
+     */
+    private static final long MODIFY_WINDOW = 2000;
+
+    /**
+     * Size of the buffer used while computing checksums.
+     */
+    private static final int CHECKSUM_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Private c'tor to avoid instantiation of util class.
+     */
+    private FileTransferUtils() {
+    }
+
+    /**
+     * Transfers the source file to the target location using the given
+     * strategy. If the strategy cannot be applied, the next cheaper one is
+     * tried, ending with an in-kernel copy.
+     * 
+     * @param source
+     *            The file to transfer.
+     * @param target
+     *            The new location, must not exist yet.
+     * @param strategy
+     *            The preferred {@link TransferStrategy}.
+     * @return The {@link TransferStrategy} that was actually applied.
+     * @throws IOException
+     *             If the target already exists or the file could not be
+     *             copied.
+     */
+    public static TransferStrategy transfer(final Path source,
+            final Path target, final TransferStrategy strategy)
+            throws IOException {
+        if (Files.exists(target)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+
+        if (strategy == TransferStrategy.HARDLINK && tryHardLink(source, target)) {
+            return TransferStrategy.HARDLINK;
+        }
+        if (strategy != TransferStrategy.COPY && tryReflink(source, target)) {
+            return TransferStrategy.REFLINK;
+        }
+        copy(source, target);
+        return TransferStrategy.COPY;
+    }
+
+    /**
+     * Copies the source file to the target location using
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * , i.e., without moving the content through the Java heap. An existing
+     * target is overwritten.
+     * 
+     * @param source
+     *            The file to copy.
+     * @param target
+     *            The target file.
+     * @return The number of copied bytes.
+     * @throws IOException
+     *             If the file could not be copied.
+     */
+    public static long copy(final Path source, final Path target)
+            throws IOException {
+        FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+        try {
+            FileChannel out = FileChannel.open(target,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    long transferred = in.transferTo(position, size
+                            - position, out);
+                    if (transferred <= 0) {
+                        // the source was truncated while copying
+                        break;
+                    }
+                    position += transferred;
+                }
+                return position;
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Copies the source file to a temporary file next to the target and moves
+     * it into place afterwards, so that the target is either missing, the old
+     * version or the complete new version, but never a partially written file.
+     * The modification time of the source is transferred to the target.
+     * 
+     * @param source
+     *            The file to copy.
+     * @param target
+     *            The target file. An existing target is replaced.
+     * @return The number of copied bytes.
+     * @throws IOException
+     *             If the file could not be copied.
+     */
+    public static long copyAtomically(final Path source, final Path target)
+            throws IOException {
+        Path targetDir = target.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(targetDir, "." + target.getFileName(),
+                ".part");
+        boolean moved = false;
+        try {
+            long size = copy(source, tmp);
+            Files.setLastModifiedTime(tmp, Files.getLastModifiedTime(source));
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            return size;
+        } finally {
+            if (!moved) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * Checks if the target is a copy of the source, based on size and
+     * modification time and optionally a checksum of the content.
+     * 
+     * @param source
+     *            The original file.
+     * @param target
+     *            The possible copy.
+     * @param compareChecksums
+     *            If <code>true</code>, the checksums of both files have to
+     *            match as well.
+     * @return <code>true</code> if the target exists and matches the source.
+     * @throws IOException
+     *             If the files could not be read.
+     */
+    public static boolean isUpToDate(final Path source, final Path target,
+            final boolean compareChecksums) throws IOException {
+        if (!Files.isRegularFile(target)
+                || Files.size(source) != Files.size(target)) {
+            return false;
+        }
+        long sourceTime = Files.getLastModifiedTime(source).toMillis();
+        long targetTime = Files.getLastModifiedTime(target).toMillis();
+        if (Math.abs(sourceTime - targetTime) >= MODIFY_WINDOW) {
+            return false;
+        }
+        return !compareChecksums || checksum(source) == checksum(target);
+    }
+
+    /**
+     * Computes a fast, non-cryptographic checksum (CRC32) of the file
+     * content.
+     * 
+     * @param file
+     *            The file to read.
+     * @return The checksum of the file content.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    public static long checksum(final Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                crc.update(buffer.array(), 0, read);
+                buffer.clear();
+            }
+        } finally {
+            channel.close();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Tries to create a hard link at target pointing to source.
+     * 
+     * @param source
+     *            The existing file.
+     * @param target
+     *            The link to create.
+     * @return <code>true</code> if the link was created, <code>false</code> if
+     *         source and target are located on different file systems or the
+     *         file system does not support hard links.
+     */
+    public static boolean tryHardLink(final Path source, final Path target) {
+        try {
+            if (!isSameFileStore(source, target)) {
+                return false;
+            }
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not create hard link " + target, e);
+        } catch (UnsupportedOperationException e) {
+            LOG.log(Level.FINE, "Hard links are not supported for " + target,
+                    e);
+        } catch (SecurityException e) {
+            LOG.log(Level.FINE, "Not allowed to create hard link " + target, e);
+        }
+        return false;
+    }
+
+    /**
+     * Tries to create a copy-on-write clone of source at target using the
+     * platform's <code>cp</code> command (<code>--reflink=always</code> on
+     * Linux, <code>-c</code> on Mac OS).
+     * 
+     * @param source
+     *            The existing file.
+     * @param target
+     *            The clone to create.
+     * @return <code>true</code> if the clone was created, <code>false</code>
+     *         if the file system or the platform does not support cloning or
+     *         the file is too small to benefit from it.
+     */
+    public static boolean tryReflink(final Path source, final Path target) {
+        if (Helper.isWin()) {
+            return false;
+        }
+        FileStore store;
+        try {
+            if (Files.size(source) < REFLINK_MIN_SIZE
+                    || !isSameFileStore(source, target)) {
+                return false;
+            }
+            store = Files.getFileStore(source);
+        } catch (IOException e) {
+            return false;
+        }
+        if (REFLINK_UNSUPPORTED.containsKey(store)) {
+            return false;
+        }
+
+        ProcessBuilder pb;
+        if (Helper.isMac()) {
+            pb = new ProcessBuilder("cp", "-c", source.toString(),
+                    target.toString());
+        } else {
+            pb = new ProcessBuilder("cp", "--reflink=always", "--",
+                    source.toString(), target.toString());
+        }
+        pb.redirectErrorStream(true);
+
+        try {
+            Process p = pb.start();
+            // we are not interested in the output, but need to consume it
+            while (p.getInputStream().read() != -1) {
+                // drain
+            }
+            if (p.waitFor() == 0) {
+                return true;
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not clone " + source, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleteQuietly(target);
+            return false;
+        }
+
+        // cleanup partially created targets and don't try again on this
+        // file system
+        REFLINK_UNSUPPORTED.put(store, Boolean.TRUE);
+        deleteQuietly(target);
+        return false;
+    }
+
+    private static void deleteQuietly(final Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not remove " + target, e);
+        }
+    }
+
+    /**
+     * Checks if source and the directory of target are located on the same
+     * file system.
+     */
+    private static boolean isSameFileStore(final Path source, final Path target)
+            throws IOException {
+        Path targetDir = target.toAbsolutePath().getParent();
+        if (targetDir == null || !Files.isDirectory(targetDir)) {
+            return false;
+        }
+        return Files.getFileStore(source).equals(
+                Files.getFileStore(targetDir));
+    }
+}
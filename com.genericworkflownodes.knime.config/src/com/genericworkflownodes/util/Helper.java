@@ -21,15 +21,10 @@
 package com.genericworkflownodes.util;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.text.Format;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Random;
 
 /**
@@ -206,7 +201,7 @@ public final class Helper {
 
     /**
      * Reads the first lines of the file into a string. At maximum maxLines will
-     * be read.
+     * be read, and no more than {@link FilePreview#DEFAULT_MAX_BYTES} bytes.
      * 
      * @param file
      *            The file to read.
@@ -218,53 +213,8 @@ public final class Helper {
      */
     public static String readFileSummary(final File file, int maxLines)
             throws IOException {
-        FileReader fr = new FileReader(file);
-        BufferedReader br = new BufferedReader(fr);
-
-        StringBuffer sb = new StringBuffer();
-        try {
-
-            String line = "";
-
-            int cnt = 0;
-
-            sb.append("File path: ").append(file.getAbsolutePath())
-                    .append(System.getProperty("line.separator"));
-            sb.append("File size: ").append(file.length()).append(" bytes")
-                    .append(System.getProperty("line.separator"));
-
-            Date date = new Date(file.lastModified());
-            Format formatter = new SimpleDateFormat("yyyy.MM.dd HH.mm.ss");
-            String s = formatter.format(date);
-
-            sb.append("File time: ").append(s)
-                    .append(System.getProperty("line.separator"));
-
-            sb.append(String.format("File content (first %d lines):", maxLines))
-                    .append(System.getProperty("line.separator"));
-
-            while ((line = br.readLine()) != null) {
-                sb.append(line + System.getProperty("line.separator"));
-                cnt++;
-                if (cnt > maxLines) {
-                    sb.append("######### OUTPUT TRUNCATED #########").append(
-                            System.getProperty("line.separator"));
-                    break;
-                }
-            }
-        } catch (IOException ex) {
-            // close readers
-            br.close();
-            fr.close();
-            // rethrow
-            throw ex;
-        }
-
-        // close readers
-        br.close();
-        fr.close();
-
-        return sb.toString();
+        return FilePreview.read(file, FilePreview.DEFAULT_MAX_BYTES)
+                .getSummary(file, maxLines);
     }
 
     /**
@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.genericworkflownodes.util.FileRangeMerger.MergeFormat;
+
+/**
+ * {@link MergeFormat}s of common file formats, used to merge files with the
+ * {@link FileRangeMerger}.
+ */
+public final class MergeFormats {
+
+    /**
+     * Byte preserving charset used to handle headers.
+     */
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * SAM: the header lines starting with <code>'@'</code> of all inputs are
+     * merged, dropping duplicates.
+     */
+    public static final MergeFormat SAM = dedupeHeader((byte) '@');
+
+    /**
+     * VCF: the meta-information lines starting with <code>'#'</code> of all
+     * inputs are merged, dropping duplicates, followed by the column header
+     * line of the first input.
+     */
+    public static final MergeFormat VCF = new HeaderLinesFormat((byte) '#') {
+        @Override
+        public ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                throws IOException {
+            Set<String> lines = new LinkedHashSet<String>();
+            String columns = null;
+            for (int i = 0; i < inputs.length; ++i) {
+                for (String line : readLines(inputs[i], regions[i][0])) {
+                    if (!line.startsWith("##")) {
+                        if (columns == null) {
+                            columns = line;
+                        }
+                    } else {
+                        lines.add(line);
+                    }
+                }
+            }
+            if (columns != null) {
+                lines.add(columns);
+            }
+            return join(lines);
+        }
+    };
+
+    /**
+     * XML: the content of the root elements of all inputs is wrapped into the
+     * root element of the first input. Everything in front of and behind the
+     * root element is taken from the first input. Document type declarations
+     * with an internal subset are not supported.
+     */
+    public static final MergeFormat XML = new MergeFormat() {
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            long size = channel.size();
+            long position = 0;
+            while (true) {
+                position = FileRangeSplitter.indexOf(channel, (byte) '<',
+                        position, size);
+                if (position < 0 || position + 1 >= size) {
+                    throw new IOException("No root element found.");
+                }
+                byte next = FileRangeSplitter.read(channel, position + 1,
+                        position + 2).get();
+                if (next == '?') {
+                    position = skipPast(channel, "?>", position, size);
+                } else if (next == '!') {
+                    // comment or document type declaration
+                    String start = LATIN1.decode(
+                            FileRangeSplitter.read(channel, position,
+                                    Math.min(size, position + 4))).toString();
+                    position = skipPast(channel, start.equals("<!--") ? "-->"
+                            : ">", position, size);
+                } else {
+                    break;
+                }
+            }
+            long tagEnd = skipPast(channel, ">", position, size);
+            if (FileRangeSplitter.read(channel, tagEnd - 2, tagEnd - 1).get() == '/') {
+                // empty root element
+                return new long[] { tagEnd, tagEnd };
+            }
+            long rootEnd = lastIndexOf(channel, "</", tagEnd, size);
+            if (rootEnd < 0) {
+                throw new IOException("Unterminated root element.");
+            }
+            return new long[] { tagEnd, rootEnd };
+        }
+
+        @Override
+        public ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                throws IOException {
+            if (regions[0][0] == regions[0][1] && inputs.length > 1) {
+                throw new IOException("Cannot merge into the empty root element of "
+                        + inputs[0]);
+            }
+            return read(inputs[0], 0, regions[0][0]);
+        }
+
+        @Override
+        public ByteBuffer getFooter(Path[] inputs, long[][] regions)
+                throws IOException {
+            return read(inputs[0], regions[0][1], -1);
+        }
+    };
+
+    /**
+     * mzML: the spectra of all inputs are merged into the spectrum list of the
+     * first input and the spectrum count is adapted. The merged file is closed
+     * after the spectra, i.e., chromatograms and the index of indexed mzML
+     * files are not copied. The spectrum indices are kept as they are.
+     */
+    public static final MergeFormat MZML = new MergeFormat() {
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            return RecordFormats.MZML.getRecordRegion(channel);
+        }
+
+        @Override
+        public ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                throws IOException {
+            int count = 0;
+            for (int i = 0; i < inputs.length; ++i) {
+                FileChannel channel = FileChannel.open(inputs[i],
+                        StandardOpenOption.READ);
+                try {
+                    count += RecordFormats.countSpectra(channel,
+                            regions[i][0], regions[i][1]);
+                } finally {
+                    channel.close();
+                }
+            }
+            FileChannel channel = FileChannel.open(inputs[0],
+                    StandardOpenOption.READ);
+            try {
+                return RecordFormats.getMzMLHeader(channel, regions[0][0],
+                        count);
+            } finally {
+                channel.close();
+            }
+        }
+
+        @Override
+        public ByteBuffer getFooter(Path[] inputs, long[][] regions) {
+            return LATIN1.encode(RecordFormats.MZML_FOOTER);
+        }
+    };
+
+    /**
+     * Merges files whose header consists of the leading lines starting with
+     * the given prefix, keeping the header of the first input only.
+     * 
+     * @param prefix
+     *            The first byte of every header line.
+     * @return The format.
+     */
+    public static MergeFormat keepFirstHeader(final byte prefix) {
+        return new HeaderLinesFormat(prefix) {
+            @Override
+            public ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                    throws IOException {
+                return read(inputs[0], 0, regions[0][0]);
+            }
+        };
+    }
+
+    /**
+     * Merges files whose header consists of the leading lines starting with
+     * the given prefix. The header lines of all inputs are merged in the
+     * order of their first appearance, dropping duplicates.
+     * 
+     * @param prefix
+     *            The first byte of every header line.
+     * @return The format.
+     */
+    public static MergeFormat dedupeHeader(final byte prefix) {
+        return new HeaderLinesFormat(prefix) {
+            @Override
+            public ByteBuffer getHeader(Path[] inputs, long[][] regions)
+                    throws IOException {
+                Set<String> lines = new LinkedHashSet<String>();
+                for (int i = 0; i < inputs.length; ++i) {
+                    lines.addAll(readLines(inputs[i], regions[i][0]));
+                }
+                return join(lines);
+            }
+        };
+    }
+
+    /**
+     * Base class of formats with a header consisting of the leading lines
+     * starting with a given prefix.
+     */
+    private abstract static class HeaderLinesFormat implements MergeFormat {
+
+        private final byte m_prefix;
+
+        HeaderLinesFormat(final byte prefix) {
+            m_prefix = prefix;
+        }
+
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            return new long[] { RecordFormats.getHeaderEnd(channel, m_prefix),
+                    channel.size() };
+        }
+
+        @Override
+        public ByteBuffer getFooter(Path[] inputs, long[][] regions) {
+            return null;
+        }
+    }
+
+    /**
+     * Private c'tor to avoid instantiation of util class.
+     */
+    private MergeFormats() {
+    }
+
+    /**
+     * Reads the given range of a file.
+     * 
+     * @param file
+     *            The file.
+     * @param start
+     *            The start of the range.
+     * @param end
+     *            The end of the range, or -1 for the end of the file.
+     */
+    private static ByteBuffer read(Path file, long start, long end)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return FileRangeSplitter.read(channel, start,
+                    end < 0 ? channel.size() : end);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the lines in front of the given position without their line
+     * terminators.
+     */
+    private static List<String> readLines(Path file, long end)
+            throws IOException {
+        String text = LATIN1.decode(read(file, 0, end)).toString();
+        List<String> lines = new ArrayList<String>();
+        for (String line : text.split("\r?\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static ByteBuffer join(Iterable<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return LATIN1.encode(sb.toString());
+    }
+
+    /**
+     * Returns the position behind the first occurrence of the given pattern
+     * at or after the given position.
+     */
+    private static long skipPast(FileChannel channel, String pattern,
+            long position, long size) throws IOException {
+        byte[] bytes = pattern.getBytes(LATIN1);
+        long index = FileRangeSplitter.indexOf(channel, bytes, position, size);
+        if (index < 0) {
+            throw new IOException("Unterminated markup, expected " + pattern);
+        }
+        return index + bytes.length;
+    }
+
+    /**
+     * Returns the position of the last occurrence of the given pattern in the
+     * given range, or -1 if there is none.
+     */
+    private static long lastIndexOf(FileChannel channel, String pattern,
+            long start, long end) throws IOException {
+        byte[] bytes = pattern.getBytes(LATIN1);
+        long windowEnd = end;
+        while (windowEnd - start >= bytes.length) {
+            long windowStart = Math.max(start, windowEnd
+                    - FileRangeSplitter.SCAN_WINDOW);
+            ByteBuffer window = FileRangeSplitter.read(channel, windowStart,
+                    windowEnd);
+            for (int i = window.limit() - bytes.length; i >= 0; --i) {
+                int j = 0;
+                while (j < bytes.length && window.get(i + j) == bytes[j]) {
+                    ++j;
+                }
+                if (j == bytes.length) {
+                    return windowStart + i;
+                }
+            }
+            if (windowStart == start) {
+                break;
+            }
+            // overlap the windows so that no occurrence is missed
+            windowEnd = windowStart + bytes.length - 1;
+        }
+        return -1;
+    }
+}
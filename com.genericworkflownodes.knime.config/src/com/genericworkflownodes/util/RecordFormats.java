@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.genericworkflownodes.util.FileRangeSplitter.PlainFormat;
+import com.genericworkflownodes.util.FileRangeSplitter.RecordFormat;
+
+/**
+ * {@link RecordFormat}s of common bioinformatics file formats, used to split
+ * files at record boundaries with the {@link FileRangeSplitter}.
+ */
+public final class RecordFormats {
+
+    /**
+     * Byte preserving charset used to patch headers.
+     */
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    private static final byte[] SPECTRUM_START = "<spectrum ".getBytes(LATIN1);
+
+    private static final byte[] SPECTRUM_LIST_END = "</spectrumList>"
+            .getBytes(LATIN1);
+
+    private static final Pattern INDEXED_MZML_START = Pattern
+            .compile("<indexedmzML\\b[^>]*>\\s*");
+
+    private static final Pattern SPECTRUM_COUNT = Pattern
+            .compile("(<spectrumList\\b[^>]*?\\bcount=\")\\d*(\")");
+
+    /**
+     * Closes an mzML file after its spectrum list.
+     */
+    static final String MZML_FOOTER = "</spectrumList>\n</run>\n</mzML>\n";
+
+    /**
+     * FASTA: every record starts with a line beginning with <code>'&gt;'</code>.
+     */
+    public static final RecordFormat FASTA = new PlainFormat() {
+        private final byte[] m_recordStart = { '\n', '>' };
+
+        @Override
+        public long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException {
+            long start = FileRangeSplitter.indexOf(channel, m_recordStart,
+                    position - 1, limit);
+            return start < 0 ? limit : start + 1;
+        }
+    };
+
+    /**
+     * FASTQ: every record consists of four lines, the first starting with
+     * <code>'@'</code> and the third starting with <code>'+'</code>. As
+     * quality lines may start with <code>'@'</code> as well, a record start
+     * is only accepted if its third line starts with <code>'+'</code>.
+     */
+    public static final RecordFormat FASTQ = new PlainFormat() {
+        @Override
+        public long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException {
+            long line = FileRangeSplitter.nextLineStart(channel, position,
+                    limit);
+            while (line < limit) {
+                if (byteAt(channel, line) == '@') {
+                    long second = FileRangeSplitter.nextLineStart(channel,
+                            line + 1, limit);
+                    long third = second < limit ? FileRangeSplitter
+                            .nextLineStart(channel, second + 1, limit) : limit;
+                    if (third < limit && byteAt(channel, third) == '+') {
+                        return line;
+                    }
+                }
+                line = FileRangeSplitter.nextLineStart(channel, line + 1,
+                        limit);
+            }
+            return limit;
+        }
+    };
+
+    /**
+     * SAM: the header lines starting with <code>'@'</code> are copied into
+     * every part, the alignments are split at line boundaries.
+     */
+    public static final RecordFormat SAM = new RecordFormat() {
+        @Override
+        public long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException {
+            return FileRangeSplitter.nextLineStart(channel, position, limit);
+        }
+
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            return new long[] { getHeaderEnd(channel, (byte) '@'),
+                    channel.size() };
+        }
+
+        @Override
+        public ByteBuffer getHeader(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return FileRangeSplitter.read(channel, 0, region[0]);
+        }
+
+        @Override
+        public ByteBuffer getFooter(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return null;
+        }
+    };
+
+    /**
+     * mzML: the spectra are split, the preamble up to the first spectrum is
+     * copied into every part with the spectrum count adapted. Every part is
+     * closed after its spectra, i.e., chromatograms and the index of indexed
+     * mzML files are not copied.
+     */
+    public static final RecordFormat MZML = new RecordFormat() {
+        @Override
+        public long findBoundary(FileChannel channel, long position, long limit)
+                throws IOException {
+            long start = FileRangeSplitter.indexOf(channel, SPECTRUM_START,
+                    position, limit);
+            return start < 0 ? limit : start;
+        }
+
+        @Override
+        public long[] getRecordRegion(FileChannel channel) throws IOException {
+            long size = channel.size();
+            long start = FileRangeSplitter.indexOf(channel, SPECTRUM_START, 0,
+                    size);
+            if (start < 0) {
+                throw new IOException("No spectra found in mzML file.");
+            }
+            long end = FileRangeSplitter.indexOf(channel, SPECTRUM_LIST_END,
+                    start, size);
+            if (end < 0) {
+                throw new IOException("Unterminated spectrum list in mzML file.");
+            }
+            return new long[] { start, end };
+        }
+
+        @Override
+        public ByteBuffer getHeader(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return getMzMLHeader(channel, region[0], countSpectra(channel,
+                    start, end));
+        }
+
+        @Override
+        public ByteBuffer getFooter(FileChannel channel, long[] region,
+                long start, long end) throws IOException {
+            return LATIN1.encode(MZML_FOOTER);
+        }
+    };
+
+    /**
+     * Private c'tor to avoid instantiation of util class.
+     */
+    private RecordFormats() {
+    }
+
+    /**
+     * Determines the end of the header lines, i.e., of the leading lines
+     * starting with the given prefix.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param prefix
+     *            The first byte of every header line.
+     * @return The position of the first line not being a header line.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    static long getHeaderEnd(FileChannel channel, byte prefix)
+            throws IOException {
+        long size = channel.size();
+        long position = 0;
+        boolean lineStart = true;
+        while (position < size) {
+            int length = (int) Math.min(FileRangeSplitter.SCAN_WINDOW, size
+                    - position);
+            MappedByteBuffer window = channel.map(
+                    FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; ++i) {
+                byte b = window.get(i);
+                if (lineStart && b != prefix) {
+                    return position + i;
+                }
+                lineStart = b == '\n';
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the spectra of an mzML file in the given range.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param start
+     *            The start of the range.
+     * @param end
+     *            The end of the range.
+     * @return The number of spectra starting in the range.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    static int countSpectra(FileChannel channel, long start, long end)
+            throws IOException {
+        int count = 0;
+        long position = start;
+        while ((position = FileRangeSplitter.indexOf(channel, SPECTRUM_START,
+                position, end)) >= 0) {
+            ++count;
+            position += SPECTRUM_START.length;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the preamble of an mzML file up to its first spectrum as the
+     * preamble of a plain mzML file holding the given number of spectra.
+     * 
+     * @param channel
+     *            The channel of the file.
+     * @param end
+     *            The start of the first spectrum.
+     * @param count
+     *            The number of spectra.
+     * @return The adapted preamble.
+     * @throws IOException
+     *             If the file could not be read.
+     */
+    static ByteBuffer getMzMLHeader(FileChannel channel, long end, int count)
+            throws IOException {
+        String header = LATIN1.decode(FileRangeSplitter.read(channel, 0, end))
+                .toString();
+        header = INDEXED_MZML_START.matcher(header).replaceFirst("");
+        Matcher m = SPECTRUM_COUNT.matcher(header);
+        if (m.find()) {
+            header = header.substring(0, m.start()) + m.group(1) + count
+                    + m.group(2) + header.substring(m.end());
+        }
+        return LATIN1.encode(header);
+    }
+
+    private static byte byteAt(FileChannel channel, long position)
+            throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(1);
+        if (channel.read(b, position) != 1) {
+            throw new IOException("Unexpected end of file");
+        }
+        return b.get(0);
+    }
+}
@@ -18,8 +18,11 @@
  */
 package com.genericworkflownodes.util;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Collection of utility methods and classes for Strings.
@@ -35,6 +38,37 @@ public final class StringUtils {
     private StringUtils() {
     }
 
+    /**
+     * Pool of the interned strings. Entries vanish once a string is no longer
+     * referenced elsewhere.
+     */
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<String, WeakReference<String>>();
+
+    /**
+     * Returns a canonical instance of the given string, so that equal texts,
+     * e.g., the descriptions of common parameters, are kept in memory only
+     * once. Unlike {@link String#intern()} the instances can be reclaimed
+     * when they are no longer used.
+     * 
+     * @param s
+     *            The string, may be null.
+     * @return The canonical instance of the string.
+     */
+    public static String intern(final String s) {
+        if (s == null) {
+            return null;
+        }
+        synchronized (POOL) {
+            WeakReference<String> ref = POOL.get(s);
+            String canonical = ref != null ? ref.get() : null;
+            if (canonical == null) {
+                canonical = s;
+                POOL.put(s, new WeakReference<String>(s));
+            }
+            return canonical;
+        }
+    }
+
     /**
      * Joins all elements of the {@link Collection} into a single string,
      * separating them by the passed delimiter.
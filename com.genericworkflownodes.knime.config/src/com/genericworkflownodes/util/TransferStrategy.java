@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.util;
+
+/**
+ * The ways a file can be transferred into a new location, ordered from the
+ * cheapest to the most expensive one. Each strategy falls back to the
+ * following ones if it cannot be applied to a given pair of files.
+ */
+public enum TransferStrategy {
+
+    /**
+     * Create a hard link if source and target are located on the same file
+     * system. The target shares its content with the source, i.e., later
+     * modifications of the source are visible in the target.
+     */
+    HARDLINK("Hard link"),
+
+    /**
+     * Create a copy-on-write clone (reflink) of the source if the file system
+     * supports it.
+     */
+    REFLINK("Copy-on-write clone"),
+
+    /**
+     * Copy the content of the source inside the kernel.
+     */
+    COPY("Copy");
+
+    /**
+     * The name shown to the user.
+     */
+    private final String m_name;
+
+    private TransferStrategy(final String name) {
+        m_name = name;
+    }
+
+    /**
+     * Returns the name of the strategy shown to the user.
+     * 
+     * @return The name of the strategy.
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * Returns the {@link TransferStrategy} with the given name.
+     * 
+     * @param name
+     *            The name of the strategy, as returned by {@link #getName()}.
+     * @return The matching strategy, or {@link #COPY} if the name is unknown.
+     */
+    public static TransferStrategy fromName(final String name) {
+        for (TransferStrategy strategy : values()) {
+            if (strategy.getName().equals(name)) {
+                return strategy;
+            }
+        }
+        return COPY;
+    }
+
+    /**
+     * Returns the names of all strategies.
+     * 
+     * @return The names of all strategies.
+     */
+    public static String[] getNames() {
+        TransferStrategy[] strategies = values();
+        String[] names = new String[strategies.length];
+        for (int i = 0; i < strategies.length; ++i) {
+            names[i] = strategies[i].getName();
+        }
+        return names;
+    }
+}
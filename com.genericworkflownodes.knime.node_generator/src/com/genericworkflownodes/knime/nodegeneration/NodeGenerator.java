@@ -36,6 +36,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.reader.DescriptorIndex;
 import com.genericworkflownodes.knime.nodegeneration.exceptions.UnknownMimeTypeException;
 import com.genericworkflownodes.knime.nodegeneration.model.directories.Directory;
 import com.genericworkflownodes.knime.nodegeneration.model.directories.Directory.PathnameIsNoDirectoryException;
@@ -227,6 +228,9 @@ public class NodeGenerator {
                 pluginXML.registerNode(factoryClass, absoluteCategory);
             }
 
+            // payload/descriptors/descriptors.idx
+            writeDescriptorIndex(descriptorsDirectory, pluginBuildDir);
+
             // src/[PACKAGE]/knime/PluginActivator.java
             
             new PluginActivatorTemplate(generatedPluginMeta, configurations)
@@ -278,6 +282,33 @@ public class NodeGenerator {
         }
     }
 
+    /**
+     * Writes the manifest of the processed CTDs (path, name, category, ports,
+     * executable and CTD hash of every tool) to
+     * {@link DescriptorIndex#PLUGIN_PATH} in the generated plugin, where the
+     * BinaryManager of the plugin reads it, see also
+     * {@link DescriptorIndex#main(String[])}.
+     * 
+     * @param descriptorsDirectory
+     *            The directory containing the CTDs.
+     * @param pluginDirectory
+     *            The root directory of the generated plugin.
+     * @return The written manifest.
+     * @throws IOException
+     */
+    static File writeDescriptorIndex(File descriptorsDirectory,
+            File pluginDirectory) throws IOException {
+        File index = new File(pluginDirectory, DescriptorIndex.PLUGIN_PATH);
+        index.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(index);
+        try {
+            DescriptorIndex.create(descriptorsDirectory.toPath()).write(out);
+        } finally {
+            out.close();
+        }
+        return index;
+    }
+
     /**
      * Creates a maven parent directory with pom.xml to build everything
      * 
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ * 
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.nodegeneration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.reader.DescriptorIndex;
+import com.genericworkflownodes.knime.custom.ZipUtilsTest;
+
+/**
+ * Test for {@link NodeGenerator}.
+ */
+public class NodeGeneratorTest {
+
+    /**
+     * The BinaryManager of a generated plugin reads the manifest from the
+     * bundle entry /payload/descriptors/descriptors.idx.
+     */
+    private static final String BINARY_MANAGER_ENTRY = "payload/descriptors/descriptors.idx";
+
+    @Test
+    public void testDescriptorIndexPath() {
+        assertEquals(BINARY_MANAGER_ENTRY, DescriptorIndex.PLUGIN_PATH);
+    }
+
+    @Test
+    public void testWriteDescriptorIndex() throws IOException {
+        File pluginDir = ZipUtilsTest.createTempDirectory();
+        try {
+            File index = NodeGenerator.writeDescriptorIndex(new File(
+                    "sample-copyfasta/descriptors"), pluginDir);
+
+            assertEquals(new File(pluginDir, BINARY_MANAGER_ENTRY), index);
+            assertTrue(index.isFile());
+            InputStream in = new FileInputStream(index);
+            try {
+                DescriptorIndex read = DescriptorIndex.read(in);
+                assertNotNull(read.getEntry("copyfasta.ctd"));
+            } finally {
+                in.close();
+            }
+        } finally {
+            FileUtils.deleteDirectory(pluginDir);
+        }
+    }
+}
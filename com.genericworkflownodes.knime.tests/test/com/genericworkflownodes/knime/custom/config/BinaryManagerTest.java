@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ * 
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.custom.config;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.genericworkflownodes.knime.config.reader.DescriptorIndex;
+
+/**
+ * Test for {@link BinaryManager}.
+ */
+public class BinaryManagerTest {
+
+    @Test
+    public void testDescriptorIndexEntry() {
+        // the node generator writes the manifest to PLUGIN_PATH
+        assertEquals("/" + DescriptorIndex.PLUGIN_PATH,
+                BinaryManager.DESCRIPTOR_INDEX_ENTRY);
+    }
+}
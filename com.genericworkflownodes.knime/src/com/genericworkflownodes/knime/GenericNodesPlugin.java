@@ -18,10 +18,16 @@
  */
 package com.genericworkflownodes.knime;
 
+import java.io.IOException;
+
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.knime.core.node.NodeLogger;
 import org.osgi.framework.BundleContext;
 
+import com.genericworkflownodes.knime.base.data.port.FileStoreDeduplicator;
+import com.genericworkflownodes.knime.config.reader.NodeConfigurationCache;
+import com.genericworkflownodes.knime.preferences.PreferenceInitializer;
+import com.genericworkflownodes.util.FileFingerprintIndex;
 import com.genericworkflownodes.util.Helper;
 
 /**
@@ -61,6 +67,42 @@ public class GenericNodesPlugin extends AbstractUIPlugin {
      * State of Docker-Toolbox usage
      */
     private static Boolean isDockerToolBoxEnabled = false;
+
+    /**
+     * State of the deduplication of tool outputs.
+     */
+    private static boolean isOutputDeduplicationEnabled = false;
+
+    /**
+     * Name of the persisted fingerprint index in the plug-in state location.
+     */
+    private static final String FINGERPRINT_INDEX_FILE = "fingerprints.idx";
+
+    /**
+     * Maximal number of remembered file fingerprints.
+     */
+    private static final int FINGERPRINT_INDEX_SIZE = 100000;
+
+    /**
+     * The shared fingerprint index, created on first use.
+     */
+    private FileFingerprintIndex fingerprintIndex;
+
+    /**
+     * Name of the persisted cache of parsed CTDs in the plug-in state
+     * location.
+     */
+    private static final String CTD_CACHE_FILE = "ctd.cache";
+
+    /**
+     * Maximal number of cached CTDs.
+     */
+    private static final int CTD_CACHE_SIZE = 4096;
+
+    /**
+     * The shared cache of parsed CTDs, created on first use.
+     */
+    private NodeConfigurationCache ctdCache;
     
     /**
      * Check if the plug-in is in isDebugModeEnabled mode.
@@ -92,6 +134,27 @@ public class GenericNodesPlugin extends AbstractUIPlugin {
         LOGGER.debug("Setting GKN isDebugModeEnabled mode: " + debugEnabled);
     }
 
+    /**
+     * Check if identical tool outputs should be replaced by links to a single
+     * copy.
+     * 
+     * @return True if the deduplication is enabled, false otherwise.
+     */
+    public static boolean isOutputDeduplication() {
+        return GenericNodesPlugin.isOutputDeduplicationEnabled;
+    }
+
+    /**
+     * Sets the state of the deduplication of tool outputs.
+     * 
+     * @param deduplicationEnabled
+     *            The new deduplication state.
+     */
+    public static void setOutputDeduplication(final boolean deduplicationEnabled) {
+        GenericNodesPlugin.isOutputDeduplicationEnabled = deduplicationEnabled;
+        LOGGER.debug("Setting GKN output deduplication: " + deduplicationEnabled);
+    }
+
     /**
      * This method is called upon plug-in activation.
      * 
@@ -114,6 +177,8 @@ public class GenericNodesPlugin extends AbstractUIPlugin {
             GenericNodesPlugin.setVmInstllationDir("/usr/bin");
         }
         gknPLugin = this;
+        GenericNodesPlugin.setOutputDeduplication(getPreferenceStore()
+                .getBoolean(PreferenceInitializer.PREF_DEDUPLICATE_OUTPUTS));
     }
 
     /**
@@ -126,6 +191,23 @@ public class GenericNodesPlugin extends AbstractUIPlugin {
      */
     @Override
     public void stop(final BundleContext context) throws Exception {
+        FileStoreDeduplicator.collectGarbage();
+        synchronized (this) {
+            if (fingerprintIndex != null) {
+                try {
+                    fingerprintIndex.save();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not save the file fingerprint index.", e);
+                }
+            }
+            if (ctdCache != null) {
+                try {
+                    ctdCache.save();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not save the CTD cache.", e);
+                }
+            }
+        }
         gknPLugin = null;
         super.stop(context);
     }
@@ -139,6 +221,36 @@ public class GenericNodesPlugin extends AbstractUIPlugin {
         return gknPLugin;
     }
 
+    /**
+     * Returns the shared index of file fingerprints, which is persisted in the
+     * state location of the plug-in (i.e., in the workspace) on shutdown.
+     * 
+     * @return The shared {@link FileFingerprintIndex}.
+     */
+    public synchronized FileFingerprintIndex getFingerprintIndex() {
+        if (fingerprintIndex == null) {
+            fingerprintIndex = new FileFingerprintIndex(getStateLocation()
+                    .append(FINGERPRINT_INDEX_FILE).toFile().toPath(),
+                    FINGERPRINT_INDEX_SIZE);
+        }
+        return fingerprintIndex;
+    }
+
+    /**
+     * Returns the shared cache of parsed CTDs, which is persisted in the state
+     * location of the plug-in and discarded when the plug-in version changes.
+     * 
+     * @return The shared {@link NodeConfigurationCache}.
+     */
+    public synchronized NodeConfigurationCache getCTDCache() {
+        if (ctdCache == null) {
+            ctdCache = new NodeConfigurationCache(getStateLocation()
+                    .append(CTD_CACHE_FILE).toFile().toPath(), getBundle()
+                    .getVersion().toString(), CTD_CACHE_SIZE);
+        }
+        return ctdCache;
+    }
+
     /**
      * @return the dockerInstallationDir
      */
@@ -22,14 +22,16 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.JComponent;
 
 import org.apache.commons.io.FilenameUtils;
 import org.knime.core.data.filestore.FileStore;
 import org.knime.core.data.filestore.FileStorePortObject;
-import org.knime.core.data.uri.IURIPortObject;
 import org.knime.core.data.uri.URIContent;
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.CanceledExecutionException;
@@ -47,11 +49,14 @@ import com.genericworkflownodes.util.MIMETypeHelper;
 
 /**
  * PortObject behaving like a URIPortObject but with managed file storage.
+ * 
+ * The content is stored as paths relative to the file store together with
+ * the file extensions. {@link URIContent}s are only created on access.
  *
  * @author aiche
  */
 public abstract class AbstractFileStoreURIPortObject extends
-        FileStorePortObject implements IURIPortObject {
+        FileStorePortObject implements IPagedURIPortObject {
 
     
     private static final NodeLogger LOGGER = NodeLogger
@@ -62,11 +67,6 @@ public abstract class AbstractFileStoreURIPortObject extends
      */
     private static final String SETTINGS_KEY_REL_PATH = "rel-path";
 
-    /**
-     * List of files stored in the port object.
-     */
-    private List<URIContent> m_uriContents;
-
     /**
      * List of paths stored inside the underlying filestore, relative to it's
      * location.
@@ -74,7 +74,12 @@ public abstract class AbstractFileStoreURIPortObject extends
     private List<String> m_relPaths;
 
     /**
-     * The PortObjectSpec of the underlying content.
+     * List of the file extensions of the stored files.
+     */
+    private List<String> m_extensions;
+
+    /**
+     * The PortObjectSpec of the underlying content, created on demand.
      */
     private URIPortObjectSpec m_uriPortObjectSpec;
 
@@ -86,8 +91,8 @@ public abstract class AbstractFileStoreURIPortObject extends
      */
     public AbstractFileStoreURIPortObject(FileStore fs) {
         super(Collections.singletonList(fs));
-        m_uriContents = new ArrayList<URIContent>();
         m_relPaths = new ArrayList<String>();
+        m_extensions = new ArrayList<String>();
     }
 
     /**
@@ -95,8 +100,8 @@ public abstract class AbstractFileStoreURIPortObject extends
      * FileStoreURIPortObjectSerializer.
      */
     AbstractFileStoreURIPortObject() {
-        m_uriContents = new ArrayList<URIContent>();
         m_relPaths = new ArrayList<String>();
+        m_extensions = new ArrayList<String>();
     }
 
     /**
@@ -136,12 +141,12 @@ public abstract class AbstractFileStoreURIPortObject extends
             ext = FilenameUtils.getExtension(filename);
             LOGGER.warn("MIMEType not registered for extension '" + ext + "'. Proceeding, but this might lead to problems connecting to the affected FileStoreURIPort.");
         }
-        URIContent uric = new URIContent(child.toURI(), ext);
 
-        // update content and spec accordingly
-        m_uriContents.add(uric);
-        m_uriPortObjectSpec = URIPortObjectSpec.create(m_uriContents);
+        // update content and invalidate the spec, it will be recreated on
+        // the next request
         m_relPaths.add(filename);
+        m_extensions.add(ext);
+        m_uriPortObjectSpec = null;
 
         // give the file object to the client so he can work with it
         return child;
@@ -176,9 +181,9 @@ public abstract class AbstractFileStoreURIPortObject extends
     void save(final ModelContentWO model, final ExecutionMonitor exec)
             throws CanceledExecutionException {
         // store manged URIs
-        for (int i = 0; i < m_uriContents.size() && i < m_relPaths.size(); ++i) {
+        for (int i = 0; i < m_relPaths.size(); ++i) {
             ModelContentWO child = model.addModelContent("file-" + i);
-            m_uriContents.get(i).save(child);
+            getURIContent(i).save(child);
             child.addString(SETTINGS_KEY_REL_PATH, m_relPaths.get(i));
         }
     }
@@ -199,28 +204,51 @@ public abstract class AbstractFileStoreURIPortObject extends
      */
     void load(final ModelContentRO model, PortObjectSpec spec,
             ExecutionMonitor exec) throws InvalidSettingsException {
-        List<URIContent> list = new ArrayList<URIContent>();
+        List<String> extensions = new ArrayList<String>();
         List<String> relPathList = new ArrayList<String>();
         for (String key : model.keySet()) {
             if (key.startsWith("file-")) {
                 ModelContentRO child = model.getModelContent(key);
-                list.add(URIContent.load(child));
+                // only the extension is kept, the URI is derived from the
+                // (possibly relocated) file store
+                extensions.add(URIContent.load(child).getExtension().intern());
                 relPathList.add(child.getString(SETTINGS_KEY_REL_PATH));
             }
         }
 
-        m_uriContents = list;
+        m_extensions = extensions;
         m_relPaths = relPathList;
         m_uriPortObjectSpec = (URIPortObjectSpec) spec;
     }
 
     @Override
     public List<URIContent> getURIContents() {
-        return m_uriContents;
+        return new URIContentListView(this);
+    }
+
+    @Override
+    public int getURIContentCount() {
+        return m_relPaths.size();
+    }
+
+    @Override
+    public URIContent getURIContent(int index) {
+        File file = new File(getFileStore(0).getFile(), m_relPaths.get(index));
+        return new URIContent(file.toURI(), m_extensions.get(index));
+    }
+
+    @Override
+    public Iterator<URIContent> getURIContentIterator() {
+        return getURIContents().iterator();
     }
 
     @Override
     public URIPortObjectSpec getSpec() {
+        if (m_uriPortObjectSpec == null) {
+            Set<String> extensions = new LinkedHashSet<String>(m_extensions);
+            m_uriPortObjectSpec = new URIPortObjectSpec(
+                    extensions.toArray(new String[extensions.size()]));
+        }
         return m_uriPortObjectSpec;
     }
 
@@ -229,25 +257,16 @@ public abstract class AbstractFileStoreURIPortObject extends
         // call super if they have something todo
         super.postConstruct();
 
-        List<URIContent> relocatedURIContents = new ArrayList<URIContent>();
-
-        //
-        for (int i = 0; i < m_uriContents.size() && i < m_relPaths.size(); ++i) {
-            File fileInNewFileStore = new File(getFileStoreRootDirectory(),
-                    m_relPaths.get(i));
-            if (!fileInNewFileStore.exists()) {
+        // the URIs are derived from the file store on access, so we only
+        // need to verify that the files were relocated together with it
+        File root = getFileStoreRootDirectory();
+        for (String relPath : m_relPaths) {
+            if (!new File(root, relPath).exists()) {
                 throw new IOException(String.format(
                         "Could not locate file %s in FileStoreURIPortObject.",
-                        m_relPaths.get(i)));
+                        relPath));
             }
-
-            // create new URIContent using the rel path and the old extension
-            // infos
-            relocatedURIContents.add(new URIContent(fileInNewFileStore.toURI(),
-                    m_uriContents.get(i).getExtension()));
         }
-
-        m_uriContents = relocatedURIContents;
     }
 
     /**
@@ -268,4 +287,15 @@ public abstract class AbstractFileStoreURIPortObject extends
         return m_relPaths;
     }
 
+    /**
+     * Gives access to the extension of the file at the given position.
+     *
+     * @param index
+     *            The position of the file.
+     * @return The file extension.
+     */
+    String getExtension(int index) {
+        return m_extensions.get(index);
+    }
+
 }
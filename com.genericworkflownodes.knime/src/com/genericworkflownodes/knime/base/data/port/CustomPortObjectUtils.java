@@ -18,7 +18,10 @@
  */
 package com.genericworkflownodes.knime.base.data.port;
 
+import java.util.Iterator;
+
 import org.knime.core.data.uri.IURIPortObject;
+import org.knime.core.data.uri.URIContent;
 import org.knime.core.node.util.ConvenienceMethods;
 
 /**
@@ -41,7 +44,7 @@ public class CustomPortObjectUtils {
 
     public static String getSummary(final IURIPortObject po) {
         StringBuilder b = new StringBuilder();
-        int size = po.getURIContents().size();
+        int size = getURIContentCount(po);
         b.append(size);
         b.append(size == 1 ? " file (extension: " : " files (extensions: ");
         b.append(ConvenienceMethods.getShortStringFrom(po.getSpec()
@@ -50,4 +53,60 @@ public class CustomPortObjectUtils {
         return b.toString();
     }
 
+    /**
+     * Returns the number of files stored in the given port object without
+     * materializing its content if the port object supports it.
+     * 
+     * @param po
+     *            The port object.
+     * @return The number of files stored in the port object.
+     */
+    public static int getURIContentCount(final IURIPortObject po) {
+        if (po instanceof IPagedURIPortObject) {
+            return ((IPagedURIPortObject) po).getURIContentCount();
+        }
+        return po.getURIContents().size();
+    }
+
+    /**
+     * Returns the {@link URIContent} at the given position of the port object
+     * without materializing the remaining content if the port object supports
+     * it.
+     * 
+     * @param po
+     *            The port object.
+     * @param index
+     *            The position of the requested file.
+     * @return The {@link URIContent} at the given position.
+     */
+    public static URIContent getURIContent(final IURIPortObject po,
+            final int index) {
+        if (po instanceof IPagedURIPortObject) {
+            return ((IPagedURIPortObject) po).getURIContent(index);
+        }
+        return po.getURIContents().get(index);
+    }
+
+    /**
+     * Gives iterable access to the content of the given port object. For
+     * {@link IPagedURIPortObject}s the {@link URIContent}s are created while
+     * iterating.
+     * 
+     * @param po
+     *            The port object.
+     * @return An {@link Iterable} over the files of the port object.
+     */
+    public static Iterable<URIContent> iterateURIContents(
+            final IURIPortObject po) {
+        if (po instanceof IPagedURIPortObject) {
+            return new Iterable<URIContent>() {
+                @Override
+                public Iterator<URIContent> iterator() {
+                    return ((IPagedURIPortObject) po).getURIContentIterator();
+                }
+            };
+        }
+        return po.getURIContents();
+    }
+
 }
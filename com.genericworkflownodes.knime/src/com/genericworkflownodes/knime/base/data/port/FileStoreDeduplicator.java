@@ -0,0 +1,299 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.base.data.port;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.knime.core.data.uri.IURIPortObject;
+import org.knime.core.data.uri.URIContent;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.util.FileUtil;
+
+import com.genericworkflownodes.knime.GenericNodesPlugin;
+import com.genericworkflownodes.util.ContentAddressedStore;
+
+/**
+ * Replaces byte-identical files in our file store port objects by hard links
+ * to a single copy kept in a {@link ContentAddressedStore} next to the file
+ * stores (in the KNIME temp directory). The blobs a node used are handed to
+ * {@link #release(Collection)} when the node is reset and removed once KNIME
+ * deleted the node's file stores, unless other file stores still link to
+ * them. Blobs missed that way, e.g., as their file stores outlived the node
+ * in a loop end, are removed by {@link #collectGarbage()} when the plug-in
+ * stops, and in the background by {@link #collectGarbageIfDue()} at most once
+ * per {@link #GC_INTERVAL}.
+ * <p>
+ * The deduplicated outputs of different nodes share a single inode, so
+ * modifying one of them in place silently modifies the others as well.
+ * Outputs in file stores must therefore be treated as read-only.
+ */
+public final class FileStoreDeduplicator {
+
+    private static final NodeLogger LOGGER = NodeLogger
+            .getLogger(FileStoreDeduplicator.class);
+
+    /**
+     * Name of the store directory in the KNIME temp directory.
+     */
+    private static final String STORE_NAME = "gkn_content_store";
+
+    /**
+     * The shared store, <code>null</code> if it could not be created or the
+     * file system does not support it.
+     */
+    private static ContentAddressedStore store;
+
+    private static boolean initialized = false;
+
+    /**
+     * Minimal time (in ms) between two background collections.
+     */
+    private static final long GC_INTERVAL = 15 * 60 * 1000L;
+
+    /**
+     * Time of the last background collection, guarded by the class.
+     */
+    private static long lastCollection = System.currentTimeMillis();
+
+    /**
+     * Delay (in ms) between the reset of a node and the check of its blobs,
+     * KNIME deletes the file stores of a node right after its reset.
+     */
+    private static final long RELEASE_DELAY = 5 * 1000L;
+
+    /**
+     * Blobs of reset nodes that are checked by the next release, guarded by
+     * the class.
+     */
+    private static final Set<Path> pendingBlobs = new HashSet<Path>();
+
+    /**
+     * Runs the delayed releases, created on first use and guarded by the
+     * class.
+     */
+    private static Timer releaseTimer;
+
+    /**
+     * Avoid instantiation.
+     */
+    private FileStoreDeduplicator() {
+    }
+
+    private static synchronized ContentAddressedStore getStore() {
+        if (!initialized) {
+            initialized = true;
+            try {
+                ContentAddressedStore s = new ContentAddressedStore(new File(
+                        KNIMEConstants.getKNIMETempDir(), STORE_NAME).toPath());
+                if (s.isSupported()) {
+                    store = s;
+                } else {
+                    LOGGER.info("The file system of " + s.getRoot()
+                            + " does not support deduplication of outputs.");
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not create the content store for tool outputs.", e);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Deduplicates all files of the given port object if the deduplication of
+     * outputs is enabled in the preferences. Failures are logged and leave the
+     * affected files untouched.
+     * 
+     * @param po
+     *            The port object containing the freshly generated files.
+     * @param blobs
+     *            Receives the blobs the files are linked to, to be passed to
+     *            {@link #release(Collection)} when the files are discarded.
+     */
+    public static void deduplicate(final PortObject po,
+            final Collection<Path> blobs) {
+        if (!GenericNodesPlugin.isOutputDeduplication()
+                || !(po instanceof IURIPortObject)) {
+            return;
+        }
+        ContentAddressedStore s = getStore();
+        if (s == null) {
+            return;
+        }
+
+        int linked = 0;
+        long saved = 0;
+        for (URIContent uc : CustomPortObjectUtils
+                .iterateURIContents((IURIPortObject) po)) {
+            File file = null;
+            try {
+                file = FileUtil.getFileFromURL(uc.getURI().toURL());
+                if (file == null) {
+                    continue;
+                }
+                long size = file.length();
+                if (size == 0) {
+                    continue;
+                }
+                String digest = ContentAddressedStore.digest(file.toPath());
+                if (s.deduplicate(file.toPath(), digest)) {
+                    ++linked;
+                    saved += size;
+                }
+                Path blob = s.getBlob(digest);
+                if (Files.exists(blob)
+                        && Files.isSameFile(blob, file.toPath())) {
+                    blobs.add(blob);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not deduplicate " + file, e);
+            }
+        }
+        if (linked > 0) {
+            LOGGER.debug("Replaced " + linked
+                    + " duplicate output files by links (" + saved
+                    + " bytes saved).");
+        }
+    }
+
+    /**
+     * Removes the given blobs as soon as no file store links to them anymore.
+     * As KNIME deletes the file stores of a node only after the node was
+     * reset, the blobs are checked shortly afterwards in the background.
+     * Blobs that are still referenced then are checked again by later
+     * releases, and eventually by the next collection.
+     * 
+     * @param blobs
+     *            The blobs used by the outputs of a node that was reset.
+     */
+    public static void release(final Collection<Path> blobs) {
+        if (blobs.isEmpty()) {
+            return;
+        }
+        synchronized (FileStoreDeduplicator.class) {
+            if (store == null) {
+                return;
+            }
+            pendingBlobs.addAll(blobs);
+            if (releaseTimer == null) {
+                releaseTimer = new Timer("GKN content store release", true);
+            }
+            releaseTimer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    releasePending();
+                }
+            }, RELEASE_DELAY);
+        }
+    }
+
+    /**
+     * Removes the pending blobs that are no longer referenced.
+     */
+    private static void releasePending() {
+        ContentAddressedStore s;
+        List<Path> blobs;
+        synchronized (FileStoreDeduplicator.class) {
+            s = store;
+            blobs = new ArrayList<Path>(pendingBlobs);
+        }
+        int removed = 0;
+        for (Path blob : blobs) {
+            boolean done;
+            try {
+                done = s.release(blob) || !Files.exists(blob);
+                if (done) {
+                    ++removed;
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not release " + blob, e);
+                done = true;
+            }
+            if (done) {
+                synchronized (FileStoreDeduplicator.class) {
+                    pendingBlobs.remove(blob);
+                }
+            }
+        }
+        if (removed > 0) {
+            LOGGER.debug("Removed " + removed + " released blobs from "
+                    + s.getRoot());
+        }
+    }
+
+    /**
+     * Starts a background collection if the last one is longer than
+     * {@link #GC_INTERVAL} ago. Returns immediately.
+     */
+    public static void collectGarbageIfDue() {
+        synchronized (FileStoreDeduplicator.class) {
+            long now = System.currentTimeMillis();
+            if (store == null || now - lastCollection < GC_INTERVAL) {
+                return;
+            }
+            lastCollection = now;
+            // the collection checks all blobs anyway
+            pendingBlobs.clear();
+        }
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                collectGarbage();
+            }
+        }, "GKN content store cleanup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Removes all blobs that are no longer referenced by any file store.
+     */
+    public static void collectGarbage() {
+        ContentAddressedStore s;
+        synchronized (FileStoreDeduplicator.class) {
+            if (!initialized) {
+                return;
+            }
+            s = store;
+        }
+        if (s == null) {
+            return;
+        }
+        try {
+            int removed = s.collectGarbage();
+            if (removed > 0) {
+                LOGGER.debug("Removed " + removed
+                        + " unreferenced blobs from " + s.getRoot());
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not clean up " + s.getRoot(), e);
+        }
+    }
+}
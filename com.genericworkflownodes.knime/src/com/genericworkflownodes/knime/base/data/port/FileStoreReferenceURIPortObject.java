@@ -21,7 +21,12 @@ package com.genericworkflownodes.knime.base.data.port;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JComponent;
 
@@ -45,10 +50,13 @@ import org.knime.core.node.workflow.ModelContentOutPortView;
  * as a {@link IURIPortObject} referencing the underlying {@link FileStore}s
  * without recreating or copying them.
  * 
+ * Managed files are stored as file store index and relative path only, their
+ * {@link URIContent}s are created on access.
+ * 
  * @author aiche
  */
 public class FileStoreReferenceURIPortObject extends FileStorePortObject
-        implements IURIPortObject {
+        implements IPagedURIPortObject {
 
     /**
      * The key of the rel-path setting stored while loading/saving.
@@ -66,9 +74,15 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
     private static final String MODEL_PREFIX = "fs-wrapped-";
 
     /**
-     * List of URIContent objects managed by this port object.
+     * List of the file extensions of the referenced files.
+     */
+    private List<String> m_extensions;
+
+    /**
+     * URIContents of the referenced files that are not managed by a
+     * {@link FileStore}, stored by their position.
      */
-    private List<URIContent> m_uriContents;
+    private Map<Integer, URIContent> m_unmanagedContents;
 
     /**
      * List of paths stored inside the underlying filestore, relative to it's
@@ -92,62 +106,178 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
     FileStoreReferenceURIPortObject() {
     }
 
-    private FileStoreReferenceURIPortObject(List<URIContent> uriContents,
-            List<String> relPaths, List<Integer> fsIndices,
-            List<FileStore> fileStores) {
+    private FileStoreReferenceURIPortObject(List<String> extensions,
+            Map<Integer, URIContent> unmanagedContents, List<String> relPaths,
+            List<Integer> fsIndices, List<FileStore> fileStores) {
         // file stores are managed by FileStorePortObject
         super(fileStores);
 
-        m_uriContents = uriContents;
+        m_extensions = extensions;
+        m_unmanagedContents = unmanagedContents;
         m_relPaths = relPaths;
         m_fsIndices = fsIndices;
 
-        // create spec from contents
-        m_uriPortObjectSpec = URIPortObjectSpec.create(m_uriContents);
+        // create spec from the extensions
+        m_uriPortObjectSpec = createSpec(m_extensions);
+    }
+
+    private static URIPortObjectSpec createSpec(List<String> extensions) {
+        Set<String> distinct = new LinkedHashSet<String>(extensions);
+        return new URIPortObjectSpec(distinct.toArray(new String[distinct
+                .size()]));
     }
 
     /**
+     * Creates a port object referencing all files of the given port objects.
      * 
      * @param uriPortObjects
+     *            The port objects to reference.
+     * @return The new port object.
      */
     public static FileStoreReferenceURIPortObject create(
             List<IURIPortObject> uriPortObjects) {
+        Collector collector = new Collector();
+        for (IURIPortObject po : uriPortObjects) {
+            collector.add(po);
+        }
+        return collector.create();
+    }
 
-        List<URIContent> uriContents = new ArrayList<URIContent>();
-        List<String> relPaths = new ArrayList<String>();
-        List<Integer> fsIndices = new ArrayList<Integer>();
-        List<FileStore> fileStores = new ArrayList<FileStore>();
+    /**
+     * Incrementally collects compact references (file store, relative path
+     * and extension) to the files of port objects, e.g., over the iterations
+     * of a loop, without keeping the port objects themselves. Every distinct
+     * {@link FileStore} is stored only once.
+     */
+    public static final class Collector {
 
-        for (IURIPortObject po : uriPortObjects) {
-            int count = 0;
-            for (URIContent uriContent : po.getURIContents()) {
-                uriContents.add(uriContent);
-                if (po instanceof AbstractFileStoreURIPortObject) {
-                    AbstractFileStoreURIPortObject afspo = (AbstractFileStoreURIPortObject) po;
-                    relPaths.add(afspo.getRelativePaths().get(count));
-                    fileStores.add(afspo.getInternalFileStore());
-                    fsIndices.add(fileStores.size() - 1);
-                } else if (po instanceof FileStoreReferenceURIPortObject) {
-                    FileStoreReferenceURIPortObject frpo = (FileStoreReferenceURIPortObject) po;
-                    relPaths.add(frpo.getRelativePath(count));
+        private final List<String> m_extensions = new ArrayList<String>();
+
+        private final Map<Integer, URIContent> m_unmanagedContents = new HashMap<Integer, URIContent>();
+
+        private final List<String> m_relPaths = new ArrayList<String>();
+
+        private final List<Integer> m_fsIndices = new ArrayList<Integer>();
+
+        private final List<FileStore> m_fileStores = new ArrayList<FileStore>();
+
+        private final Map<FileStore, Integer> m_fileStoreIndices = new HashMap<FileStore, Integer>();
+
+        /**
+         * Adds references to all files of the given port object.
+         * 
+         * @param po
+         *            The port object.
+         */
+        public void add(IURIPortObject po) {
+            if (po instanceof AbstractFileStoreURIPortObject) {
+                AbstractFileStoreURIPortObject afspo = (AbstractFileStoreURIPortObject) po;
+                for (int count = 0; count < afspo.getURIContentCount(); ++count) {
+                    addManaged(afspo.getExtension(count), afspo
+                            .getRelativePaths().get(count), afspo
+                            .getInternalFileStore());
+                }
+            } else if (po instanceof FileStoreReferenceURIPortObject) {
+                FileStoreReferenceURIPortObject frpo = (FileStoreReferenceURIPortObject) po;
+                for (int count = 0; count < frpo.getURIContentCount(); ++count) {
                     //get the old fileStore for the current URIContent
-                    if (frpo.getFileStoreIndex(count) >= 0)
-                    {
-                      fileStores.add(frpo.getFileStore(frpo.getFileStoreIndex(count)));
-                      fsIndices.add(fileStores.size() - 1);
+                    if (frpo.getFileStoreIndex(count) >= 0) {
+                        addManaged(frpo.m_extensions.get(count), frpo
+                                .getRelativePath(count), frpo.getFileStore(frpo
+                                .getFileStoreIndex(count)));
                     } else {
-                        fsIndices.add(-1);
+                        addUnmanaged(frpo.m_extensions.get(count),
+                                frpo.getURIContent(count));
                     }
-                } else {
-                    // we add a dummy relative path for (non-FileStore-based) URIPortObjects etc.
-                    relPaths.add("");
-                    fsIndices.add(-1);
                 }
-                ++count;
+            } else {
+                for (URIContent uriContent : CustomPortObjectUtils
+                        .iterateURIContents(po)) {
+                    addUnmanaged(uriContent.getExtension(), uriContent);
+                }
+            }
+        }
+
+        private void addManaged(String extension, String relPath,
+                FileStore fileStore) {
+            Integer fsIndex = m_fileStoreIndices.get(fileStore);
+            if (fsIndex == null) {
+                fsIndex = m_fileStores.size();
+                m_fileStores.add(fileStore);
+                m_fileStoreIndices.put(fileStore, fsIndex);
             }
+            m_extensions.add(intern(extension));
+            m_relPaths.add(relPath);
+            m_fsIndices.add(fsIndex);
+        }
+
+        private void addUnmanaged(String extension, URIContent uriContent) {
+            m_extensions.add(intern(extension));
+            m_unmanagedContents.put(m_fsIndices.size(), uriContent);
+            // we add a dummy relative path for (non-FileStore-based) URIPortObjects etc.
+            m_relPaths.add("");
+            m_fsIndices.add(-1);
+        }
+
+        private static String intern(String s) {
+            return s == null ? null : s.intern();
+        }
+
+        /**
+         * @return The number of referenced files.
+         */
+        public int size() {
+            return m_fsIndices.size();
+        }
+
+        /**
+         * @return The number of distinct file stores referenced so far.
+         */
+        public int getFileStoreCount() {
+            return m_fileStores.size();
+        }
+
+        /**
+         * @param fsIndex
+         *            Index of the file store.
+         * @return The file store with the given index.
+         */
+        public FileStore getFileStore(int fsIndex) {
+            return m_fileStores.get(fsIndex);
+        }
+
+        /**
+         * @param index
+         *            Index of the referenced file.
+         * @return The index of the file store holding the file or -1 if the
+         *         file is not managed by a file store.
+         */
+        public int getFileStoreIndex(int index) {
+            return m_fsIndices.get(index);
+        }
+
+        /**
+         * @param index
+         *            Index of the referenced file.
+         * @return The path of the file relative to its file store.
+         */
+        public String getRelativePath(int index) {
+            return m_relPaths.get(index);
+        }
+
+        /**
+         * Creates a port object referencing all files collected so far.
+         * 
+         * @return The new port object.
+         */
+        public FileStoreReferenceURIPortObject create() {
+            return new FileStoreReferenceURIPortObject(
+                    new ArrayList<String>(m_extensions),
+                    new HashMap<Integer, URIContent>(m_unmanagedContents),
+                    new ArrayList<String>(m_relPaths),
+                    new ArrayList<Integer>(m_fsIndices),
+                    new ArrayList<FileStore>(m_fileStores));
         }
-        return new FileStoreReferenceURIPortObject(uriContents, relPaths,
-                fsIndices, fileStores);
     }
 
     @Override
@@ -183,19 +313,26 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
      */
     void load(final ModelContentRO model, PortObjectSpec spec,
             ExecutionMonitor exec) throws InvalidSettingsException {
-        List<URIContent> uriContents = new ArrayList<URIContent>();
+        List<String> extensions = new ArrayList<String>();
+        Map<Integer, URIContent> unmanagedContents = new HashMap<Integer, URIContent>();
         List<String> relPaths = new ArrayList<String>();
         List<Integer> fsIndices = new ArrayList<Integer>();
         for (String key : model.keySet()) {
             if (key.startsWith(MODEL_PREFIX)) {
                 ModelContentRO child = model.getModelContent(key);
-                uriContents.add(URIContent.load(child));
+                URIContent uriContent = URIContent.load(child);
+                int fsIndex = child.getInt(SETTINGS_KEY_FS_INDEX);
+                if (fsIndex == -1) {
+                    unmanagedContents.put(fsIndices.size(), uriContent);
+                }
+                extensions.add(uriContent.getExtension().intern());
                 relPaths.add(child.getString(SETTINGS_KEY_REL_PATH));
-                fsIndices.add(child.getInt(SETTINGS_KEY_FS_INDEX));
+                fsIndices.add(fsIndex);
             }
         }
 
-        m_uriContents = uriContents;
+        m_extensions = extensions;
+        m_unmanagedContents = unmanagedContents;
         m_relPaths = relPaths;
         m_fsIndices = fsIndices;
         m_uriPortObjectSpec = (URIPortObjectSpec) spec;
@@ -214,10 +351,9 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
             throws CanceledExecutionException {
 
         // store manged URIs
-        for (int i = 0; i < m_uriContents.size() && i < m_relPaths.size()
-                && i < m_fsIndices.size(); ++i) {
+        for (int i = 0; i < m_relPaths.size() && i < m_fsIndices.size(); ++i) {
             ModelContentWO child = model.addModelContent(MODEL_PREFIX + i);
-            m_uriContents.get(i).save(child);
+            getURIContent(i).save(child);
             child.addString(SETTINGS_KEY_REL_PATH, m_relPaths.get(i));
             child.addInt(SETTINGS_KEY_FS_INDEX, m_fsIndices.get(i));
         }
@@ -229,10 +365,9 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
         // call super if they have something todo
         super.postConstruct();
 
-        List<URIContent> relocatedURIContents = new ArrayList<URIContent>();
-
-        //
-        for (int i = 0; i < m_uriContents.size() && i < m_relPaths.size(); ++i) {
+        // the URIs of managed files are derived from the file stores on
+        // access, so we only need to verify that the files were relocated
+        for (int i = 0; i < m_relPaths.size(); ++i) {
             if (m_fsIndices.get(i) != -1) {
                 File fileInNewFileStore = new File(getFileStore(
                         m_fsIndices.get(i)).getFile(), m_relPaths.get(i));
@@ -242,23 +377,34 @@ public class FileStoreReferenceURIPortObject extends FileStorePortObject
                                     "Could not locate file %s in FileStoreURIPortObject.",
                                     m_relPaths.get(i)));
                 }
-                // create new URIContent using the rel path and the old
-                // extension
-                // infos
-                relocatedURIContents.add(new URIContent(fileInNewFileStore
-                        .toURI(), m_uriContents.get(i).getExtension()));
-
-            } else {
-                relocatedURIContents.add(m_uriContents.get(i));
             }
         }
-
-        m_uriContents = relocatedURIContents;
     }
 
     @Override
     public List<URIContent> getURIContents() {
-        return m_uriContents;
+        return new URIContentListView(this);
+    }
+
+    @Override
+    public int getURIContentCount() {
+        return m_relPaths.size();
+    }
+
+    @Override
+    public URIContent getURIContent(int index) {
+        int fsIndex = m_fsIndices.get(index);
+        if (fsIndex == -1) {
+            return m_unmanagedContents.get(index);
+        }
+        File file = new File(getFileStore(fsIndex).getFile(),
+                m_relPaths.get(index));
+        return new URIContent(file.toURI(), m_extensions.get(index));
+    }
+
+    @Override
+    public Iterator<URIContent> getURIContentIterator() {
+        return getURIContents().iterator();
     }
 
     @Override
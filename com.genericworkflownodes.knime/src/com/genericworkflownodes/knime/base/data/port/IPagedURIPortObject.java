@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.base.data.port;
+
+import java.util.Iterator;
+
+import org.knime.core.data.uri.IURIPortObject;
+import org.knime.core.data.uri.URIContent;
+
+/**
+ * Extension of {@link IURIPortObject} for port objects that can provide their
+ * content without materializing the complete list of {@link URIContent}s.
+ * Implementations store a compact representation of their files (e.g., paths
+ * relative to a file store) and create {@link URIContent} objects on demand.
+ * 
+ * Client code should prefer the accessors in {@link CustomPortObjectUtils},
+ * which fall back to {@link IURIPortObject#getURIContents()} for port objects
+ * not implementing this interface.
+ */
+public interface IPagedURIPortObject extends IURIPortObject {
+
+    /**
+     * Returns the number of files stored in the port object.
+     * 
+     * @return The number of files.
+     */
+    int getURIContentCount();
+
+    /**
+     * Returns the {@link URIContent} at the given position.
+     * 
+     * @param index
+     *            The position of the requested file.
+     * @return The {@link URIContent} at the given position.
+     * @throws IndexOutOfBoundsException
+     *             If the index is out of range.
+     */
+    URIContent getURIContent(int index);
+
+    /**
+     * Returns an iterator over the {@link URIContent}s of this port object.
+     * The {@link URIContent}s are created while iterating.
+     * 
+     * @return An iterator over the contained files.
+     */
+    Iterator<URIContent> getURIContentIterator();
+
+}
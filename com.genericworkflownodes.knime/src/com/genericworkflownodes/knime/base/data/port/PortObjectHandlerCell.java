@@ -69,13 +69,13 @@ public class PortObjectHandlerCell extends FileStoreCell implements
         // we reference the file store of the portObject
         super(portObject.getInternalFileStore());
 
-        if (portObject.getURIContents().size() > 1) {
+        if (portObject.getURIContentCount() > 1) {
             LOGGER.warn("Incoming port object contains more then one file but. We will only be able to persist the first one.");
         }
 
         // get contents from portObject
         m_relativePath = portObject.getRelativePaths().get(0);
-        m_uriContent = portObject.getURIContents().get(0);
+        m_uriContent = portObject.getURIContent(0);
     }
 
     /**
@@ -18,6 +18,7 @@
  */
 package com.genericworkflownodes.knime.base.data.port;
 
+import java.util.Iterator;
 import java.util.List;
 
 import org.knime.core.data.uri.URIContent;
@@ -37,7 +38,7 @@ import org.knime.core.node.port.PortObjectSpec;
  * @author aiche
  */
 public class PrefixURIPortObject extends URIPortObject implements
-        IPrefixURIPortObject {
+        IPrefixURIPortObject, IPagedURIPortObject {
 
     /**
      * The key used to save the additional model settings or the
@@ -100,6 +101,21 @@ public class PrefixURIPortObject extends URIPortObject implements
         return m_prefix;
     }
 
+    @Override
+    public int getURIContentCount() {
+        return getURIContents().size();
+    }
+
+    @Override
+    public URIContent getURIContent(int index) {
+        return getURIContents().get(index);
+    }
+
+    @Override
+    public Iterator<URIContent> getURIContentIterator() {
+        return getURIContents().iterator();
+    }
+
     @Override
     protected void load(ModelContentRO model, PortObjectSpec spec,
             ExecutionMonitor exec) throws InvalidSettingsException,
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.base.data.port;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import org.knime.core.data.uri.URIContent;
+
+/**
+ * Read-only {@link java.util.List} view on the content of an
+ * {@link IPagedURIPortObject}. The {@link URIContent}s are not stored but
+ * requested from the port object on access.
+ */
+final class URIContentListView extends AbstractList<URIContent> implements
+        RandomAccess {
+
+    /**
+     * The port object providing the content.
+     */
+    private final IPagedURIPortObject m_portObject;
+
+    /**
+     * Creates a view on the content of the given port object.
+     * 
+     * @param portObject
+     *            The port object providing the content.
+     */
+    URIContentListView(final IPagedURIPortObject portObject) {
+        m_portObject = portObject;
+    }
+
+    @Override
+    public URIContent get(int index) {
+        return m_portObject.getURIContent(index);
+    }
+
+    @Override
+    public int size() {
+        return m_portObject.getURIContentCount();
+    }
+
+}
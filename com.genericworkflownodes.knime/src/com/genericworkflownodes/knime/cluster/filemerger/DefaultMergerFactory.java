@@ -0,0 +1,24 @@
+package com.genericworkflownodes.knime.cluster.filemerger;
+
+public abstract class DefaultMergerFactory implements MergerFactory {
+
+    @Override
+    public abstract boolean isApplicable(String mimetype);
+
+    @Override
+    public boolean hasSettingsPanel() {
+        return false;
+    }
+
+    @Override
+    public MergerPanel getSettingsPanel() {
+        return null;
+    }
+
+    @Override
+    public abstract String getDisplayName();
+
+    @Override
+    public abstract Merger createMerger();
+
+}
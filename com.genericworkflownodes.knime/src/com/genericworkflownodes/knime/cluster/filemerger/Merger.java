@@ -0,0 +1,32 @@
+package com.genericworkflownodes.knime.cluster.filemerger;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+
+public interface Merger {
+
+    /**
+     * Merges files in the given order and writes the result to the given
+     * output file.
+     * @param output the file to write the merged content to
+     * @param inputs the files to merge
+     * @throws IOException when the input or output files cannot be accessed
+     */
+    public void merge(File output, File... inputs) throws IOException;
+    
+    /**
+     * Load merger settings.
+     * @param settings the settings to load from
+     */
+    public void loadSettingsFrom(NodeSettingsRO settings);
+    
+    /**
+     * Saves settings of this merger.
+     * @param settings the settings to save into
+     */
+    public void saveSettingsTo(NodeSettingsWO settings);
+    
+}
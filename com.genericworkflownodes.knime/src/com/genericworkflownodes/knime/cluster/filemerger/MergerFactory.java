@@ -0,0 +1,38 @@
+package com.genericworkflownodes.knime.cluster.filemerger;
+
+public interface MergerFactory {
+    
+    /**
+     * Determines whether the merger is applicable for the given mimetype.
+     * @param mimetype the mimetype
+     * @return the true if the merger created by this factory can merge files of the given mimetype
+     */
+    public boolean isApplicable(String mimetype);
+    
+    /**
+     * Determines whether the merger has a settings panel.
+     * @return true if the merger has a settings panel
+     */
+    public boolean hasSettingsPanel();
+    
+    /**
+     * @return the mergers settings panel or <code>null</code>
+     *             if {@link #hasSettingsPanel() hasSettingsPanel} returns false.
+     */
+    public MergerPanel getSettingsPanel();
+    
+    /**
+     * @return the factory's name as shown in the GUI
+     */
+    public String getDisplayName();
+    
+    /**
+     * @return the factory's unique ID
+     */
+    public String getID();
+    
+    /**
+     * @return a new instance of a merger
+     */
+    public Merger createMerger();
+}
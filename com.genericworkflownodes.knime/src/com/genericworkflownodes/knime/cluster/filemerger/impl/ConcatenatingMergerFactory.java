@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.FileRangeMerger;
+
+public class ConcatenatingMergerFactory extends RecordMergerFactory {
+
+    public ConcatenatingMergerFactory() {
+        super(FileRangeMerger.CONCATENATE, "Concatenation");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.ConcatenatingMerger";
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.MergeFormats;
+
+public class FirstHeaderMergerFactory extends RecordMergerFactory {
+
+    public FirstHeaderMergerFactory() {
+        super(MergeFormats.keepFirstHeader((byte) '#'), "Concatenation (keep first '#' header)");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.FirstHeaderMerger";
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.MergeFormats;
+
+public class MzMLMergerFactory extends RecordMergerFactory {
+
+    public MzMLMergerFactory() {
+        super(MergeFormats.MZML, "mzML Merger (by spectrum)", "mzml");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.MzMLMerger";
+    }
+
+}
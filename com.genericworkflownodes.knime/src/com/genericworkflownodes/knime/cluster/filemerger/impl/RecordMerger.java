@@ -0,0 +1,53 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+
+import com.genericworkflownodes.knime.cluster.filemerger.Merger;
+import com.genericworkflownodes.util.FileRangeMerger;
+import com.genericworkflownodes.util.FileRangeMerger.MergeFormat;
+
+/**
+ * Merges files by concatenating their records without decoding them. The
+ * header and footer of the merged file are defined by the given
+ * {@link MergeFormat}. The inputs are copied in parallel.
+ */
+public class RecordMerger implements Merger {
+
+    private final MergeFormat m_format;
+
+    /**
+     * Creates a merger for the given format.
+     *
+     * @param format
+     *            the format of the files to merge
+     */
+    public RecordMerger(MergeFormat format) {
+        m_format = format;
+    }
+
+    @Override
+    public void merge(File output, File... inputs) throws IOException {
+        Path[] paths = new Path[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            paths[i] = inputs[i].toPath();
+        }
+        FileRangeMerger.merge(paths, output.toPath(), m_format, Runtime
+                .getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void loadSettingsFrom(NodeSettingsRO settings) {
+
+    }
+
+    @Override
+    public void saveSettingsTo(NodeSettingsWO settings) {
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.genericworkflownodes.knime.cluster.filemerger.DefaultMergerFactory;
+import com.genericworkflownodes.knime.cluster.filemerger.Merger;
+import com.genericworkflownodes.util.FileRangeMerger.MergeFormat;
+
+/**
+ * Base class of the factories of {@link RecordMerger}s. A factory is
+ * applicable to all mimetypes whose subtype, ignoring case and an
+ * <code>x-</code> prefix, is one of the given format names. Without names it
+ * is applicable to all mimetypes.
+ */
+public abstract class RecordMergerFactory extends DefaultMergerFactory {
+
+    private final MergeFormat m_format;
+    private final String m_displayName;
+    private final List<String> m_names;
+
+    /**
+     * @param format
+     *            the format of the files to merge
+     * @param displayName
+     *            the name shown in the dialog
+     * @param names
+     *            the lower case format names used as mimetype subtypes
+     */
+    protected RecordMergerFactory(MergeFormat format, String displayName,
+            String... names) {
+        m_format = format;
+        m_displayName = displayName;
+        m_names = Arrays.asList(names);
+    }
+
+    @Override
+    public boolean isApplicable(String mimetype) {
+        if (m_names.isEmpty()) {
+            return true;
+        }
+        if (mimetype == null) {
+            return false;
+        }
+        String subtype = mimetype.substring(mimetype.indexOf('/') + 1)
+                .toLowerCase();
+        if (subtype.startsWith("x-")) {
+            subtype = subtype.substring(2);
+        }
+        return m_names.contains(subtype);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return m_displayName;
+    }
+
+    @Override
+    public Merger createMerger() {
+        return new RecordMerger(m_format);
+    }
+
+}
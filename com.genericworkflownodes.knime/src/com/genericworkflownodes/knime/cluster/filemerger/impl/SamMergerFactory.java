@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.MergeFormats;
+
+public class SamMergerFactory extends RecordMergerFactory {
+
+    public SamMergerFactory() {
+        super(MergeFormats.SAM, "SAM Merger (merged header)", "sam");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.SamMerger";
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.MergeFormats;
+
+public class VcfMergerFactory extends RecordMergerFactory {
+
+    public VcfMergerFactory() {
+        super(MergeFormats.VCF, "VCF Merger (merged header)", "vcf");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.VcfMerger";
+    }
+
+}
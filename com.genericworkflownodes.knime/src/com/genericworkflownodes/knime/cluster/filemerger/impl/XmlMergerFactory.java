@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filemerger.impl;
+
+import com.genericworkflownodes.util.MergeFormats;
+
+public class XmlMergerFactory extends RecordMergerFactory {
+
+    public XmlMergerFactory() {
+        super(MergeFormats.XML, "XML Merger (wrap into first root element)", "xml");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filemerger.impl.XmlMerger";
+    }
+
+}
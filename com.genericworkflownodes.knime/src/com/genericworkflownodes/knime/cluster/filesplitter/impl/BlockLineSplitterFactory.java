@@ -0,0 +1,28 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import com.genericworkflownodes.knime.cluster.filesplitter.DefaultSplitterFactory;
+import com.genericworkflownodes.knime.cluster.filesplitter.Splitter;
+
+public class BlockLineSplitterFactory extends DefaultSplitterFactory {
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filesplitter.impl.BlockLineSplitter";
+    }
+
+    @Override
+    public boolean isApplicable(String mimetype) {
+        return true;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Line Splitter (contiguous blocks, parallel)";
+    }
+
+    @Override
+    public Splitter createSplitter() {
+        return new BlockLineSplitter();
+    }
+
+}
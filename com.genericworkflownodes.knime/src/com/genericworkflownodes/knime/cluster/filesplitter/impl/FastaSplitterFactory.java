@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import com.genericworkflownodes.util.RecordFormats;
+
+public class FastaSplitterFactory extends RecordSplitterFactory {
+
+    public FastaSplitterFactory() {
+        super(RecordFormats.FASTA, "FASTA Splitter (by sequence, parallel)", "fasta", "fa");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filesplitter.impl.FastaSplitter";
+    }
+
+}
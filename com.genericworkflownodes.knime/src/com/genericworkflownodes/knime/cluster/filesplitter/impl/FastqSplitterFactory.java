@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import com.genericworkflownodes.util.RecordFormats;
+
+public class FastqSplitterFactory extends RecordSplitterFactory {
+
+    public FastqSplitterFactory() {
+        super(RecordFormats.FASTQ, "FASTQ Splitter (by read, parallel)", "fastq", "fq");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filesplitter.impl.FastqSplitter";
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import com.genericworkflownodes.util.RecordFormats;
+
+public class MzMLSplitterFactory extends RecordSplitterFactory {
+
+    public MzMLSplitterFactory() {
+        super(RecordFormats.MZML, "mzML Splitter (by spectrum)", "mzml");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filesplitter.impl.MzMLSplitter";
+    }
+
+}
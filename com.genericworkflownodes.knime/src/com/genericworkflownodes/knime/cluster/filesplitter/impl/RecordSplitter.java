@@ -0,0 +1,54 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+
+import com.genericworkflownodes.knime.cluster.filesplitter.Splitter;
+import com.genericworkflownodes.util.FileRangeSplitter;
+import com.genericworkflownodes.util.FileRangeSplitter.RecordFormat;
+
+/**
+ * Splits a file into contiguous blocks of records of roughly equal size. The
+ * record boundaries, and the header and footer every part needs to be a valid
+ * file on its own, are defined by the given {@link RecordFormat}. The parts
+ * are written in parallel.
+ */
+public class RecordSplitter implements Splitter {
+
+    private final RecordFormat m_format;
+
+    /**
+     * Creates a splitter for the given format.
+     *
+     * @param format
+     *            the format of the files to split
+     */
+    public RecordSplitter(RecordFormat format) {
+        m_format = format;
+    }
+
+    @Override
+    public void split(File input, File... output) throws IOException {
+        Path[] outputs = new Path[output.length];
+        for (int i = 0; i < output.length; i++) {
+            outputs[i] = output[i].toPath();
+        }
+        FileRangeSplitter.split(input.toPath(), outputs, m_format, Runtime
+                .getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void loadSettingsFrom(NodeSettingsRO settings) {
+
+    }
+
+    @Override
+    public void saveSettingsTo(NodeSettingsWO settings) {
+
+    }
+
+}
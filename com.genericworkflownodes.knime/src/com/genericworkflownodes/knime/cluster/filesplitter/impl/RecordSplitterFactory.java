@@ -0,0 +1,61 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.genericworkflownodes.knime.cluster.filesplitter.DefaultSplitterFactory;
+import com.genericworkflownodes.knime.cluster.filesplitter.Splitter;
+import com.genericworkflownodes.util.FileRangeSplitter.RecordFormat;
+
+/**
+ * Base class of the factories of {@link RecordSplitter}s. A factory is
+ * applicable to all mimetypes whose subtype, ignoring case and an
+ * <code>x-</code> prefix, is one of the given format names, e.g.,
+ * <code>text/fasta</code> and <code>application/x-FASTA</code> for
+ * <code>fasta</code>.
+ */
+public abstract class RecordSplitterFactory extends DefaultSplitterFactory {
+
+    private final RecordFormat m_format;
+    private final String m_displayName;
+    private final List<String> m_names;
+
+    /**
+     * @param format
+     *            the format of the files to split
+     * @param displayName
+     *            the name shown in the dialog
+     * @param names
+     *            the lower case format names used as mimetype subtypes
+     */
+    protected RecordSplitterFactory(RecordFormat format, String displayName,
+            String... names) {
+        m_format = format;
+        m_displayName = displayName;
+        m_names = Arrays.asList(names);
+    }
+
+    @Override
+    public boolean isApplicable(String mimetype) {
+        if (mimetype == null) {
+            return false;
+        }
+        String subtype = mimetype.substring(mimetype.indexOf('/') + 1)
+                .toLowerCase();
+        if (subtype.startsWith("x-")) {
+            subtype = subtype.substring(2);
+        }
+        return m_names.contains(subtype);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return m_displayName;
+    }
+
+    @Override
+    public Splitter createSplitter() {
+        return new RecordSplitter(m_format);
+    }
+
+}
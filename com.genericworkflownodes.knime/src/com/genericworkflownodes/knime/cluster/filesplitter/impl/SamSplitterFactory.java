@@ -0,0 +1,16 @@
+package com.genericworkflownodes.knime.cluster.filesplitter.impl;
+
+import com.genericworkflownodes.util.RecordFormats;
+
+public class SamSplitterFactory extends RecordSplitterFactory {
+
+    public SamSplitterFactory() {
+        super(RecordFormats.SAM, "SAM Splitter (by alignment, header in every part)", "sam");
+    }
+
+    @Override
+    public String getID() {
+        return "com.genericworkflownodes.knime.filesplitter.impl.SamSplitter";
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.cluster.nodes.filemerger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.knime.core.data.uri.URIPortObjectSpec;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NotConfigurableException;
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.port.PortObjectSpec;
+
+import com.genericworkflownodes.knime.cluster.filemerger.MergerFactory;
+import com.genericworkflownodes.knime.cluster.filemerger.MergerFactoryManager;
+import com.genericworkflownodes.util.MIMETypeHelper;
+
+public class FileMergerNodeDialog extends DefaultNodeSettingsPane {
+
+    private final static String NO_FACTORY = "<no factory available>";
+
+    DialogComponentStringSelection m_factories;
+
+    public FileMergerNodeDialog() {
+        m_factories = new DialogComponentStringSelection(
+                FileMergerNodeModel.createFactoryIDSettingsModel(),
+                "Merger",
+                Collections.singleton(NO_FACTORY));
+        addDialogComponent(m_factories);
+    }
+
+    @Override
+    public void loadAdditionalSettingsFrom(NodeSettingsRO settings,
+            PortObjectSpec[] specs) throws NotConfigurableException {
+
+        String factoryId;
+        SettingsModelString facId = FileMergerNodeModel.createFactoryIDSettingsModel();
+
+        try {
+            facId.loadSettingsFrom(settings);
+            factoryId = facId.getStringValue();
+        } catch (InvalidSettingsException e) {
+            factoryId = null;
+        }
+
+        URIPortObjectSpec spec = (URIPortObjectSpec)specs[0];
+        String ext = spec.getFileExtensions().get(0);
+        String mimetype = MIMETypeHelper.getMIMEtypeByExtension(ext).orElse(null);
+
+        List<MergerFactory> factories = MergerFactoryManager
+        .getInstance()
+        .getFactories(mimetype);
+        List<String> facs = new ArrayList<String>();
+
+        if (factories.size() == 0) {
+            facs = Collections.singletonList(NO_FACTORY);
+        }
+
+        for (MergerFactory f : factories) {
+            facs.add(f.getID());
+        }
+
+        m_factories.replaceListItems(facs, factoryId != null ? factoryId : facs.get(0));
+    }
+}
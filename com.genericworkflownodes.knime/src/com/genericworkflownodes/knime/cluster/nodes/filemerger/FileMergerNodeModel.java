@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.cluster.nodes.filemerger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.knime.core.data.uri.IURIPortObject;
+import org.knime.core.data.uri.URIPortObjectSpec;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.util.FileUtil;
+
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+import com.genericworkflownodes.knime.base.data.port.FileStoreURIPortObject;
+import com.genericworkflownodes.knime.cluster.filemerger.Merger;
+import com.genericworkflownodes.knime.cluster.filemerger.MergerFactory;
+import com.genericworkflownodes.knime.cluster.filemerger.MergerFactoryManager;
+import com.genericworkflownodes.util.MIMETypeHelper;
+
+/**
+ * This is the model implementation of the File Content Merger. This node
+ * takes a list of files, e.g., the parts created by the File Splitter and
+ * collected by a loop end, and merges their content into a single file using
+ * the selected {@link Merger}.
+ */
+public class FileMergerNodeModel extends NodeModel {
+
+    private static final String FACTORY_ID_KEY = "factoryID";
+
+    public static SettingsModelString createFactoryIDSettingsModel() {
+        return new SettingsModelString(FACTORY_ID_KEY, null);
+    }
+
+    private Merger m_merger;
+    private SettingsModelString m_factoryID = createFactoryIDSettingsModel();
+
+    /**
+     * Static method that provides the incoming {@link PortType}s.
+     *
+     * @return The incoming {@link PortType}s of this node.
+     */
+    private static PortType[] getIncomingPorts() {
+        return new PortType[] { IURIPortObject.TYPE };
+    }
+
+    /**
+     * Static method that provides the outgoing {@link PortType}s.
+     *
+     * @return The outgoing {@link PortType}s of this node.
+     */
+    private static PortType[] getOutgoing() {
+        return new PortType[] { IURIPortObject.TYPE };
+    }
+
+    /**
+     * Constructor for the node model.
+     */
+    protected FileMergerNodeModel() {
+        super(getIncomingPorts(), getOutgoing());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PortObject[] execute(final PortObject[] inData,
+            final ExecutionContext exec) throws Exception {
+        IURIPortObject input = (IURIPortObject) inData[0];
+
+        int count = CustomPortObjectUtils.getURIContentCount(input);
+        if (count == 0) {
+            throw new InvalidSettingsException("There are no files to merge.");
+        }
+
+        // The factory for creating the merger
+        String factoryID = m_factoryID.getStringValue();
+        MergerFactory factory = MergerFactoryManager.getInstance().getFactory(factoryID);
+
+        if (factory == null) {
+            throw new InvalidSettingsException("No merger configured for the input files.");
+        }
+        m_merger = factory.createMerger();
+
+        File[] inputs = new File[count];
+        for (int i = 0; i < count; i++) {
+            inputs[i] = FileUtil.getFileFromURL(CustomPortObjectUtils
+                    .getURIContent(input, i).getURI().toURL());
+        }
+
+        FileStoreURIPortObject po = new FileStoreURIPortObject(
+                exec.createFileStore("FileMerger"));
+        String ext = CustomPortObjectUtils.getURIContent(input, 0).getExtension();
+        File output = po.registerFile("merged" + (ext == null || ext.isEmpty() ? "" : "." + ext));
+        output.getParentFile().mkdirs();
+
+        exec.setMessage("Merging " + count + " files");
+        m_merger.merge(output, inputs);
+
+        return new PortObject[] { po };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void reset() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs)
+            throws InvalidSettingsException {
+        if (inSpecs[0] == null) {
+            throw new InvalidSettingsException("All ports need to be connected.");
+        }
+        String factoryID = m_factoryID.getStringValue();
+        URIPortObjectSpec spec = (URIPortObjectSpec)inSpecs[0];
+
+        // If no factory has been selected in the dialog, we take the first one that matches
+        if (factoryID == null) {
+            String ext = spec.getFileExtensions().get(0);
+            String mime = MIMETypeHelper.getMIMEtypeByExtension(ext).orElse(null);
+
+            Iterator<MergerFactory> factories = MergerFactoryManager
+                                                    .getInstance()
+                                                    .getFactories(mime)
+                                                    .iterator();
+            if (!factories.hasNext()) {
+                throw new InvalidSettingsException("No suitable merger found for mimetype " + mime + ".");
+            }
+            MergerFactory fac = factories.next();
+            factoryID = fac.getID();
+            m_factoryID.setStringValue(factoryID);
+            setWarningMessage("No merger selected. Choosing " + factoryID + ".");
+        } else if (MergerFactoryManager.getInstance().getFactory(factoryID) == null) {
+            throw new InvalidSettingsException("No merger available for the input file types.");
+        }
+        return new PortObjectSpec[] { new URIPortObjectSpec(spec.getFileExtensions().get(0)) };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveSettingsTo(final NodeSettingsWO settings) {
+        m_factoryID.saveSettingsTo(settings);
+        if (m_merger != null) {
+            m_merger.saveSettingsTo(settings);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadValidatedSettingsFrom(final NodeSettingsRO settings)
+            throws InvalidSettingsException {
+        m_factoryID.loadSettingsFrom(settings);
+        MergerFactory factory = MergerFactoryManager.getInstance()
+                .getFactory(m_factoryID.getStringValue());
+        if (factory != null) {
+            m_merger = factory.createMerger();
+            m_merger.loadSettingsFrom(settings);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateSettings(final NodeSettingsRO settings)
+            throws InvalidSettingsException {
+        m_factoryID.validateSettings(settings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void loadInternals(final File internDir,
+            final ExecutionMonitor exec) throws IOException,
+            CanceledExecutionException {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveInternals(final File internDir,
+            final ExecutionMonitor exec) throws IOException,
+            CanceledExecutionException {
+    }
+
+}
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeSettingsRO;
@@ -11,6 +14,8 @@ import org.knime.core.node.NotConfigurableException;
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
 import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
 import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObjectSpec;
 
@@ -25,11 +30,35 @@ public class FileSplitterNodeDialog extends DefaultNodeSettingsPane {
     DialogComponentStringSelection m_factories;
 
     public FileSplitterNodeDialog() {
+        final SettingsModelString mode = FileSplitterNodeModel
+                .createModeSettingsModel();
+        final SettingsModelInteger numPartsModel = FileSplitterNodeModel
+                .createNumPartsSettingsModel();
+        final SettingsModelIntegerBounded partSizeModel = FileSplitterNodeModel
+                .createPartSizeSettingsModel();
+        mode.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                numPartsModel.setEnabled(FileSplitterNodeModel.MODE_NUM_PARTS
+                        .equals(mode.getStringValue()));
+                partSizeModel.setEnabled(FileSplitterNodeModel.MODE_PART_SIZE
+                        .equals(mode.getStringValue()));
+            }
+        });
+        partSizeModel.setEnabled(false);
+
+        addDialogComponent(new DialogComponentStringSelection(mode,
+                "Split by", FileSplitterNodeModel.MODE_NUM_PARTS,
+                FileSplitterNodeModel.MODE_PART_SIZE,
+                FileSplitterNodeModel.MODE_AUTO));
+
         DialogComponentNumber numParts = new DialogComponentNumber(
-                FileSplitterNodeModel.createNumPartsSettingsModel(),
-                "Number of parts", 1);
+                numPartsModel, "Number of parts", 1);
         addDialogComponent(numParts);
 
+        addDialogComponent(new DialogComponentNumber(partSizeModel,
+                "Size per part (MB)", 64));
+
         m_factories = new DialogComponentStringSelection(
                 FileSplitterNodeModel.createFactoryIDSettingsModel(),
                 "Splitter",
@@ -34,6 +34,7 @@ import org.knime.core.data.filestore.FileStore;
 import org.knime.core.data.uri.IURIPortObject;
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
@@ -42,12 +43,14 @@ import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.util.FileUtil;
 
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.knime.base.data.port.FileStoreURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.SerializableFileStoreCell;
 import com.genericworkflownodes.knime.base.data.port.SimpleFileStoreCell;
@@ -74,6 +77,44 @@ public class FileSplitterNodeModel extends NodeModel {
 
     private static final String NUM_PARTS_KEY = "numParts";
 
+    private static final String MODE_KEY = "splitMode";
+
+    private static final String PART_SIZE_KEY = "partSizeMB";
+
+    /** Splits into the configured number of parts. */
+    public static final String MODE_NUM_PARTS = "Number of parts";
+
+    /** Splits into parts of the configured size. */
+    public static final String MODE_PART_SIZE = "Size per part";
+
+    /** Derives the number of parts from the input size and the cores. */
+    public static final String MODE_AUTO = "Automatic";
+
+    /** Flow variable holding the chosen strategy. */
+    public static final String STRATEGY_VARIABLE = "splitStrategy";
+
+    /** Flow variable holding the resulting number of parts. */
+    public static final String NUM_PARTS_VARIABLE = "splitNumParts";
+
+    /** Flow variable holding the mean size of the parts in bytes. */
+    public static final String MEAN_PART_SIZE_VARIABLE = "splitMeanPartBytes";
+
+    /** Flow variable holding the size of the largest part in bytes. */
+    public static final String MAX_PART_SIZE_VARIABLE = "splitMaxPartBytes";
+
+    /**
+     * Parts smaller than this are not worth an own task in automatic mode.
+     */
+    static final long AUTO_MIN_PART_SIZE = 16L * 1024 * 1024;
+
+    /**
+     * Automatic mode creates more parts than execution slots rather than
+     * parts larger than this.
+     */
+    static final long AUTO_MAX_PART_SIZE = 1024L * 1024 * 1024;
+
+    private static final long MB = 1024L * 1024;
+
     public static SettingsModelString createFactoryIDSettingsModel() {
         return new SettingsModelString(FACTORY_ID_KEY, null);
     }
@@ -82,9 +123,20 @@ public class FileSplitterNodeModel extends NodeModel {
         return new SettingsModelInteger(NUM_PARTS_KEY, 2);
     }
 
+    public static SettingsModelString createModeSettingsModel() {
+        return new SettingsModelString(MODE_KEY, MODE_NUM_PARTS);
+    }
+
+    public static SettingsModelIntegerBounded createPartSizeSettingsModel() {
+        return new SettingsModelIntegerBounded(PART_SIZE_KEY, 256, 1,
+                Integer.MAX_VALUE);
+    }
+
     private Splitter m_splitter;
     private SettingsModelString m_factoryID = createFactoryIDSettingsModel();
     private SettingsModelInteger m_numParts = createNumPartsSettingsModel();
+    private SettingsModelString m_mode = createModeSettingsModel();
+    private SettingsModelIntegerBounded m_partSize = createPartSizeSettingsModel();
 
     /**
      * Static method that provides the incoming {@link PortType}s.
@@ -119,7 +171,7 @@ public class FileSplitterNodeModel extends NodeModel {
             final ExecutionContext exec) throws Exception {
         IURIPortObject input = (IURIPortObject) inData[0];
 
-        if (input.getURIContents().size() != 1) {
+        if (CustomPortObjectUtils.getURIContentCount(input) != 1) {
             throw new InvalidSettingsException("This node can only split a single file");
         }
 
@@ -132,13 +184,14 @@ public class FileSplitterNodeModel extends NodeModel {
         }
         m_splitter = factory.createSplitter();
 
-        File f = FileUtil.getFileFromURL(input.getURIContents().get(0).getURI().toURL());
+        File f = FileUtil.getFileFromURL(CustomPortObjectUtils.getURIContent(input, 0).getURI().toURL());
 
         // File Store in which we store the files
         FileStore fs = exec.createFileStore("FileSplitter");
 
-        File[] outputs = new File[m_numParts.getIntValue()];
-        for (int i = 0; i < m_numParts.getIntValue(); i++) {
+        int numParts = getNumberOfParts(f.length());
+        File[] outputs = new File[numParts];
+        for (int i = 0; i < numParts; i++) {
             int idx = f.getPath().lastIndexOf('.');
             String ext;
             String name;
@@ -156,7 +209,19 @@ public class FileSplitterNodeModel extends NodeModel {
         m_splitter.split(f, outputs);
         DataContainer dc = exec.createDataContainer(createSpec());
 
-        for (int i = 0; i < m_numParts.getIntValue(); i++) {
+        long totalSize = 0;
+        long maxSize = 0;
+        for (File output : outputs) {
+            totalSize += output.length();
+            maxSize = Math.max(maxSize, output.length());
+        }
+        pushFlowVariableString(STRATEGY_VARIABLE, m_mode.getStringValue());
+        pushFlowVariableInt(NUM_PARTS_VARIABLE, numParts);
+        pushFlowVariableDouble(MEAN_PART_SIZE_VARIABLE, (double) totalSize
+                / numParts);
+        pushFlowVariableDouble(MAX_PART_SIZE_VARIABLE, maxSize);
+
+        for (int i = 0; i < numParts; i++) {
             FileStoreURIPortObject po = new FileStoreURIPortObject(fs);
             String relPath = Paths.get(fs.getFile().toString())
                                 .relativize(Paths.get(outputs[i].getAbsolutePath()))
@@ -172,6 +237,53 @@ public class FileSplitterNodeModel extends NodeModel {
         return new PortObject[] {(BufferedDataTable)dc.getTable()};
     }
 
+    /**
+     * Determines the number of parts for an input of the given size according
+     * to the configured mode.
+     *
+     * @param inputSize
+     *            The size of the input file in bytes.
+     * @return The number of parts.
+     */
+    private int getNumberOfParts(final long inputSize) {
+        String mode = m_mode.getStringValue();
+        if (MODE_PART_SIZE.equals(mode)) {
+            long partSize = m_partSize.getIntValue() * MB;
+            return (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                    (inputSize + partSize - 1) / partSize));
+        } else if (MODE_AUTO.equals(mode)) {
+            int slots = Math.min(Runtime.getRuntime().availableProcessors(),
+                    KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads());
+            return getAutomaticNumberOfParts(inputSize, slots);
+        }
+        return m_numParts.getIntValue();
+    }
+
+    /**
+     * Derives the number of parts from the input size and the number of
+     * parts that can be processed concurrently. Small inputs are split into
+     * fewer parts of at least {@link #AUTO_MIN_PART_SIZE}, large inputs into a
+     * multiple of the execution slots so that no part exceeds
+     * {@link #AUTO_MAX_PART_SIZE}.
+     *
+     * @param inputSize
+     *            The size of the input file in bytes.
+     * @param slots
+     *            The number of parts that can be processed concurrently.
+     * @return The number of parts.
+     */
+    static int getAutomaticNumberOfParts(final long inputSize, final int slots) {
+        long available = Math.max(1, slots);
+        long parts = Math.min(available, (inputSize + AUTO_MIN_PART_SIZE - 1)
+                / AUTO_MIN_PART_SIZE);
+        long minParts = (inputSize + AUTO_MAX_PART_SIZE - 1)
+                / AUTO_MAX_PART_SIZE;
+        if (minParts > parts) {
+            parts = (minParts + available - 1) / available * available;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, parts));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -226,6 +338,8 @@ public class FileSplitterNodeModel extends NodeModel {
             m_splitter.saveSettingsTo(settings);
         }
         m_numParts.saveSettingsTo(settings);
+        m_mode.saveSettingsTo(settings);
+        m_partSize.saveSettingsTo(settings);
     }
 
     /**
@@ -244,6 +358,10 @@ public class FileSplitterNodeModel extends NodeModel {
             }
         }
         m_numParts.loadSettingsFrom(settings);
+        if (settings.containsKey(MODE_KEY)) {
+            m_mode.loadSettingsFrom(settings);
+            m_partSize.loadSettingsFrom(settings);
+        }
     }
 
     /**
@@ -254,6 +372,16 @@ public class FileSplitterNodeModel extends NodeModel {
             throws InvalidSettingsException {
         m_factoryID.validateSettings(settings);
         m_numParts.validateSettings(settings);
+        if (settings.containsKey(MODE_KEY)) {
+            String mode = ((SettingsModelString) m_mode
+                    .createCloneWithValidatedValue(settings)).getStringValue();
+            if (!MODE_NUM_PARTS.equals(mode) && !MODE_PART_SIZE.equals(mode)
+                    && !MODE_AUTO.equals(mode)) {
+                throw new InvalidSettingsException("Unknown split mode: "
+                        + mode);
+            }
+            m_partSize.validateSettings(settings);
+        }
     }
 
     /**
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.cluster.nodes.porttofilestore;
+
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+
+import com.genericworkflownodes.util.TransferStrategy;
+
+/**
+ * <code>NodeDialog</code> for the "Port to File Cells" node.
+ */
+public class PortToFileStoreNodeDialog extends DefaultNodeSettingsPane {
+
+    /**
+     * Creates the dialog.
+     */
+    public PortToFileStoreNodeDialog() {
+        addDialogComponent(new DialogComponentStringSelection(
+                PortToFileStoreNodeModel.createTransferStrategySettingsModel(),
+                "Import unmanaged files as", TransferStrategy.getNames()));
+    }
+}
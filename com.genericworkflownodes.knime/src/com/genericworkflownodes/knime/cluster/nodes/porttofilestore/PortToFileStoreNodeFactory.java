@@ -60,7 +60,7 @@ public class PortToFileStoreNodeFactory extends NodeFactory<PortToFileStoreNodeM
      */
     @Override
     public boolean hasDialog() {
-        return false;
+        return true;
     }
 
     /**
@@ -68,7 +68,7 @@ public class PortToFileStoreNodeFactory extends NodeFactory<PortToFileStoreNodeM
      */
     @Override
     public NodeDialogPane createNodeDialogPane() {
-        return null;
+        return new PortToFileStoreNodeDialog();
     }
 
 }
@@ -20,7 +20,6 @@ package com.genericworkflownodes.knime.cluster.nodes.porttofilestore;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -41,21 +40,26 @@ import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.util.FileUtil;
 
 import com.genericworkflownodes.knime.base.data.port.AbstractFileStoreURIPortObject;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.knime.base.data.port.FileStorePrefixURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.FileStoreURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.PrefixFileStoreCell;
 import com.genericworkflownodes.knime.base.data.port.PrefixURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.SerializableFileStoreCell;
 import com.genericworkflownodes.knime.base.data.port.SimpleFileStoreCell;
+import com.genericworkflownodes.util.FileTransferUtils;
+import com.genericworkflownodes.util.TransferStrategy;
 
 /**
  * This is the model implementation of FileMerger. This nodes takes two files
@@ -65,6 +69,24 @@ import com.genericworkflownodes.knime.base.data.port.SimpleFileStoreCell;
  */
 public class PortToFileStoreNodeModel extends NodeModel {
 
+    private static final NodeLogger LOGGER = NodeLogger
+            .getLogger(PortToFileStoreNodeModel.class);
+
+    private static final String TRANSFER_STRATEGY_KEY = "transferStrategy";
+
+    /**
+     * Creates the settings model for the strategy used to transfer files that
+     * are not yet managed by KNIME into the file store.
+     * 
+     * @return The settings model for the transfer strategy.
+     */
+    public static SettingsModelString createTransferStrategySettingsModel() {
+        return new SettingsModelString(TRANSFER_STRATEGY_KEY,
+                TransferStrategy.REFLINK.getName());
+    }
+
+    private SettingsModelString m_transferStrategy = createTransferStrategySettingsModel();
+
     /**
      * Static method that provides the incoming {@link PortType}s.
      * 
@@ -118,13 +140,8 @@ public class PortToFileStoreNodeModel extends NodeModel {
             FileStore fs = exec.createFileStore("files");
             fs.getFile().mkdirs();
             
-            for (URIContent uc : po.getURIContents()) {
-                Path localFile = FileUtil.getFileFromURL(uc.getURI().toURL()).toPath();
-                String filename = localFile.getFileName().toString();
-                if (!filename.endsWith(uc.getExtension())) {
-                    filename = filename.concat(".").concat(uc.getExtension());
-                }
-                Files.copy(localFile, Paths.get(fs.getFile().toURI()).resolve(filename));
+            for (URIContent uc : CustomPortObjectUtils.iterateURIContents(po)) {
+                String filename = importFile(uc, fs);
                 PrefixFileStoreCell cell = new PrefixFileStoreCell(fs, po.getPrefix(), Collections.singletonList(filename));
                 dc.addRowToTable(new DefaultRow(new RowKey(filename), cell));
              }
@@ -133,13 +150,8 @@ public class PortToFileStoreNodeModel extends NodeModel {
             FileStore fs = exec.createFileStore("files");
             fs.getFile().mkdirs();
             
-            for (URIContent uc : po.getURIContents()) {
-                Path localFile = FileUtil.getFileFromURL(uc.getURI().toURL()).toPath();
-                String filename = localFile.getFileName().toString();
-                if (!filename.endsWith(uc.getExtension())) {
-                    filename = filename.concat(".").concat(uc.getExtension());
-                }
-                Files.copy(localFile, Paths.get(fs.getFile().toURI()).resolve(filename));
+            for (URIContent uc : CustomPortObjectUtils.iterateURIContents(po)) {
+                String filename = importFile(uc, fs);
                 SimpleFileStoreCell cell = new SimpleFileStoreCell(fs, Collections.singletonList(filename));
                 dc.addRowToTable(new DefaultRow(new RowKey(filename), cell));
              }
@@ -147,6 +159,33 @@ public class PortToFileStoreNodeModel extends NodeModel {
         dc.close();
         return new PortObject[] {(BufferedDataTable)dc.getTable()};
     }
+
+    /**
+     * Transfers the file referenced by the given {@link URIContent} into the
+     * file store using the configured {@link TransferStrategy}.
+     * 
+     * @param uc
+     *            The file to import.
+     * @param fs
+     *            The target file store.
+     * @return The name of the file inside the file store.
+     * @throws IOException
+     *             If the file could not be transferred.
+     */
+    private String importFile(final URIContent uc, final FileStore fs)
+            throws IOException {
+        Path localFile = FileUtil.getFileFromURL(uc.getURI().toURL()).toPath();
+        String filename = localFile.getFileName().toString();
+        if (!filename.endsWith(uc.getExtension())) {
+            filename = filename.concat(".").concat(uc.getExtension());
+        }
+        TransferStrategy used = FileTransferUtils.transfer(localFile,
+                Paths.get(fs.getFile().toURI()).resolve(filename),
+                TransferStrategy.fromName(m_transferStrategy.getStringValue()));
+        LOGGER.debug("Imported " + localFile + " into file store using strategy: "
+                + used.getName());
+        return filename;
+    }
     
     /**
      * {@inheritDoc}
@@ -177,6 +216,7 @@ public class PortToFileStoreNodeModel extends NodeModel {
      */
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) {
+        m_transferStrategy.saveSettingsTo(settings);
     }
 
     /**
@@ -185,7 +225,12 @@ public class PortToFileStoreNodeModel extends NodeModel {
     @Override
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings)
             throws InvalidSettingsException {
-
+        // workflows created before the strategy was configurable always copied
+        if (settings.containsKey(TRANSFER_STRATEGY_KEY)) {
+            m_transferStrategy.loadSettingsFrom(settings);
+        } else {
+            m_transferStrategy.setStringValue(TransferStrategy.COPY.getName());
+        }
     }
 
     /**
@@ -194,6 +239,9 @@ public class PortToFileStoreNodeModel extends NodeModel {
     @Override
     protected void validateSettings(final NodeSettingsRO settings)
             throws InvalidSettingsException {
+        if (settings.containsKey(TRANSFER_STRATEGY_KEY)) {
+            m_transferStrategy.validateSettings(settings);
+        }
     }
 
     /**
@@ -43,6 +43,7 @@ import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 
 import com.genericworkflownodes.knime.base.data.port.AbstractFileStoreURIPortObject;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.knime.base.data.port.FileStoreValue;
 import com.genericworkflownodes.knime.base.data.port.SerializableFileStoreCell;
 import com.genericworkflownodes.util.MIMETypeHelper;
@@ -110,8 +111,7 @@ public class SplitTableToPortNodeModel extends NodeModel {
                 SerializableFileStoreCell cell = (SerializableFileStoreCell)row.getCell(index);
                 AbstractFileStoreURIPortObject po = cell.getPortObject();
 
-                List<URIContent> uriContents = po.getURIContents();
-                for (URIContent uc : uriContents) {
+                for (URIContent uc : CustomPortObjectUtils.iterateURIContents(po)) {
                     String mt = MIMETypeHelper.getMIMEtypeByExtension(uc.getExtension()).orElse(uc.getExtension());
                     if (mimetype == null) {
                         mimetype = mt;
@@ -20,6 +20,7 @@ package com.genericworkflownodes.knime.custom.config;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -37,6 +38,7 @@ import org.knime.core.node.NodeLogger;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
 
+import com.genericworkflownodes.knime.config.reader.DescriptorIndex;
 import com.genericworkflownodes.util.PropertiesUtils;
 
 /**
@@ -60,6 +62,13 @@ public final class BinaryManager {
      */
     private static final String DESCRIPTORS_PATH = "/" + BUNDLE_PATH + File.separator + "descriptors";
 
+    /**
+     * Bundle entry of the descriptor manifest, has to match
+     * {@link DescriptorIndex#PLUGIN_PATH} where it is generated.
+     */
+    static final String DESCRIPTOR_INDEX_ENTRY = "/" + BUNDLE_PATH
+            + "/descriptors/" + DescriptorIndex.FILE_NAME;
+
     /**
      * File that should be present to identify the correct path.
      */
@@ -74,6 +83,13 @@ public final class BinaryManager {
     @SuppressWarnings("rawtypes")
     private final Class classInBundle;
 
+    /**
+     * The descriptor manifest of the bundle, loaded on first use.
+     */
+    private DescriptorIndex descriptorIndex;
+
+    private boolean descriptorIndexLoaded = false;
+
     /**
      * C'tor.
      *
@@ -214,6 +230,31 @@ public final class BinaryManager {
         return findFileInBundle(fileName) != null;
     }
 
+    /**
+     * Returns the descriptor manifest ({@link DescriptorIndex#FILE_NAME})
+     * shipped in the descriptors directory of the bundle. The manifest is read
+     * directly from the bundle, without extracting any file.
+     *
+     * @return The manifest, or null if the bundle does not contain a valid
+     *         one.
+     */
+    public synchronized DescriptorIndex getDescriptorIndex() {
+        if (!descriptorIndexLoaded) {
+            descriptorIndexLoaded = true;
+            Bundle bundle = FrameworkUtil.getBundle(classInBundle);
+            URL url = bundle.getEntry(DESCRIPTOR_INDEX_ENTRY);
+            if (url != null) {
+                try (InputStream in = url.openStream()) {
+                    descriptorIndex = DescriptorIndex.read(in);
+                } catch (IOException e) {
+                    LOGGER.warn("Ignoring invalid descriptor manifest of bundle "
+                            + bundle.getSymbolicName(), e);
+                }
+            }
+        }
+        return descriptorIndex;
+    }
+
     /**
      * Search the bundle for CTDs and list them in a List of Files.
      *
@@ -221,6 +262,15 @@ public final class BinaryManager {
      * @throws URISyntaxException
      */
     public Iterable<String> listTools() {
+        DescriptorIndex index = getDescriptorIndex();
+        if (index != null) {
+            ArrayList<String> tools = new ArrayList<>();
+            for (DescriptorIndex.Entry entry : index.getEntries()) {
+                tools.add(entry.getTool());
+            }
+            return tools;
+        }
+
         Bundle bundle = FrameworkUtil.getBundle(classInBundle);
         Enumeration<URL> ctds = bundle.findEntries(DESCRIPTORS_PATH, "*.ctd", true);
 
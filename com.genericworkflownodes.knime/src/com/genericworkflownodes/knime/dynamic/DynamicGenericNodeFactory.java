@@ -1,10 +1,10 @@
 package com.genericworkflownodes.knime.dynamic;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,9 +33,12 @@ import org.knime.node.v28.ViewsDocument.Views;
 import org.osgi.framework.Version;
 import org.w3c.dom.Document;
 
+import com.genericworkflownodes.knime.GenericNodesPlugin;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
 import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
 import com.genericworkflownodes.knime.config.reader.InvalidCTDFileException;
+import com.genericworkflownodes.knime.config.reader.NodeConfigurationCache;
 import com.genericworkflownodes.knime.custom.config.BinaryManager;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration.VersionDisplayLayer;
 import com.genericworkflownodes.knime.generic_node.GenericKnimeNodeDialog;
@@ -72,12 +75,24 @@ public abstract class DynamicGenericNodeFactory extends GenericNodeFactory {
 
     private static final NodeLogger logger = NodeLogger.getLogger(DynamicGenericNodeFactory.class);
 
+    /**
+     * Delay before newly parsed CTDs are written to the CTD cache, so that
+     * the CTDs parsed while KNIME starts are written at once.
+     */
+    private static final long CTD_CACHE_SAVE_DELAY = 30000;
+
+    /**
+     * The shared, thread-safe CTD reader.
+     */
+    private static final CTDConfigurationReader CTD_READER = new CTDConfigurationReader();
+
     private String m_filename;
     private String m_nsfid;
     private String m_id;
     private String m_ctdFile;
     private INodeConfiguration m_config;
     private boolean m_deprecated;
+    private SoftReference<NodeDescription> m_description;
 
     /**
      * @return The icon path relative to the payload folder.
@@ -109,7 +124,7 @@ public abstract class DynamicGenericNodeFactory extends GenericNodeFactory {
     public DynamicGenericNodeModel createNodeModel() {
         INodeConfiguration tmpConfig;
         try {
-            tmpConfig = getNodeConfiguration();
+            tmpConfig = new NodeConfigurationOverlay(getNodeConfiguration());
             
             String[][] inputs = new String[tmpConfig.getInputPorts().size()][];
             String[][] outputs = new String[tmpConfig.getOutputPorts().size()][];
@@ -166,7 +181,8 @@ public abstract class DynamicGenericNodeFactory extends GenericNodeFactory {
     @Override
     public NodeDialogPane createNodeDialogPane() {
         try {
-            return new GenericKnimeNodeDialog(getNodeConfiguration());
+            return new GenericKnimeNodeDialog(new NodeConfigurationOverlay(
+                    getNodeConfiguration()));
         } catch (Exception e) {
             logger.error("Dynamic node view instantiation failed", e);
         }
@@ -198,114 +214,189 @@ public abstract class DynamicGenericNodeFactory extends GenericNodeFactory {
         super.saveAdditionalFactorySettings(config);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The generated description is cached on disk per CTD content and plug-in
+     * version, and kept in memory only softly.
+     */
     @Override
     protected NodeDescription createNodeDescription() {
+        NodeDescription description = m_description != null ? m_description
+                .get() : null;
+        if (description != null) {
+            return description;
+        }
         try {
-            INodeConfiguration cfg = getNodeConfiguration();
-            KnimeNodeDocument doc = org.knime.node.v28.KnimeNodeDocument.Factory.newInstance();
-            Document domDoc = (Document)doc.getDomNode();
+            Path cacheFile = getDescriptionCacheFile();
+            KnimeNodeDocument doc = NodeDescriptionCache.load(cacheFile);
+            if (doc == null) {
+                doc = buildNodeDescription();
+                NodeDescriptionCache.storeInBackground(doc, cacheFile);
+            }
+            description = new NodeDescription28Proxy(doc);
+            m_description = new SoftReference<NodeDescription>(description);
+            return description;
+        } catch (Exception e) {
+            logger.error("Dynamic node description instantiation failed", e);
+        }
+        return null;
+    }
 
-            // Node
-            KnimeNode node = doc.addNewKnimeNode();
-            node.setDeprecated(m_deprecated);
+    /**
+     * @return The file caching the description of this node,
+     *         <code>null</code> if it cannot be determined.
+     */
+    private Path getDescriptionCacheFile() {
+        GenericNodesPlugin plugin = GenericNodesPlugin.getDefault();
+        if (plugin == null) {
+            return null;
+        }
+        try {
+            File ctd = getPluginConfig().getBinaryManager()
+                    .resolveToolDescriptorPath(m_ctdFile);
+            long fingerprint = plugin.getFingerprintIndex().fingerprint(
+                    ctd.toPath());
+            String variant = m_id + "|" + m_deprecated + "|"
+                    + getPluginConfig().getVersionDisplayLayer() + "|"
+                    + getIconPath();
+            return NodeDescriptionCache.getCacheFile(getPluginConfig()
+                    .getPluginId(), getPluginConfig().getPluginVersion(),
+                    fingerprint, variant);
+        } catch (IOException e) {
+            logger.debug("Could not fingerprint the CTD of " + m_id, e);
+            return null;
+        }
+    }
 
-            // Add version to the node description if set in plug-in properties.
+    private KnimeNodeDocument buildNodeDescription() throws Exception {
+        INodeConfiguration cfg = getNodeConfiguration();
+        KnimeNodeDocument doc = org.knime.node.v28.KnimeNodeDocument.Factory.newInstance();
+        Document domDoc = (Document)doc.getDomNode();
 
-            if (getPluginConfig()
-                    .getVersionDisplayLayer() == VersionDisplayLayer.NODE) {
-                Version version = getPluginConfig().getRawPluginVersion();
-                String node_version = version.getMajor() + "."
-                        + version.getMinor() + "." + version.getMicro();
+        // Node
+        KnimeNode node = doc.addNewKnimeNode();
+        node.setDeprecated(m_deprecated);
 
-                if (version.getQualifier().contains("nightly")) {
-                    node_version = node_version
-                            .concat("." + version.getQualifier());
-                }
+        // Add version to the node description if set in plug-in properties.
 
-                node.setName(cfg.getName() + " [" + node_version + "]");
-            } else {
-                node.setName(cfg.getName());
-            }
-            String iconPath = getIconPath();
-            if (!getPluginConfig().getBinaryManager().fileExists(iconPath)) {
-                logger.debug("Icon for tool " + getId() + " not found.");
-                iconPath = "";
-            } else {
-                iconPath = "/" + BinaryManager.BUNDLE_PATH + "/" + iconPath;
-            }
-            node.setIcon(iconPath);
-            node.setType(KnimeNode.Type.MANIPULATOR);
-            
-            node.setShortDescription(cfg.getDescription());
-            Views views = node.addNewViews();
-            View v0 = views.addNewView();
-            v0.setName("Standard output");
-            v0.setIndex(new BigInteger("0"));
-            v0.getDomNode().appendChild(domDoc.createTextNode("The output channel of the tool as seen on the command line."));
-            View v1 = views.addNewView();
-            v1.setName("Standard error");
-            v1.setIndex(new BigInteger("1"));
-            v1.getDomNode().appendChild(domDoc.createTextNode("The error channel of the tool as seen on the command line."));
-            
-            FullDescription fullDescr = node.addNewFullDescription();
-            
-            // Intro
-            Intro intro = fullDescr.addNewIntro();
-            intro.addNewP().getDomNode().appendChild(domDoc.createTextNode(cfg.getManual()));
-            
-            // Ports
-            ArrayList<String> portParamsToSkip = new ArrayList<String>();
-            Ports ports = node.addNewPorts();
-            int index = 0;
-            for (Port p : cfg.getInputPorts()) {
-                portParamsToSkip.add(p.getName());
-                InPort ip = ports.addNewInPort();
-                ip.setIndex(new BigInteger(Integer.toString(index++)));
-                String mimetypes = mimetypes2String(p.getMimeTypes());
-                ip.setName(p.getName() + mimetypes);
-                ip.getDomNode().appendChild(domDoc.createTextNode(p.getDescription() + mimetypes));
-            }
-            
-            index = 0;
-            for (Port p : cfg.getOutputPorts()) {
-                portParamsToSkip.add(p.getName());
-                OutPort op = ports.addNewOutPort();
-                op.setIndex(new BigInteger(Integer.toString(index++)));
-                String mimetypes = mimetypes2String(p.getMimeTypes());
-                String optional = p.isOptional() ? "(Optional) " : "";
-                op.setName(optional + p.getName() + mimetypes);
-                op.getDomNode().appendChild(domDoc.createTextNode(p.getDescription() + mimetypes));
+        if (getPluginConfig()
+                .getVersionDisplayLayer() == VersionDisplayLayer.NODE) {
+            Version version = getPluginConfig().getRawPluginVersion();
+            String node_version = version.getMajor() + "."
+                    + version.getMinor() + "." + version.getMicro();
+
+            if (version.getQualifier().contains("nightly")) {
+                node_version = node_version
+                        .concat("." + version.getQualifier());
             }
-            
-            // Options (skip ports)
-            for (Parameter<?> p : cfg.getParameters()) {
-                if (!portParamsToSkip.contains(p.getKey()))
-                {
-                    Option option = fullDescr.addNewOption();
-                    option.setName(p.getKey());
-                    option.getDomNode().appendChild(domDoc.createTextNode(p.getDescription()));
-                }
+
+            node.setName(cfg.getName() + " [" + node_version + "]");
+        } else {
+            node.setName(cfg.getName());
+        }
+        String iconPath = getIconPath();
+        if (!getPluginConfig().getBinaryManager().fileExists(iconPath)) {
+            logger.debug("Icon for tool " + getId() + " not found.");
+            iconPath = "";
+        } else {
+            iconPath = "/" + BinaryManager.BUNDLE_PATH + "/" + iconPath;
+        }
+        node.setIcon(iconPath);
+        node.setType(KnimeNode.Type.MANIPULATOR);
+        
+        node.setShortDescription(cfg.getDescription());
+        Views views = node.addNewViews();
+        View v0 = views.addNewView();
+        v0.setName("Standard output");
+        v0.setIndex(new BigInteger("0"));
+        v0.getDomNode().appendChild(domDoc.createTextNode("The output channel of the tool as seen on the command line."));
+        View v1 = views.addNewView();
+        v1.setName("Standard error");
+        v1.setIndex(new BigInteger("1"));
+        v1.getDomNode().appendChild(domDoc.createTextNode("The error channel of the tool as seen on the command line."));
+        
+        FullDescription fullDescr = node.addNewFullDescription();
+        
+        // Intro
+        Intro intro = fullDescr.addNewIntro();
+        intro.addNewP().getDomNode().appendChild(domDoc.createTextNode(cfg.getManual()));
+        
+        // Ports
+        ArrayList<String> portParamsToSkip = new ArrayList<String>();
+        Ports ports = node.addNewPorts();
+        int index = 0;
+        for (Port p : cfg.getInputPorts()) {
+            portParamsToSkip.add(p.getName());
+            InPort ip = ports.addNewInPort();
+            ip.setIndex(new BigInteger(Integer.toString(index++)));
+            String mimetypes = mimetypes2String(p.getMimeTypes());
+            ip.setName(p.getName() + mimetypes);
+            ip.getDomNode().appendChild(domDoc.createTextNode(p.getDescription() + mimetypes));
+        }
+        
+        index = 0;
+        for (Port p : cfg.getOutputPorts()) {
+            portParamsToSkip.add(p.getName());
+            OutPort op = ports.addNewOutPort();
+            op.setIndex(new BigInteger(Integer.toString(index++)));
+            String mimetypes = mimetypes2String(p.getMimeTypes());
+            String optional = p.isOptional() ? "(Optional) " : "";
+            op.setName(optional + p.getName() + mimetypes);
+            op.getDomNode().appendChild(domDoc.createTextNode(p.getDescription() + mimetypes));
+        }
+        
+        // Options (skip ports)
+        for (Parameter<?> p : cfg.getParameters()) {
+            if (!portParamsToSkip.contains(p.getKey()))
+            {
+                Option option = fullDescr.addNewOption();
+                option.setName(p.getKey());
+                option.getDomNode().appendChild(domDoc.createTextNode(p.getDescription()));
             }
-            
-            return new NodeDescription28Proxy(doc);
-        } catch (Exception e) {
-            logger.error("Dynamic node description instantiation failed", e);
         }
-        return null;
+        
+        return doc;
     }
     
-    private INodeConfiguration getNodeConfiguration()
-            throws InvalidCTDFileException, FileNotFoundException, IOException {
+    /**
+     * Returns the template configuration of this node, which is shared by the
+     * {@link NodeConfigurationOverlay}s of all node instances created by this
+     * factory and must not be modified. It is kept by the factory, which KNIME
+     * keeps per node type, so it is dropped together with the factory.
+     */
+    private synchronized INodeConfiguration getNodeConfiguration()
+            throws InvalidCTDFileException {
         if (m_config == null) {
-            try(InputStream cfgStream = getConfigAsStream()) {
-                m_config = new CTDConfigurationReader().read(cfgStream);
-            }
+            File ctd = getPluginConfig().getBinaryManager()
+                    .resolveToolDescriptorPath(m_ctdFile);
+            m_config = readConfiguration(ctd);
         }
         return m_config;
     }
-    
-    private InputStream getConfigAsStream() throws FileNotFoundException {
-        return new FileInputStream(getPluginConfig().getBinaryManager().resolveToolDescriptorPath(m_ctdFile));
+
+    /**
+     * Reads the given CTD through the persistent CTD cache of the plug-in,
+     * which is saved in the background after CTDs had to be parsed.
+     *
+     * @param ctd
+     *            The CTD file.
+     * @return The configuration of the CTD.
+     * @throws InvalidCTDFileException
+     *             If the CTD cannot be read or is invalid.
+     */
+    static INodeConfiguration readConfiguration(final File ctd)
+            throws InvalidCTDFileException {
+        GenericNodesPlugin plugin = GenericNodesPlugin.getDefault();
+        if (plugin == null) {
+            return CTD_READER.read(ctd.toPath());
+        }
+        NodeConfigurationCache cache = plugin.getCTDCache();
+        INodeConfiguration config = cache.read(ctd.toPath(), CTD_READER);
+        if (cache.isModified()) {
+            cache.saveInBackground(CTD_CACHE_SAVE_DELAY);
+        }
+        return config;
     }
     
     private String mimetypes2String(List<String> mt) {
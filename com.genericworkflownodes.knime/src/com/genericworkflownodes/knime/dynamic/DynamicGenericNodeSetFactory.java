@@ -1,11 +1,14 @@
 package com.genericworkflownodes.knime.dynamic;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeLogger;
@@ -15,7 +18,9 @@ import org.knime.core.node.config.ConfigRO;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.Version;
 
-import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
+import com.genericworkflownodes.knime.config.reader.CTDHeaderReader;
+import com.genericworkflownodes.knime.config.reader.DescriptorIndex;
+import com.genericworkflownodes.knime.config.reader.InvalidCTDFileException;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration.VersionDisplayLayer;
 
@@ -35,6 +40,13 @@ public abstract class DynamicGenericNodeSetFactory implements GenericNodeSetFact
 
     private String m_versionSuffix;
     private Map<String, String> m_idToFile;
+    private Map<String, String> m_idToCategory;
+
+    /**
+     * Reads only the headers of the CTDs, the full CTDs are parsed when a node
+     * model or dialog is created.
+     */
+    private static final CTDHeaderReader HEADER_READER = new CTDHeaderReader();
 
     /**
      * @return The class of the node factory to use.
@@ -60,9 +72,52 @@ public abstract class DynamicGenericNodeSetFactory implements GenericNodeSetFact
             for (String s : getPluginConfig().getBinaryManager().listTools()) {
                 m_idToFile.put(getIdForTool(s) + m_versionSuffix, s);
             }
+            m_idToCategory = readCategories(m_idToFile);
         }
         return m_idToFile.keySet();
     }
+
+    /**
+     * Reads the categories of the given tools from the descriptor manifest of
+     * the plug-in or, if there is none, from the headers of their CTDs in
+     * parallel.
+     */
+    private Map<String, String> readCategories(final Map<String, String> idToFile) {
+        final Map<String, String> categories = new ConcurrentHashMap<>();
+        DescriptorIndex index = getPluginConfig().getBinaryManager().getDescriptorIndex();
+        if (index != null) {
+            // the manifest lists the categories, no CTD has to be touched
+            for (Map.Entry<String, String> e : idToFile.entrySet()) {
+                DescriptorIndex.Entry entry = index.getEntry(e.getValue());
+                if (entry != null) {
+                    categories.put(e.getKey(), entry.getCategory());
+                }
+            }
+            return categories;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (final Map.Entry<String, String> e : idToFile.entrySet()) {
+            tasks.add(ForkJoinPool.commonPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        categories.put(e.getKey(), readCategory(e.getValue()));
+                    } catch (Exception ex) {
+                        logger.debug("Could not read the header of " + e.getValue(), ex);
+                    }
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return categories;
+    }
+
+    private String readCategory(String tool) throws InvalidCTDFileException {
+        File f = getPluginConfig().getBinaryManager().resolveToolDescriptorPath(tool);
+        return HEADER_READER.read(f.toPath()).getCategory();
+    }
     
     @Override
     public Class<? extends NodeFactory<? extends NodeModel>> getNodeFactory(String id) {
@@ -71,10 +126,11 @@ public abstract class DynamicGenericNodeSetFactory implements GenericNodeSetFact
 
     @Override
     public String getCategoryPath(String id) {
-        String category;
-        File f = getPluginConfig().getBinaryManager().resolveToolDescriptorPath(m_idToFile.get(id));
-        try (InputStream cfgStream = new FileInputStream(f)) {
-            category = new CTDConfigurationReader().read(cfgStream).getCategory();
+        String category = m_idToCategory != null ? m_idToCategory.get(id) : null;
+        try {
+            if (category == null) {
+                category = readCategory(m_idToFile.get(id));
+            }
         } catch(Exception e) {
             logger.error("Could not read node category from CTD, using '/' instead.", e);
             category = "";
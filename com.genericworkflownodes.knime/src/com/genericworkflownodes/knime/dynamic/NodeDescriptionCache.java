@@ -0,0 +1,133 @@
+package com.genericworkflownodes.knime.dynamic;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ForkJoinPool;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.node.v28.KnimeNodeDocument;
+
+import com.genericworkflownodes.knime.GenericNodesPlugin;
+
+/**
+ * Disk cache of the node descriptions generated for dynamic generic nodes.
+ * The descriptions are stored as XML in the state location of the GKN
+ * plug-in, one directory per node plug-in version, one file per CTD content
+ * and description variant. Files are written in the background.
+ */
+final class NodeDescriptionCache {
+
+    private static final NodeLogger LOGGER = NodeLogger
+            .getLogger(NodeDescriptionCache.class);
+
+    /**
+     * Name of the cache directory in the plug-in state location.
+     */
+    private static final String CACHE_DIR = "node-descriptions";
+
+    private NodeDescriptionCache() {
+    }
+
+    /**
+     * Returns the cache file of a node description.
+     * 
+     * @param pluginId
+     *            The id of the plug-in hosting the node.
+     * @param pluginVersion
+     *            The version of the plug-in hosting the node.
+     * @param ctdFingerprint
+     *            The fingerprint of the CTD content.
+     * @param variant
+     *            Everything else the description depends on.
+     * @return The cache file, <code>null</code> if the GKN plug-in is not
+     *         running.
+     */
+    static Path getCacheFile(final String pluginId,
+            final String pluginVersion, final long ctdFingerprint,
+            final String variant) {
+        GenericNodesPlugin plugin = GenericNodesPlugin.getDefault();
+        if (plugin == null) {
+            return null;
+        }
+        String gknVersion = plugin.getBundle().getVersion().toString();
+        return plugin
+                .getStateLocation()
+                .append(CACHE_DIR)
+                .append(pluginId + "_" + pluginVersion)
+                .append(String.format("%016x_%08x.xml", ctdFingerprint,
+                        (gknVersion + "|" + variant).hashCode())).toFile()
+                .toPath();
+    }
+
+    /**
+     * Loads a cached node description.
+     * 
+     * @param file
+     *            The cache file.
+     * @return The cached description, <code>null</code> if the file does not
+     *         exist or cannot be parsed.
+     */
+    static KnimeNodeDocument load(final Path file) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return KnimeNodeDocument.Factory.parse(file.toFile());
+        } catch (Exception e) {
+            LOGGER.debug("Discarding cached node description " + file, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                // will be overwritten with the next store
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given node description to the cache file on a background
+     * thread.
+     * 
+     * @param doc
+     *            The generated description.
+     * @param file
+     *            The cache file.
+     */
+    static void storeInBackground(final KnimeNodeDocument doc, final Path file) {
+        if (file == null) {
+            return;
+        }
+        final KnimeNodeDocument copy = (KnimeNodeDocument) doc.copy();
+        ForkJoinPool.commonPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store(copy, file);
+                } catch (IOException e) {
+                    LOGGER.debug("Could not cache node description " + file, e);
+                }
+            }
+        });
+    }
+
+    private static void store(final KnimeNodeDocument doc, final Path file)
+            throws IOException {
+        Path dir = file.getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(),
+                ".part");
+        try {
+            doc.save(tmp.toFile());
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.genericworkflownodes.knime.commandline.impl.CommandLineFile;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineFixedString;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineParameter;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
 import com.genericworkflownodes.knime.config.PlainNodeConfigurationWriter;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration;
 import com.genericworkflownodes.knime.execution.ICommandGenerator;
@@ -211,11 +212,11 @@ public class CLICommandGenerator implements ICommandGenerator {
         final List<List<? extends CommandLineElement>> extractedParameterValues = new ArrayList<List<? extends CommandLineElement>>();
 
         for (final CLIMapping cliMapping : cliElement.getMapping()) {
-            if (nodeConfig.getParameterKeys()
-                    .contains(cliMapping.getReferenceName())) {
+            if (nodeConfig.getParameterIndex()
+                    .containsKey(cliMapping.getReferenceName())) {
 
-                final Parameter<?> p = nodeConfig
-                        .getParameter(cliMapping.getReferenceName());
+                final Parameter<?> p = NodeConfigurationOverlay.peek(
+                        nodeConfig, cliMapping.getReferenceName());
                 if (!p.isNull()) {
                     if (p instanceof ListParameter) {
                         handleListParameter(extractedParameterValues,
@@ -287,8 +288,8 @@ public class CLICommandGenerator implements ICommandGenerator {
      */
     protected boolean isMappedToBooleanParameter(final CLIElement cliElement) {
         return cliElement.getMapping().size() == 1
-                && nodeConfig.getParameter(cliElement.getMapping().get(0)
-                        .getReferenceName()) instanceof BoolParameter;
+                && NodeConfigurationOverlay.peek(nodeConfig, cliElement
+                        .getMapping().get(0).getReferenceName()) instanceof BoolParameter;
     }
 
     /**
@@ -302,7 +303,7 @@ public class CLICommandGenerator implements ICommandGenerator {
      */
     protected void handleBooleanParameter(final List<CommandLineElement> commands,
             final CLIElement cliElement) {
-        if (((BoolParameter) nodeConfig.getParameter(
+        if (((BoolParameter) NodeConfigurationOverlay.peek(nodeConfig,
                 cliElement.getMapping().get(0).getReferenceName()))
                         .getValue()) {
             commands.add(new CommandLineFixedString(
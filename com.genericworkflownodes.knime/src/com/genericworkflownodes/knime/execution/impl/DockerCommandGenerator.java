@@ -34,6 +34,7 @@ import com.genericworkflownodes.knime.commandline.CommandLineElement;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineFixedString;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineParameter;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration;
 import com.genericworkflownodes.knime.execution.ICommandGenerator;
 import com.genericworkflownodes.knime.parameter.FileListParameter;
@@ -153,11 +154,11 @@ public class DockerCommandGenerator extends CLICommandGenerator implements IComm
         List<List<? extends CommandLineElement>> extractedParameterValues = new ArrayList<List<? extends CommandLineElement>>();
         
         for (CLIMapping cliMapping : cliElement.getMapping()) {
-            if (nodeConfig.getParameterKeys().contains(
+            if (nodeConfig.getParameterIndex().containsKey(
                     cliMapping.getReferenceName())) {
 
-                Parameter<?> p = nodeConfig.getParameter(cliMapping
-                        .getReferenceName());
+                Parameter<?> p = NodeConfigurationOverlay.peek(nodeConfig,
+                        cliMapping.getReferenceName());
                 if (!p.isNull()) {
                     if (p instanceof ListParameter) {
                         ListParameter lp = (ListParameter) p;
@@ -20,14 +20,18 @@ package com.genericworkflownodes.knime.execution.impl;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import com.genericworkflownodes.knime.commandline.CommandLineElement;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineCTDFile;
 import com.genericworkflownodes.knime.commandline.impl.CommandLineFixedString;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
 import com.genericworkflownodes.knime.config.NodeConfiguration;
-import com.genericworkflownodes.knime.config.writer.CTDConfigurationWriter;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
+import com.genericworkflownodes.knime.config.writer.CTDTemplate;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration;
 import com.genericworkflownodes.knime.execution.ICommandGenerator;
 
@@ -47,6 +51,20 @@ public class OpenMSCommandGenerator implements ICommandGenerator {
      */
     private static final String INI_FILE_NAME = "params.ini";
 
+    /**
+     * The compiled ini templates, keyed by the shared template configuration
+     * of the node (or the configuration itself if it is not an overlay).
+     */
+    private static final Map<INodeConfiguration, CTDTemplate> TEMPLATES = Collections
+            .synchronizedMap(new WeakHashMap<INodeConfiguration, CTDTemplate>());
+
+    /**
+     * The rendered values of the last ini file of each node, keyed by its
+     * {@link NodeConfigurationOverlay}, which is only equal to itself.
+     */
+    private static final Map<INodeConfiguration, CTDTemplate.Renderings> RENDERINGS = Collections
+            .synchronizedMap(new WeakHashMap<INodeConfiguration, CTDTemplate.Renderings>());
+
     @Override
     public List<CommandLineElement> generateCommands(
             INodeConfiguration nodeConfiguration,
@@ -79,8 +97,58 @@ public class OpenMSCommandGenerator implements ICommandGenerator {
     private File createINIFile(INodeConfiguration nodeConfiguration,
             File workingDirectory) throws Exception {
         File iniFile = new File(workingDirectory, INI_FILE_NAME);
-        CTDConfigurationWriter writer = new CTDConfigurationWriter(iniFile);
-        writer.write(nodeConfiguration);
+        CTDTemplate template = getTemplate(nodeConfiguration);
+        template.write(nodeConfiguration,
+                getRenderings(template, nodeConfiguration), iniFile);
         return iniFile;
     }
+
+    /**
+     * Returns the renderings of the given configuration, creating them on
+     * first use. Configurations other than overlays are equal by name, so
+     * their values are rendered on every write.
+     * 
+     * @param template
+     *            The template matching the configuration.
+     * @param nodeConfiguration
+     *            The configuration.
+     * @return The renderings of the configuration or null.
+     */
+    private static CTDTemplate.Renderings getRenderings(CTDTemplate template,
+            INodeConfiguration nodeConfiguration) {
+        if (!(nodeConfiguration instanceof NodeConfigurationOverlay)) {
+            return null;
+        }
+        synchronized (RENDERINGS) {
+            CTDTemplate.Renderings renderings = RENDERINGS
+                    .get(nodeConfiguration);
+            if (renderings == null || renderings.getTemplate() != template) {
+                renderings = template.newRenderings();
+                RENDERINGS.put(nodeConfiguration, renderings);
+            }
+            return renderings;
+        }
+    }
+
+    /**
+     * Returns the compiled ini template for the given configuration, compiling
+     * it on first use. Nodes created from the same CTD share the template.
+     * 
+     * @param nodeConfiguration
+     *            The configuration.
+     * @return A template matching the configuration.
+     */
+    private static CTDTemplate getTemplate(INodeConfiguration nodeConfiguration) {
+        INodeConfiguration key = nodeConfiguration;
+        if (nodeConfiguration instanceof NodeConfigurationOverlay) {
+            key = ((NodeConfigurationOverlay) nodeConfiguration).getTemplate();
+        }
+        CTDTemplate template = TEMPLATES.get(key);
+        // configurations are equal by name, so make sure it is really ours
+        if (template == null || !template.matches(nodeConfiguration)) {
+            template = CTDTemplate.compile(nodeConfiguration, true);
+            TEMPLATES.put(key, template);
+        }
+        return template;
+    }
 }
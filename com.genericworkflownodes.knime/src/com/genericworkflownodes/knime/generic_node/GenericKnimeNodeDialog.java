@@ -28,6 +28,7 @@ import org.knime.core.node.NotConfigurableException;
 import org.knime.core.node.port.PortObjectSpec;
 
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.generic_node.dialogs.chunk_dialog.ChunkedInputsDialog;
 import com.genericworkflownodes.knime.generic_node.dialogs.mimetype_dialog.MimeTypeChooserDialog;
 import com.genericworkflownodes.knime.generic_node.dialogs.param_dialog.ParameterDialog;
 import com.genericworkflownodes.knime.parameter.IFileParameter;
@@ -63,6 +64,11 @@ public class GenericKnimeNodeDialog extends NodeDialogPane {
      */
     private MimeTypeChooserDialog mtc;
 
+    /**
+     * The dialog for choosing the inputs processing chunks.
+     */
+    private ChunkedInputsDialog cid;
+
     /**
      * Creates a new GenericKnimeNodeDialog for the given node configuration.
      * 
@@ -75,6 +81,13 @@ public class GenericKnimeNodeDialog extends NodeDialogPane {
         addTab("Parameters", dialog);
         mtc = new MimeTypeChooserDialog(config);
         addTab("OutputTypes", mtc);
+        cid = new ChunkedInputsDialog(config);
+        for (Port port : config.getInputPorts()) {
+            if (GenericKnimeNodeModel.isChunkable(port)) {
+                addTab("Chunked inputs", cid);
+                break;
+            }
+        }
     }
 
     @Override
@@ -127,6 +140,13 @@ public class GenericKnimeNodeDialog extends NodeDialogPane {
                     GenericKnimeNodeModel.GENERIC_KNIME_NODES_OUT_CUSTOMBASENAME
                             + i, customBasenames[i]);
         }
+
+        boolean[] chunkedPorts = cid.getChunkedPorts();
+        for (int i = 0; i < config.getNumberOfInputPorts(); i++) {
+            settings.addBoolean(
+                    GenericKnimeNodeModel.GENERIC_KNIME_NODES_IN_CHUNKED + i,
+                    chunkedPorts[i]);
+        }
     }
 
     // This is called before the dialog opens but after all the constructors of the dialogues and tabs in there
@@ -234,5 +254,13 @@ public class GenericKnimeNodeDialog extends NodeDialogPane {
         mtc.setActivePorts(activePorts);
         mtc.setBasenameTextboxes(customBasenames);
         mtc.setSelectedLinkedInports(linkedInputPorts);
+
+        boolean[] chunkedPorts = new boolean[config.getNumberOfInputPorts()];
+        for (int i = 0; i < chunkedPorts.length; i++) {
+            chunkedPorts[i] = settings.getBoolean(
+                    GenericKnimeNodeModel.GENERIC_KNIME_NODES_IN_CHUNKED + i,
+                    false);
+        }
+        cid.setChunkedPorts(chunkedPorts);
     }
 }
@@ -27,6 +27,7 @@ import org.knime.core.node.NodeView;
 
 import org.knime.base.node.util.exttool.*;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
 import com.genericworkflownodes.knime.config.reader.CTDConfigurationReader;
 
 /**
@@ -38,13 +39,31 @@ public abstract class GenericKnimeNodeFactory extends
         NodeFactory<GenericKnimeNodeModel> {
 
     /**
-     * Reads the node configuration from configured input stream.
+     * The configuration read from the configured input stream. It is shared by
+     * all node instances created by this factory, which KNIME keeps per node
+     * type, and never modified. It is dropped together with the factory, e.g.,
+     * when the plug-in is updated.
+     */
+    private INodeConfiguration m_template;
+
+    /**
+     * Returns a new per-node configuration on top of the node configuration
+     * read from the configured input stream, which is read only once per
+     * factory.
      * 
      * @return
      * @throws Exception
      */
     protected INodeConfiguration getNodeConfiguration() throws Exception {
-        return new CTDConfigurationReader().read(getConfigAsStream());
+        INodeConfiguration template;
+        synchronized (this) {
+            if (m_template == null) {
+                m_template = new CTDConfigurationReader()
+                        .read(getConfigAsStream());
+            }
+            template = m_template;
+        }
+        return new NodeConfigurationOverlay(template);
     }
 
     /**
@@ -22,6 +22,7 @@ package com.genericworkflownodes.knime.generic_node;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,7 +30,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Observable;
 import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -40,7 +47,9 @@ import org.knime.core.data.uri.IURIPortObject;
 import org.knime.core.data.uri.URIContent;
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
@@ -51,13 +60,17 @@ import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.port.inactive.InactiveBranchPortObject;
 import org.knime.core.node.port.inactive.InactiveBranchPortObjectSpec;
 import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
 
 import com.genericworkflownodes.knime.GenericNodesPlugin;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+import com.genericworkflownodes.knime.base.data.port.FileStoreDeduplicator;
 import com.genericworkflownodes.knime.base.data.port.FileStorePrefixURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.FileStoreURIPortObject;
 import com.genericworkflownodes.knime.base.data.port.IPrefixURIPortObject;
 import com.genericworkflownodes.knime.commandline.CommandLineElement;
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.NodeConfigurationOverlay;
 import com.genericworkflownodes.knime.custom.config.IPluginConfiguration;
 import com.genericworkflownodes.knime.custom.config.NoBinaryAvailableException;
 import com.genericworkflownodes.knime.execution.AsynchronousToolExecutor;
@@ -67,6 +80,7 @@ import com.genericworkflownodes.knime.execution.ToolExecutorFactory;
 import com.genericworkflownodes.knime.execution.UnknownCommandGeneratorException;
 import com.genericworkflownodes.knime.execution.UnknownToolExecutorException;
 import com.genericworkflownodes.knime.execution.impl.CancelMonitorThread;
+import com.genericworkflownodes.knime.nodes.flow.listzip.ListZipLoopStartNodeModel;
 import com.genericworkflownodes.knime.parameter.FileListParameter;
 import com.genericworkflownodes.knime.parameter.FileParameter;
 import com.genericworkflownodes.knime.parameter.IFileParameter;
@@ -95,6 +109,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
     static final String GENERIC_KNIME_NODES_OUT_ACTIVE = "GENERIC_KNIME_NODES_active#";
     static final String GENERIC_KNIME_NODES_OUT_LINKEDINPUT = "GENERIC_KNIME_NODES_linkedinput#";
     static final String GENERIC_KNIME_NODES_OUT_CUSTOMBASENAME = "GENERIC_KNIME_NODES_custombasename#";
+    static final String GENERIC_KNIME_NODES_IN_CHUNKED = "GENERIC_KNIME_NODES_inchunked#";
     
     private static final NodeLogger LOGGER = NodeLogger
             .getLogger(GenericKnimeNodeModel.class);
@@ -128,6 +143,12 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
      */
     protected String[] m_customBasenames; 
 
+    /**
+     * Contains information on which single file input ports may receive a
+     * chunk of files, for each of which the tool is executed once.
+     */
+    protected boolean[] m_chunkedInPorts;
+
     /**
      * stores the node configuration (i.e. parameters, ports, ..)
      */
@@ -153,6 +174,12 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
      */
     IToolExecutor m_executor;
 
+    /**
+     * The content store blobs the deduplicated outputs of the last execution
+     * are linked to.
+     */
+    private final List<Path> m_blobs = new ArrayList<Path>();
+
     /**
      * Constructor for the node model.
      * 
@@ -200,6 +227,19 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         for (int i = 0; i < m_activeOutPorts.length; i++){
             m_activeOutPorts[i] = m_nodeConfig.getOutputPorts().get(i).isActive();
         }
+        m_chunkedInPorts = new boolean[m_nodeConfig.getNumberOfInputPorts()];
+    }
+
+    /**
+     * Checks whether the given input port can process chunks, i.e., whether it
+     * is a single file port.
+     * 
+     * @param port
+     *            The input port.
+     * @return True if the port can be opted in to chunk processing.
+     */
+    public static boolean isChunkable(Port port) {
+        return !port.isMultiFile() && !port.isPrefix();
     }
 
     /**
@@ -340,6 +380,46 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
     @Override
     protected void reset() {
         super.reset();
+        // remove the blobs of the discarded outputs once their file stores
+        // are gone
+        FileStoreDeduplicator.release(m_blobs);
+        m_blobs.clear();
+        // catch blobs missed by the releases, throttled as it walks the whole
+        // store
+        FileStoreDeduplicator.collectGarbageIfDue();
+        compactNodeConfig();
+    }
+
+    /**
+     * Releases the parameter copies of a {@link NodeConfigurationOverlay}
+     * that do not differ from the shared template.
+     */
+    private void compactNodeConfig() {
+        if (m_nodeConfig instanceof NodeConfigurationOverlay) {
+            ((NodeConfigurationOverlay) m_nodeConfig).compact();
+        }
+    }
+
+    /**
+     * Returns the parameter for read-only access, without forcing a private
+     * copy if the node configuration is a {@link NodeConfigurationOverlay}.
+     * 
+     * @param key
+     *            The key of the parameter.
+     * @return The parameter.
+     */
+    private Parameter<?> peekParameter(final String key) {
+        return NodeConfigurationOverlay.peek(m_nodeConfig, key);
+    }
+
+    /**
+     * Checks whether the given settings value is the current value of the
+     * parameter, in which case the parameter needs no update.
+     */
+    private static boolean hasValue(final Parameter<?> param,
+            final String value) {
+        String rep = param.getStringRep();
+        return rep != null && rep.equals(value);
     }
 
     /**
@@ -348,7 +428,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) {
         for (String key : m_nodeConfig.getParameterKeys()) {
-            Parameter<?> param = m_nodeConfig.getParameter(key);
+            Parameter<?> param = peekParameter(key);
             // skip file parameters
             if (param instanceof IFileParameter) {
                 continue;
@@ -366,6 +446,10 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             settings.addString(GENERIC_KNIME_NODES_OUT_CUSTOMBASENAME
                             + i, m_customBasenames[i]);
         }
+        for (int i = 0; i < m_nodeConfig.getNumberOfInputPorts(); i++) {
+            settings.addBoolean(GENERIC_KNIME_NODES_IN_CHUNKED + i,
+                    m_chunkedInPorts[i]);
+        }
     }
 
     /**
@@ -378,10 +462,22 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         // - we transfer the values into the corresponding model objects
         for (String key : m_nodeConfig.getParameterKeys()) {
             // FileParameters are not set by the UI
-            if (m_nodeConfig.getParameter(key) instanceof IFileParameter)
+            if (peekParameter(key) instanceof IFileParameter)
                 continue;
 
             String value = settings.getString(key);
+            // only parameters that differ from the shared template need their
+            // own copy
+            if (m_nodeConfig instanceof NodeConfigurationOverlay) {
+                NodeConfigurationOverlay overlay = (NodeConfigurationOverlay) m_nodeConfig;
+                if (hasValue(overlay.getTemplate().getParameter(key), value)) {
+                    overlay.resetParameter(key);
+                    continue;
+                }
+                if (hasValue(overlay.peekParameter(key), value)) {
+                    continue;
+                }
+            }
             try {
                 m_nodeConfig.getParameter(key).fillFromString(value);
             } catch (InvalidParameterValueException e) {
@@ -464,6 +560,14 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             p.setLinkedPortIndex(m_linkedInPorts[i]);
             p.setUserBasename(m_customBasenames[i]);
         }
+
+        // older versions never process chunks
+        m_chunkedInPorts = new boolean[m_nodeConfig.getNumberOfInputPorts()];
+        for (int i = 0; i < m_chunkedInPorts.length; i++) {
+            m_chunkedInPorts[i] = settings.getBoolean(
+                    GENERIC_KNIME_NODES_IN_CHUNKED + i, false)
+                    && isChunkable(m_nodeConfig.getInputPorts().get(i));
+        }
     }
 
     /**
@@ -479,7 +583,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
 
         String errorsFound = "";
         for (String key : m_nodeConfig.getParameterKeys()) {
-            Parameter<?> param = m_nodeConfig.getParameter(key);
+            Parameter<?> param = peekParameter(key);
             // FileParameters are not set by the UI
             if (param instanceof IFileParameter) {
                 continue;
@@ -487,7 +591,10 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
 
             try {
                 String value = settings.getString(key);
-                param.fillFromString(value);
+                // the current value is known to be valid
+                if (!hasValue(param, value)) {
+                    m_nodeConfig.getParameter(key).fillFromString(value);
+                }
             } catch (InvalidParameterValueException e) {
                 errorsFound += "\t - Invalid value for parameter " + key + " in settings.xml.\n";
             } catch (InvalidSettingsException e) {
@@ -512,7 +619,8 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         // exception to tell the user that the executable is missing.
         checkIfToolExists();
 
-        for (Parameter<?> param : m_nodeConfig.getParameters()) {
+        for (String key : m_nodeConfig.getParameterKeys()) {
+            Parameter<?> param = peekParameter(key);
             if (!param.isOptional() && param.getValue() != null
                     && "".equals(param.getStringRep())
                     && !(param instanceof IFileParameter)) {
@@ -620,40 +728,405 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
     @Override
     protected PortObject[] execute(PortObject[] inObjects,
             ExecutionContext execContext) throws Exception {
-        // create job directory
-        File jobdir = Helper.getTempDir(m_nodeConfig.getName(),
-                !GenericNodesPlugin.isDebug());
+        try {
+            List<PortObject> outPorts;
+            int chunkLength = getChunkLength(inObjects);
+            if (chunkLength > 1) {
+                outPorts = executeChunk(inObjects, chunkLength, execContext);
+            } else {
+                // create job directory
+                File jobdir = Helper.getTempDir(m_nodeConfig.getName(),
+                        !GenericNodesPlugin.isDebug());
+
+                // transfer the incoming files into the nodeConfiguration
+                transferIncomingPorts2Config(inObjects);
+
+                // prepare input data and parameter values
+                outPorts = transferOutgoingPorts2Config(jobdir, inObjects,
+                        execContext);
+
+                // prepare the executor
+                m_executor = prepareExecutor(jobdir);
+
+                // launch executable
+                executeTool(m_executor, execContext);
+
+                // process result files
+                // PortObject[] outports = processOutput(outputFiles, exec);
 
-        // transfer the incoming files into the nodeConfiguration
-        transferIncomingPorts2Config(inObjects);
+                if (!GenericNodesPlugin.isDebug()) {
+                    FileUtils.deleteDirectory(jobdir);
+                }
+            }
+
+            PortObject[] outports = new PortObject[outPorts.size()];
+            for (int i = 0; i < outPorts.size(); ++i) {
+                outports[i] = outPorts.get(i);
+                // if we have an prefix port we need to trigger reindexing
+                if (outports[i] instanceof FileStorePrefixURIPortObject) {
+                    ((FileStorePrefixURIPortObject) outports[i]).collectFiles();
+                }
+                // replace outputs identical to already stored ones by links
+                FileStoreDeduplicator.deduplicate(outports[i], m_blobs);
+            }
+
+            return outports;
+        } finally {
+            // release the parameter copies only read while executing
+            compactNodeConfig();
+        }
+    }
+
+    /**
+     * Determines if this node is executed on a chunk, i.e., if the input ports
+     * opted in to chunk processing hold several files.
+     * 
+     * @param inData
+     *            The input data as {@link PortObject} array
+     * @return The number of chunk elements, 0 if the node is not executed on
+     *         a chunk.
+     * @throws InvalidSettingsException
+     *             If the chunked ports hold chunks of different sizes.
+     */
+    private int getChunkLength(PortObject[] inData)
+            throws InvalidSettingsException {
+        int chunkLength = 0;
+        for (int i = 0; i < inData.length; i++) {
+            if (inData[i] == null || !m_chunkedInPorts[i]) {
+                continue;
+            }
+            int numberOfURIs = CustomPortObjectUtils
+                    .getURIContentCount((IURIPortObject) inData[i]);
+            if (numberOfURIs <= 1) {
+                // a single file is used for all elements of the chunk
+                continue;
+            }
+            if (chunkLength != 0 && chunkLength != numberOfURIs) {
+                throw new InvalidSettingsException(
+                        "The chunked input ports received chunks of different sizes ("
+                                + chunkLength + " and " + numberOfURIs + ").");
+            }
+            chunkLength = numberOfURIs;
+        }
+        return chunkLength;
+    }
+
+    /**
+     * An output file of a chunk element, relative to the file store of its
+     * output port.
+     */
+    private static final class ChunkOutput {
+        private final int m_port;
+        private final String m_path;
+
+        private ChunkOutput(int port, String path) {
+            m_port = port;
+            m_path = path;
+        }
+    }
+
+    /**
+     * Executes the tool once for every element of a chunk, i.e., for every
+     * file at the input ports that opted in to chunk processing. All
+     * invocations are prepared sequentially and then run on a bounded number
+     * of threads, each in its own job directory. The outputs of the
+     * successful invocations are collected in chunk order in one port object
+     * per output port. The elements the tool failed for are left out and
+     * reported in the flow variable
+     * {@link ListZipLoopStartNodeModel#FAILED_ELEMENTS_VARIABLE}.
+     * 
+     * @param inData
+     *            The input data as {@link PortObject} array
+     * @param chunkLength
+     *            The number of elements in the chunk.
+     * @param exec
+     *            The {@link ExecutionContext} of the node.
+     * @return The output port objects.
+     * @throws Exception
+     *             If the tool failed for all of the elements.
+     */
+    private List<PortObject> executeChunk(PortObject[] inData,
+            int chunkLength, ExecutionContext exec) throws Exception {
+        final int nOut = m_nodeConfig.getOutputPorts().size();
+        List<PortObject> outPorts = new ArrayList<PortObject>(nOut);
+        File[] roots = new File[nOut];
+        for (int i = 0; i < nOut; i++) {
+            Port port = m_nodeConfig.getOutputPorts().get(i);
+            if (!port.isActive()) {
+                outPorts.add(InactiveBranchPortObject.INSTANCE);
+                continue;
+            }
+            if (port.isPrefix()) {
+                throw new InvalidSettingsException(
+                        "Prefix outputs cannot be combined over the elements of a chunk (port "
+                                + port.getName() + ").");
+            }
+            FileStore filestore = exec.createFileStore(m_nodeConfig.getName()
+                    + "_" + i);
+            roots[i] = filestore.getFile();
+            outPorts.add(new FileStoreURIPortObject(filestore));
+        }
 
-        // prepare input data and parameter values
-        List<PortObject> outPorts = transferOutgoingPorts2Config(jobdir,
-                inObjects, execContext);
+        List<File> jobdirs = new ArrayList<File>(chunkLength);
+        List<IToolExecutor> executors = new ArrayList<IToolExecutor>(
+                chunkLength);
+        List<String> elements = new ArrayList<String>(chunkLength);
+        // the files are registered once it is known which elements succeeded
+        List<List<ChunkOutput>> outputs = new ArrayList<List<ChunkOutput>>(
+                chunkLength);
+        for (int e = 0; e < chunkLength; ++e) {
+            transferIncomingPorts2Config(inData, e);
+            elements.add(describeChunkElement(inData, e));
+            List<ChunkOutput> elementOutputs = new ArrayList<ChunkOutput>();
+            outputs.add(elementOutputs);
+            int nrListPortsBefore = 0;
+            for (int i = 0; i < nOut; i++) {
+                if (roots[i] == null) {
+                    continue;
+                }
+                // every element writes into its own sub folder to avoid
+                // clashes of the inferred output names
+                String ext = getOutputType(i);
+                Parameter<?> p = m_nodeConfig.getParameter(m_nodeConfig
+                        .getOutputPorts().get(i).getName());
+                if (p instanceof FileListParameter) {
+                    List<String> filenames = new ArrayList<String>();
+                    for (String basename : getOutputBaseNameList(nrListPortsBefore)) {
+                        filenames.add(chunkFile(roots, i, e, basename + '.'
+                                + ext, elementOutputs));
+                    }
+                    ((FileListParameter) p).setValue(filenames);
+                    ++nrListPortsBefore;
+                } else {
+                    ((FileParameter) p).setValue(chunkFile(roots, i, e,
+                            getOutputBaseName(i) + '.' + ext, elementOutputs));
+                }
+            }
+            File jobdir = Helper.getTempDir(m_nodeConfig.getName(),
+                    !GenericNodesPlugin.isDebug());
+            jobdirs.add(jobdir);
+            // the executor captures the command line, so the configuration
+            // can be reused for the next element
+            executors.add(prepareExecutor(jobdir));
+        }
+        m_executor = executors.get(0);
 
-        // prepare the executor
-        m_executor = prepareExecutor(jobdir);
+        boolean[] failed;
+        try {
+            failed = executeTools(executors, elements, exec);
+        } finally {
+            if (!GenericNodesPlugin.isDebug()) {
+                for (File jobdir : jobdirs) {
+                    FileUtils.deleteDirectory(jobdir);
+                }
+            }
+        }
 
-        // launch executable
-        executeTool(m_executor, execContext);
+        List<Integer> failedElements = new ArrayList<Integer>();
+        for (int e = 0; e < chunkLength; ++e) {
+            if (failed[e]) {
+                failedElements.add(e);
+                // drop partial outputs of the failed element
+                for (File root : roots) {
+                    if (root != null) {
+                        FileUtils.deleteQuietly(new File(root, Integer
+                                .toString(e)));
+                    }
+                }
+                continue;
+            }
+            for (ChunkOutput output : outputs.get(e)) {
+                ((FileStoreURIPortObject) outPorts.get(output.m_port))
+                        .registerFile(output.m_path);
+            }
+        }
+        reportFailedElements(failedElements);
+        return outPorts;
+    }
 
-        // process result files
-        // PortObject[] outports = processOutput(outputFiles, exec);
+    /**
+     * Returns the absolute path of an output file of a chunk element and
+     * remembers it for registration.
+     */
+    private static String chunkFile(File[] roots, int port, int element,
+            String name, List<ChunkOutput> elementOutputs) {
+        String path = element + "/" + name;
+        File file = new File(roots[port], path);
+        file.getParentFile().mkdirs();
+        elementOutputs.add(new ChunkOutput(port, path));
+        return file.getAbsolutePath();
+    }
 
-        if (!GenericNodesPlugin.isDebug()) {
-            FileUtils.deleteDirectory(jobdir);
+    /**
+     * Adds the failed elements of this node to the ones failed upstream in the
+     * same ListZip loop iteration. Upstream failures are missing from the
+     * chunk this node received, so the elements of this node are mapped back
+     * to the elements handed out by the loop start.
+     * 
+     * @param failedElements
+     *            The failed elements of the chunk this node received.
+     */
+    private void reportFailedElements(List<Integer> failedElements) {
+        if (failedElements.isEmpty()) {
+            return;
+        }
+        SortedSet<Integer> failed = new TreeSet<Integer>();
+        if (getAvailableFlowVariables().containsKey(
+                ListZipLoopStartNodeModel.FAILED_ELEMENTS_VARIABLE)) {
+            failed.addAll(ListZipLoopStartNodeModel
+                    .parseIndices(peekFlowVariableString(ListZipLoopStartNodeModel.FAILED_ELEMENTS_VARIABLE)));
+        }
+        // the e-th received element is the e-th element not failed upstream
+        SortedSet<Integer> upstream = new TreeSet<Integer>(failed);
+        int received = 0;
+        int next = 0;
+        for (int element = 0; next < failedElements.size(); ++element) {
+            if (upstream.contains(element)) {
+                continue;
+            }
+            if (received == failedElements.get(next)) {
+                failed.add(element);
+                ++next;
+            }
+            ++received;
         }
+        pushFlowVariableString(
+                ListZipLoopStartNodeModel.FAILED_ELEMENTS_VARIABLE,
+                ListZipLoopStartNodeModel.formatIndices(failed));
+    }
 
-        PortObject[] outports = new PortObject[outPorts.size()];
-        for (int i = 0; i < outPorts.size(); ++i) {
-            outports[i] = outPorts.get(i);
-            // if we have an prefix port we need to trigger reindexing
-            if (outports[i] instanceof FileStorePrefixURIPortObject) {
-                ((FileStorePrefixURIPortObject) outports[i]).collectFiles();
+    /**
+     * Describes an element of a chunk by the names of its files at the chunked
+     * input ports, for error messages.
+     */
+    private String describeChunkElement(PortObject[] inData, int element) {
+        StringBuilder sb = new StringBuilder("element " + (element + 1));
+        String sep = " (";
+        for (int i = 0; i < inData.length; i++) {
+            if (inData[i] == null
+                    || !m_chunkedInPorts[i]
+                    || CustomPortObjectUtils
+                            .getURIContentCount((IURIPortObject) inData[i]) <= element) {
+                continue;
             }
+            URI uri = CustomPortObjectUtils.getURIContent(
+                    (IURIPortObject) inData[i], element).getURI();
+            sb.append(sep).append(FilenameUtils.getName(uri.getPath()));
+            sep = ", ";
         }
+        if (!" (".equals(sep)) {
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Runs the given executors on at most as many threads as there are
+     * processors (and KNIME threads). A failing invocation does not affect the
+     * others, the failures are reported per element once every invocation
+     * finished. The node only fails if every invocation failed.
+     * 
+     * @return Whether the invocation of each element failed.
+     */
+    private boolean[] executeTools(List<IToolExecutor> executors,
+            List<String> elements, final ExecutionContext execContext)
+            throws ExecutionFailedException, CanceledExecutionException {
+        setFailedExternalOutput(new LinkedList<String>());
+        setFailedExternalErrorOutput(new LinkedList<String>());
+        setExternalOutput(new LinkedList<String>());
+        setExternalErrorOutput(new LinkedList<String>());
+        notifyViews(null); //reset
+
+        int parallelism = Math.max(1, Math.min(executors.size(), Math.min(
+                Runtime.getRuntime().availableProcessors(),
+                KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads())));
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        try {
+            for (final IToolExecutor executor : executors) {
+                results.add(pool.submit(ThreadUtils.callableWithContext(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        // do not start pending elements after a cancel
+                        execContext.checkCanceled();
+                        AsynchronousToolExecutor asyncExecutor = new AsynchronousToolExecutor(
+                                executor);
+                        asyncExecutor.invoke();
+                        CancelMonitorThread monitorThread = new CancelMonitorThread(
+                                asyncExecutor, execContext);
+                        monitorThread.start();
+                        asyncExecutor.waitUntilFinished();
+                        monitorThread.waitUntilFinished();
+                        return asyncExecutor.getReturnCode();
+                    }
+                })));
+            }
+
+            LinkedList<String> stdout = new LinkedList<String>();
+            LinkedList<String> stderr = new LinkedList<String>();
+            List<String> failures = new ArrayList<String>();
+            boolean[] failed = new boolean[executors.size()];
+            for (int e = 0; e < executors.size(); ++e) {
+                IToolExecutor executor = executors.get(e);
+                String element = elements.get(e);
+                String failure = null;
+                try {
+                    int retcode = results.get(e).get();
+                    if (retcode != 0) {
+                        failure = element + ": return code " + retcode;
+                    }
+                } catch (ExecutionException ex) {
+                    failure = element + ": " + ex.getCause();
+                    LOGGER.debug("Execution of " + element + " failed.",
+                            ex.getCause());
+                } catch (InterruptedException iex) {
+                    Thread.currentThread().interrupt();
+                    throw new ExecutionFailedException(m_nodeConfig.getName(),
+                            iex);
+                }
+                LOGGER.debug("COMMAND (" + element + "):  "
+                        + executor.getCommand());
 
-        return outports;
+                stdout.add("### " + element);
+                stderr.add("### " + element);
+                if (executor.getToolOutput() != null) {
+                    stdout.addAll(executor.getToolOutput());
+                }
+                if (executor.getToolErrorOutput() != null) {
+                    stderr.addAll(executor.getToolErrorOutput());
+                }
+                if (failure != null) {
+                    LOGGER.error("Execution of " + failure + "\nstderr: "
+                            + executor.getToolErrorOutput());
+                    failures.add(failure);
+                    failed[e] = true;
+                }
+            }
+            execContext.checkCanceled();
+
+            if (!failures.isEmpty()) {
+                StringBuilder message = new StringBuilder();
+                message.append(failures.size()).append(" of ")
+                        .append(executors.size())
+                        .append(" chunk elements failed");
+                for (String failure : failures) {
+                    message.append("\n - ").append(failure);
+                }
+                if (failures.size() == executors.size()) {
+                    setFailedExternalOutput(stdout);
+                    setFailedExternalErrorOutput(stderr);
+                    throw new ExecutionFailedException(m_nodeConfig.getName()
+                            + ": " + message);
+                }
+                // the outputs of the other elements are kept
+                setWarningMessage(message.toString());
+            }
+            setExternalOutput(stdout);
+            setExternalErrorOutput(stderr);
+            return failed;
+        } finally {
+            pool.shutdownNow();
+        }
     }
 
     /**
@@ -809,7 +1282,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         for (int i = 0; i < m_nodeConfig.getInputPorts().size(); ++i) {
             Port port = m_nodeConfig.getInputPorts().get(i);
             String name = port.getName();
-            Parameter<?> p = m_nodeConfig.getParameter(name);
+            Parameter<?> p = peekParameter(name);
 
             // we don't assume that optional ports are naming relevant
             if (p.isOptional()) {
@@ -844,7 +1317,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             // without ports, the names are set in transferOutgoingPorts2Config
             Port port = m_nodeConfig.getInputPorts().get(naming_port);
             String name = port.getName();
-            Parameter<?> p = m_nodeConfig.getParameter(name);
+            Parameter<?> p = peekParameter(name);
 
             if (p instanceof FileListParameter) {
                 // we have multiple base names
@@ -883,7 +1356,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         if (m_linkedInPorts[outputIndex] != 0)
         {
             Port linked = m_nodeConfig.getInputPorts().get(m_linkedInPorts[outputIndex]-1);
-            Object portVal = m_nodeConfig.getParameter(linked.getName()).getValue();
+            Object portVal = peekParameter(linked.getName()).getValue();
             if (portVal != null)
             {
                 if (!linked.isMultiFile())
@@ -908,18 +1381,18 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             // look for first connected! non multifile inport (transforming type of nodes)
             for (Port p : m_nodeConfig.getInputPorts())
             {
-                if (!p.isMultiFile() && m_nodeConfig.getParameter(p.getName()).getValue() != null)
+                if (!p.isMultiFile() && peekParameter(p.getName()).getValue() != null)
                 {
-                    return FilenameUtils.getBaseName((String) m_nodeConfig.getParameter(p.getName()).getValue());
+                    return FilenameUtils.getBaseName((String) peekParameter(p.getName()).getValue());
                             //+ "_out" + outputIndex + iterationSuffix;
                 }
             }
             // else take first element of first connected! multifile inport (merging type nodes)
             for (Port p : m_nodeConfig.getInputPorts())
             {
-                if (p.isMultiFile() && m_nodeConfig.getParameter(p.getName()).getValue() != null)
+                if (p.isMultiFile() && peekParameter(p.getName()).getValue() != null)
                 {
-                    return FilenameUtils.getBaseName(((List<String>) m_nodeConfig.getParameter(p.getName()).getValue()).get(0));
+                    return FilenameUtils.getBaseName(((List<String>) peekParameter(p.getName()).getValue()).get(0));
                             //+ "_out" + outputIndex + iterationSuffix;
                 }
             }
@@ -951,7 +1424,7 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
         if (m_linkedInPorts[outputIndex] != 0)
         {
             Port linked = m_nodeConfig.getInputPorts().get(m_linkedInPorts[outputIndex]-1);
-            Object portVal = m_nodeConfig.getParameter(linked.getName()).getValue();
+            Object portVal = peekParameter(linked.getName()).getValue();
             if (portVal != null)
             {
                 if (linked.isMultiFile())
@@ -981,9 +1454,9 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             // look for first connected! multifile inport
             for (Port p : m_nodeConfig.getInputPorts())
             {
-                if (p.isMultiFile() && m_nodeConfig.getParameter(p.getName()).getValue() != null)
+                if (p.isMultiFile() && peekParameter(p.getName()).getValue() != null)
                 {
-                    List<String> inputnames = (List<String>) m_nodeConfig.getParameter(p.getName()).getValue();
+                    List<String> inputnames = (List<String>) peekParameter(p.getName()).getValue();
                     List<String> basenames = new ArrayList<String>();
                     for (String inputname : inputnames)
                     {
@@ -1008,6 +1481,23 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
      */
     private void transferIncomingPorts2Config(PortObject[] inData)
             throws Exception {
+        transferIncomingPorts2Config(inData, -1);
+    }
+
+    /**
+     * Transfers the incoming ports into the config. If an element of a chunk
+     * is given, chunked ports holding several files pass the file of this
+     * element to the tool.
+     * 
+     * @param inData
+     *            The incoming port objects.
+     * @param chunkElement
+     *            The element of the chunk to transfer, -1 if the node is not
+     *            executed on a chunk.
+     * @throws Exception
+     */
+    private void transferIncomingPorts2Config(PortObject[] inData,
+            int chunkElement) throws Exception {
         // Transfer settings from the input ports into the configuration object
         for (int i = 0; i < inData.length; i++) {
             // find the internal port for this PortObject
@@ -1030,10 +1520,12 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             }
             
             // connected: check contents
-            List<URIContent> uris = po.getURIContents();
+            int numberOfURIs = CustomPortObjectUtils.getURIContentCount(po);
 
+            boolean isChunk = chunkElement >= 0 && m_chunkedInPorts[i]
+                    && numberOfURIs > 1;
             // check validity of subtypes with actual inputs
-            if (uris.size() > 1 && (!isMultiFile && !isPrefix)) {
+            if (numberOfURIs > 1 && (!isMultiFile && !isPrefix) && !isChunk) {
                 throw new Exception(
                         "IURIPortObject with list of multiple URIs supplied at single URI port #"
                                 + i + ". Use Loops/FileSplitter to branch/iterate or somehow merge the files.");
@@ -1054,8 +1546,9 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
             } else if (isMultiFile) {
                 // we need to collect all filenames and then set them as a batch
                 // in the config
-                List<String> filenames = new ArrayList<String>();
-                for (URIContent uric : uris) {
+                List<String> filenames = new ArrayList<String>(numberOfURIs);
+                for (URIContent uric : CustomPortObjectUtils
+                        .iterateURIContents(po)) {
                     URI uri = uric.getURI();
                     // Resolve the URI to a local path before adding it
                     File localFile = FileUtil.getFileFromURL(uri.toURL());
@@ -1066,8 +1559,9 @@ public abstract class GenericKnimeNodeModel extends ExtToolOutputNodeModel {
                 }
                 ((FileListParameter) p).setValue(filenames);
             } else {
-                // just one filename
-                URI uri = uris.get(0).getURI();
+                // just one filename (or the one of the current chunk element)
+                int index = isChunk ? chunkElement : 0;
+                URI uri = CustomPortObjectUtils.getURIContent(po, index).getURI();
                 String filename = FileUtil.getFileFromURL(uri.toURL()).getAbsolutePath();
                 ((FileParameter) p).setValue(filename);
             }
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.generic_node.dialogs.chunk_dialog;
+
+import java.awt.BorderLayout;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.util.List;
+
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.generic_node.GenericKnimeNodeModel;
+import com.genericworkflownodes.knime.port.Port;
+
+/**
+ * Lets the user choose the single file input ports that may receive a chunk
+ * of files (e.g., from a ListZip loop handing out several files per
+ * iteration). The tool is then executed once for every file of the chunk.
+ */
+public class ChunkedInputsDialog extends JPanel {
+    private static final long serialVersionUID = 5046284170379523870L;
+
+    private final JCheckBox[] chbs;
+
+    public ChunkedInputsDialog(INodeConfiguration config) {
+        List<Port> ports = config.getInputPorts();
+        chbs = new JCheckBox[ports.size()];
+
+        setLayout(new BorderLayout());
+        JPanel portPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints c = new GridBagConstraints();
+        c.anchor = GridBagConstraints.WEST;
+        c.gridy = 0;
+        c.gridwidth = 2;
+        portPanel.add(new JLabel(
+                "Execute the tool once per file for the selected inputs:"), c);
+        c.gridwidth = 1;
+        for (int i = 0; i < ports.size(); i++) {
+            Port port = ports.get(i);
+            chbs[i] = new JCheckBox();
+            chbs[i].setEnabled(GenericKnimeNodeModel.isChunkable(port));
+            c.gridy = i + 1;
+            c.gridx = 0;
+            c.weightx = 0.07;
+            portPanel.add(chbs[i], c);
+            c.gridx = 1;
+            c.weightx = 0.93;
+            portPanel.add(new JLabel(port.getName()), c);
+        }
+        // To align to the top of the outer BorderLayout
+        add(portPanel, BorderLayout.NORTH);
+    }
+
+    /**
+     * @return For every input port, whether it processes chunks.
+     */
+    public boolean[] getChunkedPorts() {
+        boolean[] chunked = new boolean[chbs.length];
+        for (int i = 0; i < chbs.length; i++) {
+            chunked[i] = chbs[i].isEnabled() && chbs[i].isSelected();
+        }
+        return chunked;
+    }
+
+    public void setChunkedPorts(boolean[] chunked) {
+        for (int i = 0; i < chbs.length; i++) {
+            chbs[i].setSelected(chunked[i]);
+        }
+    }
+}
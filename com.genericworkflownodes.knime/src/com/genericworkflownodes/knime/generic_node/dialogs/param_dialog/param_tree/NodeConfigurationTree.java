@@ -19,12 +19,12 @@
 
 package com.genericworkflownodes.knime.generic_node.dialogs.param_dialog.param_tree;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.genericworkflownodes.knime.config.INodeConfiguration;
+import com.genericworkflownodes.knime.config.ParameterIndex;
 import com.genericworkflownodes.knime.parameter.IFileParameter;
 import com.genericworkflownodes.knime.parameter.Parameter;
 
@@ -86,30 +86,6 @@ public class NodeConfigurationTree {
         return root;
     }
 
-    /**
-     * Constructs a list of prefixes from a given string.
-     * 
-     * @param key
-     *            The string to process.
-     * @return
-     */
-    private static List<String> getPrefixes(String key) {
-        List<String> ret = new ArrayList<String>();
-        String[] toks = key.split("\\.");
-        StringBuilder pref = new StringBuilder("");
-        int currentToken = 0;
-        for (String tok : toks) {
-            // skip the "1" node in OpenMS/CADDSuite
-            if (currentToken == 1 && "1".equals(tok))
-                continue;
-            pref.append(tok);
-            ret.add(pref.toString());
-            pref.append(".");
-            ++currentToken;
-        }
-        return ret;
-    }
-
     /**
      * Given a "." separated string the method will returns the last part
      * separated by ".". E.g., foo.bar => bar.
@@ -123,28 +99,19 @@ public class NodeConfigurationTree {
         return toks[toks.length - 1];
     }
 
-    /**
-     * Given a parameter key the method extracts the section of the key.
-     * 
-     * @param key
-     *            The parameter key from which the section should be extracted.
-     * @return The section.
-     */
-    private String getSection(String key) {
-        return key.substring(0, key.lastIndexOf('.'));
-    }
-
     /**
      * Creates the parameter tree starting from the root.
      */
     public void update() {
-        Map<String, ParameterNode> key2node = new HashMap<String, ParameterNode>();
+        Map<ParameterIndex.Section, ParameterNode> section2node = new HashMap<ParameterIndex.Section, ParameterNode>();
 
         // reset the root node for update
         root.clear();
 
-        for (String key : config.getParameterKeys()) {
-            Parameter<?> p = config.getParameter(key);
+        ParameterIndex index = config.getParameterIndex();
+        List<String> keys = index.getKeys();
+        for (int i = 0; i < keys.size(); ++i) {
+            Parameter<?> p = config.getParameter(keys.get(i));
 
             if (p.isAdvanced() && !showAdvanced)
                 continue;
@@ -153,28 +120,24 @@ public class NodeConfigurationTree {
             if (p instanceof IFileParameter)
                 continue;
 
-            List<String> prefixes = getPrefixes(key);
-
-            // OpenMS/CADDSuite workaround for leading/second '1' NODE
-            if (prefixes.size() > 0 && prefixes.get(0).equals("1")) {
-                prefixes.remove(0);
-            }
-
+            ParameterIndex.Section section = index.getSection(i);
             ParameterNode last = root;
 
-            for (int i = 0; i < prefixes.size() - 1; i++) {
-                String prefix = prefixes.get(i);
+            for (int d = 1; d <= section.getDepth(); d++) {
+                ParameterIndex.Section s = section.getAncestor(d);
+
+                // OpenMS/CADDSuite workaround for leading/second '1' NODE
+                if (d <= 2 && "1".equals(s.getName()))
+                    continue;
 
-                if (!key2node.containsKey(prefix)) {
-                    ParameterNode nn = new ParameterNode(last, null,
-                            getSuffix(prefix),
-                            config.getSectionDescription(getSection(key)));
+                ParameterNode nn = section2node.get(s);
+                if (nn == null) {
+                    nn = new ParameterNode(last, null, s.getName(),
+                            config.getSectionDescription(section.getPath()));
                     last.addChild(nn);
-                    last = nn;
-                    key2node.put(prefix, last);
-                } else {
-                    last = key2node.get(prefix);
+                    section2node.put(s, nn);
                 }
+                last = nn;
             }
 
             ParameterNode n = new ParameterNode(last, p, p.getKey(),
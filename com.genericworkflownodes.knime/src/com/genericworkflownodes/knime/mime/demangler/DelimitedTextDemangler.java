@@ -0,0 +1,417 @@
+/**
+ * Copyright (c) by GKN team
+ *
+ * This file is part of GenericKnimeNodes.
+ *
+ * GenericKnimeNodes is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.genericworkflownodes.knime.mime.demangler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.BooleanValue;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.uri.URIPortObjectSpec;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.RowInput;
+
+import com.genericworkflownodes.util.DelimitedLineReader;
+
+/**
+ * Reference {@link IDemangler} for delimited text files like TSV or CSV with a
+ * fixed column layout given by {@link #createTableSpec()}. Files are split
+ * into line-aligned ranges which are parsed independently, rows are written
+ * and read through reusable buffers.
+ */
+public abstract class DelimitedTextDemangler implements IDemangler {
+
+    private static final long serialVersionUID = -6404858279414376297L;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int KIND_STRING = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_LONG = 2;
+    private static final int KIND_DOUBLE = 3;
+    private static final int KIND_BOOLEAN = 4;
+
+    private final String m_mimeType;
+
+    private final char m_delimiter;
+
+    private final boolean m_hasHeader;
+
+    private transient DataTableSpec m_spec;
+
+    /**
+     * Constructor.
+     * 
+     * @param mimeType
+     *            The handled mime type, e.g., "tsv".
+     * @param delimiter
+     *            The field delimiter.
+     * @param hasHeader
+     *            Whether files start with a line of column names.
+     */
+    protected DelimitedTextDemangler(final String mimeType,
+            final char delimiter, final boolean hasHeader) {
+        m_mimeType = mimeType;
+        m_delimiter = delimiter;
+        m_hasHeader = hasHeader;
+    }
+
+    /**
+     * Creates the spec of the demangled tables. Int, long, double and boolean
+     * columns are parsed accordingly, all other columns are read as strings.
+     * 
+     * @return The {@link DataTableSpec} of the demangled tables.
+     */
+    protected abstract DataTableSpec createTableSpec();
+
+    @Override
+    public String getMIMEType() {
+        return m_mimeType;
+    }
+
+    @Override
+    public DataTableSpec getTableSpec() {
+        if (m_spec == null) {
+            m_spec = createTableSpec();
+        }
+        return m_spec;
+    }
+
+    @Override
+    public PortObjectSpec getPortOjectSpec() {
+        return new URIPortObjectSpec(m_mimeType);
+    }
+
+    @Override
+    public Iterator<DataRow> demangle(final URI file)
+            throws DemanglerException {
+        return demangle(file, 1).get(0);
+    }
+
+    @Override
+    public boolean isSplittable() {
+        return true;
+    }
+
+    @Override
+    public List<Iterator<DataRow>> demangle(final URI file, final int parts)
+            throws DemanglerException {
+        Path path = Paths.get(file);
+        long[] ranges;
+        try {
+            ranges = DelimitedLineReader.getRanges(path, Math.max(1, parts),
+                    m_hasHeader);
+        } catch (IOException e) {
+            throw new DemanglerException("Could not read " + file, e);
+        }
+
+        int[] kinds = getKinds(getTableSpec());
+        List<Iterator<DataRow>> readers = new ArrayList<Iterator<DataRow>>();
+        for (int i = 0; i + 1 < ranges.length; ++i) {
+            if (ranges[i] < ranges[i + 1]) {
+                readers.add(new RangeIterator(path, ranges[i], ranges[i + 1],
+                        (byte) m_delimiter, kinds));
+            }
+        }
+        if (readers.isEmpty()) {
+            long end = ranges[ranges.length - 1];
+            readers.add(new RangeIterator(path, end, end, (byte) m_delimiter,
+                    kinds));
+        }
+        return readers;
+    }
+
+    @Override
+    public void mangle(final BufferedDataTable table, final URI file)
+            throws DemanglerException {
+        try {
+            Writer writer = open(file);
+            try {
+                RowWriter rowWriter = new RowWriter(writer);
+                for (DataRow row : table) {
+                    rowWriter.write(row);
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new DemanglerException("Could not write " + file, e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    @Override
+    public void mangle(final RowInput input, final URI file)
+            throws DemanglerException, InterruptedException {
+        try {
+            Writer writer = open(file);
+            try {
+                RowWriter rowWriter = new RowWriter(writer);
+                DataRow row;
+                while ((row = input.poll()) != null) {
+                    rowWriter.write(row);
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new DemanglerException("Could not write " + file, e);
+        }
+    }
+
+    private Writer open(final URI file) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(file)), UTF8), 64 * 1024);
+        if (m_hasHeader) {
+            DataTableSpec spec = getTableSpec();
+            StringBuilder header = new StringBuilder();
+            for (int i = 0; i < spec.getNumColumns(); ++i) {
+                if (i > 0) {
+                    header.append(m_delimiter);
+                }
+                appendField(header, spec.getColumnSpec(i).getName());
+            }
+            header.append('\n');
+            writer.write(header.toString());
+        }
+        return writer;
+    }
+
+    private static int[] getKinds(final DataTableSpec spec) {
+        int[] kinds = new int[spec.getNumColumns()];
+        for (int i = 0; i < kinds.length; ++i) {
+            DataType type = spec.getColumnSpec(i).getType();
+            if (type.equals(IntCell.TYPE)) {
+                kinds[i] = KIND_INT;
+            } else if (type.equals(LongCell.TYPE)) {
+                kinds[i] = KIND_LONG;
+            } else if (type.equals(DoubleCell.TYPE)) {
+                kinds[i] = KIND_DOUBLE;
+            } else if (type.equals(BooleanCell.TYPE)) {
+                kinds[i] = KIND_BOOLEAN;
+            } else {
+                kinds[i] = KIND_STRING;
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * Appends the given value, quoted if it contains the delimiter, quotes or
+     * line breaks.
+     */
+    private void appendField(final StringBuilder builder, final String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; ++i) {
+            char c = value.charAt(i);
+            quote = c == m_delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            builder.append(value);
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                builder.append('"');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+    /**
+     * Writes rows as lines through a reused line buffer.
+     */
+    private final class RowWriter {
+
+        private final Writer m_writer;
+
+        private final StringBuilder m_line = new StringBuilder(256);
+
+        private char[] m_chars = new char[256];
+
+        private RowWriter(final Writer writer) {
+            m_writer = writer;
+        }
+
+        private void write(final DataRow row) throws IOException {
+            m_line.setLength(0);
+            for (int i = 0; i < row.getNumCells(); ++i) {
+                if (i > 0) {
+                    m_line.append(m_delimiter);
+                }
+                DataCell cell = row.getCell(i);
+                if (cell.isMissing()) {
+                    continue;
+                }
+                // boolean cells are int values as well, so test them first
+                if (cell instanceof BooleanValue) {
+                    m_line.append(((BooleanValue) cell).getBooleanValue());
+                } else if (cell instanceof IntValue) {
+                    m_line.append(((IntValue) cell).getIntValue());
+                } else if (cell instanceof LongValue) {
+                    m_line.append(((LongValue) cell).getLongValue());
+                } else if (cell instanceof DoubleValue) {
+                    m_line.append(((DoubleValue) cell).getDoubleValue());
+                } else {
+                    appendField(m_line, cell.toString());
+                }
+            }
+            m_line.append('\n');
+
+            int length = m_line.length();
+            if (m_chars.length < length) {
+                m_chars = new char[Math.max(length, 2 * m_chars.length)];
+            }
+            m_line.getChars(0, length, m_chars, 0);
+            m_writer.write(m_chars, 0, length);
+        }
+    }
+
+    /**
+     * Parses the lines of one range into rows, reusing the cell buffer.
+     */
+    private static final class RangeIterator implements Iterator<DataRow> {
+
+        private final DelimitedLineReader m_reader;
+
+        private final int[] m_kinds;
+
+        private final DataCell[] m_cells;
+
+        private long m_rowIndex;
+
+        private boolean m_hasNext;
+
+        private boolean m_closed;
+
+        private RangeIterator(final Path file, final long start,
+                final long end, final byte delimiter, final int[] kinds)
+                throws DemanglerException {
+            try {
+                m_reader = new DelimitedLineReader(file, start, end, delimiter);
+            } catch (IOException e) {
+                throw new DemanglerException("Could not read " + file, e);
+            }
+            m_kinds = kinds;
+            m_cells = new DataCell[kinds.length];
+            advance();
+        }
+
+        private void advance() {
+            try {
+                m_hasNext = m_reader.next();
+                if (!m_hasNext && !m_closed) {
+                    m_closed = true;
+                    m_reader.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_hasNext;
+        }
+
+        @Override
+        public DataRow next() {
+            if (!m_hasNext) {
+                throw new NoSuchElementException();
+            }
+            int fields = m_reader.getFieldCount();
+            for (int i = 0; i < m_cells.length; ++i) {
+                if (i >= fields || m_reader.isEmpty(i)) {
+                    m_cells[i] = DataType.getMissingCell();
+                    continue;
+                }
+                switch (m_kinds[i]) {
+                case KIND_INT:
+                    m_cells[i] = new IntCell(getInt(i));
+                    break;
+                case KIND_LONG:
+                    m_cells[i] = new LongCell(m_reader.getLong(i));
+                    break;
+                case KIND_DOUBLE:
+                    m_cells[i] = new DoubleCell(m_reader.getDouble(i));
+                    break;
+                case KIND_BOOLEAN:
+                    m_cells[i] = BooleanCell.get(Boolean.parseBoolean(m_reader
+                            .getString(i)));
+                    break;
+                default:
+                    m_cells[i] = new StringCell(m_reader.getString(i));
+                }
+            }
+            // DefaultRow copies the cell array
+            DataRow row = new DefaultRow(RowKey.createRowKey(m_rowIndex++),
+                    m_cells);
+            advance();
+            return row;
+        }
+
+        private int getInt(final int field) {
+            long value = m_reader.getLong(field);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Value "
+                        + m_reader.getString(field) + " of column " + field
+                        + " is out of the integer range.");
+            }
+            return (int) value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -20,12 +20,15 @@ package com.genericworkflownodes.knime.mime.demangler;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.RowInput;
 
 /**
  * Defines a {@link IDemangler} which converts a specified {@link MIMEType} into
@@ -70,6 +73,35 @@ public interface IDemangler extends Serializable {
      */
     Iterator<DataRow> demangle(URI file) throws DemanglerException;
 
+    /**
+     * Returns whether this {@link IDemangler} can split files into ranges
+     * that can be demangled independently, i.e., whether
+     * {@link #demangle(URI, int)} returns more than one reader.
+     * 
+     * @return <code>true</code> if files can be demangled in parallel.
+     */
+    default boolean isSplittable() {
+        return false;
+    }
+
+    /**
+     * Demangles the given file by independent readers of consecutive byte
+     * ranges of the file aligned to record boundaries. The readers may be
+     * consumed concurrently, concatenated in order their rows equal the rows
+     * returned by {@link #demangle(URI)}. The row keys need not be unique
+     * across the readers, callers assign new keys when concatenating them.
+     * 
+     * @param file
+     *            The file to demangle.
+     * @param parts
+     *            The desired number of readers.
+     * @return At most parts {@link Iterator}s to the rows of the ranges.
+     */
+    default List<Iterator<DataRow>> demangle(URI file, int parts)
+            throws DemanglerException {
+        return Collections.singletonList(demangle(file));
+    }
+
     /**
      * Writes the content of the table to the given file.
      * 
@@ -80,4 +112,33 @@ public interface IDemangler extends Serializable {
      *            The file where the content of the table should be stored.
      */
     void mangle(BufferedDataTable table, URI file) throws DemanglerException;
+
+    /**
+     * Returns whether this {@link IDemangler} can write rows while they
+     * arrive, i.e., implements {@link #mangle(RowInput, URI)}.
+     * 
+     * @return <code>true</code> if streaming is supported.
+     */
+    default boolean supportsStreaming() {
+        return false;
+    }
+
+    /**
+     * Writes the rows of the given input to the given file while they arrive,
+     * without the table being materialized. Implementations overriding this
+     * method must also override {@link #supportsStreaming()}.
+     * 
+     * @param input
+     *            The rows which should be translated to a file. The input is
+     *            not closed by this method.
+     * @param file
+     *            The file where the rows should be stored.
+     * @throws InterruptedException
+     *             If the thread was interrupted while waiting for rows.
+     */
+    default void mangle(RowInput input, URI file) throws DemanglerException,
+            InterruptedException {
+        throw new DemanglerException(getClass().getName()
+                + " does not support streaming.");
+    }
 }
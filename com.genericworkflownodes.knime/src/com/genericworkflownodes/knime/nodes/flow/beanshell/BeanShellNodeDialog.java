@@ -25,6 +25,8 @@ import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.NotConfigurableException;
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 
 /**
  * <code>NodeDialog</code> for the "Demangler" Node.
@@ -45,6 +47,12 @@ public class BeanShellNodeDialog extends DefaultNodeSettingsPane {
      */
     protected BeanShellNodeDialog(Object obj) {
         super();
+        DialogComponentBoolean parallel = new DialogComponentBoolean(
+                new SettingsModelBoolean("parallel", false),
+                "Run the second pass in parallel (workers do not share variables)");
+        parallel.setToolTipText("Every worker changes its own copy of the variables, "
+                + "so totals or other state kept over the rows in the second pass differ from a sequential run.");
+        addDialogComponent(parallel);
         editor = new EditorPanel();
         addTab("Java Snippet", editor);
     }
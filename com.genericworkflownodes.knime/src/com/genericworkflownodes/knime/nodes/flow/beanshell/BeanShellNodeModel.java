@@ -19,11 +19,31 @@
 
 package com.genericworkflownodes.knime.nodes.flow.beanshell;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
@@ -43,12 +63,16 @@ import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettings;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 
+import bsh.EvalError;
 import bsh.Interpreter;
+import bsh.Primitive;
+import bsh.This;
 
 /**
  * This is the model implementation of DemanglerNodeModel.
@@ -58,6 +82,9 @@ import bsh.Interpreter;
  */
 public class BeanShellNodeModel extends NodeModel {
 
+    private static final NodeLogger LOGGER = NodeLogger
+            .getLogger(BeanShellNodeModel.class);
+
     /**
      * Constructor for the node model.
      */
@@ -65,88 +92,486 @@ public class BeanShellNodeModel extends NodeModel {
         super(1, 1);
     }
 
+    /**
+     * Number of rows handed to a worker at once in parallel mode.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
     /**
      * {@inheritDoc}
      */
     @Override
     protected BufferedDataTable[] execute(final BufferedDataTable[] inData,
             final ExecutionContext exec) throws Exception {
-        BufferedDataContainer container1 = null;
+        ScriptInterpreter master = new ScriptInterpreter(script_init,
+                script_firstPass, script_secondPass);
+
+        if (master.hasFirstPass()) {
+            exec.setMessage("First pass");
+            CloseableRowIterator iter = inData[0].iterator();
+            try {
+                while (iter.hasNext()) {
+                    master.firstPass(iter.next());
+                }
+            } finally {
+                iter.close();
+            }
+            exec.checkCanceled();
+        }
 
-        Interpreter ip = new Interpreter();
-        ip.eval(script_init);
+        exec.setMessage("Second pass");
+        List<ScriptInterpreter> interpreters = null;
+        if (parallel && inData[0].size() > BLOCK_SIZE) {
+            interpreters = createInterpreters(master, Runtime.getRuntime()
+                    .availableProcessors());
+        }
+        OutputWriter writer = new OutputWriter(exec);
+        State state = null;
+        if (interpreters != null && interpreters.size() > 1) {
+            state = interpreters.get(1).getInitialState();
+        }
+        if (state == null) {
+            CloseableRowIterator iter = inData[0].iterator();
+            try {
+                while (iter.hasNext()) {
+                    OutRow out = master.secondPass(iter.next());
+                    if (!out.isNull()) {
+                        writer.add(out);
+                    }
+                }
+            } finally {
+                iter.close();
+            }
+        } else {
+            executeParallel(inData[0], interpreters, writer);
+            warnAboutChangedVariables(interpreters, state);
+        }
+
+        return new BufferedDataTable[] { writer.close() };
+    }
 
-        CloseableRowIterator iter = null;
+    /**
+     * Warns if the second pass changed variables of the init script or the
+     * first pass, e.g., totals over the rows. Every worker changed its own
+     * copy, so the results may differ from a sequential run.
+     */
+    private void warnAboutChangedVariables(
+            final List<ScriptInterpreter> interpreters, final State state)
+            throws EvalError {
+        Set<String> changed = new TreeSet<String>();
+        for (ScriptInterpreter ip : interpreters) {
+            changed.addAll(ip.getChangedVariables(state));
+        }
+        if (!changed.isEmpty()) {
+            setWarningMessage("The second pass changed the variables "
+                    + changed
+                    + ", which are not shared between the parallel workers."
+                    + " Disable the parallel mode if the results depend on them.");
+        }
+    }
+
+    /**
+     * Creates the interpreters for the parallel second pass: the master and
+     * one worker per additional thread. Every worker ran the init script and
+     * holds a deep copy of the variables left by the master's first pass.
+     * 
+     * @return The interpreters or <code>null</code> if the variables cannot
+     *         be copied and the second pass has to run sequentially.
+     */
+    private List<ScriptInterpreter> createInterpreters(
+            final ScriptInterpreter master, final int threads)
+            throws EvalError {
+        List<ScriptInterpreter> interpreters = new ArrayList<ScriptInterpreter>(
+                threads);
+        interpreters.add(master);
+        if (threads <= 1) {
+            return interpreters;
+        }
+        State state = master.saveState();
+        if (state == null) {
+            return null;
+        }
+        try {
+            for (int i = 1; i < threads; i++) {
+                ScriptInterpreter worker = new ScriptInterpreter(script_init,
+                        script_firstPass, script_secondPass);
+                worker.restoreState(state);
+                interpreters.add(worker);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not copy the script variables, running the second pass sequentially.", e);
+            return null;
+        } catch (ClassNotFoundException e) {
+            LOGGER.warn("Could not copy the script variables, running the second pass sequentially.", e);
+            return null;
+        }
+        return interpreters;
+    }
 
-        if (!script_firstPass.equals("")) {
-            iter = inData[0].iterator();
+    /**
+     * Runs the second pass on blocks of rows in parallel, one thread per
+     * interpreter. The blocks are written in their original order.
+     */
+    private void executeParallel(final BufferedDataTable table,
+            final List<ScriptInterpreter> workers, final OutputWriter writer)
+            throws Exception {
+        final int threads = workers.size();
+        final BlockingQueue<ScriptInterpreter> interpreters = new ArrayBlockingQueue<ScriptInterpreter>(
+                threads, false, workers);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<Block>> pending = new ArrayDeque<Future<Block>>();
+        CloseableRowIterator iter = table.iterator();
+        try {
+            List<DataRow> rows = new ArrayList<DataRow>(BLOCK_SIZE);
             while (iter.hasNext()) {
-                ip.set("INROW", fillInRow(iter.next()));
-                ip.eval(script_firstPass);
+                rows.add(iter.next());
+                if (rows.size() == BLOCK_SIZE || !iter.hasNext()) {
+                    final List<DataRow> block = rows;
+                    pending.add(pool.submit(new Callable<Block>() {
+                        @Override
+                        public Block call() throws Exception {
+                            ScriptInterpreter ip = interpreters.take();
+                            try {
+                                return ip.secondPass(block);
+                            } finally {
+                                interpreters.put(ip);
+                            }
+                        }
+                    }));
+                    rows = new ArrayList<DataRow>(BLOCK_SIZE);
+                }
+                // bound the number of blocks held in memory
+                while (pending.size() >= 2 * threads) {
+                    writer.add(pending.poll().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writer.add(pending.poll().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
             }
+            throw e;
+        } finally {
             iter.close();
+            pool.shutdownNow();
         }
+    }
 
-        iter = inData[0].iterator();
-        int idx = 1;
-        boolean first = true;
+    /**
+     * An interpreter evaluating the first and second pass scripts for every
+     * row in its top-level namespace. INROW and OUTROW are reused for all
+     * rows.
+     */
+    private static final class ScriptInterpreter {
+
+        private final Interpreter m_interpreter = new Interpreter();
+        private final InRow m_inRow = new InRow();
+        private final OutRow m_outRow = new OutRow();
+        private final String m_firstPass;
+        private final String m_secondPass;
+        private final CellFactory m_cells = new CellFactory();
+        // the variables this worker started the second pass with
+        private State m_initialState;
+
+        ScriptInterpreter(String init, String firstPass, String secondPass)
+                throws EvalError {
+            m_interpreter.eval(init);
+            m_interpreter.set("INROW", m_inRow);
+            m_interpreter.set("OUTROW", m_outRow);
+            m_firstPass = firstPass;
+            m_secondPass = secondPass;
+        }
 
-        while (iter.hasNext()) {
-            ip.set("OUTROW", new OutRow());
-            ip.set("INROW", fillInRow(iter.next()));
-            ip.eval(script_secondPass);
-            OutRow out = (OutRow) ip.get("OUTROW");
+        boolean hasFirstPass() {
+            return !m_firstPass.equals("");
+        }
 
-            if (out.isNull()) {
-                continue;
+        void firstPass(DataRow row) throws EvalError {
+            m_inRow.setRow(row);
+            m_outRow.reset();
+            m_interpreter.eval(m_firstPass);
+        }
+
+        OutRow secondPass(DataRow row) throws EvalError {
+            m_inRow.setRow(row);
+            m_outRow.reset();
+            m_interpreter.eval(m_secondPass);
+            return m_outRow;
+        }
+
+        Block secondPass(List<DataRow> rows) throws EvalError,
+                InvalidSettingsException {
+            Block block = new Block(rows.size());
+            for (DataRow row : rows) {
+                OutRow out = secondPass(row);
+                if (!out.isNull()) {
+                    if (block.spec == null) {
+                        block.spec = getDataTableSpec2(out);
+                    }
+                    block.add(m_cells, out);
+                }
             }
+            return block;
+        }
 
-            if (first) {
-                container1 = exec.createDataContainer(getDataTableSpec2(out));
-                first = false;
+        /**
+         * Takes a snapshot of the variables, e.g., the results of the first
+         * pass. Immutable values are shared, all other values are serialized
+         * so that every worker restores its own deep copy.
+         * 
+         * @return The snapshot or <code>null</code> if a variable can neither
+         *         be shared nor copied.
+         */
+        State saveState() throws EvalError {
+            Map<String, Object> immutable = new HashMap<String, Object>();
+            HashMap<String, Object> mutable = new HashMap<String, Object>();
+            for (String name : m_interpreter.getNameSpace().getVariableNames()) {
+                if ("bsh".equals(name) || "INROW".equals(name)
+                        || "OUTROW".equals(name)) {
+                    continue;
+                }
+                Object value = m_interpreter.get(name);
+                if (isImmutable(value)) {
+                    immutable.put(name, value);
+                } else if (value instanceof This) {
+                    LOGGER.warn("Variable " + name
+                            + " holds a scripted object, running the second pass sequentially.");
+                    return null;
+                } else {
+                    mutable.put(name, value);
+                }
             }
 
-            List<Object> values = out.getValues();
+            byte[] serialized = null;
+            if (!mutable.isEmpty()) {
+                try {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    ObjectOutputStream out = new ObjectOutputStream(bytes);
+                    out.writeObject(mutable);
+                    out.close();
+                    serialized = bytes.toByteArray();
+                } catch (NotSerializableException e) {
+                    LOGGER.warn("Variable of type " + e.getMessage()
+                            + " cannot be copied, running the second pass sequentially.");
+                    return null;
+                } catch (IOException e) {
+                    LOGGER.warn("Could not copy the script variables, running the second pass sequentially.", e);
+                    return null;
+                }
+            }
+            return new State(immutable, serialized);
+        }
 
-            int N = values.size();
-            int i = 0;
-            DataCell[] cells = new DataCell[N];
-            for (Object value : values) {
-                cells[i++] = getCell(value);
+        /**
+         * Sets the variables of the given snapshot in this interpreter.
+         */
+        @SuppressWarnings("unchecked")
+        void restoreState(State state) throws EvalError, IOException,
+                ClassNotFoundException {
+            m_initialState = state;
+            for (Map.Entry<String, Object> e : state.immutable.entrySet()) {
+                m_interpreter.set(e.getKey(), e.getValue());
+            }
+            if (state.mutable != null) {
+                ObjectInputStream in = new ObjectInputStream(
+                        new ByteArrayInputStream(state.mutable));
+                try {
+                    Map<String, Object> copy = (Map<String, Object>) in
+                            .readObject();
+                    for (Map.Entry<String, Object> e : copy.entrySet()) {
+                        m_interpreter.set(e.getKey(), e.getValue());
+                    }
+                } finally {
+                    in.close();
+                }
             }
-            DefaultRow row = new DefaultRow("Row " + idx++, cells);
-            container1.addRowToTable(row);
         }
-        iter.close();
 
-        container1.close();
+        /**
+         * @return The snapshot restored by {@link #restoreState(State)}.
+         */
+        State getInitialState() {
+            return m_initialState;
+        }
 
-        BufferedDataTable out1 = container1.getTable();
+        /**
+         * Returns the variables of the given snapshot with immutable values
+         * that now hold other values. Variables only assigned by the second
+         * pass, e.g., temporaries of a row, are not considered. Changes to
+         * mutable values cannot be detected.
+         */
+        List<String> getChangedVariables(State state) throws EvalError {
+            List<String> changed = new ArrayList<String>();
+            for (Map.Entry<String, Object> e : state.immutable.entrySet()) {
+                Object value = m_interpreter.get(e.getKey());
+                if (value == null ? e.getValue() != null : !value.equals(e
+                        .getValue())) {
+                    changed.add(e.getKey());
+                }
+            }
+            return changed;
+        }
 
-        return new BufferedDataTable[] { out1 };
+        private static boolean isImmutable(Object value) {
+            return value == null || value instanceof String
+                    || value instanceof Boolean || value instanceof Character
+                    || value instanceof Byte || value instanceof Short
+                    || value instanceof Integer || value instanceof Long
+                    || value instanceof Float || value instanceof Double
+                    || value instanceof Enum || value instanceof Class
+                    || value instanceof Primitive;
+        }
     }
 
-    private InRow fillInRow(DataRow row) {
-        int N = row.getNumCells();
-        DataCell[] data = new DataCell[N];
-        for (int i = 0; i < N; i++) {
-            data[i] = row.getCell(i);
+    /**
+     * The variables of an interpreter after the first pass.
+     */
+    private static final class State {
+        private final Map<String, Object> immutable;
+        private final byte[] mutable;
+
+        State(Map<String, Object> immutable, byte[] mutable) {
+            this.immutable = immutable;
+            this.mutable = mutable;
         }
-        InRow ret = new InRow(data);
-        return ret;
     }
 
-    private DataCell getCell(Object in) {
-        if (in instanceof Integer) {
-            return new IntCell((Integer) in);
-        } else if (in instanceof Double) {
-            return new DoubleCell((Double) in);
-        } else if (in instanceof String) {
-            return new StringCell((String) in);
-        } else if (in instanceof Boolean) {
-            return (((Boolean) in) ? BooleanCell.TRUE : BooleanCell.FALSE);
-        } else {
-            return new StringCell(in.toString());
+    /**
+     * The output rows of a block of input rows, with the cells of all rows
+     * in a single list.
+     */
+    private static final class Block {
+        private final List<DataCell> cells;
+        private final List<Integer> widths;
+        private DataTableSpec spec;
+
+        Block(int size) {
+            cells = new ArrayList<DataCell>(size * 4);
+            widths = new ArrayList<Integer>(size);
+        }
+
+        void add(CellFactory factory, OutRow out) {
+            List<Object> values = out.getValues();
+            for (int i = 0; i < values.size(); i++) {
+                cells.add(factory.getCell(i, values.get(i)));
+            }
+            widths.add(values.size());
+        }
+    }
+
+    /**
+     * Creates the cells of the output rows. Cells are immutable, so a cell is
+     * reused if a column holds the same value as in the previous row, and
+     * small integers share cells created once. Not thread-safe, every
+     * interpreter uses its own factory.
+     */
+    private static final class CellFactory {
+        private static final int MIN_CACHED_INT = -128;
+        private static final IntCell[] INT_CELLS = new IntCell[1024 - MIN_CACHED_INT];
+
+        static {
+            for (int i = 0; i < INT_CELLS.length; i++) {
+                INT_CELLS[i] = new IntCell(i + MIN_CACHED_INT);
+            }
+        }
+
+        private Object[] m_lastValues = new Object[0];
+        private DataCell[] m_lastCells = new DataCell[0];
+
+        DataCell getCell(int column, Object in) {
+            if (column >= m_lastValues.length) {
+                m_lastValues = Arrays.copyOf(m_lastValues, column + 8);
+                m_lastCells = Arrays.copyOf(m_lastCells, column + 8);
+            } else if (m_lastCells[column] != null
+                    && in.equals(m_lastValues[column])) {
+                return m_lastCells[column];
+            }
+            DataCell cell = createCell(in);
+            m_lastValues[column] = in;
+            m_lastCells[column] = cell;
+            return cell;
+        }
+
+        private static DataCell createCell(Object in) {
+            if (in instanceof Integer) {
+                int value = (Integer) in;
+                if (value >= MIN_CACHED_INT
+                        && value < MIN_CACHED_INT + INT_CELLS.length) {
+                    return INT_CELLS[value - MIN_CACHED_INT];
+                }
+                return new IntCell(value);
+            } else if (in instanceof Double) {
+                return new DoubleCell((Double) in);
+            } else if (in instanceof String) {
+                return new StringCell((String) in);
+            } else if (in instanceof Boolean) {
+                return (((Boolean) in) ? BooleanCell.TRUE : BooleanCell.FALSE);
+            } else {
+                return new StringCell(in.toString());
+            }
+        }
+    }
+
+    /**
+     * Writes the output rows, creating the table from the first row. The
+     * cells of a row are collected in an array reused for all rows, as
+     * {@link DefaultRow} copies them.
+     */
+    private static final class OutputWriter {
+        private final ExecutionContext m_exec;
+        private final CellFactory m_cells = new CellFactory();
+        private BufferedDataContainer m_container;
+        private DataCell[] m_row = new DataCell[0];
+        private int m_idx = 1;
+
+        OutputWriter(ExecutionContext exec) {
+            m_exec = exec;
+        }
+
+        private DataCell[] row(int width) {
+            if (m_row.length != width) {
+                m_row = new DataCell[width];
+            }
+            return m_row;
+        }
+
+        void add(OutRow out) throws InvalidSettingsException {
+            if (m_container == null) {
+                m_container = m_exec.createDataContainer(getDataTableSpec2(out));
+            }
+            List<Object> values = out.getValues();
+            DataCell[] row = row(values.size());
+            for (int i = 0; i < row.length; i++) {
+                row[i] = m_cells.getCell(i, values.get(i));
+            }
+            m_container.addRowToTable(new DefaultRow("Row " + m_idx++, row));
+        }
+
+        void add(Block block) throws CanceledExecutionException {
+            if (m_container == null && block.spec != null) {
+                m_container = m_exec.createDataContainer(block.spec);
+            }
+            int next = 0;
+            for (int width : block.widths) {
+                DataCell[] row = row(width);
+                for (int i = 0; i < width; i++) {
+                    row[i] = block.cells.get(next++);
+                }
+                m_container.addRowToTable(new DefaultRow("Row " + m_idx++,
+                        row));
+            }
+            m_exec.checkCanceled();
+        }
+
+        BufferedDataTable close() {
+            if (m_container == null) {
+                m_container = m_exec.createDataContainer(new DataTableSpec());
+            }
+            m_container.close();
+            return m_container.getTable();
         }
     }
 
@@ -172,7 +597,7 @@ public class BeanShellNodeModel extends NodeModel {
         return new DataTableSpec[] { null };
     }
 
-    private DataTableSpec getDataTableSpec2(OutRow out)
+    private static DataTableSpec getDataTableSpec2(OutRow out)
             throws InvalidSettingsException {
 
         List<Class<?>> types = out.getTypes();
@@ -216,11 +641,13 @@ public class BeanShellNodeModel extends NodeModel {
         settings.addString("script_init", script_init);
         settings.addString("script_firstPass", script_firstPass);
         settings.addString("script_secondPass", script_secondPass);
+        settings.addBoolean("parallel", parallel);
     }
 
     private String script_init;
     private String script_firstPass;
     private String script_secondPass;
+    private boolean parallel;
 
     /**
      * {@inheritDoc}
@@ -234,6 +661,7 @@ public class BeanShellNodeModel extends NodeModel {
                 .getString("script_firstPass") : "";
         script_secondPass = settings.containsKey("script_secondPass") ? settings
                 .getString("script_secondPass") : "";
+        parallel = settings.getBoolean("parallel", false);
     }
 
     /**
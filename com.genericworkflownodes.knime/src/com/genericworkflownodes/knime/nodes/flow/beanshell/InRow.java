@@ -1,32 +1,51 @@
 package com.genericworkflownodes.knime.nodes.flow.beanshell;
 
 import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
 
 public class InRow {
-    private DataCell[] row;
+    private DataRow row;
 
     public InRow(DataCell[] row) {
-        this.row = new DataCell[row.length];
-        System.arraycopy(row, 0, this.row, 0, row.length);
+        this.row = new DefaultRow(RowKey.createRowKey(0L), row);
+    }
+
+    /**
+     * Creates an empty row to be reused for all rows of a table by
+     * {@link #setRow(DataRow)}.
+     */
+    InRow() {
+    }
+
+    /**
+     * Lets this object represent the given row without copying its cells.
+     * 
+     * @param row
+     *            the current row
+     */
+    void setRow(DataRow row) {
+        this.row = row;
     }
 
     public int getNumCols() {
         if (row != null) {
-            return row.length;
+            return row.getNumCells();
         }
         return 0;
     }
 
     public Class<?> getColumnClass(int idx) {
-        if (row != null && idx >= 0 && idx < row.length) {
-            return row[idx].getClass();
+        if (row != null && idx >= 0 && idx < row.getNumCells()) {
+            return row.getCell(idx).getClass();
         }
         return null;
     }
 
     public DataCell getCell(int idx) {
-        if (row != null && idx >= 0 && idx < row.length) {
-            return row[idx];
+        if (row != null && idx >= 0 && idx < row.getNumCells()) {
+            return row.getCell(idx);
         }
         return null;
     }
@@ -4,10 +4,35 @@ import java.util.ArrayList;
 import java.util.List;
 
 public final class OutRow {
+    /**
+     * Default column names, created once instead of for every row.
+     */
+    private static final String[] COLUMN_NAMES = new String[64];
+
+    static {
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            COLUMN_NAMES[i] = String.format("column %d", i);
+        }
+    }
+
     private List<Object> values = new ArrayList<Object>();
     private List<String> names = new ArrayList<String>();
     private boolean isNull = true;
 
+    private static String columnName(int idx) {
+        return idx < COLUMN_NAMES.length ? COLUMN_NAMES[idx] : String.format(
+                "column %d", idx);
+    }
+
+    /**
+     * Clears this row so that it can be reused for the next row.
+     */
+    void reset() {
+        values.clear();
+        names.clear();
+        isNull = true;
+    }
+
     public void addCell(String name, Object value) {
         isNull = false;
         values.add(value);
@@ -17,7 +42,7 @@ public final class OutRow {
     public void addCell(Object value) {
         isNull = false;
         values.add(value);
-        names.add(String.format("column %d", names.size()));
+        names.add(columnName(names.size()));
     }
 
     public void addDoubleCell(String name, Object value) {
@@ -35,15 +60,15 @@ public final class OutRow {
     }
 
     public void addDoubleCell(Object value) {
-        addDoubleCell(String.format("column %d", names.size()), value);
+        addDoubleCell(columnName(names.size()), value);
     }
 
     public void addIntCell(Object value) {
-        addIntCell(String.format("column %d", names.size()), value);
+        addIntCell(columnName(names.size()), value);
     }
 
     public void addStringCell(Object value) {
-        addStringCell(String.format("column %d", names.size()), value);
+        addStringCell(columnName(names.size()), value);
     }
 
     public List<Object> getValues() {
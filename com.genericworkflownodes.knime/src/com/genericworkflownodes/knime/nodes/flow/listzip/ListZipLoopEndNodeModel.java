@@ -23,7 +23,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
@@ -45,12 +49,13 @@ import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
+import org.knime.core.node.workflow.FlowVariable;
 import org.knime.core.node.workflow.LoopEndNode;
 import org.knime.core.node.workflow.LoopStartNodeTerminator;
 
-import com.genericworkflownodes.knime.base.data.port.AbstractFileStoreURIPortObject;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.knime.base.data.port.FileStoreReferenceURIPortObject;
-import com.genericworkflownodes.knime.base.data.port.PortObjectHandlerCell;
+import com.genericworkflownodes.knime.base.data.port.SimpleFileStoreCell;
 
 /**
  * Node model for the ListZipEnd node.
@@ -71,14 +76,33 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
     private static final int PORT_COUNT = 4;
 
     /**
-     * Array of containers used to make filestores permanent.
+     * Flow variable holding the files of the loop start a generic node inside
+     * the loop failed for, as comma separated indices into the lists at the
+     * loop start inputs. The outputs of these files are missing, the outputs
+     * of all other files are kept in their original order.
+     */
+    public static final String FAILED_FILES_VARIABLE = "listzipFailedFiles";
+
+    /**
+     * Collect references to the incoming files over the iterations.
+     */
+    private FileStoreReferenceURIPortObject.Collector[] m_collectors;
+
+    /**
+     * Array of containers used to make filestores permanent. Every distinct
+     * file store is added once.
      */
     private BufferedDataContainer[] m_bufferedContainers;
 
     /**
-     * Collect incoming port objects over the iterations.
+     * The tables holding the file stores of the last completed loop.
+     */
+    private BufferedDataTable[] m_internalTables;
+
+    /**
+     * The indices of the loop start files that failed in any iteration.
      */
-    private List<List<IURIPortObject>> m_incomingPortObjects;
+    private SortedSet<Integer> m_failedFiles;
 
     /**
      * Indicating if the loop is already running.
@@ -127,7 +151,7 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
 
     private DataTableSpec createPseudoSpec() {
         DataColumnSpec colSpec = new DataColumnSpecCreator("holder-cells",
-                PortObjectHandlerCell.TYPE).createSpec();
+                SimpleFileStoreCell.TYPE).createSpec();
         return new DataTableSpec(colSpec);
     }
 
@@ -141,18 +165,16 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
         }
 
         if (!m_loopStarted) {
-            // first time we are getting to this: create container
-            m_incomingPortObjects = new ArrayList<List<IURIPortObject>>(
-                    PORT_COUNT);
+            // first time we are getting to this: create collectors and
+            // containers
+            m_collectors = new FileStoreReferenceURIPortObject.Collector[PORT_COUNT];
             m_bufferedContainers = new BufferedDataContainer[PORT_COUNT];
-
+            m_internalTables = null;
+            m_failedFiles = new TreeSet<Integer>();
             for (int i = 0; i < PORT_COUNT; ++i) {
-                // create data container
+                m_collectors[i] = new FileStoreReferenceURIPortObject.Collector();
                 m_bufferedContainers[i] = exec
                         .createDataContainer(createPseudoSpec());
-
-                // create container to collect the incoming port objects
-                m_incomingPortObjects.add(new ArrayList<IURIPortObject>());
             }
             m_loopStarted = true;
         }
@@ -165,42 +187,52 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
 
             IURIPortObject po = (IURIPortObject) inObjects[i];
 
-            // some data we need
-            int currentIteration = peekFlowVariableInt("currentIteration");
-
-            if (po.getURIContents().size() > 1) {
+            // inside parallel loops every iteration yields a chunk of files
+            if (CustomPortObjectUtils.getURIContentCount(po) > 1
+                    && !getAvailableFlowVariables().containsKey(
+                            ListZipLoopStartNodeModel.CHUNK_SIZE_VARIABLE)) {
                 LOGGER.warn(String
                         .format("More then one incoming object at port %d. The outgoing port will only hold the first one.",
                                 i));
             }
-            // collect port object for later use
-            m_incomingPortObjects.get(i).add(po);
-
-            // if we have a filestore port object, add it to the container
-            // .. all our filestore port objects are derived from
-            // AbstractFileStoreURIPortObject
-            if (po instanceof AbstractFileStoreURIPortObject) {
-                PortObjectHandlerCell pfsc = new PortObjectHandlerCell(
-                        (AbstractFileStoreURIPortObject) po);
-                String rowKey = String.format("Row_%d_%d", i, currentIteration);
-                m_bufferedContainers[i].addRowToTable(new DefaultRow(rowKey,
-                        pfsc));
-            }
+            // only keep references to the files, not the port object
+            int firstFile = m_collectors[i].size();
+            int firstFileStore = m_collectors[i].getFileStoreCount();
+            m_collectors[i].add(po);
+
+            // register file stores we have not seen before with this node
+            registerFileStores(i, m_collectors[i], firstFile, firstFileStore);
         }
 
+        collectFailedFiles();
+
         // check if this is the last iteration
         if (((LoopStartNodeTerminator) getLoopStartNode()).terminateLoop()) {
             FileStoreReferenceURIPortObject[] portObjects = new FileStoreReferenceURIPortObject[PORT_COUNT];
 
             for (int i = 0; i < PORT_COUNT; i++) {
                 // assign collected uris to new portobject
-                portObjects[i] = FileStoreReferenceURIPortObject
-                        .create(m_incomingPortObjects.get(i));
+                portObjects[i] = m_collectors[i].create();
                 // close the container
                 m_bufferedContainers[i].close();
             }
+            m_internalTables = new BufferedDataTable[PORT_COUNT];
+            for (int i = 0; i < PORT_COUNT; i++) {
+                m_internalTables[i] = m_bufferedContainers[i].getTable();
+            }
+            m_collectors = null;
+            m_bufferedContainers = null;
             m_loopStarted = false;
 
+            pushFlowVariableString(FAILED_FILES_VARIABLE,
+                    ListZipLoopStartNodeModel.formatIndices(m_failedFiles));
+            if (!m_failedFiles.isEmpty()) {
+                setWarningMessage("The outputs of " + m_failedFiles.size()
+                        + " files are missing, see the flow variable "
+                        + FAILED_FILES_VARIABLE + ".");
+            }
+            m_failedFiles = null;
+
             return portObjects;
         } else {
             continueLoop();
@@ -208,6 +240,66 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
         }
     }
 
+    /**
+     * Adds the chunk elements generic nodes failed for in the current
+     * iteration to the failed files of the loop.
+     */
+    private void collectFailedFiles() {
+        Map<String, FlowVariable> variables = getAvailableFlowVariables();
+        FlowVariable failed = variables
+                .get(ListZipLoopStartNodeModel.FAILED_ELEMENTS_VARIABLE);
+        FlowVariable chunkSize = variables
+                .get(ListZipLoopStartNodeModel.CHUNK_SIZE_VARIABLE);
+        FlowVariable iteration = variables.get("currentIteration");
+        if (failed == null || chunkSize == null || iteration == null) {
+            return;
+        }
+        int first = iteration.getIntValue() * chunkSize.getIntValue();
+        for (int element : ListZipLoopStartNodeModel.parseIndices(failed
+                .getStringValue())) {
+            m_failedFiles.add(first + element);
+        }
+    }
+
+    /**
+     * Adds one cell for each file store the collector references since
+     * <code>firstFileStore</code> to the container of the given port.
+     * 
+     * @param port
+     *            The port index.
+     * @param collector
+     *            The collector of the port.
+     * @param firstFile
+     *            Number of files referenced before the current iteration.
+     * @param firstFileStore
+     *            Number of file stores referenced before the current
+     *            iteration.
+     */
+    private void registerFileStores(int port,
+            FileStoreReferenceURIPortObject.Collector collector,
+            int firstFile, int firstFileStore) {
+        if (collector.getFileStoreCount() == firstFileStore) {
+            return;
+        }
+        Map<Integer, List<String>> relPaths = new LinkedHashMap<Integer, List<String>>();
+        for (int f = firstFileStore; f < collector.getFileStoreCount(); ++f) {
+            relPaths.put(f, new ArrayList<String>());
+        }
+        for (int f = firstFile; f < collector.size(); ++f) {
+            List<String> paths = relPaths.get(collector.getFileStoreIndex(f));
+            if (paths != null) {
+                paths.add(collector.getRelativePath(f));
+            }
+        }
+        for (Map.Entry<Integer, List<String>> e : relPaths.entrySet()) {
+            SimpleFileStoreCell cell = new SimpleFileStoreCell(
+                    collector.getFileStore(e.getKey()), e.getValue());
+            String rowKey = String.format("Row_%d_%d", port, e.getKey());
+            m_bufferedContainers[port].addRowToTable(new DefaultRow(rowKey,
+                    cell));
+        }
+    }
+
     @Override
     protected void loadInternals(File arg0, ExecutionMonitor arg1)
             throws IOException, CanceledExecutionException {
@@ -222,6 +314,10 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
     protected void reset() {
         // ensure we have no running loop
         m_loopStarted = false;
+        m_collectors = null;
+        m_bufferedContainers = null;
+        m_internalTables = null;
+        m_failedFiles = null;
     }
 
     @Override
@@ -240,22 +336,13 @@ public class ListZipLoopEndNodeModel extends NodeModel implements LoopEndNode,
 
     @Override
     public BufferedDataTable[] getInternalTables() {
-        // is only valid after the last loop iteration, otherwise we cannot
-        // access the underlying tables
-        // if (m_bufferedContainers[0].isClosed() && !m_loopStarted) {
-        // BufferedDataTable[] tables = new BufferedDataTable[PORT_COUNT];
-        // for (int i = 0; i < PORT_COUNT; ++i) {
-        // tables[i] = m_bufferedContainers[i].getTable();
-        // }
-        // return tables;
-        // } else {
-        // return null;
-        // }
-        return null;
+        // only valid after the last loop iteration
+        return m_internalTables;
     }
 
     @Override
     public void setInternalTables(BufferedDataTable[] tables) {
+        m_internalTables = tables;
     }
 
 }
@@ -20,7 +20,9 @@ package com.genericworkflownodes.knime.nodes.flow.listzip;
 
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
 import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
 import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 
 /**
  * NodeDialog to configure the ListZipLoopNode.
@@ -35,5 +37,11 @@ public class ListZipLoopStartNodeDialog extends DefaultNodeSettingsPane {
         addDialogComponent(new DialogComponentBoolean(new SettingsModelBoolean(
                 ListZipLoopStartNodeModel.CFG_REUSE,
                 ListZipLoopStartNodeModel.DEFAULT_REUSE), "Reuse ports"));
+        addDialogComponent(new DialogComponentNumber(
+                new SettingsModelIntegerBounded(
+                        ListZipLoopStartNodeModel.CFG_CHUNK_SIZE,
+                        ListZipLoopStartNodeModel.DEFAULT_CHUNK_SIZE, 1,
+                        ListZipLoopStartNodeModel.MAX_CHUNK_SIZE),
+                "Files per iteration (processed in parallel)", 1));
     }
 }
@@ -23,7 +23,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.knime.core.data.uri.IURIPortObject;
 import org.knime.core.data.uri.URIContent;
@@ -37,12 +40,15 @@ import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.node.workflow.LoopStartNodeTerminator;
 
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+
 /**
  * Node model for the ListZipLoopStart node.
  * 
@@ -66,6 +72,12 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
      */
     private int m_rowCount = 0;
 
+    /**
+     * The port objects handed out in every iteration for reused ports, created
+     * once per loop.
+     */
+    private IURIPortObject[] m_reusedPortObjects;
+
     /**
      * Number of in-/ output ports of the loop node.
      */
@@ -76,6 +88,63 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
     private SettingsModelBoolean m_reuse = new SettingsModelBoolean(CFG_REUSE,
             DEFAULT_REUSE);
 
+    static String CFG_CHUNK_SIZE = "chunk_size";
+    static int DEFAULT_CHUNK_SIZE = 1;
+    static int MAX_CHUNK_SIZE = 1024;
+    private SettingsModelIntegerBounded m_chunkSize = new SettingsModelIntegerBounded(
+            CFG_CHUNK_SIZE, DEFAULT_CHUNK_SIZE, 1, MAX_CHUNK_SIZE);
+
+    /**
+     * Flow variable holding the number of files handed out per iteration. It
+     * is only set if more than one file is handed out. Generic nodes inside
+     * the loop execute their tool for every file of the chunk if the
+     * receiving input port opted in to chunk processing.
+     */
+    public static final String CHUNK_SIZE_VARIABLE = "listzipChunkSize";
+
+    /**
+     * Flow variable holding the elements of the current chunk a generic node
+     * inside the loop failed for, as comma separated indices into the chunk
+     * handed out by the loop start. The outputs of these elements are
+     * missing, the ListZip loop end reports them over all iterations.
+     */
+    public static final String FAILED_ELEMENTS_VARIABLE = "listzipFailedElements";
+
+    /**
+     * Parses the value of {@link #FAILED_ELEMENTS_VARIABLE}.
+     * 
+     * @param indices
+     *            Comma separated indices, may be empty.
+     * @return The indices in ascending order.
+     */
+    public static SortedSet<Integer> parseIndices(final String indices) {
+        SortedSet<Integer> result = new TreeSet<Integer>();
+        for (String index : indices.split(",")) {
+            if (!index.trim().isEmpty()) {
+                result.add(Integer.valueOf(index.trim()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Formats indices as value of {@link #FAILED_ELEMENTS_VARIABLE}.
+     * 
+     * @param indices
+     *            The indices.
+     * @return The comma separated indices.
+     */
+    public static String formatIndices(final Collection<Integer> indices) {
+        StringBuilder sb = new StringBuilder();
+        for (Integer index : indices) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(index);
+        }
+        return sb.toString();
+    }
+
     /**
      * Creates a new model.
      */
@@ -149,10 +218,11 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
 
             // check the content of the different Ports
             if (!m_reuse.getBooleanValue()) {
-                int numberOfURIs = ((IURIPortObject) inObjects[0])
-                        .getURIContents().size();
+                int numberOfURIs = CustomPortObjectUtils
+                        .getURIContentCount((IURIPortObject) inObjects[0]);
                 for (int i = 1; i < m_numAssignedIncomingPorts; ++i) {
-                    if (((IURIPortObject) inObjects[i]).getURIContents().size() != numberOfURIs) {
+                    if (CustomPortObjectUtils
+                            .getURIContentCount((IURIPortObject) inObjects[i]) != numberOfURIs) {
                         throw new InvalidSettingsException(
                                 "Invalid settings. The number of URIs at the incoming ports differ.");
                     }
@@ -163,26 +233,38 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
             assert getLoopEndNode() != null : "No end node set";
         }
 
-        IURIPortObject[] uriOutputObjects = new URIPortObject[PORT_COUNT];
-        m_rowCount = ((IURIPortObject) inObjects[0]).getURIContents().size();
+        IURIPortObject[] uriOutputObjects = new IURIPortObject[PORT_COUNT];
+        if (m_iteration == 0 || m_reusedPortObjects == null) {
+            m_reusedPortObjects = new IURIPortObject[PORT_COUNT];
+        }
+        int numberOfURIs = CustomPortObjectUtils
+                .getURIContentCount((IURIPortObject) inObjects[0]);
+        int chunkSize = m_chunkSize.getIntValue();
+        m_rowCount = (numberOfURIs + chunkSize - 1) / chunkSize;
+
+        // the files handed out in this iteration
+        int first = m_iteration * chunkSize;
+        int last = Math.min(first + chunkSize, numberOfURIs);
 
         // 1st port is handled separately
-        URIContent uri = ((IURIPortObject) inObjects[0]).getURIContents().get(
-                m_iteration);
-        List<URIContent> uriContents = new ArrayList<URIContent>();
-        uriContents.add(uri);
-        uriOutputObjects[0] = new URIPortObject(uriContents);
+        uriOutputObjects[0] = new URIPortObject(getChunk(
+                (IURIPortObject) inObjects[0], first, last));
 
         for (int i = 1; i < PORT_COUNT; i++) {
             IURIPortObject in = (IURIPortObject) inObjects[i];
             if (i < m_numAssignedIncomingPorts) {
                 if (m_reuse.getBooleanValue()) {
-                    uriOutputObjects[i] = new URIPortObject(in.getURIContents());
+                    // the list is copied only once and shared by all
+                    // iterations
+                    if (m_reusedPortObjects[i] == null) {
+                        m_reusedPortObjects[i] = new URIPortObject(getChunk(
+                                in, 0,
+                                CustomPortObjectUtils.getURIContentCount(in)));
+                    }
+                    uriOutputObjects[i] = m_reusedPortObjects[i];
                 } else {
-                    List<URIContent> localUriContents = new ArrayList<URIContent>();
-                    URIContent localUri = in.getURIContents().get(m_iteration);
-                    localUriContents.add(localUri);
-                    uriOutputObjects[i] = new URIPortObject(localUriContents);
+                    uriOutputObjects[i] = new URIPortObject(getChunk(in,
+                            first, last));
                 }
             } else {
                 uriOutputObjects[i] = new URIPortObject(
@@ -193,6 +275,11 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
         // TODO: check if this is necessary
         pushFlowVariableInt("currentIteration", m_iteration);
         pushFlowVariableInt("maxIterations", m_rowCount);
+        if (chunkSize > 1) {
+            pushFlowVariableInt(CHUNK_SIZE_VARIABLE, chunkSize);
+            // no element of the new chunk failed yet
+            pushFlowVariableString(FAILED_ELEMENTS_VARIABLE, "");
+        }
 
         // proceed in the number of iterations
         m_iteration++;
@@ -200,6 +287,15 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
         return uriOutputObjects;
     }
 
+    private static List<URIContent> getChunk(final IURIPortObject in,
+            final int first, final int last) {
+        List<URIContent> uriContents = new ArrayList<URIContent>(last - first);
+        for (int j = first; j < last; ++j) {
+            uriContents.add(CustomPortObjectUtils.getURIContent(in, j));
+        }
+        return uriContents;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -209,6 +305,7 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
         m_iteration = 0;
         m_numAssignedIncomingPorts = 0;
         m_rowCount = 0;
+        m_reusedPortObjects = null;
     }
 
     /**
@@ -225,6 +322,7 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) {
         m_reuse.saveSettingsTo(settings);
+        m_chunkSize.saveSettingsTo(settings);
     }
 
     /**
@@ -234,6 +332,9 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
     protected void validateSettings(final NodeSettingsRO settings)
             throws InvalidSettingsException {
         m_reuse.validateSettings(settings);
+        if (settings.containsKey(CFG_CHUNK_SIZE)) {
+            m_chunkSize.validateSettings(settings);
+        }
     }
 
     /**
@@ -243,6 +344,9 @@ public class ListZipLoopStartNodeModel extends NodeModel implements
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings)
             throws InvalidSettingsException {
         m_reuse.loadSettingsFrom(settings);
+        if (settings.containsKey(CFG_CHUNK_SIZE)) {
+            m_chunkSize.loadSettingsFrom(settings);
+        }
     }
 
     /**
@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.knime.core.data.uri.IURIPortObject;
 import org.knime.core.data.uri.URIContent;
@@ -38,6 +39,8 @@ import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+
 /**
  * This is the model implementation of FileMerger. This nodes takes two files
  * (file lists) as input and outputs a merged list of both inputs.
@@ -85,16 +88,22 @@ public class FileSplitterNodeModel extends NodeModel {
             final ExecutionContext exec) throws Exception {
         IURIPortObject input = (IURIPortObject) inData[0];
         URIPortObject[] outputs = new URIPortObject[getOutgoing().length];
+        int numberOfURIs = CustomPortObjectUtils.getURIContentCount(input);
         
-        for (int i = 0; i < outputs.length-1 && input.getURIContents().size() > i; i++) {
-            outputs[i] = new URIPortObject( Arrays.asList(input.getURIContents().get(i)));
+        for (int i = 0; i < outputs.length-1 && numberOfURIs > i; i++) {
+            outputs[i] = new URIPortObject(Arrays.asList(CustomPortObjectUtils
+                    .getURIContent(input, i)));
         }
         
-        if (input.getURIContents().size() > getOutgoing().length - 1) {
-            outputs[outputs.length - 1] = new URIPortObject(input.getURIContents()
-                                                .subList(outputs.length - 1, input.getURIContents().size()));
+        if (numberOfURIs > outputs.length - 1) {
+            List<URIContent> rest = new ArrayList<URIContent>(numberOfURIs
+                    - outputs.length + 1);
+            for (int i = outputs.length - 1; i < numberOfURIs; i++) {
+                rest.add(CustomPortObjectUtils.getURIContent(input, i));
+            }
+            outputs[outputs.length - 1] = new URIPortObject(rest);
         } else {
-            for(int i = input.getURIContents().size(); i < outputs.length; i++) {
+            for(int i = numberOfURIs; i < outputs.length; i++) {
                 outputs[i] = new URIPortObject(new ArrayList<URIContent>());
             }
         }
@@ -21,13 +21,23 @@ package com.genericworkflownodes.knime.nodes.io.demangler;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.uri.IURIPortObject;
-import org.knime.core.data.uri.URIContent;
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
@@ -42,8 +52,15 @@ import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
 import org.knime.core.util.FileUtil;
 
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.knime.mime.demangler.DemanglerRegistry;
 import com.genericworkflownodes.knime.mime.demangler.IDemangler;
 import com.genericworkflownodes.util.MIMETypeHelper;
@@ -66,6 +83,16 @@ public class DemanglerNodeModel extends NodeModel {
      */
     static final String CONFIGURED_FILE_EXTENSION_SETTINGNAME = "configured_mime_type";
 
+    /**
+     * Number of rows handed from a parsing thread to the writer at once.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Maximal number of parsed blocks buffered per range.
+     */
+    private static final int BLOCKS_PER_RANGE = 8;
+
     /**
      * The selected {@link IDemangler}.
      */
@@ -193,23 +220,15 @@ public class DemanglerNodeModel extends NodeModel {
     @Override
     protected BufferedDataTable[] execute(final PortObject[] inObjects,
             final ExecutionContext exec) throws Exception {
-        BufferedDataContainer container = exec.createDataContainer(demangler
-                .getTableSpec());
-
-        IURIPortObject obj = (IURIPortObject) inObjects[0];
-        List<URIContent> uris = obj.getURIContents();
-        if (uris.size() == 0) {
-            throw new Exception(
-                    "No URI was supplied in IURIPortObject at input port 0");
-        } else if (uris.size() != 1) {
-            throw new Exception(String.format(
-                    "We can only demangle a single file but got %d.",
-                    uris.size()));
+        URI file = getFile(inObjects[0]);
+        if (demangler.isSplittable()) {
+            return new BufferedDataTable[] { demangleParallel(file, exec) };
         }
 
-        URI relURI = FileUtil.getFileFromURL(uris.get(0).getURI().toURL()).toURI();
+        BufferedDataContainer container = exec.createDataContainer(demangler
+                .getTableSpec());
 
-        Iterator<DataRow> iter = demangler.demangle(relURI);
+        Iterator<DataRow> iter = demangler.demangle(file);
         while (iter.hasNext()) {
             container.addRowToTable(iter.next());
         }
@@ -219,6 +238,136 @@ public class DemanglerNodeModel extends NodeModel {
         return new BufferedDataTable[] { out };
     }
 
+    /**
+     * Parses the ranges of a file provided by a splittable {@link IDemangler}
+     * in parallel and writes the rows in order into a single container. Every
+     * range buffers at most {@link #BLOCKS_PER_RANGE} blocks of parsed rows.
+     */
+    private BufferedDataTable demangleParallel(final URI file,
+            final ExecutionContext exec) throws Exception {
+        int parts = Runtime.getRuntime().availableProcessors();
+        List<Iterator<DataRow>> readers = demangler.demangle(file, parts);
+
+        List<BlockingQueue<List<DataRow>>> queues = new ArrayList<BlockingQueue<List<DataRow>>>();
+        List<Future<Void>> tasks = new ArrayList<Future<Void>>();
+        ExecutorService pool = Executors.newFixedThreadPool(readers.size());
+        try {
+            for (final Iterator<DataRow> reader : readers) {
+                final BlockingQueue<List<DataRow>> queue = new ArrayBlockingQueue<List<DataRow>>(
+                        BLOCKS_PER_RANGE);
+                queues.add(queue);
+                tasks.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InterruptedException {
+                        List<DataRow> block = new ArrayList<DataRow>(BLOCK_SIZE);
+                        while (reader.hasNext()) {
+                            block.add(reader.next());
+                            if (block.size() == BLOCK_SIZE) {
+                                queue.put(block);
+                                block = new ArrayList<DataRow>(BLOCK_SIZE);
+                            }
+                        }
+                        if (!block.isEmpty()) {
+                            queue.put(block);
+                        }
+                        // an empty block marks the end of the range
+                        queue.put(new ArrayList<DataRow>(0));
+                        return null;
+                    }
+                }));
+            }
+
+            BufferedDataContainer out = exec.createDataContainer(demangler
+                    .getTableSpec());
+            long key = 0;
+            for (int i = 0; i < queues.size(); ++i) {
+                List<DataRow> block;
+                while (!(block = nextBlock(queues.get(i), tasks.get(i)))
+                        .isEmpty()) {
+                    // the row keys of the ranges overlap
+                    for (DataRow row : block) {
+                        out.addRowToTable(new DefaultRow(RowKey
+                                .createRowKey(key++), row));
+                    }
+                    exec.checkCanceled();
+                }
+            }
+            out.close();
+            return out.getTable();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the next block of the given range, rethrowing the failure of
+     * its parsing thread.
+     */
+    private static List<DataRow> nextBlock(
+            final BlockingQueue<List<DataRow>> queue, final Future<Void> task)
+            throws Exception {
+        while (true) {
+            List<DataRow> block = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (block != null) {
+                return block;
+            }
+            if (task.isDone()) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e
+                            .getCause() : e;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Pushes the rows of the demangled file downstream while they are read.
+     */
+    @Override
+    public StreamableOperator createStreamableOperator(
+            final PartitionInfo partitionInfo, final PortObjectSpec[] inSpecs)
+            throws InvalidSettingsException {
+        return new StreamableOperator() {
+            @Override
+            public void runFinal(final PortInput[] inputs,
+                    final PortOutput[] outputs, final ExecutionContext exec)
+                    throws Exception {
+                RowOutput output = (RowOutput) outputs[0];
+                Iterator<DataRow> iter = demangler.demangle(getFile(
+                        ((PortObjectInput) inputs[0]).getPortObject()));
+                while (iter.hasNext()) {
+                    output.push(iter.next());
+                    exec.checkCanceled();
+                }
+                output.close();
+            }
+        };
+    }
+
+    /**
+     * Extracts the single file to demangle from the given port object.
+     */
+    private static URI getFile(final PortObject inObject) throws Exception {
+        IURIPortObject obj = (IURIPortObject) inObject;
+        int numberOfURIs = CustomPortObjectUtils.getURIContentCount(obj);
+        if (numberOfURIs == 0) {
+            throw new Exception(
+                    "No URI was supplied in IURIPortObject at input port 0");
+        } else if (numberOfURIs != 1) {
+            throw new Exception(String.format(
+                    "We can only demangle a single file but got %d.",
+                    numberOfURIs));
+        }
+
+        return FileUtil.getFileFromURL(
+                CustomPortObjectUtils.getURIContent(obj, 0).getURI().toURL())
+                .toURI();
+    }
+
     @Override
     protected void loadInternals(File nodeInternDir, ExecutionMonitor exec)
             throws IOException, CanceledExecutionException {
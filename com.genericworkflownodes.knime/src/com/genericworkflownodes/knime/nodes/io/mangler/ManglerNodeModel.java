@@ -40,6 +40,14 @@ import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortObjectOutput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.StreamableOperator;
 
 import com.genericworkflownodes.knime.base.data.port.FileStoreURIPortObject;
 import com.genericworkflownodes.knime.mime.demangler.DemanglerRegistry;
@@ -125,6 +133,49 @@ public class ManglerNodeModel extends NodeModel {
         return new FileStoreURIPortObject[] { fsupo };
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The input is streamed if the selected {@link IDemangler} supports
+     * streaming, otherwise it is materialized first.
+     */
+    @Override
+    public InputPortRole[] getInputPortRoles() {
+        return new InputPortRole[] { demangler != null
+                && demangler.supportsStreaming() ? InputPortRole.NONDISTRIBUTED_STREAMABLE
+                : InputPortRole.NONDISTRIBUTED_NONSTREAMABLE };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamableOperator createStreamableOperator(
+            final PartitionInfo partitionInfo, final PortObjectSpec[] inSpecs)
+            throws InvalidSettingsException {
+        return new StreamableOperator() {
+            @Override
+            public void runFinal(final PortInput[] inputs,
+                    final PortOutput[] outputs, final ExecutionContext exec)
+                    throws Exception {
+                FileStoreURIPortObject fsupo = new FileStoreURIPortObject(
+                        exec.createFileStore("ManglerNodeModel"));
+                File file = fsupo.registerFile("mangled_file."
+                        + demangler.getMIMEType());
+
+                if (inputs[0] instanceof RowInput) {
+                    RowInput input = (RowInput) inputs[0];
+                    demangler.mangle(input, file.toURI());
+                    input.close();
+                } else {
+                    demangler.mangle((BufferedDataTable) ((PortObjectInput) inputs[0])
+                            .getPortObject(), file.toURI());
+                }
+                ((PortObjectOutput) outputs[0]).setPortObject(fsupo);
+            }
+        };
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -18,22 +18,21 @@
  */
 package com.genericworkflownodes.knime.nodes.io.outputfile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.charset.Charset;
 import java.nio.file.InvalidPathException;
 import java.util.Enumeration;
-import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.knime.core.data.uri.IURIPortObject;
-import org.knime.core.data.uri.URIContent;
 import org.knime.core.data.uri.URIPortObjectSpec;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
@@ -50,7 +49,8 @@ import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.util.FileUtil;
 
-import com.genericworkflownodes.util.Helper;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+import com.genericworkflownodes.util.FilePreview;
 import com.genericworkflownodes.util.MIMETypeHelper;
 
 /**
@@ -64,6 +64,13 @@ public class OutputFileNodeModel extends NodeModel {
     static final String CFG_FILENAME = "FILENAME";
 
     static final String CFG_OVERWRITE = "OVERWRITE";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Number of lines shown in the preview of the written file.
+     */
+    private static final int PREVIEW_LINES = 50;
     
     SettingsModelString m_filename = new SettingsModelString(
             OutputFileNodeModel.CFG_FILENAME, "");
@@ -144,14 +151,14 @@ public class OutputFileNodeModel extends NodeModel {
     protected PortObject[] execute(PortObject[] inObjects, ExecutionContext exec)
             throws Exception {
         IURIPortObject obj = (IURIPortObject) inObjects[0];
-        List<URIContent> uris = obj.getURIContents();
+        int numberOfURIs = CustomPortObjectUtils.getURIContentCount(obj);
 
-        if (uris.size() == 0) {
+        if (numberOfURIs == 0) {
             throw new Exception(
                     "There were no URIs in the supplied IURIPortObject at port 0");
         }
         
-        if (uris.size() > 1) {
+        if (numberOfURIs > 1) {
             throw new Exception(
                     "There were more than one URI supplied IURIPortObject at port 0. Please use the Output Files or Output Folder node.");
         }
@@ -159,16 +166,20 @@ public class OutputFileNodeModel extends NodeModel {
 
         String filename = m_filename.getStringValue();
 
-        File in = FileUtil.getFileFromURL(uris.get(0).getURI().toURL());
+        File in = FileUtil.getFileFromURL(CustomPortObjectUtils
+                .getURIContent(obj, 0).getURI().toURL());
         File out = FileUtil.getFileFromURL(FileUtil.toURL(filename));
 
         if (out == null) {
             throw new InvalidSettingsException("Can only write to local paths.");
         }
         
-        FileUtils.copyFile(in, out);
-
-        data = Helper.readFileSummary(in, 50);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        // the preview is captured while copying instead of re-reading the file
+        data = FilePreview.copy(in, out, FilePreview.DEFAULT_MAX_BYTES)
+                .getSummary(out, PREVIEW_LINES);
 
         return new PortObject[] {};
     }
@@ -233,16 +244,13 @@ public class OutputFileNodeModel extends NodeModel {
             ZipEntry entry = entries.nextElement();
 
             if (entry.getName().equals("rawdata.bin")) {
-                int size = (int) entry.getSize();
-                byte[] data = new byte[size];
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
                 InputStream in = zip.getInputStream(entry);
                 int len;
-                int totlen = 0;
                 while ((len = in.read(BUFFER, 0, BUFFSIZE)) >= 0) {
-                    System.arraycopy(BUFFER, 0, data, totlen, len);
-                    totlen += len;
+                    data.write(BUFFER, 0, len);
                 }
-                this.data = new String(data);
+                this.data = new String(data.toByteArray(), UTF8);
             }
         }
         zip.close();
@@ -259,7 +267,7 @@ public class OutputFileNodeModel extends NodeModel {
                 new File(internDir, "loadeddata")));
         ZipEntry entry = new ZipEntry("rawdata.bin");
         out.putNextEntry(entry);
-        out.write(data.getBytes());
+        out.write(data.getBytes(UTF8));
         out.close();
     }
 
@@ -42,6 +42,7 @@ import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.util.FileUtil;
 
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
 import com.genericworkflownodes.util.MIMETypeHelper;
 
 /**
@@ -149,9 +150,9 @@ public class OutputFilesNodeModel extends NodeModel {
     protected PortObject[] execute(PortObject[] inObjects, ExecutionContext exec)
             throws Exception {
         IURIPortObject obj = (IURIPortObject) inObjects[0];
-        List<URIContent> uris = obj.getURIContents();
+        int numberOfURIs = CustomPortObjectUtils.getURIContentCount(obj);
 
-        if (uris.size() == 0) {
+        if (numberOfURIs == 0) {
             throw new Exception(
                     "There were no URIs in the supplied IURIPortObject");
         }
@@ -159,7 +160,7 @@ public class OutputFilesNodeModel extends NodeModel {
         List<File> outputs = new ArrayList<>();
         int idx = 1;
         int c = 0;
-        for (int i = 0; i < uris.size(); i++) {
+        for (int i = 0; i < numberOfURIs; i++) {
             String outfilename = insertIndex(m_filename.getStringValue(), obj
                     .getSpec().getFileExtensions().get(c), idx++);
             File out = FileUtil.getFileFromURL(FileUtil.toURL(outfilename));
@@ -180,7 +181,7 @@ public class OutputFilesNodeModel extends NodeModel {
         }
       
         idx = 0;
-        for (URIContent uri : uris) {
+        for (URIContent uri : CustomPortObjectUtils.iterateURIContents(obj)) {
             File in = FileUtil.getFileFromURL(uri.getURI().toURL());
             if (!in.canRead()) {
                 throw new Exception("Cannot read file to export: "
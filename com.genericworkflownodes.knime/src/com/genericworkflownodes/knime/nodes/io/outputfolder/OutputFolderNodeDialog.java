@@ -16,7 +16,9 @@ import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 
 import org.knime.core.node.InvalidSettingsException;
 import org.knime.core.node.NodeDialogPane;
@@ -46,6 +48,10 @@ public class OutputFolderNodeDialog extends NodeDialogPane {
     private final JPanel m_checkboxes;
     private final JCheckBox m_createIfNotExistsCb;
     private final JCheckBox m_overwrite;
+    private final JCheckBox m_incremental;
+    private final JCheckBox m_compareChecksums;
+    private final JPanel m_parallelPanel;
+    private final JSpinner m_parallelCopies;
 
     /**
      * New pane for configuring the OutputFolder node.
@@ -83,6 +89,18 @@ public class OutputFolderNodeDialog extends NodeDialogPane {
         });
         m_createIfNotExistsCb = new JCheckBox("Create folder if it does not exist");
         m_overwrite = new JCheckBox("Overwrite existing files");
+        m_incremental = new JCheckBox("Skip files that are already up to date");
+        m_compareChecksums = new JCheckBox("Compare checksums of existing files");
+        m_incremental.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                m_compareChecksums.setEnabled(m_incremental.isSelected());
+            }
+        });
+        m_parallelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        m_parallelCopies = new JSpinner(new SpinnerNumberModel(
+                OutputFolderNodeModel.DEFAULT_PARALLEL_COPIES, 1,
+                OutputFolderNodeModel.MAX_PARALLEL_COPIES, 1));
         setLayout();
         addComponents();
 
@@ -114,6 +132,11 @@ public class OutputFolderNodeDialog extends NodeDialogPane {
         
         m_checkboxes.add(m_createIfNotExistsCb);
         m_checkboxes.add(m_overwrite);
+        m_checkboxes.add(m_incremental);
+        m_checkboxes.add(m_compareChecksums);
+        m_parallelPanel.add(new JLabel("Parallel copies"));
+        m_parallelPanel.add(m_parallelCopies);
+        m_checkboxes.add(m_parallelPanel);
     }
 
     @Override
@@ -123,6 +146,9 @@ public class OutputFolderNodeDialog extends NodeDialogPane {
                 .getText().trim());
         settings.addBoolean(OutputFolderNodeModel.CFG_CREATE_FOLDER, m_createIfNotExistsCb.isSelected());
         settings.addBoolean(OutputFolderNodeModel.CFG_OVERWRITE, m_overwrite.isSelected());
+        settings.addBoolean(OutputFolderNodeModel.CFG_INCREMENTAL, m_incremental.isSelected());
+        settings.addBoolean(OutputFolderNodeModel.CFG_COMPARE_CHECKSUMS, m_compareChecksums.isSelected());
+        settings.addInt(OutputFolderNodeModel.CFG_PARALLEL_COPIES, (Integer) m_parallelCopies.getValue());
     }
 
     @Override
@@ -133,6 +159,11 @@ public class OutputFolderNodeDialog extends NodeDialogPane {
                 OutputFolderNodeModel.CFG_FOLDER_NAME, ""));
         m_createIfNotExistsCb.setSelected(settings.getBoolean(OutputFolderNodeModel.CFG_CREATE_FOLDER, false));
         m_overwrite.setSelected(settings.getBoolean(OutputFolderNodeModel.CFG_OVERWRITE, false));
+        m_incremental.setSelected(settings.getBoolean(OutputFolderNodeModel.CFG_INCREMENTAL, false));
+        m_compareChecksums.setSelected(settings.getBoolean(OutputFolderNodeModel.CFG_COMPARE_CHECKSUMS, false));
+        m_compareChecksums.setEnabled(m_incremental.isSelected());
+        m_parallelCopies.setValue(settings.getInt(OutputFolderNodeModel.CFG_PARALLEL_COPIES,
+                OutputFolderNodeModel.LEGACY_PARALLEL_COPIES));
     }
 
 }
@@ -5,8 +5,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.uri.IURIPortObject;
@@ -20,12 +28,19 @@ import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.node.port.PortObject;
 import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.util.FileUtil;
+import org.knime.core.util.ThreadUtils;
+
+import com.genericworkflownodes.knime.GenericNodesPlugin;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+import com.genericworkflownodes.util.FileFingerprintIndex;
+import com.genericworkflownodes.util.FileTransferUtils;
 
 /**
  * This is the model implementation of OutputFolder. Writes all the incoming
@@ -42,13 +57,44 @@ public class OutputFolderNodeModel extends NodeModel {
     static final String CFG_CREATE_FOLDER = "CREATE_IF_NOT_EXISTS";
     
     static final String CFG_OVERWRITE = "OVERWRITE";
-    
+
+    static final String CFG_PARALLEL_COPIES = "PARALLEL_COPIES";
+
+    static final String CFG_INCREMENTAL = "INCREMENTAL";
+
+    static final String CFG_COMPARE_CHECKSUMS = "COMPARE_CHECKSUMS";
+
+    static final int DEFAULT_PARALLEL_COPIES = 4;
+
+    /**
+     * Number of parallel copies of workflows saved before the setting existed,
+     * which copied sequentially.
+     */
+    static final int LEGACY_PARALLEL_COPIES = 1;
+
+    static final int MAX_PARALLEL_COPIES = 64;
+
+    /**
+     * Interval (in ms) in which the progress is updated while waiting for the
+     * copy workers.
+     */
+    private static final long PROGRESS_INTERVAL = 500;
+
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
     SettingsModelString m_foldername = new SettingsModelString(
             OutputFolderNodeModel.CFG_FOLDER_NAME, DEFAULT_FOLDER_NAME_VALUE);
 
     SettingsModelBoolean m_createIfNotExists = new SettingsModelBoolean(CFG_CREATE_FOLDER, false);
     
     SettingsModelBoolean m_overwrite = new SettingsModelBoolean(CFG_OVERWRITE, false);
+
+    SettingsModelIntegerBounded m_parallelCopies = new SettingsModelIntegerBounded(
+            CFG_PARALLEL_COPIES, DEFAULT_PARALLEL_COPIES, 1, MAX_PARALLEL_COPIES);
+
+    SettingsModelBoolean m_incremental = new SettingsModelBoolean(CFG_INCREMENTAL, false);
+
+    SettingsModelBoolean m_compareChecksums = new SettingsModelBoolean(CFG_COMPARE_CHECKSUMS, false);
     
     /**
      * Constructor for the node model.
@@ -66,9 +112,8 @@ public class OutputFolderNodeModel extends NodeModel {
             final ExecutionContext exec) throws Exception {
 
         IURIPortObject obj = (IURIPortObject) inObjects[0];
-        List<URIContent> uris = obj.getURIContents();
 
-        if (uris.size() == 0) {
+        if (CustomPortObjectUtils.getURIContentCount(obj) == 0) {
             throw new Exception(
                     "There were no URIs in the supplied URIPortObject");
         }
@@ -90,9 +135,10 @@ public class OutputFolderNodeModel extends NodeModel {
         }
         
         HashMap<String,Integer> basename_nr = new HashMap<String,Integer>();
+        ArrayList<File> sources = new ArrayList<File>();
         ArrayList<File> targets = new ArrayList<File>();
         // Check all files here first
-        for (URIContent uri : uris) {
+        for (URIContent uri : CustomPortObjectUtils.iterateURIContents(obj)) {
             File in = FileUtil.getFileFromURL(uri.getURI().toURL());
             Integer count = basename_nr.get(in.getName());
             File target;
@@ -111,30 +157,131 @@ public class OutputFolderNodeModel extends NodeModel {
             basename_nr.put(in.getName(), count);
             
             checkBeforeCopy(in, target);
+            sources.add(in);
             targets.add(target);
         }
         
         // Now actually copy all the files
-        double idx = 1.0;
-        int i = 0;
-        for (URIContent uri : uris) {
-            File in = FileUtil.getFileFromURL(uri.getURI().toURL());
-            File target = targets.get(i);
-            FileUtils.copyFile(in, target);
-            exec.setProgress(idx / uris.size());
-            exec.checkCanceled();
-            i++;
-        }
+        copyFiles(sources, targets, exec);
         return null;
     }
 
+    /**
+     * Copies the given files with a bounded number of parallel workers and
+     * reports the progress and throughput to the execution context.
+     */
+    private void copyFiles(final List<File> sources, final List<File> targets,
+            final ExecutionContext exec) throws Exception {
+        final int numFiles = sources.size();
+        final AtomicInteger processedFiles = new AtomicInteger();
+        final AtomicInteger skippedFiles = new AtomicInteger();
+        final AtomicLong copiedBytes = new AtomicLong();
+
+        int numWorkers = Math.min(m_parallelCopies.getIntValue(), numFiles);
+        ExecutorService workers = Executors.newFixedThreadPool(numWorkers);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(numFiles);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < numFiles; ++i) {
+                final File in = sources.get(i);
+                final File target = targets.get(i);
+                futures.add(workers.submit(ThreadUtils
+                        .callableWithContext(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                if (copyFile(in, target)) {
+                                    copiedBytes.addAndGet(in.length());
+                                } else {
+                                    skippedFiles.incrementAndGet();
+                                }
+                                processedFiles.incrementAndGet();
+                                return null;
+                            }
+                        })));
+            }
+
+            for (Future<Void> future : futures) {
+                while (true) {
+                    try {
+                        future.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        exec.checkCanceled();
+                        reportProgress(exec, processedFiles.get(), numFiles,
+                                skippedFiles.get(), copiedBytes.get(), start);
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
+                    }
+                }
+                exec.checkCanceled();
+                reportProgress(exec, processedFiles.get(), numFiles,
+                        skippedFiles.get(), copiedBytes.get(), start);
+            }
+        } finally {
+            // stops pending copies on cancellation or failure
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Copies a single file to its target, skipping it if the target is
+     * already up to date and the incremental mode is enabled.
+     * 
+     * @return <code>true</code> if the file was copied, <code>false</code> if
+     *         it was skipped.
+     */
+    private boolean copyFile(final File in, final File target)
+            throws IOException {
+        if (m_incremental.getBooleanValue()
+                && FileTransferUtils.isUpToDate(in.toPath(), target.toPath(), false)
+                && (!m_compareChecksums.getBooleanValue() || haveSameFingerprint(in, target))) {
+            return false;
+        }
+        if (target.exists() && !m_overwrite.getBooleanValue()) {
+            throw new IOException("File " + target.getAbsolutePath() + " exists and cannot be overwritten.");
+        }
+        FileTransferUtils.copyAtomically(in.toPath(), target.toPath());
+        return true;
+    }
+
+    /**
+     * Compares the fingerprints of both files, which are cached in the shared
+     * index so that unchanged files are not read again on the next export. If
+     * the plug-in is not active, e.g., in headless or unit test runs, the
+     * files are hashed directly.
+     */
+    private static boolean haveSameFingerprint(final File in, final File target)
+            throws IOException {
+        GenericNodesPlugin plugin = GenericNodesPlugin.getDefault();
+        if (plugin == null) {
+            return FileFingerprintIndex.hash(in.toPath()) == FileFingerprintIndex
+                    .hash(target.toPath());
+        }
+        FileFingerprintIndex index = plugin.getFingerprintIndex();
+        return index.fingerprint(in.toPath()) == index.fingerprint(target.toPath());
+    }
+
+    private static void reportProgress(final ExecutionContext exec,
+            final int processed, final int total, final int skipped,
+            final long bytes, final long start) {
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+        exec.setProgress((double) processed / total, String.format(
+                "Exported %d of %d files (%d up to date), %.1f MB/s",
+                processed, total, skipped, bytes / BYTES_PER_MB / seconds));
+    }
+
     private void checkBeforeCopy(final File src, final File dest) throws IOException {
         if (!src.canRead()) {
             throw new IOException("Cannot read file to export: "
                     + src.getAbsolutePath());
         }
         if (dest.exists()) {
-            if (!m_overwrite.getBooleanValue()) {
+            // in incremental mode identical files are skipped, so we can only
+            // decide while copying
+            if (!m_overwrite.getBooleanValue() && !m_incremental.getBooleanValue()) {
                 throw new IOException("File " + dest.getAbsolutePath() + " exists and cannot be overwritten.");
             } else if (!dest.canWrite()) {                
                 throw new IOException("Cannot write to file: " + dest.getAbsolutePath());
@@ -176,6 +323,9 @@ public class OutputFolderNodeModel extends NodeModel {
         m_foldername.saveSettingsTo(settings);
         m_createIfNotExists.saveSettingsTo(settings);
         m_overwrite.saveSettingsTo(settings);
+        m_parallelCopies.saveSettingsTo(settings);
+        m_incremental.saveSettingsTo(settings);
+        m_compareChecksums.saveSettingsTo(settings);
     }
 
     /**
@@ -191,6 +341,17 @@ public class OutputFolderNodeModel extends NodeModel {
         if (settings.containsKey(CFG_OVERWRITE)) {
             m_overwrite.loadSettingsFrom(settings);
         }
+        if (settings.containsKey(CFG_PARALLEL_COPIES)) {
+            m_parallelCopies.loadSettingsFrom(settings);
+        } else {
+            m_parallelCopies.setIntValue(LEGACY_PARALLEL_COPIES);
+        }
+        if (settings.containsKey(CFG_INCREMENTAL)) {
+            m_incremental.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(CFG_COMPARE_CHECKSUMS)) {
+            m_compareChecksums.loadSettingsFrom(settings);
+        }
     }
 
     /**
@@ -206,6 +367,15 @@ public class OutputFolderNodeModel extends NodeModel {
         if (settings.containsKey(CFG_OVERWRITE)) {
             m_overwrite.validateSettings(settings);
         }
+        if (settings.containsKey(CFG_PARALLEL_COPIES)) {
+            m_parallelCopies.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_INCREMENTAL)) {
+            m_incremental.validateSettings(settings);
+        }
+        if (settings.containsKey(CFG_COMPARE_CHECKSUMS)) {
+            m_compareChecksums.validateSettings(settings);
+        }
     }
 
     /**
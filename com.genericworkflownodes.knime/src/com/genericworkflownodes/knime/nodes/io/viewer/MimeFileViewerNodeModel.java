@@ -19,10 +19,12 @@
 
 package com.genericworkflownodes.knime.nodes.io.viewer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -43,7 +45,8 @@ import org.knime.core.node.port.PortType;
 import org.knime.core.node.port.PortTypeRegistry;
 import org.knime.core.util.FileUtil;
 
-import com.genericworkflownodes.util.Helper;
+import com.genericworkflownodes.knime.base.data.port.CustomPortObjectUtils;
+import com.genericworkflownodes.util.FilePreview;
 
 /**
  * This is the model implementation of MimeFileViewer.
@@ -55,6 +58,8 @@ public class MimeFileViewerNodeModel extends NodeModel {
 
     private static final int BUFFER_SIZE = 2048;
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
     /** 
      * 
      */
@@ -137,16 +142,13 @@ public class MimeFileViewerNodeModel extends NodeModel {
             ZipEntry entry = entries.nextElement();
 
             if (entry.getName().equals("rawdata.bin")) {
-                int size = (int) entry.getSize();
-                byte[] data = new byte[size];
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
                 InputStream in = zip.getInputStream(entry);
                 int len;
-                int totlen = 0;
                 while ((len = in.read(BUFFER, 0, BUFFER_SIZE)) >= 0) {
-                    System.arraycopy(BUFFER, 0, data, totlen, len);
-                    totlen += len;
+                    data.write(BUFFER, 0, len);
                 }
-                m_data = new String(data);
+                m_data = new String(data.toByteArray(), UTF8);
             }
         }
         zip.close();
@@ -163,7 +165,7 @@ public class MimeFileViewerNodeModel extends NodeModel {
                 new File(internDir, "loadeddata")));
         ZipEntry entry = new ZipEntry("rawdata.bin");
         out.putNextEntry(entry);
-        out.write(m_data.getBytes());
+        out.write(m_data.getBytes(UTF8));
         out.close();
     }
 
@@ -177,10 +179,12 @@ public class MimeFileViewerNodeModel extends NodeModel {
     protected PortObject[] execute(PortObject[] inObjects, ExecutionContext exec)
             throws IOException {
         IURIPortObject po = (IURIPortObject) inObjects[0];
-        File file = FileUtil.getFileFromURL(po.getURIContents().get(0).getURI().toURL());
+        File file = FileUtil.getFileFromURL(CustomPortObjectUtils
+                .getURIContent(po, 0).getURI().toURL());
 
         int maxLines = max_num_lines.getIntValue();
-        m_data = Helper.readFileSummary(file, maxLines);
+        m_data = FilePreview.read(file, FilePreview.DEFAULT_MAX_BYTES)
+                .getSummary(file, maxLines);
 
         return new PortObject[] {};
     }
@@ -37,6 +37,11 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
      * Preferences key for the debug mode flag.
      */
     public static final String PREF_DEBUG_MODE = "knime.gkn.debug";
+
+    /**
+     * Preferences key for the deduplication of tool outputs.
+     */
+    public static final String PREF_DEDUPLICATE_OUTPUTS = "knime.gkn.deduplicateOutputs";
     
     /**
      * Preferences key for the Docker-Machine installation directory.
@@ -61,6 +66,7 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 
         // set default values
         store.setDefault(PREF_DEBUG_MODE, GenericNodesPlugin.isDebug());
+        store.setDefault(PREF_DEDUPLICATE_OUTPUTS, false);
         store.setDefault(DOCKER_MACHINE_USAGE, GenericNodesPlugin.isDebug());
         
         store.setDefault(DOCKER_MACHINE_INSTALLATION_DIRECTORY,
@@ -41,6 +41,11 @@ public class PreferencePage extends FieldEditorPreferencePage implements
      */
     private BooleanFieldEditor debugModeFieldEditor;
 
+    /**
+     * Output deduplication UI element.
+     */
+    private BooleanFieldEditor deduplicationFieldEditor;
+
     /**
      * Default c'tor.
      */
@@ -61,6 +66,10 @@ public class PreferencePage extends FieldEditorPreferencePage implements
         debugModeFieldEditor = new BooleanFieldEditor(
                 PreferenceInitializer.PREF_DEBUG_MODE, "Debug mode", parent);
         addField(debugModeFieldEditor);
+        deduplicationFieldEditor = new BooleanFieldEditor(
+                PreferenceInitializer.PREF_DEDUPLICATE_OUTPUTS,
+                "Store identical tool outputs only once (hard links, outputs must not be modified in place)", parent);
+        addField(deduplicationFieldEditor);
     }
 
     @Override
@@ -74,6 +83,9 @@ public class PreferencePage extends FieldEditorPreferencePage implements
         boolean flag = debugModeFieldEditor.getBooleanValue();
         store.setValue(PreferenceInitializer.PREF_DEBUG_MODE, flag);
         GenericNodesPlugin.setDebug(flag);
+        boolean deduplicate = deduplicationFieldEditor.getBooleanValue();
+        store.setValue(PreferenceInitializer.PREF_DEDUPLICATE_OUTPUTS, deduplicate);
+        GenericNodesPlugin.setOutputDeduplication(deduplicate);
         return true;
     }
 